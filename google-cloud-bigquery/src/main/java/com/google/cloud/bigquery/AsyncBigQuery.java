@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.bigquery;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link BigQuery} service that can also get and delete tables without blocking the caller. The
+ * service returned by {@link BigQueryOptions#getService()} implements this interface.
+ */
+public interface AsyncBigQuery extends BigQuery {
+
+  /**
+   * Sends a delete request for the requested table without blocking the caller. The request and
+   * its retries run on a shared executor.
+   *
+   * @return a future that yields {@code true} if the table was deleted, {@code false} if it was
+   *     not found, and fails with a {@link BigQueryException} upon failure
+   */
+  ListenableFuture<Boolean> deleteAsync(TableId tableId);
+
+  /**
+   * Sends a request for the requested table without blocking the caller. The request and its
+   * retries run on a shared executor.
+   *
+   * <p>Example of getting a table asynchronously.
+   * <pre> {@code
+   * String datasetName = "my_dataset_name";
+   * String tableName = "my_table_name";
+   * ListenableFuture<Table> future = bigquery.getTableAsync(TableId.of(datasetName, tableName));
+   * // do other work
+   * Table table = future.get();
+   * }</pre>
+   *
+   * @return a future that yields the table, or {@code null} if it was not found, and fails with a
+   *     {@link BigQueryException} upon failure
+   */
+  ListenableFuture<Table> getTableAsync(TableId tableId, TableOption... options);
+}
@@ -17,6 +17,7 @@
 package com.google.cloud.bigquery;
 
 import static com.google.cloud.RetryHelper.runWithRetries;
+import static com.google.cloud.RetryHelper.runWithRetriesAsync;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.api.services.bigquery.model.GetQueryResultsResponse;
@@ -27,6 +28,7 @@ import com.google.cloud.BaseService;
 import com.google.cloud.Page;
 import com.google.cloud.PageImpl;
 import com.google.cloud.PageImpl.NextPageFetcher;
+import com.google.cloud.ResponseCache;
 import com.google.cloud.RetryHelper;
 import com.google.cloud.bigquery.InsertAllRequest.RowToInsert;
 import com.google.cloud.bigquery.spi.BigQueryRpc;
@@ -36,12 +38,24 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
-final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuery {
+final class BigQueryImpl extends BaseService<BigQueryOptions> implements AsyncBigQuery {
+
+  private static final Function<RetryHelper.RetryHelperException, RuntimeException>
+      EXCEPTION_TRANSLATOR = new Function<RetryHelper.RetryHelperException, RuntimeException>() {
+        @Override
+        public RuntimeException apply(RetryHelper.RetryHelperException exception) {
+          return BigQueryException.translateAndThrow(exception);
+        }
+      };
 
   private static class DatasetPageFetcher implements NextPageFetcher<Dataset> {
 
@@ -199,6 +213,8 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
           }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(datasetResource(DatasetId.fromPb(datasetPb.getDatasetReference())));
     }
   }
 
@@ -217,6 +233,8 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
           }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(tableResource(TableId.fromPb(tablePb.getTableReference())));
     }
   }
 
@@ -248,14 +266,22 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
     final DatasetId completeDatasetId = datasetId.setProjectId(getOptions().getProjectId());
     final Map<BigQueryRpc.Option, ?> optionsMap = optionMap(options);
     try {
-      com.google.api.services.bigquery.model.Dataset answer =
-          runWithRetries(new Callable<com.google.api.services.bigquery.model.Dataset>() {
+      com.google.api.services.bigquery.model.Dataset answer = cachedRead(
+          datasetResource(completeDatasetId), optionsMap,
+          new ResponseCache.Loader<com.google.api.services.bigquery.model.Dataset>() {
             @Override
-            public com.google.api.services.bigquery.model.Dataset call() {
-              return bigQueryRpc.getDataset(
-                  completeDatasetId.getProject(), completeDatasetId.getDataset(), optionsMap);
+            public com.google.api.services.bigquery.model.Dataset load(
+                com.google.api.services.bigquery.model.Dataset expired) {
+              return runWithRetries(
+                  new Callable<com.google.api.services.bigquery.model.Dataset>() {
+                    @Override
+                    public com.google.api.services.bigquery.model.Dataset call() {
+                      return bigQueryRpc.getDataset(completeDatasetId.getProject(),
+                          completeDatasetId.getDataset(), optionsMap);
+                    }
+                  }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
             }
-          }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
+          });
       return answer == null ? null : Dataset.fromPb(this, answer);
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
@@ -317,6 +343,8 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(datasetResource(completeDatasetId));
     }
   }
 
@@ -338,9 +366,31 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(tableResource(completeTableId));
     }
   }
 
+  @Override
+  public ListenableFuture<Boolean> deleteAsync(TableId tableId) {
+    final TableId completeTableId = tableId.setProjectId(getOptions().getProjectId());
+    ListenableFuture<Boolean> future = runWithRetriesAsync(new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        return bigQueryRpc.deleteTable(completeTableId.getProject(), completeTableId.getDataset(),
+            completeTableId.getTable());
+      }
+    }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+        getOptions().getClock());
+    future.addListener(new Runnable() {
+      @Override
+      public void run() {
+        invalidateCachedReads(tableResource(completeTableId));
+      }
+    }, MoreExecutors.directExecutor());
+    return translateFailure(future, EXCEPTION_TRANSLATOR);
+  }
+
   @Override
   public Dataset update(DatasetInfo datasetInfo, DatasetOption... options) {
     final com.google.api.services.bigquery.model.Dataset datasetPb =
@@ -356,6 +406,8 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
           }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(datasetResource(DatasetId.fromPb(datasetPb.getDatasetReference())));
     }
   }
 
@@ -374,6 +426,8 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
           }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(tableResource(TableId.fromPb(tablePb.getTableReference())));
     }
   }
 
@@ -387,20 +441,57 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
     final TableId completeTableId = tableId.setProjectId(getOptions().getProjectId());
     final Map<BigQueryRpc.Option, ?> optionsMap = optionMap(options);
     try {
-      com.google.api.services.bigquery.model.Table answer =
-          runWithRetries(new Callable<com.google.api.services.bigquery.model.Table>() {
+      com.google.api.services.bigquery.model.Table answer = cachedRead(
+          tableResource(completeTableId), optionsMap,
+          new ResponseCache.Loader<com.google.api.services.bigquery.model.Table>() {
             @Override
-            public com.google.api.services.bigquery.model.Table call() {
-              return bigQueryRpc.getTable(completeTableId.getProject(),
-                  completeTableId.getDataset(), completeTableId.getTable(), optionsMap);
+            public com.google.api.services.bigquery.model.Table load(
+                com.google.api.services.bigquery.model.Table expired) {
+              return runWithRetries(new Callable<com.google.api.services.bigquery.model.Table>() {
+                @Override
+                public com.google.api.services.bigquery.model.Table call() {
+                  return bigQueryRpc.getTable(completeTableId.getProject(),
+                      completeTableId.getDataset(), completeTableId.getTable(), optionsMap);
+                }
+              }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
             }
-          }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
+          });
       return answer == null ? null : Table.fromPb(this, answer);
     } catch (RetryHelper.RetryHelperException e) {
       throw BigQueryException.translateAndThrow(e);
     }
   }
 
+  @Override
+  public ListenableFuture<Table> getTableAsync(TableId tableId, TableOption... options) {
+    final TableId completeTableId = tableId.setProjectId(getOptions().getProjectId());
+    final Map<BigQueryRpc.Option, ?> optionsMap = optionMap(options);
+    ListenableFuture<com.google.api.services.bigquery.model.Table> future = cachedReadAsync(
+        tableResource(completeTableId), optionsMap,
+        new ResponseCache.AsyncLoader<com.google.api.services.bigquery.model.Table>() {
+          @Override
+          public ListenableFuture<com.google.api.services.bigquery.model.Table> load(
+              com.google.api.services.bigquery.model.Table expired) {
+            return runWithRetriesAsync(
+                new Callable<com.google.api.services.bigquery.model.Table>() {
+                  @Override
+                  public com.google.api.services.bigquery.model.Table call() {
+                    return bigQueryRpc.getTable(completeTableId.getProject(),
+                        completeTableId.getDataset(), completeTableId.getTable(), optionsMap);
+                  }
+                }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(),
+                getAsyncExecutor(), getOptions().getClock());
+          }
+        });
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<com.google.api.services.bigquery.model.Table, Table>() {
+          @Override
+          public Table apply(com.google.api.services.bigquery.model.Table table) {
+            return table == null ? null : Table.fromPb(BigQueryImpl.this, table);
+          }
+        });
+  }
+
   @Override
   public Page<Table> listTables(String datasetId, TableListOption... options) {
     return listTables(
@@ -455,9 +546,13 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
       }
     });
     requestPb.setRows(rowsPb);
-    return InsertAllResponse.fromPb(
-        bigQueryRpc.insertAll(tableId.getProject(), tableId.getDataset(), tableId.getTable(),
-            requestPb));
+    try {
+      return InsertAllResponse.fromPb(
+          bigQueryRpc.insertAll(tableId.getProject(), tableId.getDataset(), tableId.getTable(),
+              requestPb));
+    } finally {
+      invalidateCachedReads(tableResource(tableId));
+    }
   }
 
   @Override
@@ -675,6 +770,21 @@ final class BigQueryImpl extends BaseService<BigQueryOptions> implements BigQuer
         writeChannelConfiguration.setProjectId(getOptions().getProjectId()));
   }
 
+  /**
+   * Returns the key of a dataset in the response cache, see {@link ResponseCache}.
+   */
+  private static Object datasetResource(DatasetId datasetId) {
+    return Arrays.asList("bigquery#dataset", datasetId.getProject(), datasetId.getDataset());
+  }
+
+  /**
+   * Returns the key of a table in the response cache, see {@link ResponseCache}.
+   */
+  private static Object tableResource(TableId tableId) {
+    return Arrays.asList("bigquery#table", tableId.getProject(), tableId.getDataset(),
+        tableId.getTable());
+  }
+
   private Map<BigQueryRpc.Option, ?> optionMap(Option... options) {
     Map<BigQueryRpc.Option, Object> optionMap = Maps.newEnumMap(BigQueryRpc.Option.class);
     for (Option option : options) {
@@ -48,14 +48,25 @@ public class TableDataWriteChannel extends
   }
 
   @Override
-  protected void flushBuffer(final int length, final boolean last) {
+  protected void flushBuffer(int length, boolean last) {
+    flushBuffer(getBuffer(), getPosition(), length, last);
+  }
+
+  @Override
+  protected boolean isPipeliningSupported() {
+    return true;
+  }
+
+  @Override
+  protected void flushBuffer(final byte[] buffer, final long position, final int length,
+      final boolean last) {
     try {
       com.google.api.services.bigquery.model.Job jobPb = runWithRetries(
           new Callable<com.google.api.services.bigquery.model.Job>() {
             @Override
             public com.google.api.services.bigquery.model.Job call() {
               return getOptions().getRpc().write(
-                  getUploadId(), getBuffer(), 0, getPosition(), length, last);
+                  getUploadId(), buffer, 0, position, length, last);
             }
       }, getOptions().getRetryParams(), BigQueryImpl.EXCEPTION_HANDLER, getOptions().getClock());
       job = jobPb != null ? Job.fromPb(getOptions().getService(), jobPb) : null;
@@ -25,6 +25,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.api.services.bigquery.model.ErrorProto;
 import com.google.api.services.bigquery.model.GetQueryResultsResponse;
@@ -33,6 +34,7 @@ import com.google.api.services.bigquery.model.TableDataInsertAllRequest;
 import com.google.api.services.bigquery.model.TableDataInsertAllResponse;
 import com.google.api.services.bigquery.model.TableRow;
 import com.google.cloud.Page;
+import com.google.cloud.ResponseCache;
 import com.google.cloud.RetryParams;
 import com.google.cloud.WriteChannel;
 import com.google.cloud.bigquery.InsertAllRequest.RowToInsert;
@@ -56,6 +58,7 @@ import org.junit.rules.ExpectedException;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class BigQueryImplTest {
 
@@ -546,6 +549,49 @@ public class BigQueryImplTest {
     assertEquals(new Table(bigquery, new TableInfo.BuilderImpl(TABLE_INFO_WITH_PROJECT)), table);
   }
 
+  @Test
+  public void testGetTableAsync() throws Exception {
+    EasyMock.expect(bigqueryRpcMock.getTable(PROJECT, DATASET, TABLE, EMPTY_RPC_OPTIONS))
+        .andReturn(TABLE_INFO_WITH_PROJECT.toPb());
+    EasyMock.replay(bigqueryRpcMock);
+    bigquery = options.getService();
+    Table table = ((AsyncBigQuery) bigquery).getTableAsync(TABLE_ID).get();
+    assertEquals(new Table(bigquery, new TableInfo.BuilderImpl(TABLE_INFO_WITH_PROJECT)), table);
+  }
+
+  @Test
+  public void testGetTableAsyncCached() throws Exception {
+    EasyMock.expect(bigqueryRpcMock.getTable(PROJECT, DATASET, TABLE, EMPTY_RPC_OPTIONS))
+        .andReturn(TABLE_INFO_WITH_PROJECT.toPb());
+    EasyMock.replay(bigqueryRpcMock);
+    bigquery = options.toBuilder()
+        .setResponseCache(ResponseCache.create(10, 1000))
+        .build()
+        .getService();
+    Table table = ((AsyncBigQuery) bigquery).getTableAsync(TABLE_ID).get();
+    assertEquals(new Table(bigquery, new TableInfo.BuilderImpl(TABLE_INFO_WITH_PROJECT)), table);
+    assertEquals(table, ((AsyncBigQuery) bigquery).getTableAsync(TABLE_ID).get());
+    assertEquals(table, bigquery.getTable(TABLE_ID));
+  }
+
+  @Test
+  public void testGetTableAsyncFailure() throws Exception {
+    String exceptionMessage = "Not Implemented";
+    EasyMock.expect(bigqueryRpcMock.getTable(PROJECT, DATASET, TABLE, EMPTY_RPC_OPTIONS))
+        .andThrow(new BigQueryException(501, exceptionMessage));
+    EasyMock.replay(bigqueryRpcMock);
+    bigquery =
+        options.toBuilder().setRetryParams(RetryParams.getDefaultInstance()).build().getService();
+    try {
+      ((AsyncBigQuery) bigquery).getTableAsync(TABLE_ID).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof BigQueryException);
+      assertEquals(501, ((BigQueryException) ex.getCause()).getCode());
+      assertEquals(exceptionMessage, ex.getCause().getMessage());
+    }
+  }
+
   @Test
   public void testGetTableFromTableId() {
     EasyMock.expect(bigqueryRpcMock.getTable(PROJECT, DATASET, TABLE, EMPTY_RPC_OPTIONS))
@@ -664,6 +710,14 @@ public class BigQueryImplTest {
     assertTrue(bigquery.delete(TABLE_ID));
   }
 
+  @Test
+  public void testDeleteTableAsync() throws Exception {
+    EasyMock.expect(bigqueryRpcMock.deleteTable(PROJECT, DATASET, TABLE)).andReturn(true);
+    EasyMock.replay(bigqueryRpcMock);
+    bigquery = options.getService();
+    assertTrue(((AsyncBigQuery) bigquery).deleteAsync(TABLE_ID).get());
+  }
+
   @Test
   public void testDeleteTableFromTableIdWithProject() {
     TableId tableId = TABLE_ID.setProjectId(OTHER_PROJECT);
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.compute;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link Compute} service that can also get and delete instances without blocking the caller.
+ * The service returned by {@link ComputeOptions#getService()} implements this interface.
+ */
+public interface AsyncCompute extends Compute {
+
+  /**
+   * Sends a request for the requested instance without blocking the caller. The request and its
+   * retries run on a shared executor.
+   *
+   * @return a future that yields the instance, or {@code null} if it was not found, and fails with
+   *     a {@link ComputeException} upon failure
+   */
+  ListenableFuture<Instance> getInstanceAsync(InstanceId instance, InstanceOption... options);
+
+  /**
+   * Sends a request deleting the requested instance without blocking the caller. The request and
+   * its retries run on a shared executor.
+   *
+   * @return a future that yields a zone operation if the delete request was issued correctly,
+   *     {@code null} if the instance was not found, and fails with a {@link ComputeException} upon
+   *     failure
+   */
+  ListenableFuture<Operation> deleteInstanceAsync(InstanceId instance, OperationOption... options);
+}
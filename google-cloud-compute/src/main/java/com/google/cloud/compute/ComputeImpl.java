@@ -17,6 +17,7 @@
 package com.google.cloud.compute;
 
 import static com.google.cloud.RetryHelper.runWithRetries;
+import static com.google.cloud.RetryHelper.runWithRetriesAsync;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.cloud.BaseService;
@@ -31,11 +32,21 @@ import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.Map;
 import java.util.concurrent.Callable;
 
-final class ComputeImpl extends BaseService<ComputeOptions> implements Compute {
+final class ComputeImpl extends BaseService<ComputeOptions> implements AsyncCompute {
+
+  private static final Function<RetryHelper.RetryHelperException, RuntimeException>
+      EXCEPTION_TRANSLATOR = new Function<RetryHelper.RetryHelperException, RuntimeException>() {
+        @Override
+        public RuntimeException apply(RetryHelper.RetryHelperException exception) {
+          return ComputeException.translateAndThrow(exception);
+        }
+      };
 
   private static class GlobalOperationPageFetcher implements NextPageFetcher<Operation> {
 
@@ -1813,6 +1824,27 @@ final class ComputeImpl extends BaseService<ComputeOptions> implements Compute {
     }
   }
 
+  @Override
+  public ListenableFuture<Instance> getInstanceAsync(final InstanceId instance,
+      InstanceOption... options) {
+    final Map<ComputeRpc.Option, ?> optionsMap = optionMap(options);
+    ListenableFuture<com.google.api.services.compute.model.Instance> future = runWithRetriesAsync(
+        new Callable<com.google.api.services.compute.model.Instance>() {
+          @Override
+          public com.google.api.services.compute.model.Instance call() {
+            return computeRpc.getInstance(instance.getZone(), instance.getInstance(), optionsMap);
+          }
+        }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+        getOptions().getClock());
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<com.google.api.services.compute.model.Instance, Instance>() {
+          @Override
+          public Instance apply(com.google.api.services.compute.model.Instance answer) {
+            return answer == null ? null : Instance.fromPb(ComputeImpl.this, answer);
+          }
+        });
+  }
+
   private static Function<com.google.api.services.compute.model.Instance, Instance>
       instanceFromPb(final ComputeOptions serviceOptions) {
     return new Function<com.google.api.services.compute.model.Instance, Instance>() {
@@ -1897,6 +1929,28 @@ final class ComputeImpl extends BaseService<ComputeOptions> implements Compute {
     }
   }
 
+  @Override
+  public ListenableFuture<Operation> deleteInstanceAsync(final InstanceId instance,
+      OperationOption... options) {
+    final Map<ComputeRpc.Option, ?> optionsMap = optionMap(options);
+    ListenableFuture<com.google.api.services.compute.model.Operation> future = runWithRetriesAsync(
+        new Callable<com.google.api.services.compute.model.Operation>() {
+          @Override
+          public com.google.api.services.compute.model.Operation call() {
+            return computeRpc.deleteInstance(instance.getZone(), instance.getInstance(),
+                optionsMap);
+          }
+        }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+        getOptions().getClock());
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<com.google.api.services.compute.model.Operation, Operation>() {
+          @Override
+          public Operation apply(com.google.api.services.compute.model.Operation answer) {
+            return answer == null ? null : Operation.fromPb(ComputeImpl.this, answer);
+          }
+        });
+  }
+
   @Override
   public Operation addAccessConfig(final InstanceId instance, final String networkInterface,
       final AccessConfig accessConfig, OperationOption... options) {
@@ -24,6 +24,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.cloud.Page;
 import com.google.cloud.RetryParams;
@@ -45,6 +46,7 @@ import org.junit.rules.ExpectedException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class ComputeImplTest {
 
@@ -3260,6 +3262,31 @@ public class ComputeImplTest {
     assertEquals(new Instance(compute, new InstanceInfo.BuilderImpl(INSTANCE)), instance);
   }
 
+  @Test
+  public void testGetInstanceAsync() throws Exception {
+    EasyMock.expect(computeRpcMock.getInstance(INSTANCE_ID.getZone(), INSTANCE_ID.getInstance(),
+        EMPTY_RPC_OPTIONS)).andReturn(INSTANCE.toPb());
+    EasyMock.replay(computeRpcMock);
+    compute = options.getService();
+    Instance instance = ((AsyncCompute) compute).getInstanceAsync(INSTANCE_ID).get();
+    assertEquals(new Instance(compute, new InstanceInfo.BuilderImpl(INSTANCE)), instance);
+  }
+
+  @Test
+  public void testGetInstanceAsyncFailure() throws Exception {
+    EasyMock.expect(computeRpcMock.getInstance(INSTANCE_ID.getZone(), INSTANCE_ID.getInstance(),
+        EMPTY_RPC_OPTIONS)).andThrow(new ComputeException(501, "Not Implemented"));
+    EasyMock.replay(computeRpcMock);
+    compute = options.getService();
+    try {
+      ((AsyncCompute) compute).getInstanceAsync(INSTANCE_ID).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof ComputeException);
+      assertEquals(501, ((ComputeException) ex.getCause()).getCode());
+    }
+  }
+
   @Test
   public void testGetInstance_Null() {
     EasyMock.expect(computeRpcMock.getInstance(INSTANCE_ID.getZone(), INSTANCE_ID.getInstance(),
@@ -3296,6 +3323,15 @@ public class ComputeImplTest {
     assertEquals(zoneOperation, compute.deleteInstance(INSTANCE_ID));
   }
 
+  @Test
+  public void testDeleteInstanceAsync() throws Exception {
+    EasyMock.expect(computeRpcMock.deleteInstance(INSTANCE_ID.getZone(), INSTANCE_ID.getInstance(),
+        EMPTY_RPC_OPTIONS)).andReturn(zoneOperation.toPb());
+    EasyMock.replay(computeRpcMock);
+    compute = options.getService();
+    assertEquals(zoneOperation, ((AsyncCompute) compute).deleteInstanceAsync(INSTANCE_ID).get());
+  }
+
   @Test
   public void testDeleteInstanceWithSelectedFields_Operation() {
     Capture<Map<ComputeRpc.Option, Object>> capturedOptions = Capture.newInstance();
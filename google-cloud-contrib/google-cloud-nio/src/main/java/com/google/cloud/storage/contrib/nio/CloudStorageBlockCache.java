@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.contrib.nio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounded in-memory cache of object content, shared by the read channels of a
+ * {@link CloudStorageFileSystem}. Content is cached in fixed-size blocks keyed by bucket, object,
+ * generation and block index, so a block never goes stale: a new generation of an object is a
+ * different key. Least recently used blocks are evicted once the cache exceeds its size.
+ */
+@ThreadSafe
+final class CloudStorageBlockCache {
+
+  private final int blockSize;
+  private final Cache<BlockKey, ByteBuffer> blocks;
+
+  CloudStorageBlockCache(long maxBytes, int blockSize) {
+    checkArgument(maxBytes > 0, "maxBytes must be > 0: %s", maxBytes);
+    checkArgument(blockSize > 0, "blockSize must be > 0: %s", blockSize);
+    this.blockSize = blockSize;
+    // A single segment keeps eviction in least recently used order across the whole cache
+    this.blocks = CacheBuilder.newBuilder()
+        .concurrencyLevel(1)
+        .maximumWeight(maxBytes)
+        .weigher(new Weigher<BlockKey, ByteBuffer>() {
+          @Override
+          public int weigh(BlockKey key, ByteBuffer block) {
+            return block.capacity();
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Returns the size, in bytes, of the cached blocks.
+   */
+  int blockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Returns a read-only view of block {@code index} of the given object generation, calling
+   * {@code loader} to fetch it if it isn't cached. Concurrent requests for the same block wait for
+   * a single load.
+   */
+  ByteBuffer get(String bucket, String name, long generation, long index,
+      Callable<ByteBuffer> loader) throws IOException {
+    try {
+      BlockKey key = BlockKey.create(bucket, name, generation, index);
+      return blocks.get(key, loader).asReadOnlyBuffer();
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Returns the number of bytes currently cached.
+   */
+  long size() {
+    long size = 0;
+    for (ByteBuffer block : blocks.asMap().values()) {
+      size += block.capacity();
+    }
+    return size;
+  }
+
+  /**
+   * Drops all cached blocks.
+   */
+  void invalidateAll() {
+    blocks.invalidateAll();
+  }
+
+  @AutoValue
+  abstract static class BlockKey {
+
+    static BlockKey create(String bucket, String name, long generation, long index) {
+      return new AutoValue_CloudStorageBlockCache_BlockKey(bucket, name, generation, index);
+    }
+
+    abstract String bucket();
+
+    abstract String name();
+
+    abstract long generation();
+
+    abstract long index();
+  }
+}
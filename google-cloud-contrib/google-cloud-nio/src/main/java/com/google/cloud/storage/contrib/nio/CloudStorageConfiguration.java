@@ -59,6 +59,18 @@ public abstract class CloudStorageConfiguration {
    */
   public abstract int blockSize();
 
+  /**
+   * Returns the maximum number of bytes of object content cached in memory by each
+   * {@link CloudStorageFileSystem}, or {@code 0} if reads are not cached.
+   */
+  public abstract long blockCacheSize();
+
+  /**
+   * Returns for how long, in milliseconds, object metadata is cached by each
+   * {@link CloudStorageFileSystem}, or {@code 0} if metadata is not cached.
+   */
+  public abstract long metadataCacheTtlMillis();
+
   /**
    * Creates a new builder, initialized with the following settings:
    *
@@ -66,6 +78,7 @@ public abstract class CloudStorageConfiguration {
    * <li>Performing I/O on paths with extra slashes, e.g. {@code a//b} will throw an error.
    * <li>The prefix slash on absolute paths will be removed when converting to an object name.
    * <li>Pseudo-directories are enabled, so any path with a trailing slash is a fake directory.
+   * <li>Object content and metadata are not cached.
    * </ul>
    */
   public static Builder builder() {
@@ -82,6 +95,8 @@ public abstract class CloudStorageConfiguration {
     private boolean stripPrefixSlash = true;
     private boolean usePseudoDirectories = true;
     private int blockSize = CloudStorageFileSystem.BLOCK_SIZE_DEFAULT;
+    private long blockCacheSize;
+    private long metadataCacheTtlMillis;
 
     /**
      * Changes current working directory for new filesystem. This defaults to the root directory.
@@ -134,6 +149,41 @@ public abstract class CloudStorageConfiguration {
       return this;
     }
 
+    /**
+     * Sets the maximum number of bytes of object content to cache in memory, for all channels
+     * opened on the file system. Content is cached in blocks of {@link #blockSize(int)} bytes, for
+     * a given generation of each object, and least recently used blocks are evicted first. This
+     * lets random-access readers, which often read the same headers, footers or index sections
+     * again, avoid fetching them from Cloud Storage more than once.
+     *
+     * <p>The default is {@code 0}, which disables caching.
+     *
+     * @throws IllegalArgumentException if {@code value} is negative
+     */
+    public Builder blockCacheSize(long value) {
+      checkArgument(value >= 0, "blockCacheSize must be >= 0: %s", value);
+      blockCacheSize = value;
+      return this;
+    }
+
+    /**
+     * Sets for how long, in milliseconds, to cache object metadata. Metadata is cached when it is
+     * fetched to open a file, read its attributes or check its existence, and for every object
+     * returned by {@link java.nio.file.Files#newDirectoryStream(java.nio.file.Path)}, so that
+     * files that were just listed can be opened and inspected without another request. Entries
+     * are dropped when the file is written or deleted through the file system, but changes made by
+     * other clients are only seen once the entry expires.
+     *
+     * <p>The default is {@code 0}, which disables caching.
+     *
+     * @throws IllegalArgumentException if {@code value} is negative
+     */
+    public Builder metadataCacheTtlMillis(long value) {
+      checkArgument(value >= 0, "metadataCacheTtlMillis must be >= 0: %s", value);
+      metadataCacheTtlMillis = value;
+      return this;
+    }
+
     /**
      * Creates new instance without destroying builder.
      */
@@ -143,7 +193,9 @@ public abstract class CloudStorageConfiguration {
           permitEmptyPathComponents,
           stripPrefixSlash,
           usePseudoDirectories,
-          blockSize);
+          blockSize,
+          blockCacheSize,
+          metadataCacheTtlMillis);
     }
 
     Builder() {}
@@ -168,6 +220,12 @@ public abstract class CloudStorageConfiguration {
         case "blockSize":
           builder.blockSize((Integer) entry.getValue());
           break;
+        case "blockCacheSize":
+          builder.blockCacheSize(((Number) entry.getValue()).longValue());
+          break;
+        case "metadataCacheTtlMillis":
+          builder.metadataCacheTtlMillis(((Number) entry.getValue()).longValue());
+          break;
         default:
           throw new IllegalArgumentException(entry.getKey());
       }
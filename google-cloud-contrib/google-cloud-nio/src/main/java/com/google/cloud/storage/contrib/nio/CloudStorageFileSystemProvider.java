@@ -21,6 +21,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import com.google.auto.service.AutoService;
+import com.google.cloud.Page;
+import com.google.cloud.PageImpl;
 import com.google.cloud.storage.Acl;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
@@ -95,18 +97,24 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
     private final Iterator<Blob> blobIterator;
     private final Filter<? super Path> filter;
     private final CloudStorageFileSystem fileSystem;
+    @Nullable private final CloudStorageMetadataCache metadataCache;
 
     LazyPathIterator(CloudStorageFileSystem fileSystem, Iterator<Blob> blobIterator,
                      Filter<? super Path> filter) {
       this.blobIterator = blobIterator;
       this.filter = filter;
       this.fileSystem = fileSystem;
+      this.metadataCache = fileSystem.metadataCache();
     }
 
     @Override
     protected Path computeNext() {
       while (blobIterator.hasNext()) {
-        Path path = fileSystem.getPath(blobIterator.next().getName());
+        Blob blob = blobIterator.next();
+        if (metadataCache != null) {
+          metadataCache.put(blob);
+        }
+        Path path = fileSystem.getPath(blob.getName());
         try {
           if (filter.accept(path)) {
             return path;
@@ -255,7 +263,13 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
     if (cloudPath.seemsLikeADirectoryAndUsePseudoDirectories()) {
       throw new CloudStoragePseudoDirectoryException(cloudPath);
     }
-    return CloudStorageReadChannel.create(storage, cloudPath.getBlobId(), 0);
+    BlobId file = cloudPath.getBlobId();
+    BlobInfo blobInfo = getBlobInfo(cloudPath);
+    if (blobInfo == null) {
+      throw new NoSuchFileException(String.format("gs://%s/%s", file.getBucket(), file.getName()));
+    }
+    return CloudStorageReadChannel.create(
+        storage, file, blobInfo, 0, cloudPath.getFileSystem().blockCache());
   }
 
   private SeekableByteChannel newWriteChannel(Path path, Set<? extends OpenOption> options)
@@ -323,10 +337,15 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
       infoBuilder.setAcl(acls);
     }
 
+    CloudStorageMetadataCache metadataCache = cloudPath.getFileSystem().metadataCache();
+    if (metadataCache != null) {
+      metadataCache.invalidate(file);
+    }
     try {
       return new CloudStorageWriteChannel(
           storage.writer(infoBuilder.build(),
-              writeOptions.toArray(new Storage.BlobWriteOption[writeOptions.size()])));
+              writeOptions.toArray(new Storage.BlobWriteOption[writeOptions.size()])),
+          metadataCache, file);
     } catch (StorageException oops) {
       throw asIoException(oops);
     }
@@ -353,7 +372,13 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
     if (cloudPath.seemsLikeADirectoryAndUsePseudoDirectories()) {
       throw new CloudStoragePseudoDirectoryException(cloudPath);
     }
-    return storage.delete(cloudPath.getBlobId());
+    // Also invalidated afterwards, as a concurrent read may cache the metadata again meanwhile
+    invalidate(cloudPath);
+    try {
+      return storage.delete(cloudPath.getBlobId());
+    } finally {
+      invalidate(cloudPath);
+    }
   }
 
   @Override
@@ -462,7 +487,7 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
 
     try {
       if (wantCopyAttributes) {
-        BlobInfo blobInfo = storage.get(fromPath.getBlobId());
+        BlobInfo blobInfo = getBlobInfo(fromPath);
         if (null == blobInfo) {
           throw new NoSuchFileException(fromPath.toString());
         }
@@ -490,8 +515,13 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
       } else {
         copyReqBuilder = copyReqBuilder.setTarget(tgtInfo, Storage.BlobTargetOption.doesNotExist());
       }
-      CopyWriter copyWriter = storage.copy(copyReqBuilder.build());
-      copyWriter.getResult();
+      invalidate(toPath);
+      try {
+        CopyWriter copyWriter = storage.copy(copyReqBuilder.build());
+        copyWriter.getResult();
+      } finally {
+        invalidate(toPath);
+      }
     } catch (StorageException oops) {
       throw asIoException(oops);
     }
@@ -528,6 +558,10 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
     if (cloudPath.seemsLikeADirectoryAndUsePseudoDirectories()) {
       return;
     }
+    CloudStorageMetadataCache metadataCache = cloudPath.getFileSystem().metadataCache();
+    if (metadataCache != null && metadataCache.get(cloudPath.getBlobId()) != null) {
+      return;
+    }
     if (storage.get(cloudPath.getBlobId(), Storage.BlobGetOption.fields(Storage.BlobField.ID))
         == null) {
       throw new NoSuchFileException(path.toString());
@@ -549,7 +583,7 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
       A result = (A) new CloudStoragePseudoDirectoryAttributes(cloudPath);
       return result;
     }
-    BlobInfo blobInfo = storage.get(cloudPath.getBlobId());
+    BlobInfo blobInfo = getBlobInfo(cloudPath);
     // null size indicate a file that we haven't closed yet, so GCS treats it as not there yet.
     if (null == blobInfo || blobInfo.getSize() == null) {
       throw new NoSuchFileException(
@@ -599,9 +633,16 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
     checkNotNull(filter);
     initStorage();
     String prefix = cloudPath.toString();
-    final Iterator<Blob> blobIterator = storage.list(cloudPath.bucket(),
-        Storage.BlobListOption.prefix(prefix), Storage.BlobListOption.currentDirectory(),
-        Storage.BlobListOption.fields()).iterateAll();
+    List<Storage.BlobListOption> listOptions = new ArrayList<>();
+    listOptions.add(Storage.BlobListOption.prefix(prefix));
+    listOptions.add(Storage.BlobListOption.currentDirectory());
+    if (cloudPath.getFileSystem().metadataCache() == null) {
+      // Full metadata is only listed when it is cached, to serve later attribute reads and opens
+      listOptions.add(Storage.BlobListOption.fields());
+    }
+    Page<Blob> page = storage.list(cloudPath.bucket(),
+        listOptions.toArray(new Storage.BlobListOption[listOptions.size()]));
+    final Iterator<Blob> blobIterator = PageImpl.iterateAllPrefetching(page);
     return new DirectoryStream<Path>() {
       @Override
       public Iterator<Path> iterator() {
@@ -649,6 +690,33 @@ public final class CloudStorageFileSystemProvider extends FileSystemProvider {
     return MoreObjects.toStringHelper(this).add("storage", storage).toString();
   }
 
+  /**
+   * Returns the metadata of the object at {@code path} from the file system's metadata cache, or
+   * fetches it (caching it if enabled). Returns {@code null} if the object does not exist.
+   */
+  @Nullable
+  private BlobInfo getBlobInfo(CloudStoragePath path) {
+    CloudStorageMetadataCache metadataCache = path.getFileSystem().metadataCache();
+    if (metadataCache != null) {
+      BlobInfo cached = metadataCache.get(path.getBlobId());
+      if (cached != null) {
+        return cached;
+      }
+    }
+    BlobInfo blobInfo = storage.get(path.getBlobId());
+    if (metadataCache != null && blobInfo != null) {
+      metadataCache.put(blobInfo);
+    }
+    return blobInfo;
+  }
+
+  private static void invalidate(CloudStoragePath path) {
+    CloudStorageMetadataCache metadataCache = path.getFileSystem().metadataCache();
+    if (metadataCache != null) {
+      metadataCache.invalidate(path.getBlobId());
+    }
+  }
+
   private IOException asIoException(StorageException oops) {
     // RPC API can only throw StorageException, but CloudStorageFileSystemProvider
     // can only throw IOException. Square peg, round hole.
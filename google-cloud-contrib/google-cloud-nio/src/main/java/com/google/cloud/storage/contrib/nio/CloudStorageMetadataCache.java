@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.contrib.nio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Cache of object metadata, shared by the operations of a {@link CloudStorageFileSystem}. Entries
+ * are populated by metadata requests and directory listings, expire after a fixed time and are
+ * invalidated when the object is written or deleted through the file system. Changes made by other
+ * clients may therefore go unnoticed until the entry expires.
+ */
+@ThreadSafe
+final class CloudStorageMetadataCache {
+
+  static final int MAX_ENTRIES = 100_000;
+
+  private final Cache<BlobId, BlobInfo> entries;
+
+  CloudStorageMetadataCache(long ttlMillis) {
+    this(ttlMillis, Ticker.systemTicker());
+  }
+
+  CloudStorageMetadataCache(long ttlMillis, Ticker ticker) {
+    checkArgument(ttlMillis > 0, "ttlMillis must be > 0: %s", ttlMillis);
+    this.entries = CacheBuilder.newBuilder()
+        .maximumSize(MAX_ENTRIES)
+        .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+        .ticker(ticker)
+        .build();
+  }
+
+  /**
+   * Returns the cached metadata of the latest generation of {@code file}, or {@code null} if it
+   * is not cached.
+   */
+  @Nullable
+  BlobInfo get(BlobId file) {
+    return entries.getIfPresent(key(file));
+  }
+
+  /**
+   * Caches the metadata of an object. Metadata without a size, as returned for pseudo-directories
+   * or objects still being written, is ignored.
+   */
+  void put(BlobInfo blobInfo) {
+    if (blobInfo.getSize() != null && !blobInfo.isDirectory()) {
+      entries.put(key(blobInfo.getBlobId()), blobInfo);
+    }
+  }
+
+  /**
+   * Drops the cached metadata of {@code file}, if any.
+   */
+  void invalidate(BlobId file) {
+    entries.invalidate(key(file));
+  }
+
+  /**
+   * Drops all cached metadata.
+   */
+  void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  private static BlobId key(BlobId file) {
+    return file.getGeneration() == null ? file : BlobId.of(file.getBucket(), file.getName());
+  }
+}
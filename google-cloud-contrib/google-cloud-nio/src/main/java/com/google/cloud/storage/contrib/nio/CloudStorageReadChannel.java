@@ -29,60 +29,103 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.NoSuchFileException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.CheckReturnValue;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * Cloud Storage read channel.
  *
+ * <p>If the file system has a {@link CloudStorageBlockCache}, reads are served from cached blocks
+ * of the object generation that was current when the channel was opened, and only blocks missing
+ * from the cache are fetched.
+ *
  * @see CloudStorageWriteChannel
  */
 @ThreadSafe
 final class CloudStorageReadChannel implements SeekableByteChannel {
 
+  // Not a monitor, see com.google.cloud.VirtualThreads
+  private final ReentrantLock lock = new ReentrantLock();
   private final ReadChannel channel;
+  @Nullable private final BlobId cachedFile;
+  @Nullable private final CloudStorageBlockCache blockCache;
   private long position;
   private long size;
 
   @CheckReturnValue
-  @SuppressWarnings("resource")
   static CloudStorageReadChannel create(Storage gcsStorage, BlobId file, long position)
       throws IOException {
+    return create(gcsStorage, file, position, null);
+  }
+
+  @CheckReturnValue
+  static CloudStorageReadChannel create(Storage gcsStorage, BlobId file, long position,
+      @Nullable CloudStorageBlockCache blockCache) throws IOException {
+    return create(gcsStorage, file, fetchInfo(gcsStorage, file), position, blockCache);
+  }
+
+  /**
+   * Creates a channel for {@code file}, whose metadata {@code blobInfo} is already known.
+   */
+  @CheckReturnValue
+  @SuppressWarnings("resource")
+  static CloudStorageReadChannel create(Storage gcsStorage, BlobId file, BlobInfo blobInfo,
+      long position, @Nullable CloudStorageBlockCache blockCache) throws IOException {
+    long size = blobInfo.getSize();
+    if (blockCache != null && blobInfo.getGeneration() != null) {
+      // Pins the generation, so that cached blocks and fetched blocks are from the same object
+      BlobId cachedFile = BlobId.of(file.getBucket(), file.getName(), blobInfo.getGeneration());
+      ReadChannel channel = gcsStorage.reader(cachedFile);
+      channel.setChunkSize(blockCache.blockSize());
+      return new CloudStorageReadChannel(position, size, channel, cachedFile, blockCache);
+    }
     // XXX: Reading size and opening file should be atomic.
-    long size = fetchSize(gcsStorage, file);
     ReadChannel channel = gcsStorage.reader(file);
     if (position > 0) {
       channel.seek((int) position);
     }
-    return new CloudStorageReadChannel(position, size, channel);
+    return new CloudStorageReadChannel(position, size, channel, null, null);
   }
 
-  private CloudStorageReadChannel(long position, long size, ReadChannel channel) {
+  private CloudStorageReadChannel(long position, long size, ReadChannel channel,
+      @Nullable BlobId cachedFile, @Nullable CloudStorageBlockCache blockCache) {
     this.position = position;
     this.size = size;
     this.channel = channel;
+    this.cachedFile = cachedFile;
+    this.blockCache = blockCache;
   }
 
   @Override
   public boolean isOpen() {
-    synchronized (this) {
+    lock.lock();
+    try {
       return channel.isOpen();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void close() throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       channel.close();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public int read(ByteBuffer dst) throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       checkOpen();
-      int amt = channel.read(dst);
+      int amt = blockCache != null ? readCached(dst) : channel.read(dst);
       if (amt > 0) {
         position += amt;
         // XXX: This would only ever happen if the fetchSize() race-condition occurred.
@@ -91,36 +134,49 @@ final class CloudStorageReadChannel implements SeekableByteChannel {
         }
       }
       return amt;
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public long size() throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       checkOpen();
       return size;
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public long position() throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       checkOpen();
       return position;
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public SeekableByteChannel position(long newPosition) throws IOException {
     checkArgument(newPosition >= 0);
-    synchronized (this) {
+    lock.lock();
+    try {
       checkOpen();
       if (newPosition == position) {
         return this;
       }
-      channel.seek(newPosition);
+      if (blockCache == null) {
+        channel.seek(newPosition);
+      }
       position = newPosition;
       return this;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -140,11 +196,56 @@ final class CloudStorageReadChannel implements SeekableByteChannel {
     }
   }
 
-  private static long fetchSize(Storage gcsStorage, BlobId file) throws IOException {
+  /**
+   * Copies bytes from the cached blocks covering {@code dst}, fetching missing blocks.
+   */
+  private int readCached(ByteBuffer dst) throws IOException {
+    if (!dst.hasRemaining()) {
+      return 0;
+    }
+    final int blockSize = blockCache.blockSize();
+    long current = position;
+    int amt = 0;
+    while (dst.hasRemaining() && current < size) {
+      final long index = current / blockSize;
+      ByteBuffer block = blockCache.get(cachedFile.getBucket(), cachedFile.getName(),
+          cachedFile.getGeneration(), index, new Callable<ByteBuffer>() {
+            @Override
+            public ByteBuffer call() throws IOException {
+              return fetchBlock(index * blockSize);
+            }
+          });
+      int offset = (int) (current - index * blockSize);
+      if (offset >= block.limit()) {
+        break;
+      }
+      block.position(offset);
+      block.limit(Math.min(block.limit(), offset + dst.remaining()));
+      int copied = block.remaining();
+      dst.put(block);
+      current += copied;
+      amt += copied;
+    }
+    return amt > 0 ? amt : -1;
+  }
+
+  private ByteBuffer fetchBlock(long start) throws IOException {
+    ByteBuffer block = ByteBuffer.allocate((int) Math.min(blockCache.blockSize(), size - start));
+    channel.seek(start);
+    while (block.hasRemaining()) {
+      if (channel.read(block) < 0) {
+        break;
+      }
+    }
+    block.flip();
+    return block;
+  }
+
+  private static BlobInfo fetchInfo(Storage gcsStorage, BlobId file) throws IOException {
     BlobInfo blobInfo = gcsStorage.get(file);
     if (blobInfo == null) {
       throw new NoSuchFileException(String.format("gs://%s/%s", file.getBucket(), file.getName()));
     }
-    return blobInfo.getSize();
+    return blobInfo;
   }
 }
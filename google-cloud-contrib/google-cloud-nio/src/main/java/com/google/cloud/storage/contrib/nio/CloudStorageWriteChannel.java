@@ -17,13 +17,16 @@
 package com.google.cloud.storage.contrib.nio;
 
 import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.BlobId;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NonReadableChannelException;
 import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -36,25 +39,48 @@ import javax.annotation.concurrent.ThreadSafe;
 @ThreadSafe
 final class CloudStorageWriteChannel implements SeekableByteChannel {
 
+  // Not a monitor, see com.google.cloud.VirtualThreads
+  private final ReentrantLock lock = new ReentrantLock();
   private final WriteChannel channel;
+  @Nullable private final CloudStorageMetadataCache metadataCache;
+  @Nullable private final BlobId file;
   private long position;
   private long size;
 
   CloudStorageWriteChannel(WriteChannel channel) {
+    this(channel, null, null);
+  }
+
+  /**
+   * Creates a write channel that drops the cached metadata of {@code file} once it is closed.
+   */
+  CloudStorageWriteChannel(WriteChannel channel, @Nullable CloudStorageMetadataCache metadataCache,
+      @Nullable BlobId file) {
     this.channel = channel;
+    this.metadataCache = metadataCache;
+    this.file = file;
   }
 
   @Override
   public boolean isOpen() {
-    synchronized (this) {
+    lock.lock();
+    try {
       return channel.isOpen();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void close() throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       channel.close();
+      if (metadataCache != null) {
+        metadataCache.invalidate(file);
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -65,7 +91,8 @@ final class CloudStorageWriteChannel implements SeekableByteChannel {
 
   @Override
   public int write(ByteBuffer src) throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       checkOpen();
       int amt = channel.write(src);
       if (amt > 0) {
@@ -73,14 +100,19 @@ final class CloudStorageWriteChannel implements SeekableByteChannel {
         size += amt;
       }
       return amt;
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public long position() throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       checkOpen();
       return position;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -91,9 +123,12 @@ final class CloudStorageWriteChannel implements SeekableByteChannel {
 
   @Override
   public long size() throws IOException {
-    synchronized (this) {
+    lock.lock();
+    try {
       checkOpen();
       return size;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.contrib.nio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.Storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link CloudStorageBlockCache}.
+ */
+@RunWith(JUnit4.class)
+public class CloudStorageBlockCacheTest {
+
+  private static final byte[] CONTENT = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final List<Long> seeks = new ArrayList<>();
+
+  @Test
+  public void testGet_loadsOnce() throws IOException {
+    CloudStorageBlockCache cache = new CloudStorageBlockCache(16, 4);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<ByteBuffer> loader = blockLoader(loads, 4);
+    assertThat(cache.get("bucket", "obj", 1L, 0L, loader).remaining()).isEqualTo(4);
+    assertThat(cache.get("bucket", "obj", 1L, 0L, loader).remaining()).isEqualTo(4);
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(cache.get("bucket", "obj", 2L, 0L, loader).remaining()).isEqualTo(4);
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(8L);
+  }
+
+  @Test
+  public void testGet_returnsReadOnlyViews() throws IOException {
+    CloudStorageBlockCache cache = new CloudStorageBlockCache(16, 4);
+    Callable<ByteBuffer> loader = blockLoader(new AtomicInteger(), 4);
+    ByteBuffer first = cache.get("bucket", "obj", 1L, 0L, loader);
+    assertThat(first.isReadOnly()).isTrue();
+    first.position(2);
+    assertThat(cache.get("bucket", "obj", 1L, 0L, loader).position()).isEqualTo(0);
+  }
+
+  @Test
+  public void testGet_evictsWhenFull() throws IOException {
+    CloudStorageBlockCache cache = new CloudStorageBlockCache(8, 4);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<ByteBuffer> loader = blockLoader(loads, 4);
+    for (long index = 0; index < 10; index++) {
+      cache.get("bucket", "obj", 1L, index, loader);
+    }
+    assertThat(loads.get()).isEqualTo(10);
+    assertThat(cache.size()).isAtMost(8L);
+  }
+
+  @Test
+  public void testGet_propagatesIoException() throws IOException {
+    CloudStorageBlockCache cache = new CloudStorageBlockCache(16, 4);
+    thrown.expect(FileNotFoundException.class);
+    cache.get("bucket", "obj", 1L, 0L, new Callable<ByteBuffer>() {
+      @Override
+      public ByteBuffer call() throws IOException {
+        throw new FileNotFoundException();
+      }
+    });
+  }
+
+  @Test
+  public void testReadChannel_sharesBlocksAcrossChannels() throws IOException {
+    BlobId file = BlobId.of("bucket", "obj");
+    BlobId pinned = BlobId.of("bucket", "obj", 7L);
+    Storage storage = mock(Storage.class);
+    Blob metadata = mock(Blob.class);
+    when(metadata.getSize()).thenReturn((long) CONTENT.length);
+    when(metadata.getGeneration()).thenReturn(7L);
+    when(storage.get(file)).thenReturn(metadata);
+    ReadChannel firstChannel = contentChannel();
+    ReadChannel secondChannel = contentChannel();
+    when(storage.reader(pinned)).thenReturn(firstChannel, secondChannel);
+    CloudStorageBlockCache cache = new CloudStorageBlockCache(1024, 4);
+
+    ByteBuffer buffer = ByteBuffer.allocate(CONTENT.length + 1);
+    CloudStorageReadChannel first = CloudStorageReadChannel.create(storage, file, 0, cache);
+    assertThat(first.read(buffer)).isEqualTo(CONTENT.length);
+    assertThat(buffer.array()).isEqualTo(new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 0});
+    assertThat(first.read(buffer)).isEqualTo(-1);
+    first.close();
+
+    buffer.clear();
+    buffer.limit(3);
+    CloudStorageReadChannel second = CloudStorageReadChannel.create(storage, file, 0, cache);
+    second.position(5);
+    assertThat(second.read(buffer)).isEqualTo(3);
+    assertThat(second.position()).isEqualTo(8L);
+    buffer.flip();
+    assertThat(buffer.get()).isEqualTo((byte) 5);
+    second.close();
+
+    // Each block is fetched once, by the first channel
+    assertThat(seeks).containsExactly(0L, 4L, 8L);
+    verify(storage, times(2)).reader(any(BlobId.class));
+  }
+
+  private static Callable<ByteBuffer> blockLoader(final AtomicInteger loads, final int size) {
+    return new Callable<ByteBuffer>() {
+      @Override
+      public ByteBuffer call() {
+        loads.incrementAndGet();
+        return ByteBuffer.allocate(size);
+      }
+    };
+  }
+
+  /**
+   * Returns a mock read channel over {@link #CONTENT} that records seeks.
+   */
+  private ReadChannel contentChannel() throws IOException {
+    final AtomicInteger position = new AtomicInteger();
+    ReadChannel channel = mock(ReadChannel.class);
+    when(channel.isOpen()).thenReturn(true);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        long offset = (Long) invocation.getArguments()[0];
+        seeks.add(offset);
+        position.set((int) offset);
+        return null;
+      }
+    }).when(channel).seek(anyLong());
+    when(channel.read(any(ByteBuffer.class))).thenAnswer(new Answer<Integer>() {
+      @Override
+      public Integer answer(InvocationOnMock invocation) {
+        ByteBuffer dst = (ByteBuffer) invocation.getArguments()[0];
+        if (position.get() >= CONTENT.length) {
+          return -1;
+        }
+        int length = Math.min(dst.remaining(), CONTENT.length - position.get());
+        dst.put(CONTENT, position.get(), length);
+        position.addAndGet(length);
+        return length;
+      }
+    });
+    return channel;
+  }
+}
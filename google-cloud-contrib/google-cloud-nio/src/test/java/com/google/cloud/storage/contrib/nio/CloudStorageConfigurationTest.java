@@ -43,12 +43,16 @@ public class CloudStorageConfigurationTest {
             .stripPrefixSlash(false)
             .usePseudoDirectories(false)
             .blockSize(666)
+            .blockCacheSize(1 << 20)
+            .metadataCacheTtlMillis(1000)
             .build();
     assertThat(config.workingDirectory()).isEqualTo("/omg");
     assertThat(config.permitEmptyPathComponents()).isTrue();
     assertThat(config.stripPrefixSlash()).isFalse();
     assertThat(config.usePseudoDirectories()).isFalse();
     assertThat(config.blockSize()).isEqualTo(666);
+    assertThat(config.blockCacheSize()).isEqualTo(1L << 20);
+    assertThat(config.metadataCacheTtlMillis()).isEqualTo(1000L);
   }
 
   @Test
@@ -61,12 +65,22 @@ public class CloudStorageConfigurationTest {
                 .put("stripPrefixSlash", false)
                 .put("usePseudoDirectories", false)
                 .put("blockSize", 666)
+                .put("blockCacheSize", 1 << 20)
+                .put("metadataCacheTtlMillis", 1000L)
                 .build());
     assertThat(config.workingDirectory()).isEqualTo("/omg");
     assertThat(config.permitEmptyPathComponents()).isTrue();
     assertThat(config.stripPrefixSlash()).isFalse();
     assertThat(config.usePseudoDirectories()).isFalse();
     assertThat(config.blockSize()).isEqualTo(666);
+    assertThat(config.blockCacheSize()).isEqualTo(1L << 20);
+    assertThat(config.metadataCacheTtlMillis()).isEqualTo(1000L);
+  }
+
+  @Test
+  public void testBlockCacheSize_negative_throwsIae() {
+    thrown.expect(IllegalArgumentException.class);
+    CloudStorageConfiguration.builder().blockCacheSize(-1);
   }
 
   @Test
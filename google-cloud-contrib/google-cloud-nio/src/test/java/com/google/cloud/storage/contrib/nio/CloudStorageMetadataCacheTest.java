@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.contrib.nio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.Page;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.testing.FakeTicker;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link CloudStorageMetadataCache}.
+ */
+@RunWith(JUnit4.class)
+public class CloudStorageMetadataCacheTest {
+
+  private static final BlobInfo INFO = blobInfo(BlobId.of("bucket", "obj", 42L), 3L, false);
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  // The size and directory setters of BlobInfo.Builder are not public, so metadata is mocked
+  private static BlobInfo blobInfo(BlobId blobId, Long size, boolean isDirectory) {
+    BlobInfo blobInfo = mock(BlobInfo.class);
+    when(blobInfo.getBlobId()).thenReturn(blobId);
+    when(blobInfo.getSize()).thenReturn(size);
+    when(blobInfo.isDirectory()).thenReturn(isDirectory);
+    return blobInfo;
+  }
+
+  @Test
+  public void testGet_ignoresGeneration() {
+    CloudStorageMetadataCache cache = new CloudStorageMetadataCache(1000);
+    cache.put(INFO);
+    assertThat(cache.get(BlobId.of("bucket", "obj"))).isSameAs(INFO);
+    assertThat(cache.get(BlobId.of("bucket", "obj", 41L))).isSameAs(INFO);
+    assertThat(cache.get(BlobId.of("bucket", "other"))).isNull();
+  }
+
+  @Test
+  public void testGet_expires() {
+    FakeTicker ticker = new FakeTicker();
+    CloudStorageMetadataCache cache = new CloudStorageMetadataCache(1000, ticker);
+    cache.put(INFO);
+    ticker.advance(999, TimeUnit.MILLISECONDS);
+    assertThat(cache.get(INFO.getBlobId())).isSameAs(INFO);
+    ticker.advance(1, TimeUnit.MILLISECONDS);
+    assertThat(cache.get(INFO.getBlobId())).isNull();
+  }
+
+  @Test
+  public void testPut_ignoresIncompleteMetadata() {
+    CloudStorageMetadataCache cache = new CloudStorageMetadataCache(1000);
+    cache.put(blobInfo(BlobId.of("bucket", "obj"), null, false));
+    cache.put(blobInfo(BlobId.of("bucket", "dir/"), 0L, true));
+    assertThat(cache.get(BlobId.of("bucket", "obj"))).isNull();
+    assertThat(cache.get(BlobId.of("bucket", "dir/"))).isNull();
+  }
+
+  @Test
+  public void testInvalidate() {
+    CloudStorageMetadataCache cache = new CloudStorageMetadataCache(1000);
+    cache.put(INFO);
+    cache.invalidate(BlobId.of("bucket", "obj"));
+    assertThat(cache.get(INFO.getBlobId())).isNull();
+  }
+
+  @Test
+  public void testFileSystem_listedFilesNeedNoMetadataRequest() throws IOException {
+    BlobId file = BlobId.of("bucket", "obj");
+    Storage storage = mock(Storage.class);
+    StorageOptions options = mock(StorageOptions.class);
+    when(options.getService()).thenReturn(storage);
+    Blob blob = mock(Blob.class);
+    when(blob.getName()).thenReturn("obj");
+    when(blob.getBlobId()).thenReturn(BlobId.of("bucket", "obj", 42L));
+    when(blob.getSize()).thenReturn(3L);
+    @SuppressWarnings("unchecked")
+    Page<Blob> page = mock(Page.class);
+    when(page.getValues()).thenReturn(ImmutableList.of(blob));
+    when(storage.list(eq("bucket"), (Storage.BlobListOption[]) anyVararg())).thenReturn(page);
+    ReadChannel reader = mock(ReadChannel.class);
+    when(reader.isOpen()).thenReturn(true);
+    when(storage.reader(file)).thenReturn(reader);
+    when(storage.delete(file)).thenReturn(true);
+    CloudStorageFileSystem fs = CloudStorageFileSystem.forBucket("bucket",
+        CloudStorageConfiguration.builder().metadataCacheTtlMillis(60_000).build(), options);
+
+    Path path = null;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(fs.getPath("/"))) {
+      for (Path listed : stream) {
+        path = listed;
+      }
+    }
+    assertThat(Files.size(path)).isEqualTo(3L);
+    assertThat(Files.exists(path)).isTrue();
+    try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+      assertThat(channel.size()).isEqualTo(3L);
+    }
+    verify(storage, never()).get(any(BlobId.class));
+    verify(storage, never()).get(any(BlobId.class), (Storage.BlobGetOption[]) anyVararg());
+
+    Files.delete(path);
+    thrown.expect(NoSuchFileException.class);
+    Files.size(path);
+  }
+
+  @Test
+  public void testFileSystem_deleteInvalidatesMetadataCachedMeanwhile() throws IOException {
+    BlobId file = BlobId.of("bucket", "obj");
+    Storage storage = mock(Storage.class);
+    StorageOptions options = mock(StorageOptions.class);
+    when(options.getService()).thenReturn(storage);
+    final CloudStorageFileSystem fs = CloudStorageFileSystem.forBucket("bucket",
+        CloudStorageConfiguration.builder().metadataCacheTtlMillis(60_000).build(), options);
+    when(storage.delete(file)).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) {
+        // A concurrent read caches the metadata while the object is being deleted
+        fs.metadataCache().put(INFO);
+        return true;
+      }
+    });
+
+    Files.delete(fs.getPath("/obj"));
+    assertThat(fs.metadataCache().get(file)).isNull();
+  }
+}
@@ -22,12 +22,13 @@ import com.google.api.services.storage.model.ObjectAccessControl;
 import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageException;
+import com.google.cloud.storage.spi.DirectStorageRpc;
 import com.google.cloud.storage.spi.RpcBatch;
-import com.google.cloud.storage.spi.StorageRpc;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.file.FileAlreadyExistsException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -65,7 +66,7 @@ import javax.annotation.concurrent.NotThreadSafe;
  * </ul>
  */
 @NotThreadSafe
-class FakeStorageRpc implements StorageRpc {
+class FakeStorageRpc implements DirectStorageRpc {
 
   // fullname -> metadata
   Map<String, StorageObject> metadata = new HashMap<>();
@@ -262,6 +263,23 @@ class FakeStorageRpc implements StorageRpc {
     return Tuple.of("etag-goes-here", ret);
   }
 
+  @Override
+  public StorageObject read(StorageObject from, Map<Option, ?> options, long zposition,
+      ByteBuffer buffer) throws StorageException {
+    potentiallyThrow(options);
+    String key = fullname(from);
+    if (!contents.containsKey(key)) {
+      throw new StorageException(404, "File not found: " + key);
+    }
+    int position = (int) Math.max(zposition, 0);
+    byte[] full = contents.get(key);
+    int bytes = Math.min(buffer.remaining(), full.length - position);
+    if (bytes > 0) {
+      buffer.put(full, position, bytes);
+    }
+    return new StorageObject().setEtag("etag-goes-here");
+  }
+
   @Override
   public String open(StorageObject object, Map<Option, ?> options) throws StorageException {
     String key = fullname(object);
@@ -303,6 +321,13 @@ class FakeStorageRpc implements StorageRpc {
     }
   }
 
+  @Override
+  public StorageObject writeWithResponse(String uploadId, byte[] toWrite, int toWriteOffset,
+      long destOffset, int length, boolean last) throws StorageException {
+    write(uploadId, toWrite, toWriteOffset, destOffset, length, last);
+    return last ? metadata.get(uploadId) : null;
+  }
+
   @Override
   public RewriteResponse openRewrite(RewriteRequest rewriteRequest) throws StorageException {
     String sourceKey = fullname(rewriteRequest.source);
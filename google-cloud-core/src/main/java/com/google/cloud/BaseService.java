@@ -17,6 +17,21 @@
 package com.google.cloud;
 
 import com.google.cloud.ExceptionHandler.Interceptor;
+import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
+import com.google.cloud.RetryHelper.RetryHelperException;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for service objects.
@@ -50,6 +65,69 @@ public abstract class BaseService<OptionsT extends ServiceOptions<?, ?, OptionsT
       .build();
 
   private final OptionsT options;
+  private final SingleFlight readCoalescer = new SingleFlight();
+  private final Executor asyncExecutor = new Executor() {
+    @Override
+    public void execute(final Runnable command) {
+      final ExecutorFactory<ExecutorService> factory = options.getAsyncExecutorFactory();
+      final ExecutorService executor = factory.get();
+      try {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              command.run();
+            } finally {
+              factory.release(executor);
+            }
+          }
+        });
+      } catch (RuntimeException ex) {
+        factory.release(executor);
+        throw ex;
+      }
+    }
+  };
+
+  /**
+   * Lazily created scheduler shared by all services. It only times the retries of asynchronous
+   * operations and the start of hedged attempts, which are handed to other executors to run, so a
+   * single daemon thread is enough. The thread exits when idle.
+   */
+  private static final class SchedulerHolder {
+
+    private static final ScheduledExecutorService INSTANCE = create();
+
+    private static ScheduledExecutorService create() {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("gcloud-scheduler-%d").build());
+      executor.setKeepAliveTime(5, TimeUnit.SECONDS);
+      executor.allowCoreThreadTimeOut(true);
+      executor.setRemoveOnCancelPolicy(true);
+      return executor;
+    }
+  }
+
+  /**
+   * Lazily created executor that runs hedged attempts. Its threads are unbounded, as callers wait
+   * for these attempts and a bounded pool could leave them queued behind abandoned ones. The
+   * threads exit when idle.
+   */
+  private static final class HedgingExecutorHolder {
+
+    private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("gcloud-hedging-%d").build());
+  }
+
+  /**
+   * Lazily created executor that runs the hedged attempts of the services that run in virtual
+   * threads.
+   */
+  private static final class VirtualHedgingExecutorHolder {
+
+    private static final ExecutorService INSTANCE =
+        VirtualThreads.newExecutor("gcloud-hedging-virtual-");
+  }
 
   protected BaseService(OptionsT options) {
     this.options = options;
@@ -65,4 +143,102 @@ public abstract class BaseService<OptionsT extends ServiceOptions<?, ?, OptionsT
   public OptionsT getOptions() {
     return options;
   }
+
+  /**
+   * Runs the idempotent read {@code read}. If read coalescing is enabled, see
+   * {@link ServiceOptions#isReadCoalescingEnabled()}, concurrent reads of this service with an
+   * equal {@code key} share a single run. {@code key} must identify the method and its request.
+   */
+  protected <V> V coalesceRead(Object key, Callable<V> read) {
+    if (!options.isReadCoalescingEnabled()) {
+      try {
+        return read.call();
+      } catch (Exception ex) {
+        throw Throwables.propagate(ex);
+      }
+    }
+    return readCoalescer.execute(key, read);
+  }
+
+  /**
+   * Runs the metadata read {@code loader} of {@code resource}. If a response cache is set, see
+   * {@link ServiceOptions#getResponseCache()}, the response to {@code request} is served from the
+   * cache until it expires. {@code resource} must identify the resource across services and
+   * {@code request} the request of the resource, e.g. its field selection.
+   */
+  protected <V> V cachedRead(Object resource, Object request, ResponseCache.Loader<V> loader) {
+    ResponseCache cache = options.getResponseCache();
+    if (cache == null) {
+      return loader.load(null);
+    }
+    return cache.get(resource, request, options.getClock(), loader);
+  }
+
+  /**
+   * Sends the metadata read {@code loader} of {@code resource} without blocking, serving the
+   * response from the cache as {@link #cachedRead(Object, Object, ResponseCache.Loader)} does.
+   */
+  protected <V> ListenableFuture<V> cachedReadAsync(Object resource, Object request,
+      ResponseCache.AsyncLoader<V> loader) {
+    ResponseCache cache = options.getResponseCache();
+    if (cache == null) {
+      return loader.load(null);
+    }
+    return cache.getAsync(resource, request, options.getClock(), loader);
+  }
+
+  /**
+   * Drops the cached responses of {@code resource}, if a response cache is set. Called by the
+   * methods that mutate the resource once their request is done, whether it succeeded or not.
+   */
+  protected void invalidateCachedReads(Object resource) {
+    ResponseCache cache = options.getResponseCache();
+    if (cache != null) {
+      cache.invalidate(resource);
+    }
+  }
+
+  /**
+   * Returns a future that fails with the exception {@code translator} returns, or throws, for a
+   * {@link RetryHelperException} where {@code future} fails with one. Asynchronous methods use it
+   * to fail with the exception of their service, as the synchronous methods do.
+   */
+  protected static <V> ListenableFuture<V> translateFailure(ListenableFuture<V> future,
+      final Function<? super RetryHelperException, ? extends RuntimeException> translator) {
+    return Futures.catching(future, RetryHelperException.class,
+        new Function<RetryHelperException, V>() {
+          @Override
+          public V apply(RetryHelperException exception) {
+            throw translator.apply(exception);
+          }
+        });
+  }
+
+  /**
+   * Returns the executor used to run the attempts of asynchronous operations, see
+   * {@link RetryHelper#runWithRetriesAsync}. Each attempt runs on an executor obtained from
+   * {@link ServiceOptions#getAsyncExecutorFactory()}, which is released as soon as the attempt is
+   * done: services have no lifecycle of their own, so they never hold on to the executor.
+   */
+  protected Executor getAsyncExecutor() {
+    return asyncExecutor;
+  }
+
+  /**
+   * Returns the scheduler used to time the retries of asynchronous operations and the start of
+   * hedged attempts. Tasks scheduled on it must not block: they should hand their work to another
+   * executor.
+   */
+  protected ScheduledExecutorService getScheduler() {
+    return SchedulerHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the executor used to run the hedged attempts of idempotent reads, see
+   * {@link RequestHedger}.
+   */
+  protected ExecutorService getHedgingExecutor() {
+    return options.isVirtualThreadsEnabled() ? VirtualHedgingExecutorHolder.INSTANCE
+        : HedgingExecutorHolder.INSTANCE;
+  }
 }
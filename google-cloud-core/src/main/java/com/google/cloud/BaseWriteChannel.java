@@ -17,6 +17,7 @@
 package com.google.cloud;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -24,10 +25,23 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Base implementation for a {@link WriteChannel}.
  *
+ * <p>By default chunks are uploaded inline, from the thread calling {@link #write(ByteBuffer)}.
+ * Channels that support it, see {@link #isPipeliningSupported()}, can also upload in pipelined
+ * mode (see
+ * {@link #setPipelined(boolean)}): a full chunk is uploaded in the background while the caller
+ * fills the next one in a second buffer. At most one chunk per channel is uploaded at a time, so
+ * chunks still reach the service in order. Background uploads run on the service options'
+ * channel executor, see {@link ServiceOptions#getChannelExecutor()}, rather than on the async
+ * executor: a channel written from a task of the async executor would otherwise wait for an upload
+ * queued behind that task.
+ *
  * @param <ServiceOptionsT> the service options used by the channel to issue RPC requests
  * @param <EntityT> the entity this channel writes data to. Possibly with additional configuration
  */
@@ -46,6 +60,11 @@ public abstract class BaseWriteChannel<
   private int limit;
   private boolean isOpen = true;
   private int chunkSize = getDefaultChunkSize();
+  private boolean pipelined;
+  private Future<?> pendingFlush;
+  private byte[] flushingBuffer;
+  private byte[] spareBuffer;
+  private ExecutorService flushExecutor;
 
   @Deprecated
   protected int minChunkSize() {
@@ -73,6 +92,32 @@ public abstract class BaseWriteChannel<
    */
   protected abstract void flushBuffer(int length, boolean last);
 
+  /**
+   * Returns whether the channel can upload a chunk from any buffer, by overriding
+   * {@link #flushBuffer(byte[], long, int, boolean)}, and can therefore be used in pipelined mode,
+   * see {@link #setPipelined(boolean)}. This implementation returns {@code false}.
+   */
+  protected boolean isPipeliningSupported() {
+    return false;
+  }
+
+  /**
+   * Writes {@code length} bytes of {@code buffer} to the {@link #getUploadId()} URL, starting at
+   * {@code position}. In pipelined mode this method is called from a background thread while
+   * {@link #getBuffer()} and {@link #getPosition()} already refer to the next chunk.
+   * Implementations must not use those methods and should only rely on the provided arguments.
+   * This implementation throws {@link UnsupportedOperationException}.
+   *
+   * @param buffer the buffer containing the data to write
+   * @param position the position, in the upload, of the first byte to write
+   * @param length the number of bytes to write from {@code buffer}
+   * @param last if {@code true} the resumable session is closed
+   */
+  protected void flushBuffer(byte[] buffer, long position, int length, boolean last) {
+    throw new UnsupportedOperationException(
+        getClass().getName() + " does not support pipelined uploads");
+  }
+
   @Deprecated
   protected ServiceOptionsT options() {
     return options;
@@ -148,6 +193,36 @@ public abstract class BaseWriteChannel<
     this.chunkSize = Math.max(getMinChunkSize(), chunkSize);
   }
 
+  /**
+   * Sets whether chunks should be uploaded in the background, while the caller keeps writing to a
+   * second buffer. Pipelining trades one extra chunk of memory for not blocking
+   * {@link #write(ByteBuffer)} on every chunk upload. This mode is disabled by default, and is not
+   * part of the channel's captured state.
+   *
+   * <p>If a background upload fails the error is thrown by the next call to
+   * {@link #write(ByteBuffer)}, {@link #close()} or {@link #capture()} and the channel is closed.
+   *
+   * @throws UnsupportedOperationException if {@code pipelined} is {@code true} and the channel
+   *     does not support it, see {@link #isPipeliningSupported()}
+   */
+  public final void setPipelined(boolean pipelined) {
+    if (pipelined && !isPipeliningSupported()) {
+      throw new UnsupportedOperationException(
+          getClass().getName() + " does not support pipelined uploads");
+    }
+    if (!pipelined) {
+      awaitPendingFlush();
+    }
+    this.pipelined = pipelined;
+  }
+
+  /**
+   * Returns whether chunks are uploaded in the background. See {@link #setPipelined(boolean)}.
+   */
+  public final boolean isPipelined() {
+    return pipelined;
+  }
+
   protected BaseWriteChannel(ServiceOptionsT options, EntityT entity, String uploadId) {
     this.options = options;
     this.entity = entity;
@@ -157,12 +232,70 @@ public abstract class BaseWriteChannel<
   private void flush() {
     if (limit >= chunkSize) {
       final int length = limit - limit % getMinChunkSize();
+      if (pipelined) {
+        flushInBackground(length);
+        return;
+      }
       flushBuffer(length, false);
       position += length;
       limit -= length;
-      byte[] temp = new byte[chunkSize];
-      System.arraycopy(buffer, length, temp, 0, limit);
-      buffer = temp;
+      if (buffer.length == chunkSize) {
+        System.arraycopy(buffer, length, buffer, 0, limit);
+      } else {
+        byte[] temp = new byte[chunkSize];
+        System.arraycopy(buffer, length, temp, 0, limit);
+        buffer = temp;
+      }
+    }
+  }
+
+  private void flushInBackground(final int length) {
+    // Chunks must be uploaded in order: wait for the previous one before sending the next
+    awaitPendingFlush();
+    if (flushExecutor == null) {
+      flushExecutor = options.getChannelExecutor();
+    }
+    final byte[] toFlush = buffer;
+    final long flushPosition = position;
+    pendingFlush = flushExecutor.submit(new Runnable() {
+      @Override
+      public void run() {
+        flushBuffer(toFlush, flushPosition, length, false);
+      }
+    });
+    flushingBuffer = toFlush;
+    position += length;
+    limit -= length;
+    byte[] next = spareBuffer != null && spareBuffer.length == chunkSize
+        ? spareBuffer : new byte[chunkSize];
+    spareBuffer = null;
+    // The uploader only reads toFlush, so the remainder can be copied concurrently
+    System.arraycopy(toFlush, length, next, 0, limit);
+    buffer = next;
+  }
+
+  /**
+   * Waits for the chunk being uploaded in background, if any, and makes its buffer available for
+   * reuse.
+   */
+  private void awaitPendingFlush() {
+    if (pendingFlush == null) {
+      return;
+    }
+    try {
+      pendingFlush.get();
+      spareBuffer = flushingBuffer;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw Throwables.propagate(ex);
+    } catch (ExecutionException ex) {
+      // The upload offset is lost, the channel can not be used anymore
+      isOpen = false;
+      buffer = null;
+      throw Throwables.propagate(ex.getCause());
+    } finally {
+      pendingFlush = null;
+      flushingBuffer = null;
     }
   }
 
@@ -196,10 +329,16 @@ public abstract class BaseWriteChannel<
   @Override
   public final void close() throws IOException {
     if (isOpen) {
-      flushBuffer(limit, true);
+      if (pipelined) {
+        awaitPendingFlush();
+        flushBuffer(buffer, position, limit, true);
+      } else {
+        flushBuffer(limit, true);
+      }
       position += buffer.length;
       isOpen = false;
       buffer = null;
+      spareBuffer = null;
     }
   }
 
@@ -213,6 +352,7 @@ public abstract class BaseWriteChannel<
     byte[] bufferToSave = null;
     if (isOpen) {
       flush();
+      awaitPendingFlush();
       bufferToSave = Arrays.copyOf(buffer, limit);
     }
     return stateBuilder()
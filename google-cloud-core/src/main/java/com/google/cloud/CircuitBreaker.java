@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import java.io.ObjectStreamException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An {@link ExceptionHandler.Interceptor} that stops calling an operation that keeps failing.
+ * Failures are counted per operation, i.e. per service method. When {@code failureThreshold}
+ * retriable failures of the same operation happen within {@code windowMillis} the breaker opens
+ * for that operation: for the next {@code openMillis} its failures are not retried and, when the
+ * breaker is set with {@link RetryParams.Builder#setCircuitBreaker}, {@link RetryHelper} fails
+ * new attempts right away with a {@link RetryHelper.RetriesExhaustedException}, without reaching
+ * the backend.
+ *
+ * <p>Once {@code openMillis} have elapsed the breaker is half-open: a single attempt is let
+ * through to probe the backend, while the others keep failing fast. The breaker closes if the
+ * probe succeeds or fails with a non-retriable error, and opens again for {@code openMillis} if
+ * it fails with a retriable one. A probe that does not complete within {@code openMillis} no
+ * longer holds back the next one. When only added to an {@link ExceptionHandler}, the breaker is
+ * consulted on failures alone: it stops retries but not first attempts, and simply closes after
+ * {@code openMillis}.
+ */
+public final class CircuitBreaker implements ExceptionHandler.Interceptor {
+
+  private static final long serialVersionUID = 2417893650285315512L;
+
+  private final int failureThreshold;
+  private final long windowMillis;
+  private final long openMillis;
+  private final Clock clock;
+  private final transient ConcurrentMap<String, State> states = new ConcurrentHashMap<>();
+
+  private static final class State {
+
+    private long windowStart;
+    private int failures;
+    private long openUntil = Long.MIN_VALUE;
+    private long probeUntil = Long.MIN_VALUE;
+
+    boolean isHalfOpen(long now) {
+      return openUntil != Long.MIN_VALUE && now >= openUntil;
+    }
+
+    void open(long now, long openMillis) {
+      openUntil = now + openMillis;
+      probeUntil = Long.MIN_VALUE;
+      windowStart = now;
+      failures = 0;
+    }
+
+    void close() {
+      openUntil = Long.MIN_VALUE;
+      probeUntil = Long.MIN_VALUE;
+    }
+  }
+
+  private CircuitBreaker(int failureThreshold, long windowMillis, long openMillis, Clock clock) {
+    checkArgument(failureThreshold > 0, "failureThreshold must be > 0: %s", failureThreshold);
+    checkArgument(windowMillis > 0, "windowMillis must be > 0: %s", windowMillis);
+    checkArgument(openMillis > 0, "openMillis must be > 0: %s", openMillis);
+    this.failureThreshold = failureThreshold;
+    this.windowMillis = windowMillis;
+    this.openMillis = openMillis;
+    this.clock = checkNotNull(clock);
+  }
+
+  /**
+   * Creates a circuit breaker.
+   *
+   * @param failureThreshold the number of retriable failures of an operation that open the breaker
+   * @param windowMillis the period, in milliseconds, over which failures are counted
+   * @param openMillis how long, in milliseconds, the breaker stays open
+   */
+  public static CircuitBreaker create(int failureThreshold, long windowMillis, long openMillis) {
+    return create(failureThreshold, windowMillis, openMillis, Clock.defaultClock());
+  }
+
+  @VisibleForTesting
+  static CircuitBreaker create(int failureThreshold, long windowMillis, long openMillis,
+      Clock clock) {
+    return new CircuitBreaker(failureThreshold, windowMillis, openMillis, clock);
+  }
+
+  @Override
+  public RetryResult beforeEval(Exception exception) {
+    State state = getState();
+    synchronized (state) {
+      return clock.millis() < state.openUntil ? RetryResult.NO_RETRY
+          : RetryResult.CONTINUE_EVALUATION;
+    }
+  }
+
+  @Override
+  public RetryResult afterEval(Exception exception, RetryResult retryResult) {
+    State state = getState();
+    synchronized (state) {
+      long now = clock.millis();
+      if (state.isHalfOpen(now)) {
+        if (state.probeUntil == Long.MIN_VALUE || retryResult != RetryResult.RETRY) {
+          // no probe was let through by allowAttempt, or it reached the backend
+          state.close();
+        } else {
+          // the probe failed: the backend is still failing
+          state.open(now, openMillis);
+          return RetryResult.NO_RETRY;
+        }
+      }
+      if (retryResult != RetryResult.RETRY) {
+        return RetryResult.CONTINUE_EVALUATION;
+      }
+      if (now - state.windowStart >= windowMillis) {
+        state.windowStart = now;
+        state.failures = 0;
+      }
+      if (++state.failures < failureThreshold) {
+        return RetryResult.CONTINUE_EVALUATION;
+      }
+      state.open(now, openMillis);
+      return RetryResult.NO_RETRY;
+    }
+  }
+
+  /**
+   * Returns whether an attempt of {@code operation} may be made. Attempts are rejected while the
+   * breaker is open. Once half-open a single attempt is allowed, as a probe, until it completes or
+   * {@code openMillis} elapse.
+   */
+  boolean allowAttempt(String operation) {
+    State state = states.get(operation);
+    if (state == null) {
+      return true;
+    }
+    synchronized (state) {
+      long now = clock.millis();
+      if (now < state.openUntil) {
+        return false;
+      }
+      if (!state.isHalfOpen(now)) {
+        return true;
+      }
+      if (now < state.probeUntil) {
+        return false;
+      }
+      state.probeUntil = now + openMillis;
+      return true;
+    }
+  }
+
+  /**
+   * Records a successful attempt of {@code operation}, closing the breaker if it is half-open.
+   */
+  void onSuccess(String operation) {
+    State state = states.get(operation);
+    if (state == null) {
+      return;
+    }
+    synchronized (state) {
+      if (state.isHalfOpen(clock.millis())) {
+        state.close();
+      }
+    }
+  }
+
+  /**
+   * Returns whether the breaker is open for {@code operation}.
+   */
+  @VisibleForTesting
+  boolean isOpen(String operation) {
+    State state = states.get(operation);
+    if (state == null) {
+      return false;
+    }
+    synchronized (state) {
+      return clock.millis() < state.openUntil;
+    }
+  }
+
+  private State getState() {
+    RetryHelper.Context context = RetryHelper.getContext();
+    String operation = context == null ? "" : context.getOperation();
+    State state = states.get(operation);
+    if (state == null) {
+      State newState = new State();
+      state = states.putIfAbsent(operation, newState);
+      if (state == null) {
+        state = newState;
+      }
+    }
+    return state;
+  }
+
+  private Object readResolve() throws ObjectStreamException {
+    return new CircuitBreaker(failureThreshold, windowMillis, openMillis, clock);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(failureThreshold, windowMillis, openMillis, clock);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof CircuitBreaker)) {
+      return false;
+    }
+    CircuitBreaker other = (CircuitBreaker) obj;
+    return failureThreshold == other.failureThreshold
+        && windowMillis == other.windowMillis
+        && openMillis == other.openMillis
+        && Objects.equals(clock, other.clock);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("failureThreshold", failureThreshold)
+        .add("windowMillis", windowMillis)
+        .add("openMillis", openMillis)
+        .toString();
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An adaptive limit on the number of concurrent attempts of a service's calls. Limits are kept per
+ * partition, i.e. per service method, so that a throttled method does not hold back the others.
+ * Attempts beyond the limit of their method wait for an attempt of the same method to complete.
+ *
+ * <p>Each limit is discovered with additive increase, multiplicative decrease (AIMD): it grows by
+ * about one every round trip in which the limit is used and attempts succeed, and it shrinks by
+ * {@link #BACKOFF_RATIO} when an attempt is rejected because the service is overloaded (HTTP 429
+ * or 503, rate limit errors, {@code RESOURCE_EXHAUSTED} and {@code UNAVAILABLE}) or when requests
+ * queue on the server. Queueing is detected when the average latency of the last few attempts
+ * exceeds twice the long-term average latency of the method, so that a single slow attempt, e.g.
+ * one that reads a large object, does not count as queueing. Other failures release their permit
+ * without changing the limit.
+ *
+ * <p>A limit shrinks at most once per round trip: the attempts that were already in flight when it
+ * shrank were sent under the previous limit, so their overload is not held against the new one.
+ *
+ * <p>A limiter is enabled for all the calls of a service with
+ * {@link ServiceOptions.Builder#setConcurrencyLimiter}.
+ */
+public final class ConcurrencyLimiter implements Serializable {
+
+  private static final long serialVersionUID = -3360418523398715720L;
+
+  /**
+   * The factor applied to a limit when the service is overloaded.
+   */
+  public static final double BACKOFF_RATIO = 0.75;
+
+  /**
+   * The value returned by {@link #tryAcquire} when an attempt is not allowed.
+   */
+  static final long NOT_ACQUIRED = -1;
+
+  // The weights of a new latency in the short-term (about 10 attempts) and long-term (about 500
+  // attempts) moving averages of a method's latency
+  private static final double SHORT_LATENCY_WEIGHT = 0.1;
+  private static final double LONG_LATENCY_WEIGHT = 0.002;
+  private static final double LATENCY_TOLERANCE = 2.0;
+  // Latencies within this margin of the long-term average are never considered a sign of queueing
+  private static final long MIN_LATENCY_MARGIN_MILLIS = 10;
+
+  private final int initialLimit;
+  private final int maxLimit;
+  private final transient ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+
+  enum Outcome {
+    SUCCESS,
+    OVERLOADED,
+    IGNORED
+  }
+
+  private static final class Partition {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    // The number of attempts acquired so far, each attempt's ticket is its rank
+    private long acquired;
+    // The number of attempts acquired when the limit last shrank
+    private long acquiredAtDecrease;
+    private double shortLatencyMillis = -1;
+    private double longLatencyMillis = -1;
+
+    Partition(int limit) {
+      this.limit = limit;
+    }
+  }
+
+  private ConcurrencyLimiter(int initialLimit, int maxLimit) {
+    checkArgument(initialLimit > 0, "initialLimit must be > 0: %s", initialLimit);
+    checkArgument(maxLimit >= initialLimit, "maxLimit must be >= initialLimit: %s", maxLimit);
+    this.initialLimit = initialLimit;
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * Creates a concurrency limiter.
+   *
+   * @param initialLimit the concurrent attempts initially allowed per method
+   * @param maxLimit the maximum concurrent attempts allowed per method
+   */
+  public static ConcurrencyLimiter create(int initialLimit, int maxLimit) {
+    return new ConcurrencyLimiter(initialLimit, maxLimit);
+  }
+
+  /**
+   * Returns the number of concurrent attempts initially allowed per method.
+   */
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  /**
+   * Returns the maximum number of concurrent attempts allowed per method.
+   */
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  /**
+   * Returns the current limit of {@code method}.
+   */
+  public int getLimit(String method) {
+    Partition partition = partitions.get(method);
+    if (partition == null) {
+      return initialLimit;
+    }
+    partition.lock.lock();
+    try {
+      return (int) partition.limit;
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of attempts of {@code method} in flight.
+   */
+  public int getInFlight(String method) {
+    Partition partition = partitions.get(method);
+    if (partition == null) {
+      return 0;
+    }
+    partition.lock.lock();
+    try {
+      return partition.inFlight;
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of attempts of {@code method} waiting for the limit.
+   */
+  public int getQueueLength(String method) {
+    Partition partition = partitions.get(method);
+    if (partition == null) {
+      return 0;
+    }
+    partition.lock.lock();
+    try {
+      return partition.queued;
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  /**
+   * Waits until an attempt of {@code method} is allowed and counts it as in flight. Each call must
+   * be followed by a call to {@link #release} with the returned ticket.
+   */
+  long acquire(String method) throws InterruptedException {
+    Partition partition = partitionFor(method);
+    partition.lock.lockInterruptibly();
+    try {
+      if (partition.inFlight >= (int) partition.limit) {
+        partition.queued++;
+        try {
+          while (partition.inFlight >= (int) partition.limit) {
+            partition.available.await();
+          }
+        } finally {
+          partition.queued--;
+        }
+      }
+      partition.inFlight++;
+      return partition.acquired++;
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  /**
+   * Counts an attempt of {@code method} as in flight if it is allowed right away. Returns
+   * {@link #NOT_ACQUIRED}, without waiting, if the limit of {@code method} is reached. Each other
+   * call must be followed by a call to {@link #release} with the returned ticket.
+   */
+  long tryAcquire(String method) {
+    Partition partition = partitionFor(method);
+    partition.lock.lock();
+    try {
+      if (partition.inFlight >= (int) partition.limit) {
+        return NOT_ACQUIRED;
+      }
+      partition.inFlight++;
+      return partition.acquired++;
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  /**
+   * Completes the attempt of {@code method} that acquired {@code ticket} and adjusts the limit of
+   * {@code method} according to the outcome.
+   */
+  void release(String method, long ticket, Outcome outcome, long latencyMillis) {
+    Partition partition = partitionFor(method);
+    partition.lock.lock();
+    try {
+      int inFlight = partition.inFlight--;
+      if (outcome == Outcome.SUCCESS && isQueueing(partition, latencyMillis)) {
+        outcome = Outcome.OVERLOADED;
+      }
+      if (outcome == Outcome.OVERLOADED) {
+        if (ticket >= partition.acquiredAtDecrease) {
+          partition.limit = Math.max(1, partition.limit * BACKOFF_RATIO);
+          partition.acquiredAtDecrease = partition.acquired;
+        }
+      } else if (outcome == Outcome.SUCCESS && inFlight * 2 >= partition.limit) {
+        // Only grow a limit that is in use, by one per round trip
+        partition.limit = Math.min(maxLimit, partition.limit + 1 / partition.limit);
+      }
+      partition.available.signalAll();
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  private static boolean isQueueing(Partition partition, long latencyMillis) {
+    if (partition.shortLatencyMillis < 0) {
+      partition.shortLatencyMillis = latencyMillis;
+      partition.longLatencyMillis = latencyMillis;
+      return false;
+    }
+    partition.shortLatencyMillis +=
+        SHORT_LATENCY_WEIGHT * (latencyMillis - partition.shortLatencyMillis);
+    partition.longLatencyMillis +=
+        LONG_LATENCY_WEIGHT * (latencyMillis - partition.longLatencyMillis);
+    // The long-term average follows a drop of latency right away, e.g. once a load spike is over,
+    // and only creeps up while latency is high, so that it stays close to the unloaded latency
+    partition.longLatencyMillis =
+        Math.min(partition.longLatencyMillis, partition.shortLatencyMillis);
+    return partition.shortLatencyMillis > partition.longLatencyMillis * LATENCY_TOLERANCE
+        && partition.shortLatencyMillis - partition.longLatencyMillis > MIN_LATENCY_MARGIN_MILLIS;
+  }
+
+  /**
+   * Returns whether {@code error} means that the service rejected an attempt because it is
+   * overloaded.
+   */
+  static boolean isOverloaded(Throwable error) {
+    if (!(error instanceof BaseServiceException)) {
+      return false;
+    }
+    BaseServiceException serviceException = (BaseServiceException) error;
+    String reason = serviceException.getReason();
+    return serviceException.getCode() == 429 || serviceException.getCode() == 503
+        || "rateLimitExceeded".equals(reason) || "userRateLimitExceeded".equals(reason)
+        || "RESOURCE_EXHAUSTED".equals(reason) || "UNAVAILABLE".equals(reason);
+  }
+
+  private Partition partitionFor(String method) {
+    Partition partition = partitions.get(method);
+    if (partition == null) {
+      Partition newPartition = new Partition(initialLimit);
+      partition = partitions.putIfAbsent(method, newPartition);
+      if (partition == null) {
+        partition = newPartition;
+      }
+    }
+    return partition;
+  }
+
+  private Object readResolve() throws ObjectStreamException {
+    return new ConcurrencyLimiter(initialLimit, maxLimit);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(initialLimit, maxLimit);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof ConcurrencyLimiter)) {
+      return false;
+    }
+    ConcurrencyLimiter other = (ConcurrencyLimiter) obj;
+    return initialLimit == other.initialLimit
+        && maxLimit == other.maxLimit;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("initialLimit", initialLimit)
+        .add("maxLimit", maxLimit)
+        .toString();
+  }
+}
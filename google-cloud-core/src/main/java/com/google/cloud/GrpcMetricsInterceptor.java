@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import com.google.protobuf.MessageLite;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
+import io.grpc.ForwardingClientCallListener.SimpleForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A gRPC client interceptor that reports each call to a {@link MetricsRecorder}. The method name
+ * is the full gRPC method name, the status is the gRPC status code and message sizes are the
+ * serialized sizes of protocol buffer messages. Calls are retried by the gRPC transport layer, so
+ * the attempt number is not known.
+ */
+final class GrpcMetricsInterceptor implements ClientInterceptor {
+
+  private final MetricsRecorder metricsRecorder;
+
+  GrpcMetricsInterceptor(MetricsRecorder metricsRecorder) {
+    this.metricsRecorder = metricsRecorder;
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      final MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    final long start = System.nanoTime();
+    final AtomicLong requestBytes = new AtomicLong();
+    final AtomicLong responseBytes = new AtomicLong();
+    return new SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+      @Override
+      public void start(Listener<RespT> responseListener, Metadata headers) {
+        super.start(new SimpleForwardingClientCallListener<RespT>(responseListener) {
+          @Override
+          public void onMessage(RespT message) {
+            responseBytes.addAndGet(sizeOf(message));
+            super.onMessage(message);
+          }
+
+          @Override
+          public void onClose(Status status, Metadata trailers) {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            metricsRecorder.recordAttempt(method.getFullMethodName(),
+                status.isOk() ? MetricsRecorder.OK : status.getCode().name(), 0, latencyMillis,
+                requestBytes.get(), responseBytes.get());
+            super.onClose(status, trailers);
+          }
+        }, headers);
+      }
+
+      @Override
+      public void sendMessage(ReqT message) {
+        requestBytes.addAndGet(sizeOf(message));
+        super.sendMessage(message);
+      }
+    };
+  }
+
+  private static long sizeOf(Object message) {
+    return message instanceof MessageLite ? ((MessageLite) message).getSerializedSize() : 0;
+  }
+
+  /**
+   * Returns a channel whose calls are reported to {@code metricsRecorder}. Shutting down the
+   * returned channel shuts down {@code channel}.
+   */
+  static ManagedChannel intercept(final ManagedChannel channel, MetricsRecorder metricsRecorder) {
+    final Channel intercepted =
+        ClientInterceptors.intercept(channel, new GrpcMetricsInterceptor(metricsRecorder));
+    return new ManagedChannel() {
+      @Override
+      public ManagedChannel shutdown() {
+        channel.shutdown();
+        return this;
+      }
+
+      @Override
+      public boolean isShutdown() {
+        return channel.isShutdown();
+      }
+
+      @Override
+      public boolean isTerminated() {
+        return channel.isTerminated();
+      }
+
+      @Override
+      public ManagedChannel shutdownNow() {
+        channel.shutdownNow();
+        return this;
+      }
+
+      @Override
+      public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return channel.awaitTermination(timeout, unit);
+      }
+
+      @Override
+      public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+          MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+        return intercepted.newCall(methodDescriptor, callOptions);
+      }
+
+      @Override
+      public String authority() {
+        return channel.authority();
+      }
+    };
+  }
+}
@@ -29,6 +29,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.net.HostAndPort;
 
+import io.grpc.ManagedChannel;
 import io.grpc.internal.SharedResourceHolder;
 import io.grpc.internal.SharedResourceHolder.Resource;
 
@@ -82,6 +83,22 @@ public abstract class GrpcServiceOptions<ServiceT extends Service<OptionsT>, Ser
         }
       };
 
+  /**
+   * Shared executor running in virtual threads.
+   */
+  private static final Resource<ScheduledExecutorService> VIRTUAL_EXECUTOR =
+      new Resource<ScheduledExecutorService>() {
+        @Override
+        public ScheduledExecutorService create() {
+          return VirtualThreads.newScheduledExecutor("gcloud-grpc-virtual-");
+        }
+
+        @Override
+        public void close(ScheduledExecutorService instance) {
+          instance.shutdown();
+        }
+      };
+
   /**
    * An interface for {@link ExecutorService} factories. Implementations of this interface can be
    * used to provide an user-defined executor to execute requests. Any implementation of this
@@ -123,6 +140,28 @@ public abstract class GrpcServiceOptions<ServiceT extends Service<OptionsT>, Ser
     }
   }
 
+  /**
+   * The executor factory of the services that run in virtual threads, see
+   * {@link ServiceOptions#isVirtualThreadsEnabled()}.
+   */
+  @VisibleForTesting
+  static class VirtualThreadExecutorFactory
+      implements ExecutorFactory<ScheduledExecutorService> {
+
+    private static final VirtualThreadExecutorFactory INSTANCE =
+        new VirtualThreadExecutorFactory();
+
+    @Override
+    public ScheduledExecutorService get() {
+      return SharedResourceHolder.get(VIRTUAL_EXECUTOR);
+    }
+
+    @Override
+    public synchronized void release(ScheduledExecutorService executor) {
+      SharedResourceHolder.release(VIRTUAL_EXECUTOR, executor);
+    }
+  }
+
   /**
    * Builder for {@code GrpcServiceOptions}.
    *
@@ -257,8 +296,10 @@ public abstract class GrpcServiceOptions<ServiceT extends Service<OptionsT>, Ser
       Class<? extends ServiceRpcFactory<ServiceRpcT, OptionsT>> rpcFactoryClass, Builder<ServiceT,
       ServiceRpcT, OptionsT, ?> builder) {
     super(serviceFactoryClass, rpcFactoryClass, builder);
+    ExecutorFactory defaultExecutorFactory = isVirtualThreadsEnabled()
+        ? VirtualThreadExecutorFactory.INSTANCE : DefaultExecutorFactory.INSTANCE;
     executorFactory = firstNonNull(builder.executorFactory,
-        getFromServiceLoader(ExecutorFactory.class, DefaultExecutorFactory.INSTANCE));
+        getFromServiceLoader(ExecutorFactory.class, defaultExecutorFactory));
     executorFactoryClassName = executorFactory.getClass().getName();
     initialTimeout = builder.initialTimeout;
     timeoutMultiplier = builder.timeoutMultiplier;
@@ -321,6 +362,16 @@ public abstract class GrpcServiceOptions<ServiceT extends Service<OptionsT>, Ser
     return builder.build();
   }
 
+  /**
+   * Returns a channel that reports the calls made through {@code channel} to the options' metrics
+   * recorder, or {@code channel} itself if metrics are not recorded.
+   */
+  protected ManagedChannel instrumentChannel(ManagedChannel channel) {
+    MetricsRecorder metricsRecorder = getMetricsRecorder();
+    return metricsRecorder == MetricsRecorder.NO_OP ? channel
+        : GrpcMetricsInterceptor.intercept(channel, metricsRecorder);
+  }
+
   /**
    * Returns the timeout for the initial RPC, in milliseconds. Subsequent calls will use this value
    * adjusted according to {@link #getTimeoutMultiplier()}. Default value is 20000.
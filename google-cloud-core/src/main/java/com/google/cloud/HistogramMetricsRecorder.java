@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link MetricsRecorder} that aggregates metrics in memory, per method, so that they can be
+ * polled. Attempt latencies and chunk throughputs are kept in {@link LatencyHistogram}s. Recording
+ * never blocks.
+ *
+ * <p>Example of polling the latency of storage calls.
+ * <pre> {@code
+ * HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+ * Storage storage = StorageOptions.newBuilder().setMetricsRecorder(recorder).build().getService();
+ * // use storage
+ * for (Map.Entry<String, MethodMetrics> entry : recorder.getMethodMetrics().entrySet()) {
+ *   LatencyHistogram latency = entry.getValue().getLatencyMillis();
+ *   System.out.println(entry.getKey() + " p99: " + latency.getValueAtPercentile(99) + " ms");
+ * }
+ * }</pre>
+ */
+public final class HistogramMetricsRecorder implements MetricsRecorder {
+
+  private final ConcurrentMap<String, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ChunkMetrics> chunkMetrics = new ConcurrentHashMap<>();
+
+  /**
+   * Metrics of the attempts of a method.
+   */
+  public static final class MethodMetrics {
+
+    private final LatencyHistogram latencyMillis = new LatencyHistogram();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong requestBytes = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+
+    private MethodMetrics() {}
+
+    /**
+     * Returns the histogram of attempt latencies, in milliseconds. Its count is the number of
+     * attempts.
+     */
+    public LatencyHistogram getLatencyMillis() {
+      return latencyMillis;
+    }
+
+    /**
+     * Returns the number of attempts that were retries of a failed attempt.
+     */
+    public long getRetryCount() {
+      return retryCount.get();
+    }
+
+    /**
+     * Returns the total size of the requests whose size is known.
+     */
+    public long getRequestBytes() {
+      return requestBytes.get();
+    }
+
+    /**
+     * Returns the total size of the responses whose size is known.
+     */
+    public long getResponseBytes() {
+      return responseBytes.get();
+    }
+
+    /**
+     * Returns the number of attempts per status, e.g. {@link MetricsRecorder#OK}.
+     */
+    public Map<String, Long> getStatusCounts() {
+      ImmutableMap.Builder<String, Long> counts = ImmutableMap.builder();
+      for (Map.Entry<String, AtomicLong> entry : statusCounts.entrySet()) {
+        counts.put(entry.getKey(), entry.getValue().get());
+      }
+      return counts.build();
+    }
+  }
+
+  /**
+   * Metrics of the chunks transferred by a channel operation.
+   */
+  public static final class ChunkMetrics {
+
+    private final LatencyHistogram bytesPerSecond = new LatencyHistogram();
+    private final AtomicLong bytes = new AtomicLong();
+
+    private ChunkMetrics() {}
+
+    /**
+     * Returns the histogram of chunk throughputs, in bytes per second. Its count is the number of
+     * chunks.
+     */
+    public LatencyHistogram getBytesPerSecond() {
+      return bytesPerSecond;
+    }
+
+    /**
+     * Returns the total number of bytes transferred.
+     */
+    public long getBytes() {
+      return bytes.get();
+    }
+  }
+
+  @Override
+  public void recordAttempt(String method, String status, int attemptNumber, long latencyMillis,
+      long requestBytes, long responseBytes) {
+    MethodMetrics metrics = metricsFor(method);
+    metrics.latencyMillis.record(latencyMillis);
+    if (attemptNumber > 1) {
+      metrics.retryCount.incrementAndGet();
+    }
+    if (requestBytes != UNKNOWN_BYTES) {
+      metrics.requestBytes.addAndGet(requestBytes);
+    }
+    if (responseBytes != UNKNOWN_BYTES) {
+      metrics.responseBytes.addAndGet(responseBytes);
+    }
+    counterFor(metrics.statusCounts, status).incrementAndGet();
+  }
+
+  @Override
+  public void recordChunk(String method, long bytes, long latencyMillis) {
+    ChunkMetrics metrics = chunkMetricsFor(method);
+    metrics.bytes.addAndGet(bytes);
+    metrics.bytesPerSecond.record(bytes * 1000 / Math.max(1, latencyMillis));
+  }
+
+  /**
+   * Returns the metrics of all the methods called so far, keyed by method name.
+   */
+  public Map<String, MethodMetrics> getMethodMetrics() {
+    return Collections.unmodifiableMap(methodMetrics);
+  }
+
+  /**
+   * Returns the chunk metrics of all the channel operations so far, keyed by operation name.
+   */
+  public Map<String, ChunkMetrics> getChunkMetrics() {
+    return Collections.unmodifiableMap(chunkMetrics);
+  }
+
+  private MethodMetrics metricsFor(String method) {
+    MethodMetrics metrics = methodMetrics.get(method);
+    if (metrics == null) {
+      MethodMetrics newMetrics = new MethodMetrics();
+      metrics = methodMetrics.putIfAbsent(method, newMetrics);
+      if (metrics == null) {
+        metrics = newMetrics;
+      }
+    }
+    return metrics;
+  }
+
+  private ChunkMetrics chunkMetricsFor(String method) {
+    ChunkMetrics metrics = chunkMetrics.get(method);
+    if (metrics == null) {
+      ChunkMetrics newMetrics = new ChunkMetrics();
+      metrics = chunkMetrics.putIfAbsent(method, newMetrics);
+      if (metrics == null) {
+        metrics = newMetrics;
+      }
+    }
+    return metrics;
+  }
+
+  private static AtomicLong counterFor(ConcurrentMap<String, AtomicLong> counters, String key) {
+    AtomicLong counter = counters.get(key);
+    if (counter == null) {
+      AtomicLong newCounter = new AtomicLong();
+      counter = counters.putIfAbsent(key, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+      }
+    }
+    return counter;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative {@code long} values, with buckets laid out as in an HDR
+ * histogram: values below {@value #SUB_BUCKET_COUNT} are counted exactly, larger values in
+ * buckets whose width grows with the value, so that any value is reported with a relative error
+ * below {@code 1 / 16}. Recording a value is a handful of atomic increments, and the histogram can
+ * be read while values are being recorded; reads see a consistent count per bucket but not
+ * necessarily across buckets.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+  private static final int BUCKET_COUNT =
+      (64 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong totalCount = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   */
+  public void record(long value) {
+    long recorded = Math.max(0, value);
+    counts.incrementAndGet(bucketIndex(recorded));
+    totalCount.incrementAndGet();
+    sum.addAndGet(recorded);
+    long currentMax = max.get();
+    while (recorded > currentMax && !max.compareAndSet(currentMax, recorded)) {
+      currentMax = max.get();
+    }
+  }
+
+  /**
+   * Returns the number of recorded values.
+   */
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * Returns the largest recorded value, or 0 if no value was recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the recorded values, or 0 if no value was recorded.
+   */
+  public double getMean() {
+    long count = totalCount.get();
+    return count == 0 ? 0 : (double) sum.get() / count;
+  }
+
+  /**
+   * Returns a value such that {@code percentile} percent of the recorded values are lower or
+   * equivalent to it, or 0 if no value was recorded.
+   *
+   * @param percentile the percentile, in the {@code [0, 100]} range
+   */
+  public long getValueAtPercentile(double percentile) {
+    checkArgument(percentile >= 0 && percentile <= 100,
+        "percentile must be in the [0, 100] range: %s", percentile);
+    long count = totalCount.get();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      seen += counts.get(index);
+      if (seen >= rank) {
+        return Math.min(highestEquivalentValue(index), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Resets the histogram. Values recorded concurrently with a reset may be partially lost.
+   */
+  public void reset() {
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      counts.set(index, 0);
+    }
+    totalCount.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    // Keep the SUB_BUCKET_BITS most significant bits of the value
+    int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+  }
+
+  static long highestEquivalentValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+    long lowestEquivalentValue = (long) (index - shift * SUB_BUCKET_HALF_COUNT) << shift;
+    return lowestEquivalentValue + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+/**
+ * A sink for client-side metrics of service calls. A recorder is set on the service options with
+ * {@link ServiceOptions.Builder#setMetricsRecorder(MetricsRecorder)} and is invoked around each
+ * attempt made by {@link RetryHelper}, each gRPC call made through a channel from
+ * {@link GrpcServiceOptions} and each chunk transferred by the services' read and write channels.
+ *
+ * <p>Implementations are called on the request path, from any thread, and must be thread-safe
+ * and fast. {@link HistogramMetricsRecorder} is an implementation that can be polled.
+ */
+public interface MetricsRecorder {
+
+  /**
+   * The status reported for successful attempts.
+   */
+  String OK = "OK";
+
+  /**
+   * The value reported for request or response sizes that are not known.
+   */
+  long UNKNOWN_BYTES = -1;
+
+  /**
+   * A recorder that ignores all metrics. This is the default.
+   */
+  MetricsRecorder NO_OP = new MetricsRecorder() {
+    @Override
+    public void recordAttempt(String method, String status, int attemptNumber, long latencyMillis,
+        long requestBytes, long responseBytes) {}
+
+    @Override
+    public void recordChunk(String method, long bytes, long latencyMillis) {}
+  };
+
+  /**
+   * Records an attempt of a service call.
+   *
+   * @param method the name of the called method, e.g. {@code StorageImpl.get(BlobId,
+   *     BlobGetOption[])} or {@code google.pubsub.v1.Publisher/Publish}
+   * @param status {@link #OK} if the attempt succeeded, otherwise the error reason, code or
+   *     exception type
+   * @param attemptNumber the attempt number, starting at 1, or 0 if not known
+   * @param latencyMillis the duration of the attempt, in milliseconds
+   * @param requestBytes the size of the request, or {@link #UNKNOWN_BYTES}
+   * @param responseBytes the size of the response, or {@link #UNKNOWN_BYTES}
+   */
+  void recordAttempt(String method, String status, int attemptNumber, long latencyMillis,
+      long requestBytes, long responseBytes);
+
+  /**
+   * Records a chunk of data transferred by a read or write channel.
+   *
+   * @param method the name of the channel operation, e.g. {@code BlobReadChannel.read}
+   * @param bytes the number of bytes transferred
+   * @param latencyMillis the time taken to transfer the chunk, retries included, in milliseconds
+   */
+  void recordChunk(String method, long bytes, long latencyMillis);
+}
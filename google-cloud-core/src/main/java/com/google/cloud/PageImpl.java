@@ -16,14 +16,25 @@
 
 package com.google.cloud;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base implementation for Google Cloud paginated results.
@@ -73,6 +84,74 @@ public class PageImpl<T> implements Page<T>, Serializable {
     }
   }
 
+  /**
+   * Iterator that fetches the page after the one being traversed. Pages that support it are
+   * fetched with {@link AsyncPage#getNextPageAsync()}, other pages on a shared, bounded executor.
+   */
+  static class PrefetchingPageIterator<T> extends AbstractIterator<T> {
+
+    private Iterator<T> currentPageIterator;
+    private Future<? extends Page<T>> nextPage;
+
+    PrefetchingPageIterator(Page<T> currentPage) {
+      this.currentPageIterator = currentPage.getValues().iterator();
+      this.nextPage = fetchNextPage(currentPage);
+    }
+
+    @Override
+    protected T computeNext() {
+      while (!currentPageIterator.hasNext()) {
+        Page<T> currentPage = getNextPage();
+        if (currentPage == null) {
+          return endOfData();
+        }
+        currentPageIterator = currentPage.getValues().iterator();
+        nextPage = fetchNextPage(currentPage);
+      }
+      return currentPageIterator.next();
+    }
+
+    private Page<T> getNextPage() {
+      try {
+        return Uninterruptibles.getUninterruptibly(nextPage);
+      } catch (ExecutionException ex) {
+        throw Throwables.propagate(ex.getCause());
+      }
+    }
+
+    private static <T> Future<? extends Page<T>> fetchNextPage(final Page<T> page) {
+      if (page.getNextPageCursor() == null) {
+        return Futures.<Page<T>>immediateFuture(null);
+      }
+      if (page instanceof AsyncPage) {
+        return ((AsyncPage<T>) page).getNextPageAsync();
+      }
+      return PrefetchExecutorHolder.INSTANCE.submit(new Callable<Page<T>>() {
+        @Override
+        public Page<T> call() {
+          return page.getNextPage();
+        }
+      });
+    }
+  }
+
+  /**
+   * Lazily created executor that fetches the next pages of synchronous pages. Each prefetching
+   * iterator has at most one fetch in flight, fetches beyond the thread bound are queued.
+   */
+  private static final class PrefetchExecutorHolder {
+
+    private static final ExecutorService INSTANCE = create();
+
+    private static ExecutorService create() {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(8, 8, 5, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("gcloud-prefetch-%d").build());
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
   /**
    * Creates a {@code PageImpl} object. In order for the object to be serializable the {@code
    * results} parameter must be serializable.
@@ -139,6 +218,21 @@ public class PageImpl<T> implements Page<T>, Serializable {
         && Objects.equals(results, other.results);
   }
 
+  /**
+   * Returns an iterator for all values of {@code page}, possibly also in the next pages. Unlike
+   * {@link Page#iterateAll()}, the iterator fetches the next page in the background while the
+   * values of the current page are traversed, so that iterating over many pages does not wait for
+   * a request at every page boundary. At most one page is fetched ahead: a page may be fetched and
+   * never traversed if iteration stops early. Errors fetching a page are thrown when the iterator
+   * reaches that page.
+   *
+   * @param <T> the value type that the page holds
+   * @param page the first page to iterate over
+   */
+  public static <T> Iterator<T> iterateAllPrefetching(Page<T> page) {
+    return new PrefetchingPageIterator<>(page);
+  }
+
   /**
    * Utility method to construct the options map for the next page request.
    *
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends hedged requests for idempotent reads. The latency of the recent successful attempts of
+ * each operation is tracked and, when an attempt takes longer than the configured percentile of
+ * those latencies, a second identical attempt is started. The result of whichever attempt
+ * succeeds first is returned and the other attempt is abandoned. This trades a few extra requests
+ * for a shorter tail latency.
+ *
+ * <p>Once an operation can be hedged both of its attempts run on an executor, while the calling
+ * thread waits for the first one to succeed. The caller never waits for the losing attempt, even
+ * if it blocks in a call that ignores interrupts, e.g. a socket read, and is never interrupted.
+ *
+ * <p>Hedging is enabled for a service with {@link RetryParams.Builder#setRequestHedger}, and only
+ * applies to the operations the service declares idempotent. Until {@value #MIN_SAMPLES}
+ * latencies have been recorded for an operation its attempts are not hedged.
+ */
+public final class RequestHedger implements Serializable {
+
+  private static final long serialVersionUID = -3405932788136712563L;
+
+  static final int MIN_SAMPLES = 20;
+  static final int MAX_SAMPLES = 128;
+
+  private final double percentile;
+  private final transient ConcurrentMap<String, Latencies> latencies = new ConcurrentHashMap<>();
+
+  /**
+   * The latencies of the last {@value #MAX_SAMPLES} successful attempts of an operation.
+   */
+  private static final class Latencies {
+
+    private final long[] samples = new long[MAX_SAMPLES];
+    private int index;
+    private int count;
+
+    synchronized void record(long latencyMillis) {
+      samples[index] = latencyMillis;
+      index = (index + 1) % MAX_SAMPLES;
+      if (count < MAX_SAMPLES) {
+        count++;
+      }
+    }
+
+    synchronized long percentile(double percentile) {
+      if (count < MIN_SAMPLES) {
+        return -1;
+      }
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+      return sorted[Math.max(0, rank)];
+    }
+  }
+
+  private RequestHedger(double percentile) {
+    checkArgument(percentile > 0 && percentile < 100,
+        "percentile must be in the (0, 100) range: %s", percentile);
+    this.percentile = percentile;
+  }
+
+  /**
+   * Creates a hedger that starts a second attempt once the first one has been running for longer
+   * than {@code percentile} percent of the recent attempts, e.g. {@code 95} for the 95th
+   * percentile.
+   */
+  public static RequestHedger create(double percentile) {
+    return new RequestHedger(percentile);
+  }
+
+  /**
+   * Returns the latency percentile after which a second attempt is started.
+   */
+  public double getPercentile() {
+    return percentile;
+  }
+
+  /**
+   * Returns the current hedging delay for {@code operation}, or {@code -1} if not enough latencies
+   * have been recorded.
+   */
+  @VisibleForTesting
+  long getDelayMillis(String operation) {
+    return getLatencies(operation).percentile(percentile);
+  }
+
+  /**
+   * Runs {@code callable} as an attempt of {@code operation}. If not enough latencies have been
+   * recorded for the operation it runs on the calling thread. Otherwise it runs on
+   * {@code executor} and, if it is still running after the hedging delay, {@code hedge} is started
+   * on {@code executor} as well, the delay being timed by {@code scheduler}. The value of the
+   * first attempt that succeeds is returned and the other one is cancelled. If the first attempt
+   * fails while the hedge is running, the hedge is waited for. A hedge that fails, e.g. because it
+   * could not get a concurrency permit, leaves the outcome to the first attempt.
+   */
+  <V> V call(Callable<V> callable, Callable<V> hedge, String operation,
+      ScheduledExecutorService scheduler, final Executor executor, Clock clock)
+      throws Exception {
+    Latencies operationLatencies = getLatencies(operation);
+    long delayMillis = operationLatencies.percentile(percentile);
+    Callable<V> attempt = timed(callable, operationLatencies, clock);
+    if (delayMillis < 0) {
+      return attempt.call();
+    }
+    final HedgedCall<V> hedgedCall = new HedgedCall<>();
+    try {
+      executor.execute(hedgedCall.start(attempt, true));
+    } catch (RejectedExecutionException ex) {
+      return attempt.call();
+    }
+    final Callable<V> hedgeAttempt = timed(hedge, operationLatencies, clock);
+    ScheduledFuture<?> hedgeStart = null;
+    try {
+      hedgeStart = scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          FutureTask<V> task = hedgedCall.start(hedgeAttempt, false);
+          if (task != null) {
+            try {
+              executor.execute(task);
+            } catch (RejectedExecutionException ex) {
+              task.cancel(false);
+            }
+          }
+        }
+      }, delayMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ignored) {
+      // The first attempt goes on alone
+    }
+    try {
+      return hedgedCall.get();
+    } finally {
+      if (hedgeStart != null) {
+        hedgeStart.cancel(false);
+      }
+      hedgedCall.abandon();
+    }
+  }
+
+  private static <V> Callable<V> timed(final Callable<V> callable,
+      final Latencies operationLatencies, final Clock clock) {
+    return new Callable<V>() {
+      @Override
+      public V call() throws Exception {
+        long start = clock.millis();
+        V value = callable.call();
+        operationLatencies.record(clock.millis() - start);
+        return value;
+      }
+    };
+  }
+
+  /**
+   * The outcome of the attempts of a hedged call: the value of the first attempt that succeeds or,
+   * once all the started attempts have failed, the failure of the first attempt.
+   */
+  private static final class HedgedCall<V> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition completion = lock.newCondition();
+    private final List<FutureTask<V>> attempts = new ArrayList<>(2);
+    private int running;
+    private boolean completed;
+    private boolean succeeded;
+    private V value;
+    private Throwable failure;
+
+    /**
+     * Returns a task that runs {@code callable}, or {@code null} if the call already completed.
+     */
+    FutureTask<V> start(Callable<V> callable, final boolean first) {
+      lock.lock();
+      try {
+        if (completed) {
+          return null;
+        }
+        FutureTask<V> task = new FutureTask<V>(callable) {
+          @Override
+          protected void done() {
+            onAttemptDone(this, first);
+          }
+        };
+        attempts.add(task);
+        running++;
+        return task;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void onAttemptDone(FutureTask<V> task, boolean first) {
+      lock.lock();
+      try {
+        running--;
+        if (completed) {
+          return;
+        }
+        try {
+          value = task.get();
+          succeeded = true;
+          completed = true;
+        } catch (ExecutionException ex) {
+          if (first) {
+            failure = ex.getCause();
+          }
+        } catch (CancellationException | InterruptedException ex) {
+          if (first) {
+            failure = ex;
+          }
+        }
+        if (running == 0) {
+          completed = true;
+        }
+        if (completed) {
+          completion.signalAll();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    V get() throws Exception {
+      lock.lock();
+      try {
+        while (!completed) {
+          completion.await();
+        }
+        if (succeeded) {
+          return value;
+        }
+        Throwables.propagateIfPossible(failure, Exception.class);
+        throw new ExecutionException(failure);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Cancels the attempts that are still running. Their outcome is ignored.
+     */
+    void abandon() {
+      List<FutureTask<V>> tasks;
+      lock.lock();
+      try {
+        completed = true;
+        tasks = new ArrayList<>(attempts);
+      } finally {
+        lock.unlock();
+      }
+      for (FutureTask<V> task : tasks) {
+        task.cancel(true);
+      }
+    }
+  }
+
+  private Latencies getLatencies(String operation) {
+    Latencies operationLatencies = latencies.get(operation);
+    if (operationLatencies == null) {
+      Latencies newLatencies = new Latencies();
+      operationLatencies = latencies.putIfAbsent(operation, newLatencies);
+      if (operationLatencies == null) {
+        operationLatencies = newLatencies;
+      }
+    }
+    return operationLatencies;
+  }
+
+  private Object readResolve() throws ObjectStreamException {
+    return new RequestHedger(percentile);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(percentile);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof RequestHedger)) {
+      return false;
+    }
+    RequestHedger other = (RequestHedger) obj;
+    return percentile == other.percentile;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("percentile", percentile).toString();
+  }
+}
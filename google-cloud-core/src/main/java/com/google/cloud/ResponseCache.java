@@ -0,0 +1,272 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A cache of the responses of metadata reads, e.g. the information of a blob, a table or a zone.
+ * Responses are cached per resource, up to {@code maxResources} least recently used resources,
+ * and per request of that resource, since different requests, e.g. with a different field
+ * selection, may get different responses. A cached response is served for {@code ttlMillis} after
+ * it was read. Mutations of a resource made through the service invalidate its cached responses,
+ * changes made by other clients may go unnoticed until the responses expire. Reads that find no
+ * resource are not cached.
+ *
+ * <p>If revalidation is enabled, expired responses are kept and passed back to the service when
+ * the resource is read again. Services that support it then send a conditional request, which
+ * the server answers without a body if the resource did not change.
+ *
+ * <p>A cache is enabled for the reads of a service with
+ * {@link ServiceOptions.Builder#setResponseCache}.
+ */
+public final class ResponseCache implements Serializable {
+
+  private static final long serialVersionUID = 6380925372401826263L;
+
+  private final long maxResources;
+  private final long ttlMillis;
+  private final boolean revalidationEnabled;
+  private final transient Cache<Object, ConcurrentMap<Object, CachedResponse>> resources;
+
+  /**
+   * Reads a response, possibly conditionally on a previous response.
+   *
+   * @param <V> the type of the response
+   */
+  public interface Loader<V> {
+
+    /**
+     * Reads the response, or returns {@code null} if the resource does not exist.
+     *
+     * @param expired the expired cached response, if revalidation is enabled and there is one,
+     *     {@code null} otherwise. It may be returned if the resource did not change.
+     */
+    V load(V expired);
+  }
+
+  /**
+   * Reads a response without blocking, possibly conditionally on a previous response.
+   *
+   * @param <V> the type of the response
+   */
+  public interface AsyncLoader<V> {
+
+    /**
+     * Sends the read, returning a future that yields the response, or {@code null} if the resource
+     * does not exist.
+     *
+     * @param expired the expired cached response, as for {@link Loader#load(Object)}
+     */
+    ListenableFuture<V> load(V expired);
+  }
+
+  private static final class CachedResponse {
+
+    private final Object value;
+    private final long readMillis;
+
+    CachedResponse(Object value, long readMillis) {
+      this.value = value;
+      this.readMillis = readMillis;
+    }
+  }
+
+  private ResponseCache(long maxResources, long ttlMillis, boolean revalidationEnabled) {
+    checkArgument(maxResources > 0, "maxResources must be > 0: %s", maxResources);
+    checkArgument(ttlMillis > 0, "ttlMillis must be > 0: %s", ttlMillis);
+    this.maxResources = maxResources;
+    this.ttlMillis = ttlMillis;
+    this.revalidationEnabled = revalidationEnabled;
+    this.resources = CacheBuilder.newBuilder().maximumSize(maxResources).build();
+  }
+
+  /**
+   * Creates a response cache without revalidation.
+   *
+   * @param maxResources the maximum number of resources whose responses are cached
+   * @param ttlMillis how long, in milliseconds, a response is served from the cache
+   */
+  public static ResponseCache create(long maxResources, long ttlMillis) {
+    return create(maxResources, ttlMillis, false);
+  }
+
+  /**
+   * Creates a response cache.
+   *
+   * @param maxResources the maximum number of resources whose responses are cached
+   * @param ttlMillis how long, in milliseconds, a response is served from the cache
+   * @param revalidationEnabled whether expired responses are revalidated with conditional
+   *     requests, for services that support it
+   */
+  public static ResponseCache create(long maxResources, long ttlMillis,
+      boolean revalidationEnabled) {
+    return new ResponseCache(maxResources, ttlMillis, revalidationEnabled);
+  }
+
+  /**
+   * Returns the maximum number of resources whose responses are cached.
+   */
+  public long getMaxResources() {
+    return maxResources;
+  }
+
+  /**
+   * Returns how long, in milliseconds, a response is served from the cache.
+   */
+  public long getTtlMillis() {
+    return ttlMillis;
+  }
+
+  /**
+   * Returns whether expired responses are revalidated with conditional requests.
+   */
+  public boolean isRevalidationEnabled() {
+    return revalidationEnabled;
+  }
+
+  /**
+   * Returns the cached response to {@code request} of {@code resource} if it has not expired,
+   * otherwise reads it with {@code loader} and caches it. Keys must implement {@code equals} and
+   * {@code hashCode}, and resource keys must be distinct across the services sharing the cache.
+   */
+  public <V> V get(Object resource, Object request, Clock clock, Loader<V> loader) {
+    ConcurrentMap<Object, CachedResponse> responses = responses(resource);
+    CachedResponse cached = responses.get(request);
+    @SuppressWarnings("unchecked")
+    V expired = cached != null ? (V) cached.value : null;
+    if (cached != null && clock.millis() - cached.readMillis < ttlMillis) {
+      return expired;
+    }
+    long readMillis = clock.millis();
+    V value = loader.load(revalidationEnabled ? expired : null);
+    store(responses, request, value, readMillis);
+    return value;
+  }
+
+  /**
+   * Returns a future that yields the cached response to {@code request} of {@code resource} if it
+   * has not expired, otherwise reads it with {@code loader} and caches it once read. Keys are as
+   * for {@link #get(Object, Object, Clock, Loader)}.
+   */
+  public <V> ListenableFuture<V> getAsync(Object resource, final Object request, Clock clock,
+      AsyncLoader<V> loader) {
+    final ConcurrentMap<Object, CachedResponse> responses = responses(resource);
+    CachedResponse cached = responses.get(request);
+    @SuppressWarnings("unchecked")
+    V expired = cached != null ? (V) cached.value : null;
+    if (cached != null && clock.millis() - cached.readMillis < ttlMillis) {
+      return Futures.immediateFuture(expired);
+    }
+    final long readMillis = clock.millis();
+    return Futures.transform(loader.load(revalidationEnabled ? expired : null),
+        new Function<V, V>() {
+          @Override
+          public V apply(V value) {
+            store(responses, request, value, readMillis);
+            return value;
+          }
+        });
+  }
+
+  private ConcurrentMap<Object, CachedResponse> responses(Object resource) {
+    try {
+      return resources.get(resource,
+          new Callable<ConcurrentMap<Object, CachedResponse>>() {
+            @Override
+            public ConcurrentMap<Object, CachedResponse> call() {
+              return new ConcurrentHashMap<>();
+            }
+          });
+    } catch (ExecutionException ex) {
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  private static void store(ConcurrentMap<Object, CachedResponse> responses, Object request,
+      Object value, long readMillis) {
+    // If the resource was invalidated while reading, responses is no longer cached
+    if (value != null) {
+      responses.put(request, new CachedResponse(value, readMillis));
+    } else {
+      responses.remove(request);
+    }
+  }
+
+  /**
+   * Drops the cached responses of {@code resource}. Reads of the resource in progress do not cache
+   * their response.
+   */
+  public void invalidate(Object resource) {
+    resources.invalidate(resource);
+  }
+
+  /**
+   * Drops all cached responses.
+   */
+  public void invalidateAll() {
+    resources.invalidateAll();
+  }
+
+  private Object readResolve() throws ObjectStreamException {
+    return new ResponseCache(maxResources, ttlMillis, revalidationEnabled);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxResources, ttlMillis, revalidationEnabled);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof ResponseCache)) {
+      return false;
+    }
+    ResponseCache other = (ResponseCache) obj;
+    return maxResources == other.maxResources
+        && ttlMillis == other.ttlMillis
+        && revalidationEnabled == other.revalidationEnabled;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("maxResources", maxResources)
+        .add("ttlMillis", ttlMillis)
+        .add("revalidationEnabled", revalidationEnabled)
+        .toString();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A token bucket that limits retries to a fraction of the operations recently made. Each operation
+ * run by {@link RetryHelper} deposits {@code retryRatio} tokens into the bucket, up to
+ * {@code maxTokens}, and each retry withdraws one token. When the bucket is empty failed attempts
+ * are not retried, even if {@link RetryParams} would allow it, until enough new operations refill
+ * it.
+ *
+ * <p>A budget is meant to be shared by all the operations of a service, by setting it in the
+ * {@link RetryParams} of the service options. During an outage this bounds the extra load caused
+ * by retries to about {@code retryRatio} times the regular traffic, instead of multiplying it by
+ * {@code retryMaxAttempts}. The bucket starts full, so isolated failures are always retried.
+ */
+public final class RetryBudget implements Serializable {
+
+  private static final long serialVersionUID = 4265302370925398614L;
+
+  private final double retryRatio;
+  private final int maxTokens;
+  private transient double tokens;
+
+  private RetryBudget(double retryRatio, int maxTokens) {
+    checkArgument(retryRatio > 0, "retryRatio must be > 0: %s", retryRatio);
+    checkArgument(maxTokens > 0, "maxTokens must be > 0: %s", maxTokens);
+    this.retryRatio = retryRatio;
+    this.maxTokens = maxTokens;
+    this.tokens = maxTokens;
+  }
+
+  /**
+   * Creates a retry budget.
+   *
+   * @param retryRatio the number of retries allowed per operation, e.g. {@code 0.1} to allow
+   *     retries for 10% of the operations
+   * @param maxTokens the number of retries allowed in a burst, after a period without failures
+   */
+  public static RetryBudget create(double retryRatio, int maxTokens) {
+    return new RetryBudget(retryRatio, maxTokens);
+  }
+
+  /**
+   * Returns the number of retries allowed per operation.
+   */
+  public double getRetryRatio() {
+    return retryRatio;
+  }
+
+  /**
+   * Returns the maximum number of tokens in the bucket.
+   */
+  public int getMaxTokens() {
+    return maxTokens;
+  }
+
+  /**
+   * Records a new operation, depositing {@code retryRatio} tokens.
+   */
+  synchronized void onOperation() {
+    tokens = Math.min(maxTokens, tokens + retryRatio);
+  }
+
+  /**
+   * Withdraws a token for a retry. Returns {@code false} if the budget is exhausted, in which case
+   * the operation should not be retried.
+   */
+  synchronized boolean tryAcquireRetry() {
+    if (tokens < 1) {
+      return false;
+    }
+    tokens--;
+    return true;
+  }
+
+  synchronized double getAvailableTokens() {
+    return tokens;
+  }
+
+  private Object readResolve() throws ObjectStreamException {
+    return new RetryBudget(retryRatio, maxTokens);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(retryRatio, maxTokens);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof RetryBudget)) {
+      return false;
+    }
+    RetryBudget other = (RetryBudget) obj;
+    return retryRatio == other.retryRatio
+        && maxTokens == other.maxTokens;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("retryRatio", retryRatio)
+        .add("maxTokens", maxTokens)
+        .toString();
+  }
+}
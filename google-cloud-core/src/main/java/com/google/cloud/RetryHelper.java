@@ -22,13 +22,21 @@ import static java.lang.StrictMath.min;
 import static java.lang.StrictMath.pow;
 import static java.lang.StrictMath.random;
 
+import com.google.cloud.ExceptionHandler.Interceptor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
 import java.nio.channels.ClosedByInterruptException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -47,11 +55,41 @@ public class RetryHelper<V> {
   private final Callable<V> callable;
   private final RetryParams params;
   private final ExceptionHandler exceptionHandler;
+  private final ScheduledExecutorService hedgingScheduler;
+  private final Executor hedgingExecutor;
   private int attemptNumber;
 
 
   private static final ThreadLocal<Context> context = new ThreadLocal<>();
 
+  /**
+   * Names of the service methods, as reported to {@link MetricsRecorder}, keyed by the class of
+   * the {@code Callable} they pass to {@code RetryHelper}: {@code StorageImpl.get(BlobId,
+   * BlobGetOption[])} for an anonymous class declared in that method.
+   */
+  private static final ClassValue<String> METHOD_NAMES = new ClassValue<String>() {
+    @Override
+    protected String computeValue(Class<?> type) {
+      Method method = type.getEnclosingMethod();
+      if (method == null) {
+        return type.getName();
+      }
+      // A callable may be nested in another anonymous class, e.g. one coalescing reads
+      while (method.getDeclaringClass().getEnclosingMethod() != null) {
+        method = method.getDeclaringClass().getEnclosingMethod();
+      }
+      StringBuilder name = new StringBuilder();
+      String className = method.getDeclaringClass().getName();
+      name.append(className.substring(className.lastIndexOf('.') + 1));
+      name.append('.').append(method.getName()).append('(');
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      for (int i = 0; i < parameterTypes.length; i++) {
+        name.append(i > 0 ? "," : "").append(parameterTypes[i].getSimpleName());
+      }
+      return name.append(')').toString();
+    }
+  };
+
   public static class RetryHelperException extends RuntimeException {
 
     private static final long serialVersionUID = -2907061015610448235L;
@@ -134,6 +172,14 @@ public class RetryHelper<V> {
     public int getAttemptNumber() {
       return helper.attemptNumber;
     }
+
+    /**
+     * Returns a key identifying the operation being retried. Each service method passes its own
+     * {@code Callable} class to {@code RetryHelper}, so its name identifies the method.
+     */
+    String getOperation() {
+      return helper.callable.getClass().getName();
+    }
   }
 
   @VisibleForTesting
@@ -152,6 +198,13 @@ public class RetryHelper<V> {
   @VisibleForTesting
   RetryHelper(Callable<V> callable, RetryParams params, ExceptionHandler exceptionHandler,
       Clock clock) {
+    this(callable, params, exceptionHandler, clock, null, null);
+  }
+
+  private RetryHelper(Callable<V> callable, RetryParams params, ExceptionHandler exceptionHandler,
+      Clock clock, ScheduledExecutorService hedgingScheduler, Executor hedgingExecutor) {
+    this.hedgingScheduler = hedgingScheduler;
+    this.hedgingExecutor = hedgingExecutor;
     this.callable = checkNotNull(callable);
     this.params = checkNotNull(params);
     this.clock = checkNotNull(clock);
@@ -172,31 +225,38 @@ public class RetryHelper<V> {
 
   private V doRetry() throws RetryHelperException {
     long start = clock.millis();
+    onOperation();
+    Exception exception = null;
     while (true) {
+      if (!allowAttempt()) {
+        throw new RetriesExhaustedException(this + ": Circuit breaker open, giving up", exception);
+      }
       attemptNumber++;
-      Exception exception;
       try {
-        V value = callable.call();
+        V value = callAttempt();
+        onSuccess();
         if (attemptNumber > 1 && log.isLoggable(Level.FINE)) {
           log.fine(this + ": attempt #" + attemptNumber + " succeeded");
         }
         return value;
       } catch (InterruptedException | InterruptedIOException | ClosedByInterruptException e) {
-        if (!exceptionHandler.shouldRetry(e)) {
+        if (!shouldRetry(e)) {
           RetryInterruptedException.propagate();
         }
         exception = e;
       } catch (Exception e) {
-        if (!exceptionHandler.shouldRetry(e)) {
+        if (!shouldRetry(e)) {
           throw new NonRetriableException(e);
         }
         exception = e;
       }
-      if (attemptNumber >= params.getRetryMaxAttempts()
-          || attemptNumber >= params.getRetryMinAttempts()
-          && clock.millis() - start >= params.getTotalRetryPeriodMillis()) {
+      if (isExhausted(start)) {
         throw new RetriesExhaustedException(this + ": Too many failures, giving up", exception);
       }
+      if (!acquireRetry()) {
+        throw new RetriesExhaustedException(this + ": Retry budget exhausted, giving up",
+            exception);
+      }
       long sleepDurationMillis = getSleepDuration(params, attemptNumber);
       if (log.isLoggable(Level.FINE)) {
         log.fine(this + ": Attempt #" + attemptNumber + " failed [" + exception
@@ -211,6 +271,264 @@ public class RetryHelper<V> {
     }
   }
 
+  private V callAttempt() throws Exception {
+    MetricsRecorder metricsRecorder = params.getMetricsRecorder();
+    ConcurrencyLimiter concurrencyLimiter = params.getConcurrencyLimiter();
+    if (metricsRecorder == null && concurrencyLimiter == null) {
+      return callOrHedge();
+    }
+    String method = METHOD_NAMES.get(callable.getClass());
+    long ticket = concurrencyLimiter != null ? concurrencyLimiter.acquire(method) : 0;
+    long start = clock.millis();
+    Throwable failure = null;
+    try {
+      return callOrHedge();
+    } catch (Throwable error) {
+      failure = error;
+      throw error;
+    } finally {
+      long latencyMillis = clock.millis() - start;
+      if (concurrencyLimiter != null) {
+        concurrencyLimiter.release(method, ticket, getOutcome(failure), latencyMillis);
+      }
+      if (metricsRecorder != null) {
+        String status = failure == null ? MetricsRecorder.OK : getStatus(failure);
+        metricsRecorder.recordAttempt(method, status, attemptNumber, latencyMillis,
+            MetricsRecorder.UNKNOWN_BYTES, MetricsRecorder.UNKNOWN_BYTES);
+      }
+    }
+  }
+
+  private V callOrHedge() throws Exception {
+    RequestHedger hedger = params.getRequestHedger();
+    if (hedger == null || hedgingScheduler == null || hedgingExecutor == null) {
+      return callable.call();
+    }
+    Context context = getContext();
+    Callable<V> attempt = inContext(context, callable);
+    Callable<V> hedge = inContext(context, new Callable<V>() {
+      @Override
+      public V call() throws Exception {
+        return callHedge();
+      }
+    });
+    return hedger.call(attempt, hedge, context.getOperation(), hedgingScheduler, hedgingExecutor,
+        clock);
+  }
+
+  /**
+   * Returns a callable that runs {@code callable} in {@code context}. Hedged attempts run on
+   * executor threads, which need the caller's context.
+   */
+  private static <V> Callable<V> inContext(final Context context, final Callable<V> callable) {
+    return new Callable<V>() {
+      @Override
+      public V call() throws Exception {
+        Context previousContext = getContext();
+        setContext(context);
+        try {
+          return callable.call();
+        } finally {
+          setContext(previousContext);
+        }
+      }
+    };
+  }
+
+  /**
+   * Runs a hedged attempt. Like any other attempt it needs a permit of the concurrency limiter,
+   * if one is set. The hedge is not sent if no permit is available right away: the service is
+   * already as loaded as the limiter allows, and the first attempt is still running.
+   */
+  private V callHedge() throws Exception {
+    ConcurrencyLimiter concurrencyLimiter = params.getConcurrencyLimiter();
+    if (concurrencyLimiter == null) {
+      return callable.call();
+    }
+    String method = METHOD_NAMES.get(callable.getClass());
+    long ticket = concurrencyLimiter.tryAcquire(method);
+    if (ticket == ConcurrencyLimiter.NOT_ACQUIRED) {
+      throw new RejectedExecutionException("No concurrency permit left to hedge " + method);
+    }
+    long start = clock.millis();
+    Throwable failure = null;
+    try {
+      return callable.call();
+    } catch (Throwable error) {
+      failure = error;
+      throw error;
+    } finally {
+      concurrencyLimiter.release(method, ticket, getOutcome(failure), clock.millis() - start);
+    }
+  }
+
+  private static ConcurrencyLimiter.Outcome getOutcome(Throwable failure) {
+    return failure == null ? ConcurrencyLimiter.Outcome.SUCCESS
+        : ConcurrencyLimiter.isOverloaded(failure) ? ConcurrencyLimiter.Outcome.OVERLOADED
+        : ConcurrencyLimiter.Outcome.IGNORED;
+  }
+
+  private static String getStatus(Throwable error) {
+    if (error instanceof BaseServiceException) {
+      BaseServiceException serviceException = (BaseServiceException) error;
+      return serviceException.getReason() != null ? serviceException.getReason()
+          : String.valueOf(serviceException.getCode());
+    }
+    return error.getClass().getSimpleName();
+  }
+
+  private boolean shouldRetry(Exception exception) {
+    boolean retry = exceptionHandler.shouldRetry(exception);
+    CircuitBreaker circuitBreaker = params.getCircuitBreaker();
+    if (circuitBreaker == null) {
+      return retry;
+    }
+    Interceptor.RetryResult retryResult = checkNotNull(circuitBreaker.beforeEval(exception));
+    if (retryResult == Interceptor.RetryResult.CONTINUE_EVALUATION) {
+      retryResult = checkNotNull(circuitBreaker.afterEval(exception,
+          retry ? Interceptor.RetryResult.RETRY : Interceptor.RetryResult.NO_RETRY));
+    }
+    return retryResult == Interceptor.RetryResult.CONTINUE_EVALUATION
+        ? retry : retryResult == Interceptor.RetryResult.RETRY;
+  }
+
+  private boolean allowAttempt() {
+    CircuitBreaker circuitBreaker = params.getCircuitBreaker();
+    return circuitBreaker == null || circuitBreaker.allowAttempt(callable.getClass().getName());
+  }
+
+  private void onSuccess() {
+    CircuitBreaker circuitBreaker = params.getCircuitBreaker();
+    if (circuitBreaker != null) {
+      circuitBreaker.onSuccess(callable.getClass().getName());
+    }
+  }
+
+  private void onOperation() {
+    RetryBudget retryBudget = params.getRetryBudget();
+    if (retryBudget != null) {
+      retryBudget.onOperation();
+    }
+  }
+
+  private boolean acquireRetry() {
+    RetryBudget retryBudget = params.getRetryBudget();
+    return retryBudget == null || retryBudget.tryAcquireRetry();
+  }
+
+  private boolean isExhausted(long start) {
+    return attemptNumber >= params.getRetryMaxAttempts()
+        || attemptNumber >= params.getRetryMinAttempts()
+        && clock.millis() - start >= params.getTotalRetryPeriodMillis();
+  }
+
+  /**
+   * The asynchronous counterpart of {@link #doRetry()}. Each attempt runs as a task on
+   * {@code executor} and backoff delays are timed by {@code scheduler}, so no thread is held while
+   * waiting for the next attempt. Cancelling the future prevents further attempts.
+   */
+  private static final class AsyncRetry<V> extends AbstractFuture<V> implements Runnable {
+
+    private final RetryHelper<V> helper;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final long start;
+    private Exception lastException;
+
+    AsyncRetry(RetryHelper<V> helper, ScheduledExecutorService scheduler, Executor executor) {
+      this.helper = helper;
+      this.scheduler = scheduler;
+      this.executor = executor;
+      this.start = helper.clock.millis();
+      helper.onOperation();
+    }
+
+    @Override
+    public void run() {
+      if (isDone()) {
+        return;
+      }
+      if (!helper.allowAttempt()) {
+        setException(new RetriesExhaustedException(
+            helper + ": Circuit breaker open, giving up", lastException));
+        return;
+      }
+      helper.attemptNumber++;
+      Exception exception;
+      Context previousContext = getContext();
+      setContext(new Context(helper));
+      try {
+        V value = helper.callAttempt();
+        helper.onSuccess();
+        if (helper.attemptNumber > 1 && log.isLoggable(Level.FINE)) {
+          log.fine(helper + ": attempt #" + helper.attemptNumber + " succeeded");
+        }
+        set(value);
+        return;
+      } catch (InterruptedException | InterruptedIOException | ClosedByInterruptException e) {
+        if (!helper.shouldRetry(e)) {
+          // The executor thread was not interrupted on behalf of the caller, leave its flag alone
+          setException(new RetryInterruptedException());
+          return;
+        }
+        exception = e;
+      } catch (Exception e) {
+        if (!helper.shouldRetry(e)) {
+          setException(new NonRetriableException(e));
+          return;
+        }
+        exception = e;
+      } catch (Error e) {
+        setException(e);
+        return;
+      } finally {
+        setContext(previousContext);
+      }
+      if (helper.isExhausted(start)) {
+        setException(
+            new RetriesExhaustedException(helper + ": Too many failures, giving up", exception));
+        return;
+      }
+      if (!helper.acquireRetry()) {
+        setException(new RetriesExhaustedException(
+            helper + ": Retry budget exhausted, giving up", exception));
+        return;
+      }
+      lastException = exception;
+      long sleepDurationMillis = getSleepDuration(helper.params, helper.attemptNumber);
+      if (log.isLoggable(Level.FINE)) {
+        log.fine(helper + ": Attempt #" + helper.attemptNumber + " failed [" + exception
+            + "], retrying in " + sleepDurationMillis + " ms");
+      }
+      schedule(sleepDurationMillis);
+    }
+
+    void schedule(long delayMillis) {
+      if (delayMillis <= 0) {
+        execute();
+        return;
+      }
+      try {
+        scheduler.schedule(new Runnable() {
+          @Override
+          public void run() {
+            execute();
+          }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        setException(e);
+      }
+    }
+
+    private void execute() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        setException(e);
+      }
+    }
+  }
+
   @VisibleForTesting
   static long getSleepDuration(RetryParams retryParams, int attemptsSoFar) {
     long initialDelay = retryParams.getInitialRetryDelayMillis();
@@ -237,7 +555,20 @@ public class RetryHelper<V> {
 
   public static <V> V runWithRetries(Callable<V> callable, RetryParams params,
       ExceptionHandler exceptionHandler, Clock clock) throws RetryHelperException {
-    RetryHelper<V> retryHelper = new RetryHelper<>(callable, params, exceptionHandler, clock);
+    return runWithRetries(callable, params, exceptionHandler, clock, null, null);
+  }
+
+  /**
+   * Runs {@code callable} with retries, hedging its attempts on {@code hedgingExecutor} if
+   * {@code params} has a {@link RequestHedger}. The hedging delays are timed by
+   * {@code hedgingScheduler}. Only pass executors for idempotent operations, as a hedged attempt
+   * may run twice.
+   */
+  public static <V> V runWithRetries(Callable<V> callable, RetryParams params,
+      ExceptionHandler exceptionHandler, Clock clock, ScheduledExecutorService hedgingScheduler,
+      Executor hedgingExecutor) throws RetryHelperException {
+    RetryHelper<V> retryHelper = new RetryHelper<>(callable, params, exceptionHandler, clock,
+        hedgingScheduler, hedgingExecutor);
     Context previousContext = getContext();
     setContext(new Context(retryHelper));
     try {
@@ -246,4 +577,37 @@ public class RetryHelper<V> {
       setContext(previousContext);
     }
   }
+
+  /**
+   * Runs {@code callable} with retries without blocking the calling thread. Attempts run on
+   * {@code executor} and the delays between them are scheduled on it rather than spent sleeping,
+   * so a pending retry holds no thread. The returned future fails with the same
+   * {@link RetryHelperException} subclasses that
+   * {@link #runWithRetries(Callable, RetryParams, ExceptionHandler)} throws.
+   */
+  public static <V> ListenableFuture<V> runWithRetriesAsync(Callable<V> callable,
+      RetryParams params, ExceptionHandler exceptionHandler, ScheduledExecutorService executor) {
+    return runWithRetriesAsync(callable, params, exceptionHandler, executor, Clock.defaultClock());
+  }
+
+  public static <V> ListenableFuture<V> runWithRetriesAsync(Callable<V> callable,
+      RetryParams params, ExceptionHandler exceptionHandler, ScheduledExecutorService executor,
+      Clock clock) {
+    return runWithRetriesAsync(callable, params, exceptionHandler, executor, executor, clock);
+  }
+
+  /**
+   * Runs {@code callable} with retries without blocking the calling thread. Attempts run on
+   * {@code executor}, which may block on I/O, while the delays between them are timed by
+   * {@code scheduler}, whose threads are never blocked by an attempt.
+   */
+  public static <V> ListenableFuture<V> runWithRetriesAsync(Callable<V> callable,
+      RetryParams params, ExceptionHandler exceptionHandler, ScheduledExecutorService scheduler,
+      Executor executor, Clock clock) {
+    RetryHelper<V> retryHelper = new RetryHelper<>(callable, params, exceptionHandler, clock);
+    AsyncRetry<V> retry =
+        new AsyncRetry<>(retryHelper, checkNotNull(scheduler), checkNotNull(executor));
+    retry.schedule(0);
+    return retry;
+  }
 }
@@ -42,6 +42,10 @@ import java.util.Objects;
  * release to release. If you require specific settings, explicitly create an instance of
  * {@code RetryParams} with all the required settings.
  *
+ * <p>Retries can be further limited with a {@link RetryBudget} shared by all the operations using
+ * the parameters and with a {@link CircuitBreaker}, and idempotent reads can be hedged with a
+ * {@link RequestHedger}. None of these are enabled by default.
+ *
  * @see RetryHelper
  */
 public final class RetryParams implements Serializable {
@@ -65,6 +69,11 @@ public final class RetryParams implements Serializable {
   private final long maxRetryDelayMillis;
   private final double retryDelayBackoffFactor;
   private final long totalRetryPeriodMillis;
+  private final RetryBudget retryBudget;
+  private final CircuitBreaker circuitBreaker;
+  private final RequestHedger requestHedger;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final transient MetricsRecorder metricsRecorder;
 
   // Some services may have different backoff requirements listed in their SLAs. Be sure to override
   // ServiceOptions.defaultRetryParams() in options subclasses when the service's backoff
@@ -84,6 +93,11 @@ public final class RetryParams implements Serializable {
     private long maxRetryDelayMillis;
     private double retryDelayBackoffFactor;
     private long totalRetryPeriodMillis;
+    private RetryBudget retryBudget;
+    private CircuitBreaker circuitBreaker;
+    private RequestHedger requestHedger;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private MetricsRecorder metricsRecorder;
 
     private Builder() {
       this(null);
@@ -104,6 +118,11 @@ public final class RetryParams implements Serializable {
         maxRetryDelayMillis = retryParams.getMaxRetryDelayMillis();
         retryDelayBackoffFactor = retryParams.getRetryDelayBackoffFactor();
         totalRetryPeriodMillis = retryParams.getTotalRetryPeriodMillis();
+        retryBudget = retryParams.getRetryBudget();
+        circuitBreaker = retryParams.getCircuitBreaker();
+        requestHedger = retryParams.getRequestHedger();
+        concurrencyLimiter = retryParams.getConcurrencyLimiter();
+        metricsRecorder = retryParams.getMetricsRecorder();
       }
     }
 
@@ -243,6 +262,61 @@ public final class RetryParams implements Serializable {
       return this;
     }
 
+    /**
+     * Sets the retry budget shared by the operations using these parameters. Retries are allowed
+     * only while the budget has tokens left. By default retries are not limited by a budget.
+     *
+     * @param retryBudget the retry budget, or {@code null} to disable it
+     * @return the Builder for chaining
+     */
+    public Builder setRetryBudget(RetryBudget retryBudget) {
+      this.retryBudget = retryBudget;
+      return this;
+    }
+
+    /**
+     * Sets the circuit breaker consulted before each attempt and, together with the
+     * {@link ExceptionHandler}, before retrying a failed operation. Attempts fail right away while
+     * the breaker is open. By default no circuit breaker is used.
+     *
+     * @param circuitBreaker the circuit breaker, or {@code null} to disable it
+     * @return the Builder for chaining
+     */
+    public Builder setCircuitBreaker(CircuitBreaker circuitBreaker) {
+      this.circuitBreaker = circuitBreaker;
+      return this;
+    }
+
+    /**
+     * Sets the hedger used for the idempotent reads made with these parameters. By default
+     * requests are not hedged.
+     *
+     * @param requestHedger the request hedger, or {@code null} to disable hedging
+     * @return the Builder for chaining
+     */
+    public Builder setRequestHedger(RequestHedger requestHedger) {
+      this.requestHedger = requestHedger;
+      return this;
+    }
+
+    /**
+     * Sets the limiter of concurrent attempts. It is set by {@link ServiceOptions} from the
+     * limiter configured for the service.
+     */
+    Builder setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+      this.concurrencyLimiter = concurrencyLimiter;
+      return this;
+    }
+
+    /**
+     * Sets the recorder of attempt metrics. It is set by {@link ServiceOptions} from the recorder
+     * configured for the service.
+     */
+    Builder setMetricsRecorder(MetricsRecorder metricsRecorder) {
+      this.metricsRecorder = metricsRecorder;
+      return this;
+    }
+
     /**
      * Create an instance of RetryParams with the parameters set in this builder.
      *
@@ -265,6 +339,11 @@ public final class RetryParams implements Serializable {
     maxRetryDelayMillis = builder.maxRetryDelayMillis;
     retryDelayBackoffFactor = builder.retryDelayBackoffFactor;
     totalRetryPeriodMillis = builder.totalRetryPeriodMillis;
+    retryBudget = builder.retryBudget;
+    circuitBreaker = builder.circuitBreaker;
+    requestHedger = builder.requestHedger;
+    concurrencyLimiter = builder.concurrencyLimiter;
+    metricsRecorder = builder.metricsRecorder;
     checkArgument(retryMinAttempts >= 0, "retryMinAttempts must not be negative");
     checkArgument(retryMaxAttempts >= retryMinAttempts,
         "retryMaxAttempts must not be smaller than retryMinAttempts");
@@ -394,10 +473,47 @@ public final class RetryParams implements Serializable {
     return totalRetryPeriodMillis;
   }
 
+  /**
+   * Returns the retry budget, or {@code null} if retries are not limited by a budget.
+   */
+  public RetryBudget getRetryBudget() {
+    return retryBudget;
+  }
+
+  /**
+   * Returns the circuit breaker, or {@code null} if none is used.
+   */
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /**
+   * Returns the request hedger, or {@code null} if requests are not hedged.
+   */
+  public RequestHedger getRequestHedger() {
+    return requestHedger;
+  }
+
+  /**
+   * Returns the limiter of concurrent attempts, or {@code null} if attempts are not limited.
+   */
+  ConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  /**
+   * Returns the recorder of attempt metrics, or {@code null} if attempts are not recorded. The
+   * recorder is not serialized and not considered by {@link #equals(Object)}.
+   */
+  MetricsRecorder getMetricsRecorder() {
+    return metricsRecorder;
+  }
+
   @Override
   public int hashCode() {
     return Objects.hash(retryMinAttempts, retryMaxAttempts, initialRetryDelayMillis,
-        maxRetryDelayMillis, retryDelayBackoffFactor, totalRetryPeriodMillis);
+        maxRetryDelayMillis, retryDelayBackoffFactor, totalRetryPeriodMillis, retryBudget,
+        circuitBreaker, requestHedger, concurrencyLimiter);
   }
 
   @Override
@@ -413,7 +529,11 @@ public final class RetryParams implements Serializable {
         && initialRetryDelayMillis == other.initialRetryDelayMillis
         && maxRetryDelayMillis == other.maxRetryDelayMillis
         && retryDelayBackoffFactor == other.retryDelayBackoffFactor
-        && totalRetryPeriodMillis == other.totalRetryPeriodMillis;
+        && totalRetryPeriodMillis == other.totalRetryPeriodMillis
+        && Objects.equals(retryBudget, other.retryBudget)
+        && Objects.equals(circuitBreaker, other.circuitBreaker)
+        && Objects.equals(requestHedger, other.requestHedger)
+        && Objects.equals(concurrencyLimiter, other.concurrencyLimiter);
   }
 
   @Override
@@ -425,6 +545,10 @@ public final class RetryParams implements Serializable {
     toStringHelper.add("maxRetryDelayMillis", maxRetryDelayMillis);
     toStringHelper.add("retryDelayBackoffFactor", retryDelayBackoffFactor);
     toStringHelper.add("totalRetryPeriodMillis", totalRetryPeriodMillis);
+    toStringHelper.add("retryBudget", retryBudget);
+    toStringHelper.add("circuitBreaker", circuitBreaker);
+    toStringHelper.add("requestHedger", requestHedger);
+    toStringHelper.add("concurrencyLimiter", concurrencyLimiter);
     return toStringHelper.toString();
   }
 
@@ -23,9 +23,14 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.auth.Credentials;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
 import com.google.cloud.spi.ServiceRpcFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.google.common.collect.Iterables;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -47,10 +52,22 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.Enumeration;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -78,6 +95,38 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
   private static final String APPLICATION_NAME =
       LIBRARY_VERSION == null ? LIBRARY_NAME : LIBRARY_NAME + "/" + LIBRARY_VERSION;
   private static final long serialVersionUID = -5714029257168617973L;
+  private static final String METADATA_HOST_ENV_NAME = "GCE_METADATA_HOST";
+  private static final String NO_GCE_CHECK_ENV_NAME = "NO_GCE_CHECK";
+  private static final File DMI_PRODUCT_NAME = new File("/sys/class/dmi/id/product_name");
+  private static final int METADATA_CONNECT_TIMEOUT_MILLIS = 500;
+  private static final int METADATA_READ_TIMEOUT_MILLIS = 1000;
+  private static final ThreadFactory DISCOVERY_THREAD_FACTORY =
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("gcloud-discovery-%d").build();
+
+  // The environment does not change while the process runs: once found, the default project and
+  // credentials are kept for the life of the process. Their expensive lookups are done in the
+  // background and concurrently. A lookup that finds nothing, e.g. away from Compute Engine or
+  // after a transient failure of the metadata server, is repeated at most once per
+  // DiscoveredValue.RETRY_DELAY_NANOS. App Engine APIs can only be called from request threads,
+  // so its project is looked up inline.
+  private static volatile String discoveredAppEngineProjectId;
+  private static volatile long appEngineProjectIdRetryNanos;
+  private static volatile boolean appEngineProjectIdMissing;
+  private static final DiscoveredValue<String> DISCOVERED_PROJECT_ID =
+      new DiscoveredValue<>(new Callable<String>() {
+        @Override
+        public String call() {
+          String projectId = serviceAccountProjectId();
+          return projectId != null ? projectId : googleCloudProjectId();
+        }
+      });
+  private static final DiscoveredValue<GoogleCredentials> DISCOVERED_CREDENTIALS =
+      new DiscoveredValue<>(new Callable<GoogleCredentials>() {
+        @Override
+        public GoogleCredentials call() throws IOException {
+          return GoogleCredentials.getApplicationDefault();
+        }
+      });
 
   private static final String META_FILE_ROOT = "/META-INF/maven/";
   private static final String META_VERSION_KEY = "version";
@@ -89,11 +138,96 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
   private final String serviceFactoryClassName;
   private final Clock clock;
   private final Credentials credentials;
+  private final boolean readCoalescingEnabled;
+  private final ResponseCache responseCache;
+  private final boolean virtualThreadsEnabled;
+  private final String asyncExecutorFactoryClassName;
 
   private transient ServiceRpcFactory<ServiceRpcT, OptionsT> serviceRpcFactory;
   private transient ServiceFactory<ServiceT, OptionsT> serviceFactory;
   private transient ServiceT service;
   private transient ServiceRpcT rpc;
+  private transient MetricsRecorder metricsRecorder;
+  private transient ExecutorFactory<ExecutorService> asyncExecutorFactory;
+
+  /**
+   * The default factory of the executor that runs the attempts of asynchronous operations. All
+   * services share one pool of daemon threads, sized for attempts that block on I/O. Its threads
+   * exit when idle.
+   */
+  @VisibleForTesting
+  static class DefaultAsyncExecutorFactory implements ExecutorFactory<ExecutorService> {
+
+    static final int THREADS = 64;
+
+    private static final class ExecutorHolder {
+
+      private static final ExecutorService INSTANCE = create();
+
+      private static ExecutorService create() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 5, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("gcloud-async-%d").build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+      }
+    }
+
+    @Override
+    public ExecutorService get() {
+      return ExecutorHolder.INSTANCE;
+    }
+
+    @Override
+    public void release(ExecutorService executor) {
+      // The executor is shared by all services and its threads exit when idle
+    }
+  }
+
+  /**
+   * The default factory of the executor that runs the attempts of asynchronous operations for the
+   * services that run in virtual threads, see {@link #isVirtualThreadsEnabled()}.
+   */
+  @VisibleForTesting
+  static class VirtualAsyncExecutorFactory implements ExecutorFactory<ExecutorService> {
+
+    private static final class ExecutorHolder {
+
+      private static final ExecutorService INSTANCE =
+          VirtualThreads.newExecutor("gcloud-async-virtual-");
+    }
+
+    @Override
+    public ExecutorService get() {
+      return ExecutorHolder.INSTANCE;
+    }
+
+    @Override
+    public void release(ExecutorService executor) {
+      // Virtual threads are not pooled
+    }
+  }
+
+  /**
+   * Lazily created executor that runs the background I/O of channels, see
+   * {@link #getChannelExecutor()}. Its threads are unbounded, as each channel has a bounded number
+   * of background requests in flight and waits for them. The threads exit when idle.
+   */
+  private static final class ChannelExecutorHolder {
+
+    private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("gcloud-channel-%d").build());
+  }
+
+  /**
+   * Lazily created executor that runs the background I/O of the channels of the services that run
+   * in virtual threads.
+   */
+  private static final class VirtualChannelExecutorHolder {
+
+    private static final ExecutorService INSTANCE =
+        VirtualThreads.newExecutor("gcloud-channel-virtual-");
+  }
 
   /**
    * Builder for {@code ServiceOptions}.
@@ -114,6 +248,12 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
     private ServiceFactory<ServiceT, OptionsT> serviceFactory;
     private ServiceRpcFactory<ServiceRpcT, OptionsT> serviceRpcFactory;
     private Clock clock;
+    private MetricsRecorder metricsRecorder;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private boolean readCoalescingEnabled;
+    private ResponseCache responseCache;
+    private boolean virtualThreadsEnabled;
+    private ExecutorFactory<ExecutorService> asyncExecutorFactory;
 
     protected Builder() {}
 
@@ -125,6 +265,12 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
       serviceFactory = options.serviceFactory;
       serviceRpcFactory = options.serviceRpcFactory;
       clock = options.clock;
+      metricsRecorder = options.metricsRecorder;
+      concurrencyLimiter = options.getConcurrencyLimiter();
+      readCoalescingEnabled = options.readCoalescingEnabled;
+      responseCache = options.responseCache;
+      virtualThreadsEnabled = options.virtualThreadsEnabled;
+      asyncExecutorFactory = options.asyncExecutorFactory;
     }
 
     protected abstract ServiceOptions<ServiceT, ServiceRpcT, OptionsT> build();
@@ -264,6 +410,87 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
       return setServiceRpcFactory(serviceRpcFactory);
     }
 
+    /**
+     * Sets the recorder of client-side metrics. The recorder is invoked around each attempt of a
+     * service call and, for services that support it, each transferred chunk. By default metrics
+     * are not recorded. The recorder is not serialized with the options.
+     *
+     * @return the builder
+     */
+    public B setMetricsRecorder(MetricsRecorder metricsRecorder) {
+      this.metricsRecorder = metricsRecorder;
+      return self();
+    }
+
+    /**
+     * Sets the limiter of concurrent requests. All the calls of the service pass through the
+     * limiter, which adapts the number of concurrent requests allowed per method to the latency
+     * and the overload errors of the service. By default the number of concurrent requests is not
+     * limited.
+     *
+     * @return the builder
+     */
+    public B setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+      this.concurrencyLimiter = concurrencyLimiter;
+      return self();
+    }
+
+    /**
+     * Sets whether identical concurrent reads are coalesced. When enabled, a read issued while an
+     * identical read of the same service object is in flight waits for it and gets its result
+     * instead of sending its own request. This only applies to the idempotent reads of services
+     * that support it. By default reads are not coalesced.
+     *
+     * @return the builder
+     */
+    public B setReadCoalescingEnabled(boolean readCoalescingEnabled) {
+      this.readCoalescingEnabled = readCoalescingEnabled;
+      return self();
+    }
+
+    /**
+     * Sets the cache of metadata responses. When set, the metadata reads of services that support
+     * it are served from the cache until the cached response expires, and mutations made through
+     * the service invalidate the cached responses of the mutated resource. A cache may be shared
+     * by the options of several services. By default responses are not cached.
+     *
+     * @return the builder
+     */
+    public B setResponseCache(ResponseCache responseCache) {
+      this.responseCache = responseCache;
+      return self();
+    }
+
+    /**
+     * Sets whether the service runs its background work in virtual threads. When enabled, and the
+     * JDK has virtual threads, the asynchronous operations, the hedged attempts and the channel
+     * background I/O of the service, and the executor of gRPC services if none is set, use virtual
+     * threads instead of pools of platform threads. This is ignored on JDKs without virtual threads. By default
+     * platform threads are used.
+     *
+     * @return the builder
+     */
+    public B setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+      this.virtualThreadsEnabled = virtualThreadsEnabled;
+      return self();
+    }
+
+    /**
+     * Sets the factory of the executor that runs the attempts of the service's asynchronous
+     * operations. The attempts block on I/O, so the executor should have enough threads for the
+     * expected number of concurrent operations. Backoff delays between attempts are scheduled
+     * separately and hold no thread of the executor. An executor is obtained from the factory
+     * for each attempt and released once the attempt is done. By default a pool of
+     * {@value DefaultAsyncExecutorFactory#THREADS} daemon threads shared by all services is used,
+     * or virtual threads if {@link #setVirtualThreadsEnabled(boolean)} is set.
+     *
+     * @return the builder
+     */
+    public B setAsyncExecutorFactory(ExecutorFactory<ExecutorService> asyncExecutorFactory) {
+      this.asyncExecutorFactory = asyncExecutorFactory;
+      return self();
+    }
+
     /**
      * Sets the factory for rpc services.
      *
@@ -278,6 +505,10 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
   protected ServiceOptions(Class<? extends ServiceFactory<ServiceT, OptionsT>> serviceFactoryClass,
       Class<? extends ServiceRpcFactory<ServiceRpcT, OptionsT>> rpcFactoryClass,
       Builder<ServiceT, ServiceRpcT, OptionsT, ?> builder) {
+    if (builder.credentials == null) {
+      // Looked up while the default project is, by the first options that need them
+      DISCOVERED_CREDENTIALS.start();
+    }
     projectId = builder.projectId != null ? builder.projectId : getDefaultProject();
     if (projectIdRequired()) {
       checkArgument(
@@ -287,7 +518,17 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
     }
     host = firstNonNull(builder.host, getDefaultHost());
     credentials = builder.credentials != null ? builder.credentials : defaultCredentials();
-    retryParams = firstNonNull(builder.retryParams, defaultRetryParams());
+    metricsRecorder = firstNonNull(builder.metricsRecorder, MetricsRecorder.NO_OP);
+    // RetryHelper only sees the retry parameters, they carry the recorder and the limiter to it
+    RetryParams params = firstNonNull(builder.retryParams, defaultRetryParams());
+    MetricsRecorder paramsRecorder =
+        metricsRecorder == MetricsRecorder.NO_OP ? null : metricsRecorder;
+    retryParams = params.getMetricsRecorder() == paramsRecorder
+        && params.getConcurrencyLimiter() == builder.concurrencyLimiter ? params
+        : params.toBuilder()
+            .setMetricsRecorder(paramsRecorder)
+            .setConcurrencyLimiter(builder.concurrencyLimiter)
+            .build();
     serviceFactory = firstNonNull(builder.serviceFactory,
         getFromServiceLoader(serviceFactoryClass, getDefaultServiceFactory()));
     serviceFactoryClassName = serviceFactory.getClass().getName();
@@ -295,6 +536,13 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
         getFromServiceLoader(rpcFactoryClass, getDefaultRpcFactory()));
     serviceRpcFactoryClassName = serviceRpcFactory.getClass().getName();
     clock = firstNonNull(builder.clock, Clock.defaultClock());
+    readCoalescingEnabled = builder.readCoalescingEnabled;
+    responseCache = builder.responseCache;
+    virtualThreadsEnabled = builder.virtualThreadsEnabled;
+    ExecutorFactory<ExecutorService> defaultAsyncExecutorFactory = isVirtualThreadsEnabled()
+        ? new VirtualAsyncExecutorFactory() : new DefaultAsyncExecutorFactory();
+    asyncExecutorFactory = firstNonNull(builder.asyncExecutorFactory, defaultAsyncExecutorFactory);
+    asyncExecutorFactoryClassName = asyncExecutorFactory.getClass().getName();
   }
 
   /**
@@ -308,11 +556,7 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
   }
 
   private static GoogleCredentials defaultCredentials() {
-    try {
-      return GoogleCredentials.getApplicationDefault();
-    } catch (Exception ex) {
-      return null;
-    }
+    return DISCOVERED_CREDENTIALS.get();
   }
 
   protected static String appEngineAppId() {
@@ -340,12 +584,25 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
           System.getProperty(LEGACY_PROJECT_ENV_NAME, System.getenv(LEGACY_PROJECT_ENV_NAME));
     }
     if (projectId == null) {
-      projectId = appEngineProjectId();
+      projectId = cachedAppEngineProjectId();
     }
+    return projectId != null ? projectId : DISCOVERED_PROJECT_ID.get();
+  }
+
+  private static String cachedAppEngineProjectId() {
+    String projectId = discoveredAppEngineProjectId;
     if (projectId == null) {
-      projectId = serviceAccountProjectId();
+      if (appEngineProjectIdMissing && System.nanoTime() - appEngineProjectIdRetryNanos < 0) {
+        return null;
+      }
+      projectId = appEngineProjectId();
+      if (projectId == null) {
+        appEngineProjectIdRetryNanos = System.nanoTime() + DiscoveredValue.RETRY_DELAY_NANOS;
+        appEngineProjectIdMissing = true;
+      }
+      discoveredAppEngineProjectId = projectId;
     }
-    return projectId != null ? projectId : googleCloudProjectId();
+    return projectId;
   }
 
   private static String activeGoogleCloudConfig(File configDir) {
@@ -405,9 +662,19 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
         // ignore
       }
     }
+    return metadataProjectId();
+  }
+
+  private static String metadataProjectId() {
+    if (!mayRunOnComputeEngine(System.getenv(), DMI_PRODUCT_NAME)) {
+      return null;
+    }
+    String host = firstNonNull(System.getenv(METADATA_HOST_ENV_NAME), "metadata");
     try {
-      URL url = new URL("http://metadata/computeMetadata/v1/project/project-id");
+      URL url = new URL("http://" + host + "/computeMetadata/v1/project/project-id");
       HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      connection.setConnectTimeout(METADATA_CONNECT_TIMEOUT_MILLIS);
+      connection.setReadTimeout(METADATA_READ_TIMEOUT_MILLIS);
       connection.setRequestProperty("X-Google-Metadata-Request", "True");
       InputStream input = connection.getInputStream();
       if (connection.getResponseCode() == 200) {
@@ -422,6 +689,27 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
     return null;
   }
 
+  /**
+   * Returns {@code false} if the process is known not to run on Compute Engine, so that the
+   * metadata server need not be probed. Linux virtual machines on Compute Engine report Google as
+   * their product name; other platforms can't be told apart cheaply.
+   */
+  @VisibleForTesting
+  static boolean mayRunOnComputeEngine(Map<String, String> env, File productNameFile) {
+    if (Boolean.parseBoolean(env.get(NO_GCE_CHECK_ENV_NAME))) {
+      return false;
+    }
+    if (env.containsKey(METADATA_HOST_ENV_NAME) || !productNameFile.isFile()) {
+      return true;
+    }
+    try {
+      String productName = Files.readFirstLine(productNameFile, UTF_8);
+      return productName == null || productName.trim().startsWith("Google");
+    } catch (IOException ex) {
+      return true;
+    }
+  }
+
   private static boolean isWindows() {
     return System.getProperty("os.name").toLowerCase(Locale.ENGLISH).contains("windows");
   }
@@ -552,6 +840,64 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
     return retryParams;
   }
 
+  /**
+   * Returns the recorder of client-side metrics. By default metrics are not recorded:
+   * {@link MetricsRecorder#NO_OP} is returned.
+   */
+  public MetricsRecorder getMetricsRecorder() {
+    return metricsRecorder;
+  }
+
+  /**
+   * Returns the limiter of concurrent requests, or {@code null} if the number of concurrent
+   * requests is not limited.
+   */
+  public ConcurrencyLimiter getConcurrencyLimiter() {
+    return retryParams.getConcurrencyLimiter();
+  }
+
+  /**
+   * Returns whether identical concurrent reads are coalesced.
+   */
+  public boolean isReadCoalescingEnabled() {
+    return readCoalescingEnabled;
+  }
+
+  /**
+   * Returns the cache of metadata responses, or {@code null} if responses are not cached.
+   */
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /**
+   * Returns whether the service runs its background work in virtual threads. This is
+   * {@code true} only if virtual threads were enabled and the JDK has them.
+   */
+  public boolean isVirtualThreadsEnabled() {
+    return virtualThreadsEnabled && VirtualThreads.isAvailable();
+  }
+
+  /**
+   * Returns the factory of the executor that runs the attempts of the service's asynchronous
+   * operations.
+   */
+  protected ExecutorFactory<ExecutorService> getAsyncExecutorFactory() {
+    return asyncExecutorFactory;
+  }
+
+  /**
+   * Returns the executor that runs the background I/O of the service's channels, such as the
+   * pipelined uploads of write channels. Channels are often used from tasks of the async executor,
+   * see {@link #getAsyncExecutorFactory()}, and wait for their background I/O: it runs on an
+   * executor of its own so that it is never queued behind the tasks waiting for it. The executor
+   * is shared by all services.
+   */
+  protected ExecutorService getChannelExecutor() {
+    return isVirtualThreadsEnabled() ? VirtualChannelExecutorHolder.INSTANCE
+        : ChannelExecutorHolder.INSTANCE;
+  }
+
   /**
    * Returns the service's clock. Default time source uses {@link System#currentTimeMillis()} to get
    * current time.
@@ -615,7 +961,8 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
 
   protected int baseHashCode() {
     return Objects.hash(projectId, host, credentials, retryParams, serviceFactoryClassName,
-        serviceRpcFactoryClassName, clock);
+        serviceRpcFactoryClassName, clock, readCoalescingEnabled, responseCache,
+        virtualThreadsEnabled, asyncExecutorFactoryClassName);
   }
 
   protected boolean baseEquals(ServiceOptions<?, ?, ?> other) {
@@ -625,13 +972,19 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
         && Objects.equals(retryParams, other.retryParams)
         && Objects.equals(serviceFactoryClassName, other.serviceFactoryClassName)
         && Objects.equals(serviceRpcFactoryClassName, other.serviceRpcFactoryClassName)
-        && Objects.equals(clock, clock);
+        && Objects.equals(clock, clock)
+        && readCoalescingEnabled == other.readCoalescingEnabled
+        && Objects.equals(responseCache, other.responseCache)
+        && virtualThreadsEnabled == other.virtualThreadsEnabled
+        && Objects.equals(asyncExecutorFactoryClassName, other.asyncExecutorFactoryClassName);
   }
 
   private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
     input.defaultReadObject();
     serviceFactory = newInstance(serviceFactoryClassName);
     serviceRpcFactory = newInstance(serviceRpcFactoryClassName);
+    metricsRecorder = MetricsRecorder.NO_OP;
+    asyncExecutorFactory = newInstance(asyncExecutorFactoryClassName);
   }
 
   @SuppressWarnings("unchecked")
@@ -679,6 +1032,104 @@ public abstract class ServiceOptions<ServiceT extends Service<OptionsT>, Service
     return Iterables.getFirst(ServiceLoader.load(clazz), defaultInstance);
   }
 
+  /**
+   * A value of the environment that is discovered in a background thread, started by the first
+   * call to {@link #start()} or by a call to {@link #get()}. Concurrent calls share the same
+   * lookup. Once a lookup finds a value, the value is kept. A lookup that finds nothing, or fails,
+   * is kept for {@link #RETRY_DELAY_NANOS}, after which the next call looks the value up again.
+   */
+  @VisibleForTesting
+  static final class DiscoveredValue<T> {
+
+    static final long RETRY_DELAY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Callable<T> callable;
+    private final Ticker ticker;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<Lookup> lookup = new AtomicReference<>();
+
+    private final class Lookup extends FutureTask<T> {
+
+      // Set before the result, so that it is visible once the lookup is done
+      private volatile long completedNanos;
+
+      Lookup() {
+        super(callable);
+      }
+
+      @Override
+      protected void set(T value) {
+        completedNanos = ticker.read();
+        super.set(value);
+      }
+
+      @Override
+      protected void setException(Throwable throwable) {
+        completedNanos = ticker.read();
+        super.setException(throwable);
+      }
+
+      /**
+       * Returns whether the lookup found nothing at least {@link #RETRY_DELAY_NANOS} ago.
+       */
+      boolean isExpired() {
+        if (!isDone() || ticker.read() - completedNanos < RETRY_DELAY_NANOS) {
+          return false;
+        }
+        try {
+          return Uninterruptibles.getUninterruptibly(this) == null;
+        } catch (ExecutionException ex) {
+          return true;
+        }
+      }
+    }
+
+    DiscoveredValue(Callable<T> callable) {
+      this(callable, Ticker.systemTicker());
+    }
+
+    DiscoveredValue(Callable<T> callable, Ticker ticker) {
+      this.callable = callable;
+      this.ticker = ticker;
+    }
+
+    void start() {
+      if (started.compareAndSet(false, true)) {
+        startLookup();
+      }
+    }
+
+    private Lookup startLookup() {
+      while (true) {
+        Lookup current = lookup.get();
+        if (current != null && !current.isExpired()) {
+          return current;
+        }
+        Lookup task = new Lookup();
+        if (lookup.compareAndSet(current, task)) {
+          try {
+            DISCOVERY_THREAD_FACTORY.newThread(task).start();
+          } catch (RuntimeException ex) {
+            // e.g. where the environment does not allow creating threads
+            task.run();
+          }
+          return task;
+        }
+      }
+    }
+
+    /**
+     * Returns the discovered value, or {@code null} if it could not be discovered.
+     */
+    T get() {
+      try {
+        return Uninterruptibles.getUninterruptibly(startLookup());
+      } catch (ExecutionException ex) {
+        return null;
+      }
+    }
+  }
+
   private static String defaultLibraryVersion() {
     String version = getPomVersion();
     if (version == null) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses identical concurrent calls into one. While a call for a key is in flight, other calls
+ * for an equal key wait for it and get its result, or its exception, instead of running their own.
+ * A call made after the in-flight call completes runs again. Results are therefore never older than
+ * the start of the call that returns them, which makes this suitable for idempotent reads.
+ *
+ * <p>Keys must identify both the operation and the request, e.g. the method name and its
+ * arguments, and implement {@code equals} and {@code hashCode}. Results are shared between callers
+ * and must not be modified.
+ */
+public final class SingleFlight {
+
+  private final ConcurrentMap<Object, ListenableFuture<?>> calls = new ConcurrentHashMap<>();
+
+  /**
+   * Runs {@code callable}, unless a call for an equal key is in flight, in which case its result is
+   * returned. Checked exceptions thrown by {@code callable} are propagated wrapped in a
+   * {@link RuntimeException}.
+   */
+  public <V> V execute(Object key, Callable<V> callable) {
+    SettableFuture<V> call = SettableFuture.create();
+    @SuppressWarnings("unchecked")
+    ListenableFuture<V> inFlight = (ListenableFuture<V>) calls.putIfAbsent(key, call);
+    if (inFlight != null) {
+      try {
+        return Uninterruptibles.getUninterruptibly(inFlight);
+      } catch (ExecutionException ex) {
+        throw Throwables.propagate(ex.getCause());
+      }
+    }
+    V value;
+    try {
+      value = callable.call();
+    } catch (Throwable error) {
+      calls.remove(key, call);
+      call.setException(error);
+      throw Throwables.propagate(error);
+    }
+    calls.remove(key, call);
+    call.set(value);
+    return value;
+  }
+
+  /**
+   * Returns the number of calls in flight.
+   */
+  int getInFlightCount() {
+    return calls.size();
+  }
+}
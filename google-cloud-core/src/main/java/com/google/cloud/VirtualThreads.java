@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Throwables;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates executors backed by virtual threads, on JDKs that have them. The JDK methods are looked
+ * up reflectively, as the library is built against older JDKs.
+ *
+ * <p>Code that may run in virtual threads and blocks while holding a lock, e.g. on I/O or on a
+ * condition, uses a {@link java.util.concurrent.locks.Lock} rather than a monitor: a virtual
+ * thread that blocks inside a {@code synchronized} block pins its carrier thread, which can then
+ * run no other virtual thread.
+ */
+final class VirtualThreads {
+
+  /**
+   * The maximum number of threads of a scheduled executor. A scheduled executor starts a thread for
+   * each task until it reaches its core size: virtual threads are cheap enough for the core size
+   * to bound the number of concurrent tasks rather than the number of threads.
+   */
+  static final int MAX_SCHEDULED_THREADS = 1 << 16;
+
+  private static final Method OF_VIRTUAL;
+  private static final Method BUILDER_NAME;
+  private static final Method BUILDER_FACTORY;
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+  static {
+    Method ofVirtual = null;
+    Method builderName = null;
+    Method builderFactory = null;
+    Method newThreadPerTaskExecutor = null;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builderName = builderClass.getMethod("name", String.class, long.class);
+      builderFactory = builderClass.getMethod("factory");
+      newThreadPerTaskExecutor =
+          Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      // JDKs 19 and 20 have the methods but throw UnsupportedOperationException unless preview
+      // features are enabled
+      ofVirtual.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_FACTORY = builderFactory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+  }
+
+  private VirtualThreads() {}
+
+  /**
+   * Returns whether the running JDK has virtual threads and allows creating them.
+   */
+  static boolean isAvailable() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Returns a factory of virtual threads named {@code namePrefix} followed by a counter.
+   *
+   * @throws IllegalStateException if the running JDK has no virtual threads
+   */
+  static ThreadFactory newThreadFactory(String namePrefix) {
+    checkState(isAvailable(), "Virtual threads are not available");
+    try {
+      Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+      return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex);
+    } catch (InvocationTargetException ex) {
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  /**
+   * Returns an executor that runs each task in a new virtual thread.
+   *
+   * @throws IllegalStateException if the running JDK has no virtual threads
+   */
+  static ExecutorService newExecutor(String namePrefix) {
+    try {
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null,
+          newThreadFactory(namePrefix));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex);
+    } catch (InvocationTargetException ex) {
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  /**
+   * Returns a scheduled executor that runs its tasks in virtual threads, up to
+   * {@link #MAX_SCHEDULED_THREADS} at a time. Its threads exit when idle.
+   *
+   * @throws IllegalStateException if the running JDK has no virtual threads
+   */
+  static ScheduledExecutorService newScheduledExecutor(String namePrefix) {
+    ScheduledThreadPoolExecutor executor =
+        new ScheduledThreadPoolExecutor(MAX_SCHEDULED_THREADS, newThreadFactory(namePrefix));
+    executor.setKeepAliveTime(5, TimeUnit.SECONDS);
+    executor.allowCoreThreadTimeOut(true);
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
+  }
+}
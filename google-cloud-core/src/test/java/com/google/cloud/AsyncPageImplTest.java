@@ -111,6 +111,16 @@ public class AsyncPageImplTest {
     assertEquals(ALL_VALUES, ImmutableList.copyOf(result.iterateAll()));
   }
 
+  @Test
+  public void testIterateAllPrefetching() {
+    final AsyncPageImpl<String> nextResult2 = new AsyncPageImpl<>(null, "c3", VALUES3);
+    AsyncPageImpl.NextPageFetcher<String> fetcher2 = new TestPageFetcher(nextResult2);
+    final AsyncPageImpl<String> nextResult1 = new AsyncPageImpl<>(fetcher2, "c2", VALUES2);
+    AsyncPageImpl.NextPageFetcher<String> fetcher1 = new TestPageFetcher(nextResult1);
+    AsyncPageImpl<String> result = new AsyncPageImpl<>(fetcher1, "c1", VALUES1);
+    assertEquals(ALL_VALUES, ImmutableList.copyOf(PageImpl.iterateAllPrefetching(result)));
+  }
+
   @Test
   public void testAsyncPageAndIterateAll() throws ExecutionException, InterruptedException {
     final AsyncPageImpl<String> nextResult2 = new AsyncPageImpl<>(null, "c3", VALUES3);
@@ -23,7 +23,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import com.google.cloud.spi.ServiceRpcFactory;
+import com.google.common.collect.ImmutableList;
 
+import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -33,8 +35,13 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class BaseWriteChannelTest {
 
@@ -52,6 +59,44 @@ public class BaseWriteChannelTest {
     }
   }
 
+  private static class PipelinedChannel
+      extends BaseWriteChannel<CustomServiceOptions, Serializable> {
+
+    private final List<byte[]> flushedChunks =
+        Collections.synchronizedList(new ArrayList<byte[]>());
+    private final List<Long> flushedPositions = Collections.synchronizedList(new ArrayList<Long>());
+
+    PipelinedChannel(CustomServiceOptions options) {
+      super(options, ENTITY, UPLOAD_ID);
+    }
+
+    @Override
+    public RestorableState<WriteChannel> capture() {
+      return null;
+    }
+
+    @Override
+    protected void flushBuffer(int length, boolean last) {
+      throw new AssertionError("Pipelined channel should not flush inline");
+    }
+
+    @Override
+    protected boolean isPipeliningSupported() {
+      return true;
+    }
+
+    @Override
+    protected void flushBuffer(byte[] buffer, long position, int length, boolean last) {
+      flushedChunks.add(Arrays.copyOf(buffer, length));
+      flushedPositions.add(position);
+    }
+
+    @Override
+    protected BaseState.Builder<CustomServiceOptions, Serializable> stateBuilder() {
+      return null;
+    }
+  }
+
   private static final Serializable ENTITY = 42L;
   private static final String UPLOAD_ID = "uploadId";
   private static final byte[] CONTENT = {0xD, 0xE, 0xA, 0xD};
@@ -148,6 +193,43 @@ public class BaseWriteChannelTest {
     assertArrayEquals(newContent, channel.getBuffer());
   }
 
+  @Test
+  public void testPipelinedWriteAndFlush() throws IOException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CustomServiceOptions options = EasyMock.createMock(CustomServiceOptions.class);
+    EasyMock.expect(options.getChannelExecutor()).andReturn(executor);
+    EasyMock.replay(options);
+    PipelinedChannel pipelinedChannel = new PipelinedChannel(options);
+    pipelinedChannel.setPipelined(true);
+    assertTrue(pipelinedChannel.isPipelined());
+    ByteBuffer content = randomBuffer(2 * DEFAULT_CHUNK_SIZE + 1);
+    pipelinedChannel.write(content);
+    assertEquals(2 * DEFAULT_CHUNK_SIZE, pipelinedChannel.getPosition());
+    assertEquals(1, pipelinedChannel.getLimit());
+    ByteBuffer moreContent = randomBuffer(DEFAULT_CHUNK_SIZE);
+    pipelinedChannel.write(moreContent);
+    pipelinedChannel.close();
+    executor.shutdown();
+    EasyMock.verify(options);
+    List<byte[]> flushedChunks = pipelinedChannel.flushedChunks;
+    assertEquals(ImmutableList.of(0L, 2L * DEFAULT_CHUNK_SIZE, 3L * DEFAULT_CHUNK_SIZE),
+        pipelinedChannel.flushedPositions);
+    assertArrayEquals(Arrays.copyOf(content.array(), 2 * DEFAULT_CHUNK_SIZE),
+        flushedChunks.get(0));
+    byte[] secondChunk = flushedChunks.get(1);
+    assertEquals(DEFAULT_CHUNK_SIZE, secondChunk.length);
+    assertEquals(content.get(2 * DEFAULT_CHUNK_SIZE), secondChunk[0]);
+    assertArrayEquals(Arrays.copyOf(moreContent.array(), DEFAULT_CHUNK_SIZE - 1),
+        Arrays.copyOfRange(secondChunk, 1, DEFAULT_CHUNK_SIZE));
+    assertArrayEquals(new byte[] {moreContent.get(DEFAULT_CHUNK_SIZE - 1)}, flushedChunks.get(2));
+  }
+
+  @Test
+  public void testSetPipelinedNotSupported() {
+    thrown.expect(UnsupportedOperationException.class);
+    channel.setPipelined(true);
+  }
+
   private static ByteBuffer randomBuffer(int size) {
     byte[] byteArray = new byte[size];
     RANDOM.nextBytes(byteArray);
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static java.util.concurrent.Executors.callable;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.cloud.RetryHelper.NonRetriableException;
+import com.google.cloud.RetryHelper.RetriesExhaustedException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link CircuitBreaker}.
+ */
+@RunWith(JUnit4.class)
+public class CircuitBreakerTest {
+
+  private static final ExceptionHandler HANDLER =
+      ExceptionHandler.newBuilder().retryOn(RuntimeException.class).build();
+
+  private static class FakeClock extends Clock {
+
+    private long millis;
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+  }
+
+  private static Callable<Object> failingCallable(final AtomicInteger timesCalled) {
+    return callable(new Runnable() {
+      @Override
+      public void run() {
+        timesCalled.incrementAndGet();
+        throw new RuntimeException();
+      }
+    });
+  }
+
+  private static Callable<Object> flakyCallable(final AtomicInteger timesCalled,
+      final AtomicBoolean failing) {
+    return callable(new Runnable() {
+      @Override
+      public void run() {
+        timesCalled.incrementAndGet();
+        if (failing.get()) {
+          throw new RuntimeException();
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testOpensAfterThreshold() {
+    FakeClock clock = new FakeClock();
+    CircuitBreaker breaker = CircuitBreaker.create(3, 1000, 5000, clock);
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setRetryMaxAttempts(10)
+        .setCircuitBreaker(breaker)
+        .build();
+    AtomicInteger timesCalled = new AtomicInteger();
+    Callable<Object> callable = failingCallable(timesCalled);
+    try {
+      RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+      fail();
+    } catch (NonRetriableException expected) {
+      // the third retriable failure opens the breaker
+      assertEquals(3, timesCalled.get());
+    }
+    assertTrue(breaker.isOpen(callable.getClass().getName()));
+    timesCalled.set(0);
+    try {
+      RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+      fail();
+    } catch (RetriesExhaustedException expected) {
+      // first attempts fail fast while the breaker is open
+      assertEquals(0, timesCalled.get());
+    }
+    clock.millis += 5000;
+    assertFalse(breaker.isOpen(callable.getClass().getName()));
+  }
+
+  @Test
+  public void testHalfOpenProbe() {
+    FakeClock clock = new FakeClock();
+    CircuitBreaker breaker = CircuitBreaker.create(1, 1000, 5000, clock);
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setRetryMaxAttempts(10)
+        .setCircuitBreaker(breaker)
+        .build();
+    AtomicInteger timesCalled = new AtomicInteger();
+    AtomicBoolean failing = new AtomicBoolean(true);
+    Callable<Object> callable = flakyCallable(timesCalled, failing);
+    String operation = callable.getClass().getName();
+    try {
+      RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+      fail();
+    } catch (NonRetriableException expected) {
+      assertEquals(1, timesCalled.get());
+    }
+    assertTrue(breaker.isOpen(operation));
+    clock.millis += 5000;
+    try {
+      RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+      fail();
+    } catch (NonRetriableException expected) {
+      // the failed probe is not retried and reopens the breaker
+      assertEquals(2, timesCalled.get());
+    }
+    assertTrue(breaker.isOpen(operation));
+    try {
+      RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+      fail();
+    } catch (RetriesExhaustedException expected) {
+      assertEquals(2, timesCalled.get());
+    }
+    clock.millis += 5000;
+    failing.set(false);
+    RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+    assertEquals(3, timesCalled.get());
+    // the successful probe closes the breaker
+    RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+    assertEquals(4, timesCalled.get());
+    assertFalse(breaker.isOpen(operation));
+  }
+
+  @Test
+  public void testHalfOpenAllowsSingleProbe() {
+    FakeClock clock = new FakeClock();
+    CircuitBreaker breaker = CircuitBreaker.create(1, 1000, 5000, clock);
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setCircuitBreaker(breaker)
+        .build();
+    Callable<Object> callable = failingCallable(new AtomicInteger());
+    String operation = callable.getClass().getName();
+    try {
+      RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+      fail();
+    } catch (NonRetriableException expected) {
+      // opens the breaker
+    }
+    assertFalse(breaker.allowAttempt(operation));
+    clock.millis += 5000;
+    assertTrue(breaker.allowAttempt(operation));
+    assertFalse(breaker.allowAttempt(operation));
+    // a probe that never completes does not hold back the next one forever
+    clock.millis += 5000;
+    assertTrue(breaker.allowAttempt(operation));
+    assertFalse(breaker.allowAttempt(operation));
+  }
+
+  @Test
+  public void testAsyncAttemptsFailFastWhileOpen() throws Exception {
+    FakeClock clock = new FakeClock();
+    CircuitBreaker breaker = CircuitBreaker.create(1, 1000, 5000, clock);
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setCircuitBreaker(breaker)
+        .build();
+    AtomicInteger timesCalled = new AtomicInteger();
+    Callable<Object> callable = failingCallable(timesCalled);
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      try {
+        RetryHelper.runWithRetriesAsync(callable, params, HANDLER, executor, clock).get();
+        fail();
+      } catch (ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof NonRetriableException);
+      }
+      try {
+        RetryHelper.runWithRetriesAsync(callable, params, HANDLER, executor, clock).get();
+        fail();
+      } catch (ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof RetriesExhaustedException);
+      }
+      assertEquals(1, timesCalled.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFailuresOutsideWindowDoNotOpen() {
+    FakeClock clock = new FakeClock();
+    CircuitBreaker breaker = CircuitBreaker.create(2, 1000, 5000, clock);
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setRetryMinAttempts(1)
+        .setRetryMaxAttempts(1)
+        .setCircuitBreaker(breaker)
+        .build();
+    AtomicInteger timesCalled = new AtomicInteger();
+    Callable<Object> callable = failingCallable(timesCalled);
+    for (int i = 0; i < 3; i++) {
+      try {
+        RetryHelper.runWithRetries(callable, params, HANDLER, clock);
+        fail();
+      } catch (RetriesExhaustedException expected) {
+        // failures are more than a window apart
+      }
+      clock.millis += 1000;
+    }
+    assertFalse(breaker.isOpen(callable.getClass().getName()));
+  }
+
+  @Test
+  public void testNonRetriableFailuresAreNotCounted() {
+    FakeClock clock = new FakeClock();
+    CircuitBreaker breaker = CircuitBreaker.create(1, 1000, 5000, clock);
+    ExceptionHandler handler = ExceptionHandler.newBuilder()
+        .abortOn(RuntimeException.class)
+        .addInterceptors(breaker)
+        .build();
+    AtomicInteger timesCalled = new AtomicInteger();
+    Callable<Object> callable = failingCallable(timesCalled);
+    try {
+      RetryHelper.runWithRetries(callable, RetryParams.getDefaultInstance(), handler, clock);
+      fail();
+    } catch (NonRetriableException expected) {
+      assertEquals(1, timesCalled.get());
+    }
+    assertFalse(breaker.isOpen(callable.getClass().getName()));
+  }
+}
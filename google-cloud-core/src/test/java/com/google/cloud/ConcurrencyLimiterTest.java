@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.ConcurrencyLimiter.Outcome;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link ConcurrencyLimiter}.
+ */
+@RunWith(JUnit4.class)
+public class ConcurrencyLimiterTest {
+
+  @Test
+  public void testLimitGrowsWhenUsed() throws InterruptedException {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(2, 4);
+    for (int round = 0; round < 20; round++) {
+      int limit = limiter.getLimit("m");
+      long[] tickets = new long[limit];
+      for (int i = 0; i < limit; i++) {
+        tickets[i] = limiter.acquire("m");
+      }
+      for (int i = 0; i < limit; i++) {
+        limiter.release("m", tickets[i], Outcome.SUCCESS, 5);
+      }
+    }
+    assertEquals(4, limiter.getLimit("m"));
+    assertEquals(0, limiter.getInFlight("m"));
+  }
+
+  @Test
+  public void testLimitDoesNotGrowWhenUnused() throws InterruptedException {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(4, 10);
+    for (int i = 0; i < 20; i++) {
+      limiter.release("m", limiter.acquire("m"), Outcome.SUCCESS, 5);
+    }
+    assertEquals(4, limiter.getLimit("m"));
+  }
+
+  @Test
+  public void testLimitShrinksWhenOverloaded() throws InterruptedException {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(8, 10);
+    limiter.release("m", limiter.acquire("m"), Outcome.OVERLOADED, 5);
+    assertEquals(6, limiter.getLimit("m"));
+    limiter.release("m", limiter.acquire("m"), Outcome.IGNORED, 5);
+    assertEquals(6, limiter.getLimit("m"));
+    for (int i = 0; i < 20; i++) {
+      limiter.release("m", limiter.acquire("m"), Outcome.OVERLOADED, 5);
+    }
+    assertEquals(1, limiter.getLimit("m"));
+  }
+
+  @Test
+  public void testLimitShrinksOncePerRoundTrip() throws InterruptedException {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(8, 10);
+    long[] tickets = new long[8];
+    for (int i = 0; i < tickets.length; i++) {
+      tickets[i] = limiter.acquire("m");
+    }
+    // All the attempts were sent before the first decrease
+    for (long ticket : tickets) {
+      limiter.release("m", ticket, Outcome.OVERLOADED, 5);
+    }
+    assertEquals(6, limiter.getLimit("m"));
+    limiter.release("m", limiter.acquire("m"), Outcome.OVERLOADED, 5);
+    assertEquals(4, limiter.getLimit("m"));
+  }
+
+  @Test
+  public void testLimitShrinksWhenLatencyIncreases() throws InterruptedException {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(8, 10);
+    for (int i = 0; i < 20; i++) {
+      limiter.release("m", limiter.acquire("m"), Outcome.SUCCESS, 20);
+    }
+    // A single slow attempt is not a sign of queueing
+    limiter.release("m", limiter.acquire("m"), Outcome.SUCCESS, 100);
+    assertEquals(8, limiter.getLimit("m"));
+    for (int i = 0; i < 20 && limiter.getLimit("m") == 8; i++) {
+      limiter.release("m", limiter.acquire("m"), Outcome.SUCCESS, 100);
+    }
+    assertEquals(6, limiter.getLimit("m"));
+  }
+
+  @Test
+  public void testLimitDoesNotShrinkWhenLatencyVaries() throws InterruptedException {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(8, 10);
+    for (int i = 0; i < 1000; i++) {
+      limiter.release("m", limiter.acquire("m"), Outcome.SUCCESS, i % 5 == 0 ? 100 : 20);
+    }
+    assertEquals(8, limiter.getLimit("m"));
+  }
+
+  @Test
+  public void testAcquireWaitsForLimit() throws InterruptedException {
+    final ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 1);
+    long ticket = limiter.acquire("m");
+    // other methods are limited separately
+    limiter.acquire("other");
+    final CountDownLatch acquired = new CountDownLatch(1);
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          limiter.acquire("m");
+          acquired.countDown();
+        } catch (InterruptedException ex) {
+          // test fails
+        }
+      }
+    };
+    thread.start();
+    while (limiter.getQueueLength("m") == 0) {
+      Thread.sleep(1);
+    }
+    assertFalse(acquired.await(10, TimeUnit.MILLISECONDS));
+    limiter.release("m", ticket, Outcome.SUCCESS, 5);
+    assertTrue(acquired.await(10, TimeUnit.SECONDS));
+    thread.join();
+    assertEquals(0, limiter.getQueueLength("m"));
+    assertEquals(1, limiter.getInFlight("m"));
+  }
+
+  @Test
+  public void testIsOverloaded() {
+    assertTrue(ConcurrencyLimiter.isOverloaded(new BaseServiceException(429, "", null, true)));
+    assertTrue(ConcurrencyLimiter.isOverloaded(new BaseServiceException(503, "", null, true)));
+    assertTrue(ConcurrencyLimiter.isOverloaded(
+        new BaseServiceException(403, "", "rateLimitExceeded", true)));
+    assertTrue(ConcurrencyLimiter.isOverloaded(
+        new BaseServiceException(14, "", "UNAVAILABLE", true)));
+    assertFalse(ConcurrencyLimiter.isOverloaded(new BaseServiceException(500, "", null, true)));
+    assertFalse(ConcurrencyLimiter.isOverloaded(new IOException()));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.cloud.HistogramMetricsRecorder.ChunkMetrics;
+import com.google.cloud.HistogramMetricsRecorder.MethodMetrics;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HistogramMetricsRecorderTest {
+
+  @Test
+  public void testRecordAttempt() {
+    HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+    recorder.recordAttempt("get", "backendError", 1, 30, MetricsRecorder.UNKNOWN_BYTES, 10);
+    recorder.recordAttempt("get", MetricsRecorder.OK, 2, 10, 5, 20);
+    recorder.recordAttempt("delete", MetricsRecorder.OK, 1, 7, 0, 0);
+    assertEquals(2, recorder.getMethodMetrics().size());
+    MethodMetrics metrics = recorder.getMethodMetrics().get("get");
+    assertEquals(2, metrics.getLatencyMillis().getCount());
+    assertEquals(30, metrics.getLatencyMillis().getMax());
+    assertEquals(1, metrics.getRetryCount());
+    assertEquals(5, metrics.getRequestBytes());
+    assertEquals(30, metrics.getResponseBytes());
+    assertEquals(ImmutableMap.of("backendError", 1L, MetricsRecorder.OK, 1L),
+        metrics.getStatusCounts());
+  }
+
+  @Test
+  public void testRecordChunk() {
+    HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+    recorder.recordChunk("read", 2048, 2);
+    recorder.recordChunk("read", 1024, 0);
+    ChunkMetrics metrics = recorder.getChunkMetrics().get("read");
+    assertEquals(3072, metrics.getBytes());
+    assertEquals(2, metrics.getBytesPerSecond().getCount());
+    assertEquals(1024000, metrics.getBytesPerSecond().getMax());
+  }
+}
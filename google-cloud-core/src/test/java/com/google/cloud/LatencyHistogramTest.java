@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LatencyHistogramTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getMean(), 0);
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int value = 1; value <= 10; value++) {
+      histogram.record(value);
+    }
+    assertEquals(10, histogram.getCount());
+    assertEquals(10, histogram.getMax());
+    assertEquals(5.5, histogram.getMean(), 0);
+    assertEquals(5, histogram.getValueAtPercentile(50));
+    assertEquals(9, histogram.getValueAtPercentile(90));
+    assertEquals(1, histogram.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int value = 1; value <= 1000; value++) {
+      histogram.record(value);
+    }
+    assertEquals(511, histogram.getValueAtPercentile(50));
+    assertEquals(991, histogram.getValueAtPercentile(99));
+    assertEquals(1000, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testBuckets() {
+    assertEquals(31, LatencyHistogram.bucketIndex(31));
+    assertEquals(LatencyHistogram.bucketIndex(32), LatencyHistogram.bucketIndex(33));
+    for (long value : new long[] {100, 12345, 1L << 40, Long.MAX_VALUE}) {
+      long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(value));
+      // values share a bucket with values at most 1/16 larger
+      assertEquals(true, highest >= value && highest - value <= value / 16);
+    }
+  }
+
+  @Test
+  public void testNegativeValuesAreRecordedAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+    assertEquals(1, histogram.getCount());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+
+  @Test
+  public void testReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(42);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+  }
+
+  @Test
+  public void testInvalidPercentile() {
+    thrown.expect(IllegalArgumentException.class);
+    new LatencyHistogram().getValueAtPercentile(101);
+  }
+}
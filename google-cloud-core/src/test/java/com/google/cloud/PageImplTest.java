@@ -17,11 +17,17 @@
 package com.google.cloud;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.common.collect.ImmutableList;
 
 import org.junit.Test;
 
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 public class PageImplTest {
 
   private static final ImmutableList<String> VALUES = ImmutableList.of("1", "2");
@@ -78,4 +84,53 @@ public class PageImplTest {
     PageImpl<String> result = new PageImpl<>(fetcher, "c", VALUES);
     assertEquals(ALL_VALUES, ImmutableList.copyOf(result.iterateAll()));
   }
+
+  @Test
+  public void testIterateAllPrefetching() {
+    final PageImpl<String> nextResult = new PageImpl<>(null, "c", NEXT_VALUES);
+    PageImpl.NextPageFetcher<String> fetcher = new TestPageFetcher(nextResult);
+    PageImpl<String> result = new PageImpl<>(fetcher, "c", VALUES);
+    assertEquals(ALL_VALUES, ImmutableList.copyOf(PageImpl.iterateAllPrefetching(result)));
+  }
+
+  @Test
+  public void testIterateAllPrefetchingFetchesAhead() throws InterruptedException {
+    final CountDownLatch fetched = new CountDownLatch(1);
+    PageImpl.NextPageFetcher<String> fetcher = new TestPageFetcher(null) {
+      private static final long serialVersionUID = 7209148347021934473L;
+
+      @Override
+      public Page<String> getNextPage() {
+        fetched.countDown();
+        return new PageImpl<>(null, null, NEXT_VALUES);
+      }
+    };
+    Iterator<String> iterator =
+        PageImpl.iterateAllPrefetching(new PageImpl<>(fetcher, "c", VALUES));
+    assertEquals("1", iterator.next());
+    assertTrue(fetched.await(10, TimeUnit.SECONDS));
+    assertEquals(ALL_VALUES.subList(1, 4), ImmutableList.copyOf(iterator));
+  }
+
+  @Test
+  public void testIterateAllPrefetchingError() {
+    PageImpl.NextPageFetcher<String> fetcher = new TestPageFetcher(null) {
+      private static final long serialVersionUID = -1562416093467052346L;
+
+      @Override
+      public Page<String> getNextPage() {
+        throw new IllegalStateException("fetch failed");
+      }
+    };
+    Iterator<String> iterator =
+        PageImpl.iterateAllPrefetching(new PageImpl<>(fetcher, "c", VALUES));
+    assertEquals("1", iterator.next());
+    assertEquals("2", iterator.next());
+    try {
+      iterator.hasNext();
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException ex) {
+      assertEquals("fetch failed", ex.getMessage());
+    }
+  }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link RequestHedger}.
+ */
+@RunWith(JUnit4.class)
+public class RequestHedgerTest {
+
+  private static final String OPERATION = "operation";
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  private <V> V call(RequestHedger hedger, Callable<V> callable, FakeClock clock)
+      throws Exception {
+    return hedger.call(callable, callable, OPERATION, scheduler, executor, clock);
+  }
+
+  private static Callable<String> fixedLatency(final FakeClock clock, final long latencyMillis) {
+    return new Callable<String>() {
+      @Override
+      public String call() {
+        clock.millis += latencyMillis;
+        return "value";
+      }
+    };
+  }
+
+  private static class FakeClock extends Clock {
+
+    private volatile long millis;
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+  }
+
+  @Test
+  public void testDelayIsPercentileOfLatencies() throws Exception {
+    FakeClock clock = new FakeClock();
+    RequestHedger hedger = RequestHedger.create(90);
+    for (int i = 1; i < RequestHedger.MIN_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, i), clock);
+      assertEquals(-1, hedger.getDelayMillis(OPERATION));
+    }
+    call(hedger, fixedLatency(clock, RequestHedger.MIN_SAMPLES), clock);
+    assertEquals(18, hedger.getDelayMillis(OPERATION));
+    assertEquals(-1, hedger.getDelayMillis("other"));
+  }
+
+  @Test
+  public void testDelayIsPercentileOfRecentLatencies() throws Exception {
+    FakeClock clock = new FakeClock();
+    RequestHedger hedger = RequestHedger.create(90);
+    for (int i = 0; i < RequestHedger.MAX_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, 1000), clock);
+    }
+    assertEquals(1000, hedger.getDelayMillis(OPERATION));
+    for (int i = 0; i < RequestHedger.MAX_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, 1), clock);
+    }
+    assertEquals(1, hedger.getDelayMillis(OPERATION));
+  }
+
+  @Test
+  public void testSlowAttemptIsHedged() throws Exception {
+    FakeClock clock = new FakeClock();
+    RequestHedger hedger = RequestHedger.create(50);
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, 1), clock);
+    }
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger timesCalled = new AtomicInteger();
+    String value = call(hedger, new Callable<String>() {
+      @Override
+      public String call() throws InterruptedException {
+        if (timesCalled.incrementAndGet() == 1) {
+          release.await(10, TimeUnit.SECONDS);
+          return "slow";
+        }
+        return "hedged";
+      }
+    }, clock);
+    assertEquals("hedged", value);
+    assertEquals(2, timesCalled.get());
+    assertFalse(Thread.currentThread().isInterrupted());
+    release.countDown();
+  }
+
+  @Test
+  public void testFastAttemptIsNotHedged() throws Exception {
+    FakeClock clock = new FakeClock();
+    RequestHedger hedger = RequestHedger.create(50);
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, 10000), clock);
+    }
+    final AtomicInteger hedges = new AtomicInteger();
+    String value = hedger.call(new Callable<String>() {
+      @Override
+      public String call() {
+        return "value";
+      }
+    }, new Callable<String>() {
+      @Override
+      public String call() {
+        hedges.incrementAndGet();
+        return "hedged";
+      }
+    }, OPERATION, scheduler, executor, clock);
+    assertEquals("value", value);
+    assertEquals(0, hedges.get());
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test
+  public void testHedgeDoesNotWaitForUninterruptibleAttempt() throws Exception {
+    FakeClock clock = new FakeClock();
+    RequestHedger hedger = RequestHedger.create(50);
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, 1), clock);
+    }
+    // Like a socket read, the first attempt ignores interrupts
+    final CountDownLatch release = new CountDownLatch(1);
+    String value = hedger.call(new Callable<String>() {
+      @Override
+      public String call() {
+        Uninterruptibles.awaitUninterruptibly(release);
+        return "slow";
+      }
+    }, new Callable<String>() {
+      @Override
+      public String call() {
+        return "hedged";
+      }
+    }, OPERATION, scheduler, executor, clock);
+    assertEquals("hedged", value);
+    assertEquals(1, release.getCount());
+    assertFalse(Thread.currentThread().isInterrupted());
+    release.countDown();
+  }
+
+  @Test
+  public void testFailedHedgeLeavesOutcomeToFirstAttempt() throws Exception {
+    FakeClock clock = new FakeClock();
+    RequestHedger hedger = RequestHedger.create(50);
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, 1), clock);
+    }
+    final CountDownLatch hedged = new CountDownLatch(1);
+    String value = hedger.call(new Callable<String>() {
+      @Override
+      public String call() throws InterruptedException {
+        hedged.await(10, TimeUnit.SECONDS);
+        return "first";
+      }
+    }, new Callable<String>() {
+      @Override
+      public String call() {
+        hedged.countDown();
+        throw new IllegalStateException();
+      }
+    }, OPERATION, scheduler, executor, clock);
+    assertEquals("first", value);
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test
+  public void testFailedAttemptWaitsForHedge() throws Exception {
+    FakeClock clock = new FakeClock();
+    RequestHedger hedger = RequestHedger.create(50);
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+      call(hedger, fixedLatency(clock, 1), clock);
+    }
+    final CountDownLatch hedged = new CountDownLatch(1);
+    final AtomicInteger timesCalled = new AtomicInteger();
+    String value = call(hedger, new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        if (timesCalled.incrementAndGet() == 1) {
+          hedged.await(10, TimeUnit.SECONDS);
+          throw new IllegalStateException();
+        }
+        hedged.countDown();
+        Thread.sleep(10);
+        return "hedged";
+      }
+    }, clock);
+    assertEquals("hedged", value);
+  }
+}
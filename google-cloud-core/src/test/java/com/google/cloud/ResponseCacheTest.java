@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tests for {@link ResponseCache}.
+ */
+@RunWith(JUnit4.class)
+public class ResponseCacheTest {
+
+  private final FakeClock clock = new FakeClock();
+
+  private static class FakeClock extends Clock {
+
+    private long millis;
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+  }
+
+  /**
+   * A loader that returns the next of its responses and records the expired responses it is
+   * passed.
+   */
+  private static class RecordingLoader implements ResponseCache.Loader<String> {
+
+    private final List<String> responses;
+    private final List<String> expired = new ArrayList<>();
+
+    RecordingLoader(List<String> responses) {
+      this.responses = new ArrayList<>(responses);
+    }
+
+    @Override
+    public String load(String expiredResponse) {
+      expired.add(expiredResponse);
+      return responses.remove(0);
+    }
+  }
+
+  /**
+   * An asynchronous loader whose reads complete when the test sets their future.
+   */
+  private static class PendingLoader implements ResponseCache.AsyncLoader<String> {
+
+    private final List<SettableFuture<String>> futures = new ArrayList<>();
+
+    @Override
+    public ListenableFuture<String> load(String expiredResponse) {
+      SettableFuture<String> future = SettableFuture.create();
+      futures.add(future);
+      return future;
+    }
+  }
+
+  private static RecordingLoader loader(String... responses) {
+    List<String> list = new ArrayList<>();
+    for (String response : responses) {
+      list.add(response);
+    }
+    return new RecordingLoader(list);
+  }
+
+  @Test
+  public void testGetServesCachedResponseUntilExpired() {
+    ResponseCache cache = ResponseCache.create(10, 100);
+    RecordingLoader loader = loader("a", "b");
+    assertEquals("a", cache.get("resource", "request", clock, loader));
+    clock.millis = 99;
+    assertEquals("a", cache.get("resource", "request", clock, loader));
+    assertEquals(1, loader.expired.size());
+    clock.millis = 100;
+    assertEquals("b", cache.get("resource", "request", clock, loader));
+    // Without revalidation the loader is not passed the expired response
+    assertEquals(2, loader.expired.size());
+    assertNull(loader.expired.get(1));
+  }
+
+  @Test
+  public void testGetCachesPerRequest() {
+    ResponseCache cache = ResponseCache.create(10, 100);
+    RecordingLoader loader = loader("a", "b");
+    assertEquals("a", cache.get("resource", "first", clock, loader));
+    assertEquals("b", cache.get("resource", "second", clock, loader));
+    assertEquals("a", cache.get("resource", "first", clock, loader));
+    assertEquals("b", cache.get("resource", "second", clock, loader));
+  }
+
+  @Test
+  public void testGetDoesNotCacheMissingResource() {
+    ResponseCache cache = ResponseCache.create(10, 100);
+    RecordingLoader loader = loader(null, "a");
+    assertNull(cache.get("resource", "request", clock, loader));
+    assertEquals("a", cache.get("resource", "request", clock, loader));
+  }
+
+  @Test
+  public void testRevalidation() {
+    ResponseCache cache = ResponseCache.create(10, 100, true);
+    assertTrue(cache.isRevalidationEnabled());
+    RecordingLoader loader = loader("a", "a", "b");
+    assertEquals("a", cache.get("resource", "request", clock, loader));
+    clock.millis = 100;
+    assertEquals("a", cache.get("resource", "request", clock, loader));
+    assertEquals("a", loader.expired.get(1));
+    // The revalidated response is served for another ttl
+    clock.millis = 199;
+    assertEquals("a", cache.get("resource", "request", clock, loader));
+    clock.millis = 200;
+    assertEquals("b", cache.get("resource", "request", clock, loader));
+    assertEquals("a", loader.expired.get(2));
+  }
+
+  @Test
+  public void testInvalidate() {
+    ResponseCache cache = ResponseCache.create(10, 100);
+    RecordingLoader loader = loader("a", "b", "c");
+    assertEquals("a", cache.get("resource", "first", clock, loader));
+    assertEquals("b", cache.get("other", "first", clock, loader));
+    cache.invalidate("resource");
+    assertEquals("c", cache.get("resource", "first", clock, loader));
+    assertEquals("b", cache.get("other", "first", clock, loader));
+  }
+
+  @Test
+  public void testInvalidateDuringLoad() {
+    final ResponseCache cache = ResponseCache.create(10, 100);
+    RecordingLoader loader = loader("b");
+    assertEquals("a", cache.get("resource", "request", clock, new ResponseCache.Loader<String>() {
+      @Override
+      public String load(String expired) {
+        // A mutation of the resource completes while it is read
+        cache.invalidate("resource");
+        return "a";
+      }
+    }));
+    assertEquals("b", cache.get("resource", "request", clock, loader));
+  }
+
+  @Test
+  public void testGetAsyncCachesResponseOnceRead() throws Exception {
+    ResponseCache cache = ResponseCache.create(10, 100);
+    PendingLoader asyncLoader = new PendingLoader();
+    ListenableFuture<String> first = cache.getAsync("resource", "request", clock, asyncLoader);
+    assertFalse(first.isDone());
+    // Nothing is cached while the read is in progress
+    ListenableFuture<String> second = cache.getAsync("resource", "request", clock, asyncLoader);
+    assertEquals(2, asyncLoader.futures.size());
+    asyncLoader.futures.get(0).set("a");
+    assertEquals("a", first.get());
+    assertFalse(second.isDone());
+    // Responses read asynchronously are served to synchronous reads and vice versa
+    assertEquals("a", cache.get("resource", "request", clock, loader("b")));
+    clock.millis = 100;
+    assertEquals("c", cache.get("resource", "request", clock, loader("c")));
+    assertEquals("c", cache.getAsync("resource", "request", clock, asyncLoader).get());
+    assertEquals(2, asyncLoader.futures.size());
+  }
+
+  @Test
+  public void testGetAsyncDoesNotCacheFailure() throws Exception {
+    ResponseCache cache = ResponseCache.create(10, 100);
+    PendingLoader asyncLoader = new PendingLoader();
+    ListenableFuture<String> future = cache.getAsync("resource", "request", clock, asyncLoader);
+    asyncLoader.futures.get(0).setException(new IllegalStateException());
+    try {
+      future.get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+    assertEquals("a", cache.get("resource", "request", clock, loader("a")));
+  }
+
+  @Test
+  public void testGetAsyncRevalidation() throws Exception {
+    ResponseCache cache = ResponseCache.create(10, 100, true);
+    assertEquals("a", cache.get("resource", "request", clock, loader("a")));
+    clock.millis = 100;
+    ListenableFuture<String> future =
+        cache.getAsync("resource", "request", clock, new ResponseCache.AsyncLoader<String>() {
+          @Override
+          public ListenableFuture<String> load(String expired) {
+            return Futures.immediateFuture(expired);
+          }
+        });
+    assertEquals("a", future.get());
+    clock.millis = 199;
+    assertEquals("a", cache.get("resource", "request", clock, loader("b")));
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedResources() {
+    ResponseCache cache = ResponseCache.create(1, 100);
+    RecordingLoader loader = loader("a", "b", "c");
+    assertEquals("a", cache.get("first", "request", clock, loader));
+    assertEquals("b", cache.get("second", "request", clock, loader));
+    assertEquals("c", cache.get("first", "request", clock, loader));
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    ResponseCache cache = ResponseCache.create(10, 100, true);
+    cache.get("resource", "request", clock, loader("a"));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(cache);
+    }
+    ResponseCache copy;
+    try (ObjectInputStream input =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = (ResponseCache) input.readObject();
+    }
+    assertEquals(10, copy.getMaxResources());
+    assertEquals(100, copy.getTtlMillis());
+    assertTrue(copy.isRevalidationEnabled());
+    // Cached responses are not serialized
+    assertEquals("b", copy.get("resource", "request", clock, loader("b")));
+  }
+
+  @Test
+  public void testCreate() {
+    ResponseCache cache = ResponseCache.create(10, 100);
+    assertEquals(10, cache.getMaxResources());
+    assertEquals(100, cache.getTtlMillis());
+    assertFalse(cache.isRevalidationEnabled());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCreateInvalidTtl() {
+    ResponseCache.create(10, 0);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link RetryBudget}.
+ */
+@RunWith(JUnit4.class)
+public class RetryBudgetTest {
+
+  @Test
+  public void testStartsFull() {
+    RetryBudget budget = RetryBudget.create(0.1, 2);
+    assertEquals(2, budget.getAvailableTokens(), 0);
+    assertTrue(budget.tryAcquireRetry());
+    assertTrue(budget.tryAcquireRetry());
+    assertFalse(budget.tryAcquireRetry());
+  }
+
+  @Test
+  public void testOperationsRefillBudget() {
+    RetryBudget budget = RetryBudget.create(0.25, 2);
+    assertTrue(budget.tryAcquireRetry());
+    assertTrue(budget.tryAcquireRetry());
+    for (int i = 0; i < 3; i++) {
+      budget.onOperation();
+      assertFalse(budget.tryAcquireRetry());
+    }
+    budget.onOperation();
+    assertTrue(budget.tryAcquireRetry());
+  }
+
+  @Test
+  public void testBudgetIsCapped() {
+    RetryBudget budget = RetryBudget.create(1, 2);
+    for (int i = 0; i < 10; i++) {
+      budget.onOperation();
+    }
+    assertEquals(2, budget.getAvailableTokens(), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRatio() {
+    RetryBudget.create(0, 2);
+  }
+}
@@ -18,12 +18,16 @@ package com.google.cloud;
 
 import static java.util.concurrent.Executors.callable;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.google.cloud.RetryHelper.NonRetriableException;
 import com.google.cloud.RetryHelper.RetriesExhaustedException;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import org.junit.Test;
 
@@ -31,9 +35,15 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Tests for {@link RetryHelper}.
@@ -299,6 +309,145 @@ public class RetryHelperTest {
     }
   }
 
+  @Test
+  public void testRetryBudget() {
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setRetryMaxAttempts(10)
+        .setRetryBudget(RetryBudget.create(0.5, 1))
+        .build();
+    ExceptionHandler handler = ExceptionHandler.newBuilder().retryOn(RuntimeException.class).build();
+    final AtomicInteger timesCalled = new AtomicInteger(0);
+    Callable<Object> failing = callable(new Runnable() {
+      @Override public void run() {
+        timesCalled.incrementAndGet();
+        throw new RuntimeException();
+      }
+    });
+    try {
+      RetryHelper.runWithRetries(failing, params, handler);
+      fail();
+    } catch (RetriesExhaustedException expected) {
+      // the budget starts with one token
+      assertEquals(2, timesCalled.get());
+    }
+    timesCalled.set(0);
+    try {
+      RetryHelper.runWithRetries(failing, params, handler);
+      fail();
+    } catch (RetriesExhaustedException expected) {
+      // the budget is empty and this operation only deposited half a token
+      assertEquals(1, timesCalled.get());
+    }
+  }
+
+  @Test
+  public void testMetricsRecorder() {
+    HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setRetryMaxAttempts(3)
+        .build()
+        .toBuilder()
+        .setMetricsRecorder(recorder)
+        .build();
+    ExceptionHandler handler = ExceptionHandler.newBuilder().retryOn(IOException.class).build();
+    final FakeClock fakeClock = new FakeClock();
+    final AtomicInteger timesCalled = new AtomicInteger(0);
+    int result = RetryHelper.runWithRetries(new Callable<Integer>() {
+      @Override public Integer call() throws IOException {
+        fakeClock.advance(10, TimeUnit.MILLISECONDS);
+        if (timesCalled.incrementAndGet() < 3) {
+          throw new IOException();
+        }
+        return 42;
+      }
+    }, params, handler, fakeClock);
+    assertEquals(42, result);
+    HistogramMetricsRecorder.MethodMetrics metrics =
+        recorder.getMethodMetrics().get("RetryHelperTest.testMetricsRecorder()");
+    assertEquals(3, metrics.getLatencyMillis().getCount());
+    assertEquals(10, metrics.getLatencyMillis().getMax());
+    assertEquals(2, metrics.getRetryCount());
+    assertEquals(ImmutableMap.of("IOException", 2L, MetricsRecorder.OK, 1L),
+        metrics.getStatusCounts());
+    assertEquals(0, metrics.getRequestBytes());
+  }
+
+  @Test
+  public void testConcurrencyLimiter() {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(4, 10);
+    RetryParams params = RetryParams.newBuilder()
+        .setInitialRetryDelayMillis(0)
+        .setRetryMaxAttempts(3)
+        .build()
+        .toBuilder()
+        .setConcurrencyLimiter(limiter)
+        .build();
+    ExceptionHandler handler =
+        ExceptionHandler.newBuilder().retryOn(BaseServiceException.class).build();
+    final AtomicInteger timesCalled = new AtomicInteger(0);
+    int result = RetryHelper.runWithRetries(new Callable<Integer>() {
+      @Override public Integer call() {
+        if (timesCalled.incrementAndGet() == 1) {
+          throw new BaseServiceException(429, "Too many requests", null, true);
+        }
+        return 42;
+      }
+    }, params, handler);
+    assertEquals(42, result);
+    assertEquals(3, limiter.getLimit("RetryHelperTest.testConcurrencyLimiter()"));
+    assertEquals(0, limiter.getInFlight("RetryHelperTest.testConcurrencyLimiter()"));
+  }
+
+  @Test
+  public void testHedgeNeedsConcurrencyPermit() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 1);
+    RequestHedger hedger = RequestHedger.create(50);
+    RetryParams unlimitedParams = RetryParams.newBuilder()
+        .setRetryMinAttempts(1)
+        .setRetryMaxAttempts(1)
+        .setRequestHedger(hedger)
+        .build();
+    RetryParams params = unlimitedParams.toBuilder()
+        .setConcurrencyLimiter(limiter)
+        .build();
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    ExecutorService executor = Executors.newCachedThreadPool();
+    final AtomicInteger timesCalled = new AtomicInteger(0);
+    final AtomicReference<CountDownLatch> gate = new AtomicReference<>(new CountDownLatch(0));
+    Callable<Integer> callable = new Callable<Integer>() {
+      @Override
+      public Integer call() throws InterruptedException {
+        int attempt = timesCalled.incrementAndGet();
+        gate.get().await(100, TimeUnit.MILLISECONDS);
+        return attempt;
+      }
+    };
+    try {
+      for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+        RetryHelper.runWithRetries(callable, params, ExceptionHandler.getDefaultInstance(),
+            Clock.defaultClock(), scheduler, executor);
+      }
+      assertEquals(RequestHedger.MIN_SAMPLES, timesCalled.get());
+      assertTrue(hedger.getDelayMillis(callable.getClass().getName()) < 100);
+      // The slow attempt holds the only permit, so its hedge is not sent
+      gate.set(new CountDownLatch(1));
+      int result = RetryHelper.runWithRetries(callable, params,
+          ExceptionHandler.getDefaultInstance(), Clock.defaultClock(), scheduler, executor);
+      assertEquals(RequestHedger.MIN_SAMPLES + 1, result);
+      assertEquals(RequestHedger.MIN_SAMPLES + 1, timesCalled.get());
+      assertEquals(0, limiter.getInFlight("RetryHelperTest.testHedgeNeedsConcurrencyPermit()"));
+      // Without a limiter the same slow attempt is hedged
+      RetryHelper.runWithRetries(callable, unlimitedParams, ExceptionHandler.getDefaultInstance(),
+          Clock.defaultClock(), scheduler, executor);
+      assertEquals(RequestHedger.MIN_SAMPLES + 3, timesCalled.get());
+    } finally {
+      scheduler.shutdown();
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testBackoffIsExponential() {
     // Total retry period set to 60 seconds so as to not factor into test
@@ -336,6 +485,117 @@ public class RetryHelperTest {
     assertTrue(String.valueOf(sleepDuration), sleepDuration < 25600 && sleepDuration >= 15360);
   }
 
+  @Test
+  public void testRunWithRetriesAsync() throws Exception {
+    RetryParams params = RetryParams.newBuilder().setInitialRetryDelayMillis(0)
+        .setRetryMaxAttempts(5)
+        .build();
+    ExceptionHandler handler = ExceptionHandler.newBuilder().retryOn(IOException.class).build();
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      final AtomicInteger timesCalled = new AtomicInteger(0);
+      ListenableFuture<Integer> future = RetryHelper.runWithRetriesAsync(
+          new Callable<Integer>() {
+            @Override
+            public Integer call() throws IOException {
+              int attemptNumber = RetryHelper.getContext().getAttemptNumber();
+              assertEquals(timesCalled.incrementAndGet(), attemptNumber);
+              if (attemptNumber < 3) {
+                throw new IOException();
+              }
+              return attemptNumber;
+            }
+          }, params, handler, executor);
+      assertEquals(3, future.get().intValue());
+      assertEquals(3, timesCalled.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRunWithRetriesAsyncOnSeparateExecutor() throws Exception {
+    RetryParams params = RetryParams.newBuilder().setInitialRetryDelayMillis(1)
+        .setMaxRetryDelayMillis(1)
+        .setRetryMaxAttempts(3)
+        .build();
+    ExceptionHandler handler = ExceptionHandler.newBuilder().retryOn(IOException.class).build();
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Thread schedulerThread = scheduler.submit(new Callable<Thread>() {
+        @Override
+        public Thread call() {
+          return Thread.currentThread();
+        }
+      }).get();
+      final AtomicInteger timesCalled = new AtomicInteger(0);
+      ListenableFuture<Integer> future = RetryHelper.runWithRetriesAsync(
+          new Callable<Integer>() {
+            @Override
+            public Integer call() throws IOException {
+              assertNotSame(schedulerThread, Thread.currentThread());
+              if (timesCalled.incrementAndGet() < 3) {
+                throw new IOException();
+              }
+              return timesCalled.get();
+            }
+          }, params, handler, scheduler, executor, Clock.defaultClock());
+      assertEquals(3, future.get().intValue());
+    } finally {
+      scheduler.shutdown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRunWithRetriesAsyncNonRetriable() throws Exception {
+    ExceptionHandler handler = ExceptionHandler.newBuilder().retryOn(IOException.class).build();
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    final RuntimeException exception = new RuntimeException();
+    try {
+      RetryHelper.runWithRetriesAsync(new Callable<Void>() {
+        @Override
+        public Void call() {
+          throw exception;
+        }
+      }, RetryParams.getDefaultInstance(), handler, executor).get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof NonRetriableException);
+      assertSame(exception, expected.getCause().getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRunWithRetriesAsyncExhausted() throws Exception {
+    RetryParams params = RetryParams.newBuilder().setInitialRetryDelayMillis(0)
+        .setRetryMinAttempts(2)
+        .setRetryMaxAttempts(4)
+        .build();
+    ExceptionHandler handler = ExceptionHandler.newBuilder().retryOn(IOException.class).build();
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    final AtomicInteger timesCalled = new AtomicInteger(0);
+    try {
+      RetryHelper.runWithRetriesAsync(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          timesCalled.incrementAndGet();
+          throw new IOException();
+        }
+      }, params, handler, executor).get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof RetriesExhaustedException);
+      assertTrue(expected.getCause().getCause() instanceof IOException);
+      assertEquals(4, timesCalled.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testNestedUsage() {
     assertEquals((1 + 3) * 2, invokeNested(3, 2));
@@ -23,6 +23,8 @@ import static com.google.cloud.RetryParams.DEFAULT_RETRY_MAX_ATTEMPTS;
 import static com.google.cloud.RetryParams.DEFAULT_RETRY_MIN_ATTEMPTS;
 import static com.google.cloud.RetryParams.DEFAULT_TOTAL_RETRY_PERIOD_MILLIS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import com.google.cloud.RetryParams.Builder;
@@ -50,6 +52,9 @@ public class RetryParamsTest {
       assertEquals(DEFAULT_RETRY_MAX_ATTEMPTS, params.getRetryMaxAttempts());
       assertEquals(DEFAULT_RETRY_MIN_ATTEMPTS, params.getRetryMinAttempts());
       assertEquals(DEFAULT_TOTAL_RETRY_PERIOD_MILLIS, params.getTotalRetryPeriodMillis());
+      assertNull(params.getRetryBudget());
+      assertNull(params.getCircuitBreaker());
+      assertNull(params.getRequestHedger());
     }
   }
 
@@ -76,6 +81,12 @@ public class RetryParamsTest {
     builder.setRetryMinAttempts(107);
     builder.setRetryMaxAttempts(108);
     builder.setTotalRetryPeriodMillis(109);
+    RetryBudget retryBudget = RetryBudget.create(0.1, 10);
+    CircuitBreaker circuitBreaker = CircuitBreaker.create(5, 1000, 10_000);
+    RequestHedger requestHedger = RequestHedger.create(95);
+    builder.setRetryBudget(retryBudget);
+    builder.setCircuitBreaker(circuitBreaker);
+    builder.setRequestHedger(requestHedger);
     RetryParams params1 = builder.build();
     RetryParams params2 = new RetryParams.Builder(params1).build();
     for (RetryParams params : Arrays.asList(params1, params2)) {
@@ -85,7 +96,11 @@ public class RetryParamsTest {
       assertEquals(107, params.getRetryMinAttempts());
       assertEquals(108, params.getRetryMaxAttempts());
       assertEquals(109, params.getTotalRetryPeriodMillis());
+      assertSame(retryBudget, params.getRetryBudget());
+      assertSame(circuitBreaker, params.getCircuitBreaker());
+      assertSame(requestHedger, params.getRequestHedger());
     }
+    assertEquals(params1, params2);
   }
 
   @Test
@@ -33,6 +33,17 @@ public class SerializationTest extends BaseSerializationTest {
   private static final PageImpl<String> PAGE =
       new PageImpl<>(null, "cursor", ImmutableList.of("string1", "string2"));
   private static final RetryParams RETRY_PARAMS = RetryParams.getDefaultInstance();
+  private static final RetryBudget RETRY_BUDGET = RetryBudget.create(0.1, 10);
+  private static final CircuitBreaker CIRCUIT_BREAKER = CircuitBreaker.create(5, 10_000, 30_000);
+  private static final RequestHedger REQUEST_HEDGER = RequestHedger.create(95);
+  private static final ConcurrencyLimiter CONCURRENCY_LIMITER = ConcurrencyLimiter.create(10, 100);
+  private static final RetryParams RETRY_PARAMS_WITH_POLICIES = RetryParams.newBuilder()
+      .setRetryBudget(RETRY_BUDGET)
+      .setCircuitBreaker(CIRCUIT_BREAKER)
+      .setRequestHedger(REQUEST_HEDGER)
+      .setConcurrencyLimiter(CONCURRENCY_LIMITER)
+      .build();
+  private static final ResponseCache RESPONSE_CACHE = ResponseCache.create(100, 60_000, true);
   private static final Role SOME_ROLE = Role.viewer();
   private static final Policy SOME_IAM_POLICY = Policy.newBuilder().build();
   private static final WaitForOption CHECKING_PERIOD =
@@ -76,8 +87,9 @@ public class SerializationTest extends BaseSerializationTest {
   @Override
   protected Serializable[] serializableObjects() {
     return new Serializable[]{BASE_SERVICE_EXCEPTION, EXCEPTION_HANDLER, IDENTITY, PAGE,
-        RETRY_PARAMS, SOME_ROLE, SOME_IAM_POLICY, CHECKING_PERIOD, LABEL_DESCRIPTOR,
-        MONITORED_RESOURCE_DESCRIPTOR, MONITORED_RESOURCE};
+        RETRY_PARAMS, RETRY_BUDGET, CIRCUIT_BREAKER, REQUEST_HEDGER, CONCURRENCY_LIMITER,
+        RETRY_PARAMS_WITH_POLICIES, RESPONSE_CACHE, SOME_ROLE, SOME_IAM_POLICY, CHECKING_PERIOD,
+        LABEL_DESCRIPTOR, MONITORED_RESOURCE_DESCRIPTOR, MONITORED_RESOURCE};
   }
 
   @Override
@@ -17,22 +17,36 @@
 package com.google.cloud;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.spi.ServiceRpcFactory;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 public class ServiceOptionsTest {
@@ -109,6 +123,9 @@ public class ServiceOptionsTest {
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   private static class TestClock extends Clock {
     @Override
     public long millis() {
@@ -154,6 +171,20 @@ public class ServiceOptionsTest {
     DefaultTestServiceRpc(TestServiceOptions options) {}
   }
 
+  private static class TestAsyncExecutorFactory
+      implements GrpcServiceOptions.ExecutorFactory<ExecutorService> {
+
+    @Override
+    public ExecutorService get() {
+      return MoreExecutors.newDirectExecutorService();
+    }
+
+    @Override
+    public void release(ExecutorService executor) {
+      executor.shutdown();
+    }
+  }
+
   private static class TestServiceOptions
       extends ServiceOptions<TestService, TestServiceRpc, TestServiceOptions> {
     private static class Builder
@@ -230,6 +261,71 @@ public class ServiceOptionsTest {
     assertSame(RetryParams.noRetries(), OPTIONS_NO_CREDENTIALS.getRetryParams());
   }
 
+  @Test
+  public void testBuilderMetricsRecorder() {
+    assertSame(MetricsRecorder.NO_OP, OPTIONS.getMetricsRecorder());
+    assertNull(OPTIONS.getRetryParams().getMetricsRecorder());
+    MetricsRecorder recorder = new HistogramMetricsRecorder();
+    TestServiceOptions options = OPTIONS.toBuilder().setMetricsRecorder(recorder).build();
+    assertSame(recorder, options.getMetricsRecorder());
+    assertSame(recorder, options.getRetryParams().getMetricsRecorder());
+    assertEquals(RetryParams.noRetries(), options.getRetryParams());
+    assertSame(recorder, options.toBuilder().build().getMetricsRecorder());
+  }
+
+  @Test
+  public void testBuilderConcurrencyLimiter() {
+    assertNull(OPTIONS.getConcurrencyLimiter());
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.create(10, 100);
+    TestServiceOptions options = OPTIONS.toBuilder().setConcurrencyLimiter(limiter).build();
+    assertSame(limiter, options.getConcurrencyLimiter());
+    assertSame(limiter, options.getRetryParams().getConcurrencyLimiter());
+    assertSame(limiter, options.toBuilder().build().getConcurrencyLimiter());
+    assertNull(options.toBuilder().setConcurrencyLimiter(null).build().getConcurrencyLimiter());
+  }
+
+  @Test
+  public void testBuilderReadCoalescing() {
+    assertFalse(OPTIONS.isReadCoalescingEnabled());
+    TestServiceOptions options = OPTIONS.toBuilder().setReadCoalescingEnabled(true).build();
+    assertTrue(options.isReadCoalescingEnabled());
+    assertTrue(options.toBuilder().build().isReadCoalescingEnabled());
+    assertNotEquals(OPTIONS, options);
+  }
+
+  @Test
+  public void testBuilderResponseCache() {
+    assertNull(OPTIONS.getResponseCache());
+    ResponseCache cache = ResponseCache.create(100, 1000);
+    TestServiceOptions options = OPTIONS.toBuilder().setResponseCache(cache).build();
+    assertSame(cache, options.getResponseCache());
+    assertSame(cache, options.toBuilder().build().getResponseCache());
+    assertNotEquals(OPTIONS, options);
+  }
+
+  @Test
+  public void testBuilderVirtualThreads() {
+    assertFalse(OPTIONS.isVirtualThreadsEnabled());
+    TestServiceOptions options = OPTIONS.toBuilder().setVirtualThreadsEnabled(true).build();
+    assertEquals(VirtualThreads.isAvailable(), options.isVirtualThreadsEnabled());
+    assertEquals(VirtualThreads.isAvailable(),
+        options.toBuilder().build().isVirtualThreadsEnabled());
+    assertNotEquals(OPTIONS, options);
+  }
+
+  @Test
+  public void testBuilderAsyncExecutorFactory() {
+    assertEquals(VirtualThreads.isAvailable(), OPTIONS.toBuilder().setVirtualThreadsEnabled(true)
+        .build().getAsyncExecutorFactory() instanceof ServiceOptions.VirtualAsyncExecutorFactory);
+    assertTrue(OPTIONS.getAsyncExecutorFactory()
+        instanceof ServiceOptions.DefaultAsyncExecutorFactory);
+    TestAsyncExecutorFactory factory = new TestAsyncExecutorFactory();
+    TestServiceOptions options = OPTIONS.toBuilder().setAsyncExecutorFactory(factory).build();
+    assertSame(factory, options.getAsyncExecutorFactory());
+    assertSame(factory, options.toBuilder().build().getAsyncExecutorFactory());
+    assertNotEquals(OPTIONS, options);
+  }
+
   @Test
   public void testBuilderNullCredentials() {
     thrown.expect(NullPointerException.class);
@@ -284,4 +380,117 @@ public class ServiceOptionsTest {
     assertEquals(OPTIONS.hashCode(), OPTIONS_COPY.hashCode());
     assertNotEquals(DEFAULT_OPTIONS.hashCode(), OPTIONS.hashCode());
   }
+
+  @Test
+  public void testMayRunOnComputeEngine() throws IOException {
+    File productName = folder.newFile();
+    File missing = new File(folder.getRoot(), "missing");
+    ImmutableMap<String, String> env = ImmutableMap.of();
+    assertTrue(ServiceOptions.mayRunOnComputeEngine(env, missing));
+    Files.write("Google Compute Engine\n", productName, StandardCharsets.UTF_8);
+    assertTrue(ServiceOptions.mayRunOnComputeEngine(env, productName));
+    assertFalse(ServiceOptions.mayRunOnComputeEngine(
+        ImmutableMap.of("NO_GCE_CHECK", "true"), productName));
+    Files.write("VirtualBox\n", productName, StandardCharsets.UTF_8);
+    assertFalse(ServiceOptions.mayRunOnComputeEngine(env, productName));
+    assertTrue(ServiceOptions.mayRunOnComputeEngine(
+        ImmutableMap.of("GCE_METADATA_HOST", "169.254.169.254"), productName));
+  }
+
+  @Test
+  public void testDiscoveredValue() {
+    final AtomicInteger calls = new AtomicInteger();
+    ServiceOptions.DiscoveredValue<String> value =
+        new ServiceOptions.DiscoveredValue<>(new Callable<String>() {
+          @Override
+          public String call() {
+            calls.incrementAndGet();
+            return "project";
+          }
+        });
+    value.start();
+    assertEquals("project", value.get());
+    assertEquals("project", value.get());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testDiscoveredValueStartedOnce() throws Exception {
+    final CountDownLatch lookupDone = new CountDownLatch(1);
+    final AtomicInteger calls = new AtomicInteger();
+    FakeTicker ticker = new FakeTicker();
+    ServiceOptions.DiscoveredValue<String> value =
+        new ServiceOptions.DiscoveredValue<>(new Callable<String>() {
+          @Override
+          public String call() {
+            calls.incrementAndGet();
+            lookupDone.countDown();
+            return null;
+          }
+        }, ticker);
+    value.start();
+    assertTrue(lookupDone.await(10, TimeUnit.SECONDS));
+    // Only the first call starts a lookup, later ones leave the lookups to get()
+    ticker.nanos = ServiceOptions.DiscoveredValue.RETRY_DELAY_NANOS;
+    value.start();
+    value.start();
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testDiscoveredValueFailure() {
+    final AtomicInteger calls = new AtomicInteger();
+    FakeTicker ticker = new FakeTicker();
+    ServiceOptions.DiscoveredValue<String> value =
+        new ServiceOptions.DiscoveredValue<>(new Callable<String>() {
+          @Override
+          public String call() throws IOException {
+            if (calls.incrementAndGet() == 1) {
+              throw new IOException("not found");
+            }
+            return "project";
+          }
+        }, ticker);
+    assertNull(value.get());
+    // The failure is kept until the retry delay passes
+    ticker.nanos = ServiceOptions.DiscoveredValue.RETRY_DELAY_NANOS - 1;
+    assertNull(value.get());
+    assertEquals(1, calls.get());
+    ticker.nanos = ServiceOptions.DiscoveredValue.RETRY_DELAY_NANOS;
+    assertEquals("project", value.get());
+    assertEquals("project", value.get());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void testDiscoveredValueNotFound() {
+    final AtomicInteger calls = new AtomicInteger();
+    FakeTicker ticker = new FakeTicker();
+    ServiceOptions.DiscoveredValue<String> value =
+        new ServiceOptions.DiscoveredValue<>(new Callable<String>() {
+          @Override
+          public String call() {
+            return calls.incrementAndGet() == 1 ? null : "project";
+          }
+        }, ticker);
+    assertNull(value.get());
+    assertNull(value.get());
+    assertEquals(1, calls.get());
+    ticker.nanos = ServiceOptions.DiscoveredValue.RETRY_DELAY_NANOS;
+    assertEquals("project", value.get());
+    // A found value is kept
+    ticker.nanos = 3 * ServiceOptions.DiscoveredValue.RETRY_DELAY_NANOS;
+    assertEquals("project", value.get());
+    assertEquals(2, calls.get());
+  }
+
+  private static class FakeTicker extends Ticker {
+
+    private volatile long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link SingleFlight}.
+ */
+@RunWith(JUnit4.class)
+public class SingleFlightTest {
+
+  @Test
+  public void testConcurrentCallsShareResult() throws InterruptedException {
+    final SingleFlight singleFlight = new SingleFlight();
+    final AtomicInteger calls = new AtomicInteger();
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch released = new CountDownLatch(1);
+    final Object result = new Object();
+    final Callable<Object> callable = new Callable<Object>() {
+      @Override
+      public Object call() throws InterruptedException {
+        calls.incrementAndGet();
+        started.countDown();
+        released.await();
+        return result;
+      }
+    };
+    final Object[] results = new Object[4];
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < results.length; i++) {
+      final int index = i;
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          results[index] = singleFlight.execute("key", callable);
+        }
+      };
+      threads.add(thread);
+      thread.start();
+      if (i == 0) {
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+      }
+    }
+    for (Thread thread : threads.subList(1, threads.size())) {
+      while (thread.getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+    }
+    assertEquals(1, singleFlight.getInFlightCount());
+    released.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(1, calls.get());
+    for (Object value : results) {
+      assertSame(result, value);
+    }
+    assertEquals(0, singleFlight.getInFlightCount());
+  }
+
+  @Test
+  public void testSequentialCallsRunAgain() {
+    SingleFlight singleFlight = new SingleFlight();
+    final AtomicInteger calls = new AtomicInteger();
+    Callable<Integer> callable = new Callable<Integer>() {
+      @Override
+      public Integer call() {
+        return calls.incrementAndGet();
+      }
+    };
+    assertEquals(1, (int) singleFlight.execute("key", callable));
+    assertEquals(2, (int) singleFlight.execute("key", callable));
+    assertEquals(3, (int) singleFlight.execute("other", callable));
+  }
+
+  @Test
+  public void testExceptionIsPropagated() {
+    SingleFlight singleFlight = new SingleFlight();
+    final IllegalStateException exception = new IllegalStateException();
+    try {
+      singleFlight.execute("key", new Callable<Object>() {
+        @Override
+        public Object call() {
+          throw exception;
+        }
+      });
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException ex) {
+      assertSame(exception, ex);
+    }
+    try {
+      singleFlight.execute("key", new Callable<Object>() {
+        @Override
+        public Object call() throws IOException {
+          throw new IOException();
+        }
+      });
+      fail("Expected RuntimeException");
+    } catch (RuntimeException ex) {
+      assertTrue(ex.getCause() instanceof IOException);
+    }
+    assertEquals(0, singleFlight.getInFlightCount());
+  }
+}
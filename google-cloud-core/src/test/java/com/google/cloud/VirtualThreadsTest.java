@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link VirtualThreads}.
+ */
+@RunWith(JUnit4.class)
+public class VirtualThreadsTest {
+
+  private static final Callable<String> THREAD_NAME = new Callable<String>() {
+    @Override
+    public String call() {
+      return Thread.currentThread().getName();
+    }
+  };
+
+  @Test
+  public void testNewExecutor() throws Exception {
+    assumeTrue(VirtualThreads.isAvailable());
+    ExecutorService executor = VirtualThreads.newExecutor("test-");
+    try {
+      assertTrue(executor.submit(THREAD_NAME).get().startsWith("test-"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testNewScheduledExecutor() throws Exception {
+    assumeTrue(VirtualThreads.isAvailable());
+    ScheduledExecutorService executor = VirtualThreads.newScheduledExecutor("test-");
+    try {
+      assertTrue(executor.schedule(THREAD_NAME, 1, TimeUnit.MILLISECONDS).get()
+          .startsWith("test-"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testUnavailable() {
+    assumeTrue(!VirtualThreads.isAvailable());
+    try {
+      VirtualThreads.newThreadFactory("test-");
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException ex) {
+      assertEquals("Virtual threads are not available", ex.getMessage());
+    }
+  }
+}
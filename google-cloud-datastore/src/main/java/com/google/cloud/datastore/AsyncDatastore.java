@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.datastore;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link Datastore} that can also look up and delete entities without blocking the caller. The
+ * service returned by {@link DatastoreOptions#getService()} implements this interface.
+ */
+public interface AsyncDatastore extends Datastore {
+
+  /**
+   * Sends a request deleting the entities for the given keys without blocking the caller. The
+   * request and its retries run on a shared executor.
+   *
+   * @return a future that fails with a {@link DatastoreException} upon failure
+   */
+  ListenableFuture<Void> deleteAsync(Key... keys);
+
+  /**
+   * Sends a request for the {@link Entity} of the given {@link Key} without blocking the caller.
+   * The request and its retries run on a shared executor.
+   *
+   * <p>Example of getting an entity asynchronously.
+   * <pre> {@code
+   * String keyName = "my_key_name";
+   * Key key = datastore.newKeyFactory().setKind("MyKind").newKey(keyName);
+   * ListenableFuture<Entity> future = datastore.getAsync(key);
+   * // do other work
+   * Entity entity = future.get();
+   * }</pre>
+   *
+   * @return a future that yields the entity, or {@code null} if it doesn't exist, and fails with a
+   *     {@link DatastoreException} upon failure
+   */
+  ListenableFuture<Entity> getAsync(Key key, ReadOption... options);
+}
@@ -22,12 +22,16 @@ import com.google.cloud.RetryHelper.RetryHelperException;
 import com.google.cloud.RetryParams;
 import com.google.cloud.datastore.ReadOption.EventualConsistency;
 import com.google.cloud.datastore.spi.DatastoreRpc;
+import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.datastore.v1.ReadOptions.ReadConsistency;
 import com.google.protobuf.ByteString;
 
@@ -42,7 +46,15 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
-final class DatastoreImpl extends BaseService<DatastoreOptions> implements Datastore {
+final class DatastoreImpl extends BaseService<DatastoreOptions> implements AsyncDatastore {
+
+  private static final Function<RetryHelperException, RuntimeException> EXCEPTION_TRANSLATOR =
+      new Function<RetryHelperException, RuntimeException>() {
+        @Override
+        public RuntimeException apply(RetryHelperException exception) {
+          return DatastoreException.translateAndThrow(exception);
+        }
+      };
 
   private final DatastoreRpc datastoreRpc;
   private final RetryParams retryParams;
@@ -231,6 +243,46 @@ final class DatastoreImpl extends BaseService<DatastoreOptions> implements Datas
     return DatastoreHelper.fetch(this, Iterables.toArray(keys, Key.class), options);
   }
 
+  @Override
+  public ListenableFuture<Entity> getAsync(Key key, ReadOption... options) {
+    com.google.datastore.v1.LookupRequest.Builder requestPb =
+        com.google.datastore.v1.LookupRequest.newBuilder().addKeys(key.toPb());
+    com.google.datastore.v1.ReadOptions readOptionsPb = toReadOptionsPb(options);
+    if (readOptionsPb != null) {
+      requestPb.setReadOptions(readOptionsPb);
+    }
+    return lookupAsync(requestPb.build());
+  }
+
+  /**
+   * Looks up the single key of {@code requestPb}, sending the request again while the lookup is
+   * deferred.
+   */
+  private ListenableFuture<Entity> lookupAsync(
+      final com.google.datastore.v1.LookupRequest requestPb) {
+    ListenableFuture<com.google.datastore.v1.LookupResponse> future = RetryHelper
+        .runWithRetriesAsync(new Callable<com.google.datastore.v1.LookupResponse>() {
+          @Override
+          public com.google.datastore.v1.LookupResponse call() throws DatastoreException {
+            return datastoreRpc.lookup(requestPb);
+          }
+        }, retryParams, EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+            getOptions().getClock());
+    return Futures.transformAsync(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new AsyncFunction<com.google.datastore.v1.LookupResponse, Entity>() {
+          @Override
+          public ListenableFuture<Entity> apply(com.google.datastore.v1.LookupResponse responsePb) {
+            if (responsePb.getFoundCount() > 0) {
+              return Futures.immediateFuture(Entity.fromPb(responsePb.getFound(0).getEntity()));
+            }
+            if (responsePb.getDeferredCount() > 0) {
+              return lookupAsync(requestPb);
+            }
+            return Futures.immediateFuture(null);
+          }
+        });
+  }
+
   Iterator<Entity> get(com.google.datastore.v1.ReadOptions readOptionsPb, final Key... keys) {
     if (keys.length == 0) {
       return Collections.emptyIterator();
@@ -281,14 +333,19 @@ final class DatastoreImpl extends BaseService<DatastoreOptions> implements Datas
   com.google.datastore.v1.LookupResponse lookup(
       final com.google.datastore.v1.LookupRequest requestPb) {
     try {
-      return RetryHelper.runWithRetries(
-          new Callable<com.google.datastore.v1.LookupResponse>() {
-            @Override
-            public com.google.datastore.v1.LookupResponse call()
-                throws DatastoreException {
-              return datastoreRpc.lookup(requestPb);
-            }
-          }, retryParams, EXCEPTION_HANDLER, getOptions().getClock());
+      return coalesceRead(requestPb, new Callable<com.google.datastore.v1.LookupResponse>() {
+        @Override
+        public com.google.datastore.v1.LookupResponse call() {
+          return RetryHelper.runWithRetries(
+              new Callable<com.google.datastore.v1.LookupResponse>() {
+                @Override
+                public com.google.datastore.v1.LookupResponse call()
+                    throws DatastoreException {
+                  return datastoreRpc.lookup(requestPb);
+                }
+              }, retryParams, EXCEPTION_HANDLER, getOptions().getClock());
+        }
+      });
     } catch (RetryHelperException e) {
       throw DatastoreException.translateAndThrow(e);
     }
@@ -366,6 +423,36 @@ final class DatastoreImpl extends BaseService<DatastoreOptions> implements Datas
     }
   }
 
+  @Override
+  public ListenableFuture<Void> deleteAsync(Key... keys) {
+    if (keys.length == 0) {
+      return Futures.immediateFuture(null);
+    }
+    com.google.datastore.v1.CommitRequest.Builder requestPb =
+        com.google.datastore.v1.CommitRequest.newBuilder();
+    requestPb.setMode(com.google.datastore.v1.CommitRequest.Mode.NON_TRANSACTIONAL);
+    for (Key key : new LinkedHashSet<>(Arrays.asList(keys))) {
+      requestPb.addMutations(
+          com.google.datastore.v1.Mutation.newBuilder().setDelete(key.toPb()).build());
+    }
+    final com.google.datastore.v1.CommitRequest commitPb = requestPb.build();
+    ListenableFuture<com.google.datastore.v1.CommitResponse> future = RetryHelper
+        .runWithRetriesAsync(new Callable<com.google.datastore.v1.CommitResponse>() {
+          @Override
+          public com.google.datastore.v1.CommitResponse call() throws DatastoreException {
+            return datastoreRpc.commit(commitPb);
+          }
+        }, retryParams, EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+            getOptions().getClock());
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<com.google.datastore.v1.CommitResponse, Void>() {
+          @Override
+          public Void apply(com.google.datastore.v1.CommitResponse responsePb) {
+            return null;
+          }
+        });
+  }
+
   @Override
   public KeyFactory newKeyFactory() {
     return DatastoreHelper.newKeyFactory(getOptions());
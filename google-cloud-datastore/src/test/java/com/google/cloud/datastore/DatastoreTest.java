@@ -35,9 +35,12 @@ import com.google.cloud.datastore.testing.LocalDatastoreHelper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.datastore.v1.CommitRequest;
+import com.google.datastore.v1.CommitResponse;
 import com.google.datastore.v1.EntityResult;
 import com.google.datastore.v1.LookupRequest;
 import com.google.datastore.v1.LookupResponse;
+import com.google.datastore.v1.Mutation;
 import com.google.datastore.v1.PartitionId;
 import com.google.datastore.v1.QueryResultBatch;
 import com.google.datastore.v1.ReadOptions;
@@ -64,6 +67,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 @RunWith(JUnit4.class)
@@ -986,6 +990,55 @@ public class DatastoreTest {
     EasyMock.verify(rpcFactoryMock, rpcMock);
   }
 
+  @Test
+  public void testGetAsync() throws Exception {
+    LookupRequest requestPb = LookupRequest.newBuilder().addKeys(KEY1.toPb()).build();
+    LookupResponse deferredPb = LookupResponse.newBuilder().addDeferred(KEY1.toPb()).build();
+    LookupResponse responsePb = LookupResponse.newBuilder()
+        .addFound(EntityResult.newBuilder().setEntity(ENTITY1.toPb()))
+        .build();
+    EasyMock.expect(rpcMock.lookup(requestPb))
+        .andThrow(new DatastoreException(14, "UNAVAILABLE", "UNAVAILABLE", null))
+        .andReturn(deferredPb)
+        .andReturn(responsePb);
+    EasyMock.replay(rpcFactoryMock, rpcMock);
+    Datastore datastore = rpcMockOptions.getService();
+    assertEquals(ENTITY1, ((AsyncDatastore) datastore).getAsync(KEY1).get());
+    EasyMock.verify(rpcFactoryMock, rpcMock);
+  }
+
+  @Test
+  public void testGetAsyncNonRetryableException() throws Exception {
+    LookupRequest requestPb = LookupRequest.newBuilder().addKeys(KEY1.toPb()).build();
+    EasyMock.expect(rpcMock.lookup(requestPb))
+        .andThrow(
+            new DatastoreException(DatastoreException.UNKNOWN_CODE, "denied", "PERMISSION_DENIED"));
+    EasyMock.replay(rpcFactoryMock, rpcMock);
+    Datastore datastore = rpcMockOptions.getService();
+    try {
+      ((AsyncDatastore) datastore).getAsync(KEY1).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof DatastoreException);
+      assertEquals("denied", ex.getCause().getMessage());
+    }
+    EasyMock.verify(rpcFactoryMock, rpcMock);
+  }
+
+  @Test
+  public void testDeleteAsync() throws Exception {
+    CommitRequest requestPb = CommitRequest.newBuilder()
+        .setMode(CommitRequest.Mode.NON_TRANSACTIONAL)
+        .addMutations(Mutation.newBuilder().setDelete(KEY1.toPb()))
+        .addMutations(Mutation.newBuilder().setDelete(KEY2.toPb()))
+        .build();
+    EasyMock.expect(rpcMock.commit(requestPb)).andReturn(CommitResponse.getDefaultInstance());
+    EasyMock.replay(rpcFactoryMock, rpcMock);
+    Datastore datastore = rpcMockOptions.getService();
+    assertNull(((AsyncDatastore) datastore).deleteAsync(KEY1, KEY2, KEY1).get());
+    EasyMock.verify(rpcFactoryMock, rpcMock);
+  }
+
   @Test
   public void testRuntimeException() throws Exception {
     LookupRequest requestPb = LookupRequest.newBuilder().addKeys(KEY1.toPb()).build();
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.dns;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link Dns} service that can also get and delete zones without blocking the caller. The service
+ * returned by {@link DnsOptions#getService()} implements this interface.
+ */
+public interface AsyncDns extends Dns {
+
+  /**
+   * Sends a request for the zone with the specified {@code zoneName} without blocking the caller.
+   * The request and its retries run on a shared executor.
+   *
+   * @return a future that yields the zone, or {@code null} if it was not found, and fails with a
+   *     {@link DnsException} upon failure
+   */
+  ListenableFuture<Zone> getZoneAsync(String zoneName, ZoneOption... options);
+
+  /**
+   * Sends a request deleting the zone with the specified {@code zoneName} without blocking the
+   * caller. The request and its retries run on a shared executor.
+   *
+   * @return a future that yields {@code true} if the zone was deleted, {@code false} if it was not
+   *     found, and fails with a {@link DnsException} upon failure
+   */
+  ListenableFuture<Boolean> deleteAsync(String zoneName);
+}
@@ -17,6 +17,7 @@
 package com.google.cloud.dns;
 
 import static com.google.cloud.RetryHelper.runWithRetries;
+import static com.google.cloud.RetryHelper.runWithRetriesAsync;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.api.services.dns.model.Change;
@@ -26,6 +27,7 @@ import com.google.api.services.dns.model.ResourceRecordSet;
 import com.google.cloud.BaseService;
 import com.google.cloud.Page;
 import com.google.cloud.PageImpl;
+import com.google.cloud.ResponseCache;
 import com.google.cloud.RetryHelper;
 import com.google.cloud.dns.spi.DnsRpc;
 import com.google.common.base.Function;
@@ -33,14 +35,26 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
  * A default implementation of Dns.
  */
-final class DnsImpl extends BaseService<DnsOptions> implements Dns {
+final class DnsImpl extends BaseService<DnsOptions> implements AsyncDns {
+
+  private static final Function<RetryHelper.RetryHelperException, RuntimeException>
+      EXCEPTION_TRANSLATOR = new Function<RetryHelper.RetryHelperException, RuntimeException>() {
+        @Override
+        public RuntimeException apply(RetryHelper.RetryHelperException exception) {
+          return DnsException.translateAndThrow(exception);
+        }
+      };
 
   private final DnsRpc dnsRpc;
 
@@ -238,6 +252,8 @@ final class DnsImpl extends BaseService<DnsOptions> implements Dns {
       return answer == null ? null : Zone.fromPb(this, answer);
     } catch (RetryHelper.RetryHelperException ex) {
       throw DnsException.translateAndThrow(ex);
+    } finally {
+      invalidateCachedReads(zoneResource(zoneInfo.getName()));
     }
   }
 
@@ -245,13 +261,18 @@ final class DnsImpl extends BaseService<DnsOptions> implements Dns {
   public Zone getZone(final String zoneName, Dns.ZoneOption... options) {
     final Map<DnsRpc.Option, ?> optionsMap = optionMap(options);
     try {
-      ManagedZone answer = runWithRetries(
-          new Callable<ManagedZone>() {
+      ManagedZone answer = cachedRead(zoneResource(zoneName), optionsMap,
+          new ResponseCache.Loader<ManagedZone>() {
             @Override
-            public ManagedZone call() {
-              return dnsRpc.getZone(zoneName, optionsMap);
+            public ManagedZone load(ManagedZone expired) {
+              return runWithRetries(new Callable<ManagedZone>() {
+                @Override
+                public ManagedZone call() {
+                  return dnsRpc.getZone(zoneName, optionsMap);
+                }
+              }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
             }
-          }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
+          });
       return answer == null ? null : Zone.fromPb(this, answer);
     } catch (RetryHelper.RetryHelperException ex) {
       throw DnsException.translateAndThrow(ex);
@@ -269,9 +290,54 @@ final class DnsImpl extends BaseService<DnsOptions> implements Dns {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelper.RetryHelperException ex) {
       throw DnsException.translateAndThrow(ex);
+    } finally {
+      invalidateCachedReads(zoneResource(zoneName));
     }
   }
 
+  @Override
+  public ListenableFuture<Zone> getZoneAsync(final String zoneName, Dns.ZoneOption... options) {
+    final Map<DnsRpc.Option, ?> optionsMap = optionMap(options);
+    ListenableFuture<ManagedZone> future = cachedReadAsync(zoneResource(zoneName), optionsMap,
+        new ResponseCache.AsyncLoader<ManagedZone>() {
+          @Override
+          public ListenableFuture<ManagedZone> load(ManagedZone expired) {
+            return runWithRetriesAsync(new Callable<ManagedZone>() {
+              @Override
+              public ManagedZone call() {
+                return dnsRpc.getZone(zoneName, optionsMap);
+              }
+            }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(),
+                getAsyncExecutor(), getOptions().getClock());
+          }
+        });
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<ManagedZone, Zone>() {
+          @Override
+          public Zone apply(ManagedZone zone) {
+            return zone == null ? null : Zone.fromPb(DnsImpl.this, zone);
+          }
+        });
+  }
+
+  @Override
+  public ListenableFuture<Boolean> deleteAsync(final String zoneName) {
+    ListenableFuture<Boolean> future = runWithRetriesAsync(new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        return dnsRpc.deleteZone(zoneName);
+      }
+    }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+        getOptions().getClock());
+    future.addListener(new Runnable() {
+      @Override
+      public void run() {
+        invalidateCachedReads(zoneResource(zoneName));
+      }
+    }, MoreExecutors.directExecutor());
+    return translateFailure(future, EXCEPTION_TRANSLATOR);
+  }
+
   @Override
   public ProjectInfo getProject(Dns.ProjectOption... fields) {
     final Map<DnsRpc.Option, ?> optionsMap = optionMap(fields);
@@ -330,6 +396,13 @@ final class DnsImpl extends BaseService<DnsOptions> implements Dns {
     return new DnsBatch(this.getOptions());
   }
 
+  /**
+   * Returns the key of a zone in the response cache, see {@link ResponseCache}.
+   */
+  private Object zoneResource(String zoneName) {
+    return Arrays.asList("dns#zone", getOptions().getProjectId(), zoneName);
+  }
+
   static Map<DnsRpc.Option, ?> optionMap(Option... options) {
     Map<DnsRpc.Option, Object> temp = Maps.newEnumMap(DnsRpc.Option.class);
     for (Option option : options) {
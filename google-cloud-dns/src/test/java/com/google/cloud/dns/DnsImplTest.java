@@ -18,12 +18,14 @@ package com.google.cloud.dns;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.api.services.dns.model.Change;
 import com.google.api.services.dns.model.ManagedZone;
 import com.google.api.services.dns.model.ResourceRecordSet;
 import com.google.cloud.Clock;
 import com.google.cloud.Page;
+import com.google.cloud.ResponseCache;
 import com.google.cloud.RetryParams;
 import com.google.cloud.dns.spi.DnsRpc;
 import com.google.cloud.dns.spi.DnsRpcFactory;
@@ -38,6 +40,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class DnsImplTest {
 
@@ -166,6 +169,46 @@ public class DnsImplTest {
     assertEquals(new Zone(dns, new ZoneInfo.BuilderImpl(ZONE_INFO)), zone);
   }
 
+  @Test
+  public void testGetZoneAsync() throws Exception {
+    EasyMock.expect(dnsRpcMock.getZone(ZONE_INFO.getName(), EMPTY_RPC_OPTIONS))
+        .andReturn(ZONE_INFO.toPb());
+    EasyMock.replay(dnsRpcMock);
+    dns = options.getService(); // creates DnsImpl
+    Zone zone = ((AsyncDns) dns).getZoneAsync(ZONE_INFO.getName()).get();
+    assertEquals(new Zone(dns, new ZoneInfo.BuilderImpl(ZONE_INFO)), zone);
+  }
+
+  @Test
+  public void testGetZoneAsyncCached() throws Exception {
+    EasyMock.expect(dnsRpcMock.getZone(ZONE_INFO.getName(), EMPTY_RPC_OPTIONS))
+        .andReturn(ZONE_INFO.toPb());
+    EasyMock.replay(dnsRpcMock);
+    dns = options.toBuilder()
+        .setResponseCache(ResponseCache.create(10, 1000))
+        .build()
+        .getService();
+    Zone zone = ((AsyncDns) dns).getZoneAsync(ZONE_INFO.getName()).get();
+    assertEquals(zone, ((AsyncDns) dns).getZoneAsync(ZONE_INFO.getName()).get());
+    assertEquals(zone, dns.getZone(ZONE_INFO.getName()));
+    EasyMock.verify(dnsRpcMock);
+  }
+
+  @Test
+  public void testGetZoneAsyncFailure() throws Exception {
+    EasyMock.expect(dnsRpcMock.getZone(ZONE_INFO.getName(), EMPTY_RPC_OPTIONS))
+        .andThrow(new DnsException(501, "Not Implemented", null));
+    EasyMock.replay(dnsRpcMock);
+    dns = options.getService(); // creates DnsImpl
+    try {
+      ((AsyncDns) dns).getZoneAsync(ZONE_INFO.getName()).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof DnsException);
+      assertEquals(501, ((DnsException) ex.getCause()).getCode());
+    }
+  }
+
   @Test
   public void testGetZoneWithOptions() {
     Capture<Map<DnsRpc.Option, Object>> capturedOptions = Capture.newInstance();
@@ -189,6 +232,15 @@ public class DnsImplTest {
     assertTrue(dns.delete(ZONE_INFO.getName()));
   }
 
+  @Test
+  public void testDeleteZoneAsync() throws Exception {
+    EasyMock.expect(dnsRpcMock.deleteZone(ZONE_INFO.getName()))
+        .andReturn(true);
+    EasyMock.replay(dnsRpcMock);
+    dns = options.getService(); // creates DnsImpl
+    assertTrue(((AsyncDns) dns).deleteAsync(ZONE_INFO.getName()).get());
+  }
+
   @Test
   public void testGetProject() {
     EasyMock.expect(dnsRpcMock.getProject(EMPTY_RPC_OPTIONS))
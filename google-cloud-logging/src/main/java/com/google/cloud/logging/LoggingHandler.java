@@ -27,6 +27,7 @@ import com.google.common.collect.ImmutableSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.ErrorManager;
 import java.util.logging.Filter;
 import java.util.logging.Formatter;
@@ -97,6 +98,8 @@ public class LoggingHandler extends Handler {
       "com.google.api.client.http", "sun.net.www.protocol.http");
 
   private final LoggingOptions options;
+  // Not a monitor, see com.google.cloud.VirtualThreads
+  private final ReentrantLock lock = new ReentrantLock();
   private final List<LogEntry> buffer = new LinkedList<>();
   private final WriteOption[] writeOptions;
   private Logging logging;
@@ -278,17 +281,22 @@ public class LoggingHandler extends Handler {
   }
 
   @Override
-  public synchronized void publish(LogRecord record) {
-    // check that the log record should be logged
-    if (!isLoggable(record)) {
-      return;
-    }
-    LogEntry entry = entryFor(record);
-    if (entry != null) {
-      buffer.add(entry);
-    }
-    if (buffer.size() >= flushSize || record.getLevel().intValue() >= flushLevel.intValue()) {
-      flush();
+  public void publish(LogRecord record) {
+    lock.lock();
+    try {
+      // check that the log record should be logged
+      if (!isLoggable(record)) {
+        return;
+      }
+      LogEntry entry = entryFor(record);
+      if (entry != null) {
+        buffer.add(entry);
+      }
+      if (buffer.size() >= flushSize || record.getLevel().intValue() >= flushLevel.intValue()) {
+        flush();
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -354,7 +362,8 @@ public class LoggingHandler extends Handler {
   }
 
   @Override
-  public synchronized void flush() {
+  public void flush() {
+    lock.lock();
     try {
       write(buffer, writeOptions);
     } catch (Exception ex) {
@@ -362,6 +371,7 @@ public class LoggingHandler extends Handler {
       reportError(null, ex, ErrorManager.FLUSH_FAILURE);
     } finally {
       buffer.clear();
+      lock.unlock();
     }
   }
 
@@ -369,15 +379,20 @@ public class LoggingHandler extends Handler {
    * Closes the handler and the associated {@link Logging} object.
    */
   @Override
-  public synchronized void close() throws SecurityException {
-    if (logging != null) {
-      try {
-        logging.close();
-      } catch (Exception ex) {
-        // ignore
+  public void close() throws SecurityException {
+    lock.lock();
+    try {
+      if (logging != null) {
+        try {
+          logging.close();
+        } catch (Exception ex) {
+          // ignore
+        }
       }
+      logging = null;
+    } finally {
+      lock.unlock();
     }
-    logging = null;
   }
 
   /**
@@ -385,9 +400,14 @@ public class LoggingHandler extends Handler {
    * transmitted to the Stackdriver Logging service, regardless of its size. If not set,
    * {@link LoggingLevel#ERROR} is used.
    */
-  public synchronized Level setFlushLevel(Level flushLevel) {
-    this.flushLevel = flushLevel;
-    return flushLevel;
+  public Level setFlushLevel(Level flushLevel) {
+    lock.lock();
+    try {
+      this.flushLevel = flushLevel;
+      return flushLevel;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -395,9 +415,14 @@ public class LoggingHandler extends Handler {
    * are transmitted to the Stackdriver Logging service. If not set, a log is sent to the service as
    * soon as published.
    */
-  public synchronized long setFlushSize(long flushSize) {
-    this.flushSize = flushSize;
-    return flushSize;
+  public long setFlushSize(long flushSize) {
+    lock.lock();
+    try {
+      this.flushSize = flushSize;
+      return flushSize;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
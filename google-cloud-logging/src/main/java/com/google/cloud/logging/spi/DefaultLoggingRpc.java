@@ -103,6 +103,11 @@ public class DefaultLoggingRpc implements LoggingRpc {
     protected ChannelProvider getChannelProvider() {
       return super.getChannelProvider();
     }
+
+    @Override
+    protected ManagedChannel instrumentChannel(ManagedChannel channel) {
+      return super.instrumentChannel(channel);
+    }
   }
 
   public DefaultLoggingRpc(LoggingOptions options) throws IOException {
@@ -127,18 +132,20 @@ public class DefaultLoggingRpc implements LoggingRpc {
           .setChannelProvider(channelProvider)
           .setExecutorProvider(executorProvider)
           .build();
+      ChannelProvider instrumentedChannelProvider = FixedChannelProvider.create(
+          internalOptions.instrumentChannel(providerManager.getChannel()));
       UnaryCallSettings.Builder callSettingsBuilder = internalOptions.getApiCallSettings();
       ConfigServiceV2Settings.Builder confBuilder = ConfigServiceV2Settings.defaultBuilder()
           .setExecutorProvider(providerManager)
-          .setChannelProvider(providerManager)
+          .setChannelProvider(instrumentedChannelProvider)
           .applyToAllUnaryMethods(callSettingsBuilder);
       LoggingServiceV2Settings.Builder logBuilder = LoggingServiceV2Settings.defaultBuilder()
           .setExecutorProvider(providerManager)
-          .setChannelProvider(providerManager)
+          .setChannelProvider(instrumentedChannelProvider)
           .applyToAllUnaryMethods(callSettingsBuilder);
       MetricsServiceV2Settings.Builder metricsBuilder = MetricsServiceV2Settings.defaultBuilder()
           .setExecutorProvider(providerManager)
-          .setChannelProvider(providerManager)
+          .setChannelProvider(instrumentedChannelProvider)
           .applyToAllUnaryMethods(callSettingsBuilder);
       configClient = ConfigServiceV2Client.create(confBuilder.build());
       loggingClient = LoggingServiceV2Client.create(logBuilder.build());
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.cloud.pubsub;
+
+import static com.google.cloud.pubsub.spi.v1.SubscriberClient.formatSubscriptionName;
+
+import com.google.cloud.Clock;
+import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
+import com.google.cloud.MetricsRecorder;
+import com.google.cloud.pubsub.spi.PubSubRpc;
+import com.google.common.base.Functions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.Empty;
+import com.google.pubsub.v1.AcknowledgeRequest;
+import com.google.pubsub.v1.ModifyAckDeadlineRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class for batching acknowledgements and acknowledge deadline modifications. Ack ids added to
+ * the batcher (via {@link #ack(String, Iterable)} or
+ * {@link #modifyAckDeadline(String, int, Iterable)}) are accumulated in a batch per subscription
+ * and deadline, and sent in a single request when the batch is full or its maximum delay elapsed,
+ * as configured by {@link AckBatchingSettings}. Batches failing with a retryable error are sent
+ * again. Each attempt is recorded with
+ * {@link MetricsRecorder#recordAttempt(String, String, int, long, long, long)} as
+ * {@value #ACK_METRIC_NAME} or {@value #MODIFY_METRIC_NAME}, with the time elapsed since the first
+ * ack id was added to the batch as latency.
+ */
+class AckBatcher implements AutoCloseable {
+
+  static final String ACK_METRIC_NAME = "PubSub.ackBatch";
+  static final String MODIFY_METRIC_NAME = "PubSub.modifyAckDeadlineBatch";
+  // The deadline of batches of acknowledgements
+  private static final int ACK_DEADLINE = -1;
+  private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+  private final PubSubRpc rpc;
+  private final String projectId;
+  private final AckBatchingSettings settings;
+  private final ScheduledExecutorService executor;
+  private final ExecutorFactory<ScheduledExecutorService> executorFactory;
+  private final Clock clock;
+  private final MetricsRecorder metricsRecorder;
+  private final Lock lock = new ReentrantLock();
+  private final Condition batchCompleted = lock.newCondition();
+  private final Map<BatchKey, Batch> batches = new HashMap<>();
+  private int outstandingBatches;
+  private boolean closed;
+
+  private static final class BatchKey {
+
+    private final String subscription;
+    private final int deadlineSeconds;
+
+    BatchKey(String subscription, int deadlineSeconds) {
+      this.subscription = subscription;
+      this.deadlineSeconds = deadlineSeconds;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(subscription, deadlineSeconds);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof BatchKey)) {
+        return false;
+      }
+      BatchKey other = (BatchKey) obj;
+      return subscription.equals(other.subscription) && deadlineSeconds == other.deadlineSeconds;
+    }
+  }
+
+  /**
+   * The ack ids accumulated for a subscription and deadline, and the futures of their callers.
+   */
+  private static final class Batch {
+
+    private final BatchKey key;
+    private final long startMillis;
+    private final List<String> ackIds = new ArrayList<>();
+    private final List<SettableFuture<Void>> futures = new ArrayList<>();
+    private Future<?> scheduledFlush;
+    private int attempts;
+
+    Batch(BatchKey key, long startMillis) {
+      this.key = key;
+      this.startMillis = startMillis;
+    }
+  }
+
+  AckBatcher(PubSubOptions options) {
+    this.rpc = options.getRpc();
+    this.projectId = options.getProjectId();
+    this.settings = options.getAckBatchingSettings();
+    this.executorFactory = options.getExecutorFactory();
+    this.executor = executorFactory.get();
+    this.clock = options.getClock();
+    this.metricsRecorder = options.getMetricsRecorder();
+  }
+
+  /**
+   * Adds ack ids to the batch of acknowledgements for {@code subscription}. Returns a future that
+   * completes once all the ack ids are acknowledged.
+   */
+  ListenableFuture<Void> ack(String subscription, Iterable<String> ackIds) {
+    return add(new BatchKey(subscription, ACK_DEADLINE), ackIds);
+  }
+
+  /**
+   * Adds ack ids to the batch of acknowledge deadline modifications for {@code subscription} and
+   * {@code deadlineSeconds}. Returns a future that completes once the deadline of all the ack ids
+   * is modified.
+   */
+  ListenableFuture<Void> modifyAckDeadline(String subscription, int deadlineSeconds,
+      Iterable<String> ackIds) {
+    return add(new BatchKey(subscription, deadlineSeconds), ackIds);
+  }
+
+  private ListenableFuture<Void> add(BatchKey key, Iterable<String> ackIds) {
+    // Ack ids that do not fit in a batch are split across batches, each with a future of its own
+    List<ListenableFuture<Void>> futures = new ArrayList<>(1);
+    List<Batch> toSend = new ArrayList<>(1);
+    lock.lock();
+    try {
+      if (closed) {
+        return Futures.immediateFailedFuture(
+            new RejectedExecutionException("The ack batcher is closed"));
+      }
+      SettableFuture<Void> future = null;
+      for (String ackId : ackIds) {
+        Batch batch = batches.get(key);
+        if (batch == null) {
+          batch = new Batch(key, clock.millis());
+          batches.put(key, batch);
+          scheduleFlush(batch);
+        }
+        if (future == null) {
+          future = SettableFuture.create();
+          batch.futures.add(future);
+          futures.add(future);
+        }
+        batch.ackIds.add(ackId);
+        if (batch.ackIds.size() >= settings.getMaxAckIds()) {
+          toSend.add(remove(key));
+          future = null;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (Batch batch : toSend) {
+      send(batch);
+    }
+    if (futures.isEmpty()) {
+      return Futures.immediateFuture(null);
+    }
+    if (futures.size() == 1) {
+      return futures.get(0);
+    }
+    return Futures.transform(Futures.allAsList(futures), Functions.<Void>constant(null));
+  }
+
+  /**
+   * Removes the batch for {@code key}, that is about to be sent. Must be called with the lock
+   * held.
+   */
+  private Batch remove(BatchKey key) {
+    outstandingBatches++;
+    return batches.remove(key);
+  }
+
+  private void scheduleFlush(final Batch batch) {
+    batch.scheduledFlush = executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        flush(batch);
+      }
+    }, settings.getMaxDelayMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void flush(Batch batch) {
+    lock.lock();
+    try {
+      // The batch may have been sent already, because it filled up
+      if (batches.get(batch.key) != batch) {
+        return;
+      }
+      remove(batch.key);
+    } finally {
+      lock.unlock();
+    }
+    send(batch);
+  }
+
+  private void send(Batch batch) {
+    if (batch.scheduledFlush != null) {
+      batch.scheduledFlush.cancel(false);
+    }
+    attempt(batch);
+  }
+
+  private void attempt(final Batch batch) {
+    final int attempt = ++batch.attempts;
+    String subscription = formatSubscriptionName(projectId, batch.key.subscription);
+    final String metricName;
+    final long requestBytes;
+    ListenableFuture<Empty> response;
+    try {
+      Future<Empty> rpcFuture;
+      if (batch.key.deadlineSeconds == ACK_DEADLINE) {
+        AcknowledgeRequest request = AcknowledgeRequest.newBuilder()
+            .setSubscription(subscription)
+            .addAllAckIds(batch.ackIds)
+            .build();
+        metricName = ACK_METRIC_NAME;
+        requestBytes = request.getSerializedSize();
+        rpcFuture = rpc.acknowledge(request);
+      } else {
+        ModifyAckDeadlineRequest request = ModifyAckDeadlineRequest.newBuilder()
+            .setSubscription(subscription)
+            .setAckDeadlineSeconds(batch.key.deadlineSeconds)
+            .addAllAckIds(batch.ackIds)
+            .build();
+        metricName = MODIFY_METRIC_NAME;
+        requestBytes = request.getSerializedSize();
+        rpcFuture = rpc.modify(request);
+      }
+      response = JdkFutureAdapters.listenInPoolThread(rpcFuture, executor);
+    } catch (RuntimeException ex) {
+      response = Futures.immediateFailedFuture(ex);
+    }
+    Futures.addCallback(response, new FutureCallback<Empty>() {
+      @Override
+      public void onSuccess(Empty result) {
+        record(MetricsRecorder.OK);
+        complete(batch, null);
+      }
+
+      @Override
+      public void onFailure(Throwable error) {
+        record(status(error));
+        if (attempt < settings.getMaxAttempts() && error instanceof PubSubException
+            && ((PubSubException) error).isRetryable()) {
+          retry(batch, retryDelayMillis(settings.getRetryDelayMillis(), attempt));
+        } else {
+          complete(batch, error);
+        }
+      }
+
+      private void record(String status) {
+        metricsRecorder.recordAttempt(metricName, status, attempt,
+            clock.millis() - batch.startMillis, requestBytes, MetricsRecorder.UNKNOWN_BYTES);
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Returns the delay before sending a batch again after {@code attempt} failed attempts: the
+   * initial delay doubled after each attempt, but no longer than a minute unless the initial delay
+   * already is.
+   */
+  static long retryDelayMillis(long initialDelayMillis, int attempt) {
+    double delayMillis = Math.pow(2, attempt - 1) * initialDelayMillis;
+    return Math.max(initialDelayMillis, (long) Math.min(MAX_RETRY_DELAY_MILLIS, delayMillis));
+  }
+
+  private static String status(Throwable error) {
+    if (error instanceof PubSubException && ((PubSubException) error).getReason() != null) {
+      return ((PubSubException) error).getReason();
+    }
+    return error.getClass().getSimpleName();
+  }
+
+  private void retry(final Batch batch, long delayMillis) {
+    executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        attempt(batch);
+      }
+    }, delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void complete(Batch batch, Throwable error) {
+    for (SettableFuture<Void> future : batch.futures) {
+      if (error == null) {
+        future.set(null);
+      } else {
+        future.setException(error);
+      }
+    }
+    lock.lock();
+    try {
+      outstandingBatches--;
+      batchCompleted.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Sends all the batches being accumulated and waits for all sent batches to complete, retries
+   * included.
+   */
+  @Override
+  public void close() throws Exception {
+    List<Batch> toSend = new ArrayList<>();
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (BatchKey key : new ArrayList<>(batches.keySet())) {
+        toSend.add(remove(key));
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (Batch batch : toSend) {
+      send(batch);
+    }
+    lock.lock();
+    try {
+      while (outstandingBatches > 0) {
+        batchCompleted.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+    executorFactory.release(executor);
+  }
+}
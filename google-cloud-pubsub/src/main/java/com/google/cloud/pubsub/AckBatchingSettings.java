@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.cloud.pubsub;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Settings for batching acknowledgements sent with {@link PubSub#ackAsync(String, Iterable)} and
+ * negative acknowledgements sent with {@link PubSub#nackAsync(String, Iterable)}. Ack ids for the
+ * same subscription are accumulated in a batch that is sent in a single request once it holds
+ * {@link #getMaxAckIds()} ack ids, or {@link #getMaxDelayMillis()} after its first ack id was
+ * added, whichever comes first. Ack ids added by a message consumer are batched as well, as
+ * consumers acknowledge messages through the service.
+ *
+ * <p>A batch that fails with a retryable error is sent again, up to {@link #getMaxAttempts()}
+ * times, waiting {@link #getRetryDelayMillis()} before the first retry and doubling the delay
+ * before each of the following ones, up to a minute.
+ *
+ * <p>Batching is enabled by setting the settings on the service options, with
+ * {@link PubSubOptions.Builder#setAckBatchingSettings(AckBatchingSettings)}.
+ */
+public final class AckBatchingSettings implements Serializable {
+
+  private static final long serialVersionUID = 2284153213593384396L;
+
+  public static final int DEFAULT_MAX_ACK_IDS = 1000;
+  public static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  public static final long DEFAULT_RETRY_DELAY_MILLIS = 100;
+
+  private static final AckBatchingSettings DEFAULT_INSTANCE = newBuilder().build();
+
+  private final int maxAckIds;
+  private final long maxDelayMillis;
+  private final int maxAttempts;
+  private final long retryDelayMillis;
+
+  /**
+   * Builder for {@code AckBatchingSettings}.
+   */
+  public static final class Builder {
+
+    private int maxAckIds = DEFAULT_MAX_ACK_IDS;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+
+    private Builder() {}
+
+    private Builder(AckBatchingSettings settings) {
+      maxAckIds = settings.maxAckIds;
+      maxDelayMillis = settings.maxDelayMillis;
+      maxAttempts = settings.maxAttempts;
+      retryDelayMillis = settings.retryDelayMillis;
+    }
+
+    /**
+     * Sets the maximum number of ack ids in a batch.
+     */
+    public Builder setMaxAckIds(int maxAckIds) {
+      this.maxAckIds = maxAckIds;
+      return this;
+    }
+
+    /**
+     * Sets the maximum time, in milliseconds, an ack id waits for its batch to fill up.
+     */
+    public Builder setMaxDelayMillis(long maxDelayMillis) {
+      this.maxDelayMillis = maxDelayMillis;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of times a batch is sent, the first attempt included.
+     */
+    public Builder setMaxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Sets the time, in milliseconds, to wait before sending a failed batch again for the first
+     * time.
+     */
+    public Builder setRetryDelayMillis(long retryDelayMillis) {
+      this.retryDelayMillis = retryDelayMillis;
+      return this;
+    }
+
+    /**
+     * Creates an {@code AckBatchingSettings} object.
+     */
+    public AckBatchingSettings build() {
+      return new AckBatchingSettings(this);
+    }
+  }
+
+  private AckBatchingSettings(Builder builder) {
+    checkArgument(builder.maxAckIds > 0, "maxAckIds must be > 0");
+    checkArgument(builder.maxDelayMillis >= 0, "maxDelayMillis must be >= 0");
+    checkArgument(builder.maxAttempts > 0, "maxAttempts must be > 0");
+    checkArgument(builder.retryDelayMillis >= 0, "retryDelayMillis must be >= 0");
+    maxAckIds = builder.maxAckIds;
+    maxDelayMillis = builder.maxDelayMillis;
+    maxAttempts = builder.maxAttempts;
+    retryDelayMillis = builder.retryDelayMillis;
+  }
+
+  /**
+   * Returns the default settings.
+   */
+  public static AckBatchingSettings getDefaultInstance() {
+    return DEFAULT_INSTANCE;
+  }
+
+  /**
+   * Returns the maximum number of ack ids in a batch.
+   */
+  public int getMaxAckIds() {
+    return maxAckIds;
+  }
+
+  /**
+   * Returns the maximum time, in milliseconds, an ack id waits for its batch to fill up.
+   */
+  public long getMaxDelayMillis() {
+    return maxDelayMillis;
+  }
+
+  /**
+   * Returns the maximum number of times a batch is sent, the first attempt included.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Returns the time, in milliseconds, to wait before sending a failed batch again for the first
+   * time.
+   */
+  public long getRetryDelayMillis() {
+    return retryDelayMillis;
+  }
+
+  public Builder toBuilder() {
+    return new Builder(this);
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxAckIds, maxDelayMillis, maxAttempts, retryDelayMillis);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof AckBatchingSettings)) {
+      return false;
+    }
+    AckBatchingSettings other = (AckBatchingSettings) obj;
+    return maxAckIds == other.maxAckIds
+        && maxDelayMillis == other.maxDelayMillis
+        && maxAttempts == other.maxAttempts
+        && retryDelayMillis == other.retryDelayMillis;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("maxAckIds", maxAckIds)
+        .add("maxDelayMillis", maxDelayMillis)
+        .add("maxAttempts", maxAttempts)
+        .add("retryDelayMillis", retryDelayMillis)
+        .toString();
+  }
+}
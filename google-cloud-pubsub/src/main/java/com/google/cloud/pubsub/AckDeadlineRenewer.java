@@ -18,138 +18,96 @@ package com.google.cloud.pubsub;
 
 import com.google.cloud.Clock;
 import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
-import com.google.common.base.MoreObjects;
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.Lists;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Class for an automatic ack deadline renewer. An ack deadline renewer automatically renews the
  * acknowledge deadline of messages added to it (via {@link #add(String, String)} or
  * {@link #add(String, Iterable)}. The acknowledge deadlines of added messages are renewed until the
  * messages are explicitly removed using {@link #remove(String, String)}.
+ *
+ * <p>Messages are kept in a hashed timing wheel: each message is put in the slot of the tick in
+ * which its deadline must be renewed, and at every tick the renewer collects the messages of the
+ * elapsed slots and renews their deadlines with a request per subscription. Adding and removing
+ * messages does not take locks. Deadlines are extended by the 99th percentile of the time it took
+ * to process (i.e. remove) messages so far, but never less than 10 seconds.
  */
 class AckDeadlineRenewer implements AutoCloseable {
 
   private static final int MIN_DEADLINE_MILLIS = 10_000;
+  private static final int MAX_DEADLINE_MILLIS = 600_000;
   private static final int DEADLINE_SLACK_MILLIS = 1_000;
   private static final int RENEW_THRESHOLD_MILLIS = 3_000;
-  private static final int NEXT_RENEWAL_THRESHOLD_MILLIS = 1_000;
+  private static final int TICK_MILLIS = 1_000;
+  // A power of 2, spanning the maximum deadline
+  private static final int WHEEL_SIZE = 1_024;
+  private static final int MAX_ACK_IDS_PER_REQUEST = 1_000;
+  private static final double PROCESSING_TIME_PERCENTILE = 0.99;
 
   private final PubSub pubsub;
   private final ScheduledExecutorService executor;
   private final ExecutorFactory<ScheduledExecutorService> executorFactory;
   private final Clock clock;
-  private final Queue<Message> messageQueue;
-  private final Map<MessageId, Long> messageDeadlines;
-  private final Object lock = new Object();
-  private final Object futureLock = new Object();
-  private Future<?> renewerFuture;
-  private boolean closed;
+  // The entry of each message, by subscription and acknowledge id
+  private final ConcurrentMap<String, ConcurrentMap<String, Entry>> entries =
+      new ConcurrentHashMap<>();
+  private final List<Queue<Entry>> wheel = new ArrayList<>(WHEEL_SIZE);
+  // Entries in the wheel, including those of removed messages not yet collected
+  private final AtomicInteger wheelEntries = new AtomicInteger();
+  // Count of processed messages, by processing time in seconds
+  private final AtomicLongArray processingTimes =
+      new AtomicLongArray(MAX_DEADLINE_MILLIS / 1_000 + 1);
+  private final AtomicLong processedMessages = new AtomicLong();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final Runnable renewerRunnable = new Runnable() {
+    @Override
+    public void run() {
+      try {
+        renewAckDeadlines();
+      } finally {
+        scheduled.set(false);
+        scheduleNextTick();
+      }
+    }
+  };
+  private volatile Future<?> renewerFuture;
+  private volatile boolean closed;
+  // Last tick whose slot was collected, only accessed by the renewer
+  private long lastTick;
 
   /**
-   * This class holds the identity of a message to renew: subscription and acknowledge id.
+   * A message to renew, and the tick in which its deadline must be renewed. A message is renewed
+   * only while its entry is the one registered for its subscription and acknowledge id.
    */
-  private static class MessageId {
+  private static final class Entry {
 
     private final String subscription;
     private final String ackId;
+    private final long addedMillis;
+    private final long renewTick;
 
-    MessageId(String subscription, String ackId) {
+    Entry(String subscription, String ackId, long addedMillis, long renewTick) {
       this.subscription = subscription;
       this.ackId = ackId;
-    }
-
-    String subscription() {
-      return subscription;
-    }
-
-    String ackId() {
-      return ackId;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      if (obj == this) {
-        return true;
-      }
-      if (!(obj instanceof MessageId)) {
-        return false;
-      }
-      MessageId other = (MessageId) obj;
-      return Objects.equals(other.subscription, this.subscription)
-          && Objects.equals(other.ackId, this.ackId);
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(subscription, ackId);
-    }
-
-    @Override
-    public String toString() {
-      return MoreObjects.toStringHelper(this)
-          .add("subscription", subscription)
-          .add("ackId", ackId)
-          .toString();
-    }
-  }
-
-  /**
-   * This class holds the identity of a message to renew and its expected ack deadline.
-   */
-  private static final class Message {
-
-    private final MessageId messageId;
-    private final Long deadline;
-
-    Message(MessageId messageId, Long deadline) {
-      this.messageId = messageId;
-      this.deadline = deadline;
-    }
-
-    MessageId messageId() {
-      return messageId;
-    }
-
-    Long expectedDeadline() {
-      return deadline;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      if (obj == this) {
-        return true;
-      }
-      if (!(obj instanceof Message)) {
-        return false;
-      }
-      Message other = (Message) obj;
-      return Objects.equals(other.messageId, this.messageId)
-          && Objects.equals(other.deadline, this.deadline);
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(messageId, deadline);
-    }
-
-    @Override
-    public String toString() {
-      return MoreObjects.toStringHelper(this)
-          .add("messageId", messageId)
-          .add("expectedDeadline", deadline)
-          .toString();
+      this.addedMillis = addedMillis;
+      this.renewTick = renewTick;
     }
   }
 
@@ -159,88 +117,111 @@ class AckDeadlineRenewer implements AutoCloseable {
     this.executorFactory = options.getExecutorFactory();
     this.executor = executorFactory.get();
     this.clock = options.getClock();
-    this.messageQueue = new LinkedList<>();
-    this.messageDeadlines = new HashMap<>();
-  }
-
-  private void unsetAndScheduleNextRenewal() {
-    synchronized (futureLock) {
-      renewerFuture = null;
-      scheduleNextRenewal();
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      wheel.add(new ConcurrentLinkedQueue<Entry>());
     }
+    this.lastTick = clock.millis() / TICK_MILLIS;
   }
 
-  private void scheduleNextRenewal() {
-    // Schedules next renewal if there are still messages to process and no renewals scheduled that
-    // could handle them, otherwise does nothing
-    Message nextMessage;
-    synchronized (lock) {
-      Message peek = messageQueue.peek();
-      // We remove from the queue messages that were removed from the ack deadline renewer (and
-      // possibly re-added)
-      while (peek != null && (!messageDeadlines.containsKey(peek.messageId())
-          || messageDeadlines.get(peek.messageId()) > peek.expectedDeadline())) {
-        messageQueue.poll();
-        peek = messageQueue.peek();
+  private ConcurrentMap<String, Entry> subscriptionEntries(String subscription) {
+    ConcurrentMap<String, Entry> subscriptionEntries = entries.get(subscription);
+    if (subscriptionEntries == null) {
+      subscriptionEntries = new ConcurrentHashMap<>();
+      ConcurrentMap<String, Entry> previous =
+          entries.putIfAbsent(subscription, subscriptionEntries);
+      if (previous != null) {
+        subscriptionEntries = previous;
       }
-      nextMessage = peek;
     }
-    synchronized (futureLock) {
-      if (renewerFuture == null && nextMessage != null) {
-        long delay =
-            (nextMessage.expectedDeadline() - clock.millis()) - NEXT_RENEWAL_THRESHOLD_MILLIS;
-        renewerFuture = executor.schedule(new Runnable() {
-          @Override
-          public void run() {
-            renewAckDeadlines();
-          }
-        }, delay, TimeUnit.MILLISECONDS);
-      }
+    return subscriptionEntries;
+  }
+
+  private Entry newEntry(String subscription, String ackId, long addedMillis, long nowMillis,
+      int deadlineMillis) {
+    long renewMillis = nowMillis + deadlineMillis - DEADLINE_SLACK_MILLIS - RENEW_THRESHOLD_MILLIS;
+    return new Entry(subscription, ackId, addedMillis, renewMillis / TICK_MILLIS);
+  }
+
+  private void addToWheel(Entry entry) {
+    wheel.get((int) (entry.renewTick & (WHEEL_SIZE - 1))).add(entry);
+    wheelEntries.incrementAndGet();
+  }
+
+  private void scheduleNextTick() {
+    // Ticks are scheduled while the wheel has entries, one at a time
+    if (!closed && wheelEntries.get() > 0 && scheduled.compareAndSet(false, true)) {
+      renewerFuture = executor.schedule(renewerRunnable, TICK_MILLIS, TimeUnit.MILLISECONDS);
     }
   }
 
   private void renewAckDeadlines() {
-    ListMultimap<String, String> messagesToRenewNext = LinkedListMultimap.create();
-    // At every activation we renew all ack deadlines that will expire in the following
-    // RENEW_THRESHOLD_MILLIS
-    long threshold = clock.millis() + RENEW_THRESHOLD_MILLIS;
-    Message message;
-    while ((message = nextMessageToRenew(threshold)) != null) {
-      // If the expected deadline is null the message was removed and we must ignore it, otherwise
-      // we renew its ack deadline
-      if (message.expectedDeadline() != null) {
-        messagesToRenewNext.put(message.messageId().subscription(), message.messageId().ackId());
+    if (closed) {
+      return;
+    }
+    long nowMillis = clock.millis();
+    long currentTick = nowMillis / TICK_MILLIS;
+    int newDeadlineMillis = percentileDeadlineMillis();
+    Map<String, List<String>> messagesToRenew = new LinkedHashMap<>();
+    // If more ticks than the wheel size elapsed, each slot is collected once
+    long firstTick = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1);
+    for (long tick = firstTick; tick <= currentTick; tick++) {
+      Iterator<Entry> iterator = wheel.get((int) (tick & (WHEEL_SIZE - 1))).iterator();
+      while (iterator.hasNext()) {
+        Entry entry = iterator.next();
+        ConcurrentMap<String, Entry> subscriptionEntries = entries.get(entry.subscription);
+        boolean registered =
+            subscriptionEntries != null && subscriptionEntries.get(entry.ackId) == entry;
+        if (registered && entry.renewTick > currentTick) {
+          // The entry must be renewed in a later turn of the wheel
+          continue;
+        }
+        iterator.remove();
+        wheelEntries.decrementAndGet();
+        // The message may be removed, or added back, while it is being renewed
+        Entry renewed = newEntry(entry.subscription, entry.ackId, entry.addedMillis, nowMillis,
+            newDeadlineMillis);
+        if (registered && subscriptionEntries.replace(entry.ackId, entry, renewed)) {
+          addToWheel(renewed);
+          List<String> ackIds = messagesToRenew.get(entry.subscription);
+          if (ackIds == null) {
+            ackIds = new ArrayList<>();
+            messagesToRenew.put(entry.subscription, ackIds);
+          }
+          ackIds.add(entry.ackId);
+        }
       }
     }
-    for (Map.Entry<String, List<String>> entry : Multimaps.asMap(messagesToRenewNext).entrySet()) {
-      // We send all ack deadline renewals for a subscription
-      pubsub.modifyAckDeadlineAsync(entry.getKey(), MIN_DEADLINE_MILLIS, TimeUnit.MILLISECONDS,
-          entry.getValue());
+    lastTick = currentTick;
+    for (Map.Entry<String, List<String>> entry : messagesToRenew.entrySet()) {
+      // We send all ack deadline renewals for a subscription, in requests of bounded size
+      for (List<String> ackIds : Lists.partition(entry.getValue(), MAX_ACK_IDS_PER_REQUEST)) {
+        pubsub.modifyAckDeadlineAsync(entry.getKey(), newDeadlineMillis, TimeUnit.MILLISECONDS,
+            ackIds);
+      }
     }
-    unsetAndScheduleNextRenewal();
   }
 
-  private Message nextMessageToRenew(long threshold) {
-    synchronized (lock) {
-      Message message = messageQueue.peek();
-      // if the queue is empty or the next expected deadline is after threshold we stop
-      if (message == null || message.expectedDeadline() > threshold) {
-        return null;
-      }
-      MessageId messageId = messageQueue.poll().messageId();
-      // Check if the next expected deadline changed. This can happen if the message was removed
-      // from the ack deadline renewer or if it was nacked and then pulled again
-      Long deadline = messageDeadlines.get(messageId);
-      if (deadline == null || deadline > threshold) {
-        // the message was removed (deadline == null) or removed and then added back
-        // (deadline > threshold), we should not renew its deadline (yet)
-        return new Message(messageId, null);
-      } else {
-        // Message deadline must be renewed, we must submit it again to the renewer
-        add(messageId.subscription(), messageId.ackId());
-        return new Message(messageId, deadline);
+  /**
+   * Returns the 99th percentile of the processing times recorded so far, rounded up to seconds and
+   * bounded by the minimum and maximum deadlines.
+   */
+  private int percentileDeadlineMillis() {
+    long count = processedMessages.get();
+    long rank = (long) Math.ceil(count * PROCESSING_TIME_PERCENTILE);
+    long seen = 0;
+    for (int seconds = 0; seconds < processingTimes.length() && rank > 0; seconds++) {
+      seen += processingTimes.get(seconds);
+      if (seen >= rank) {
+        return Math.max(MIN_DEADLINE_MILLIS, Math.min(MAX_DEADLINE_MILLIS, (seconds + 1) * 1_000));
       }
     }
+    return MIN_DEADLINE_MILLIS;
+  }
+
+  private void recordProcessingTime(long millis) {
+    int seconds = (int) Math.min(Math.max(millis, 0) / 1_000, processingTimes.length() - 1);
+    processingTimes.incrementAndGet(seconds);
+    processedMessages.incrementAndGet();
   }
 
   /**
@@ -253,13 +234,11 @@ class AckDeadlineRenewer implements AutoCloseable {
    * @param ackId the message's acknowledge id
    */
   void add(String subscription, String ackId) {
-    synchronized (lock) {
-      long deadline = clock.millis() + MIN_DEADLINE_MILLIS - DEADLINE_SLACK_MILLIS;
-      Message message = new Message(new MessageId(subscription, ackId), deadline);
-      messageQueue.add(message);
-      messageDeadlines.put(message.messageId(), deadline);
-    }
-    scheduleNextRenewal();
+    long nowMillis = clock.millis();
+    Entry entry = newEntry(subscription, ackId, nowMillis, nowMillis, MIN_DEADLINE_MILLIS);
+    subscriptionEntries(subscription).put(ackId, entry);
+    addToWheel(entry);
+    scheduleNextTick();
   }
 
   /**
@@ -272,15 +251,14 @@ class AckDeadlineRenewer implements AutoCloseable {
    * @param ackIds the acknowledge ids of the messages
    */
   void add(String subscription, Iterable<String> ackIds) {
-    synchronized (lock) {
-      long deadline = clock.millis() + MIN_DEADLINE_MILLIS - DEADLINE_SLACK_MILLIS;
-      for (String ackId : ackIds) {
-        Message message = new Message(new MessageId(subscription, ackId), deadline);
-        messageQueue.add(message);
-        messageDeadlines.put(message.messageId(), deadline);
-      }
+    long nowMillis = clock.millis();
+    ConcurrentMap<String, Entry> subscriptionEntries = subscriptionEntries(subscription);
+    for (String ackId : ackIds) {
+      Entry entry = newEntry(subscription, ackId, nowMillis, nowMillis, MIN_DEADLINE_MILLIS);
+      subscriptionEntries.put(ackId, entry);
+      addToWheel(entry);
     }
-    scheduleNextRenewal();
+    scheduleNextTick();
   }
 
   /**
@@ -292,8 +270,10 @@ class AckDeadlineRenewer implements AutoCloseable {
    * @param ackId the message's acknowledge id
    */
   void remove(String subscription, String ackId) {
-    synchronized (lock) {
-      messageDeadlines.remove(new MessageId(subscription, ackId));
+    ConcurrentMap<String, Entry> subscriptionEntries = entries.get(subscription);
+    Entry entry = subscriptionEntries != null ? subscriptionEntries.remove(ackId) : null;
+    if (entry != null) {
+      recordProcessingTime(clock.millis() - entry.addedMillis);
     }
   }
 
@@ -303,14 +283,14 @@ class AckDeadlineRenewer implements AutoCloseable {
       return;
     }
     closed = true;
-    synchronized (lock) {
-      messageDeadlines.clear();
-      messageQueue.clear();
+    entries.clear();
+    for (Queue<Entry> slot : wheel) {
+      slot.clear();
     }
-    synchronized (futureLock) {
-      if (renewerFuture != null) {
-        renewerFuture.cancel(true);
-      }
+    wheelEntries.set(0);
+    Future<?> future = renewerFuture;
+    if (future != null) {
+      future.cancel(true);
     }
     executorFactory.release(executor);
   }
@@ -30,12 +30,18 @@ import com.google.pubsub.v1.PullResponse;
 
 import io.grpc.internal.SharedResourceHolder;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Default implementation for a message consumer.
@@ -43,19 +49,25 @@ import java.util.concurrent.atomic.AtomicInteger;
 final class MessageConsumerImpl implements MessageConsumer {
 
   private static final int MAX_QUEUED_CALLBACKS = 100;
-  // shared scheduled executor, used to schedule pulls
-  private static final SharedResourceHolder.Resource<ExecutorService> CONSUMER_EXECUTOR =
-      new SharedResourceHolder.Resource<ExecutorService>() {
+  private static final int MAX_CONCURRENT_PULLS = 1;
+  // The estimated size of messages, until the size of pulled messages is known
+  private static final long DEFAULT_MESSAGE_BYTES = 1024;
+  // shared executor, used to issue pulls. It has a thread per open message consumer
+  private static final SharedResourceHolder.Resource<ThreadPoolExecutor> CONSUMER_EXECUTOR =
+      new SharedResourceHolder.Resource<ThreadPoolExecutor>() {
         @Override
-        public ExecutorService create() {
-          return Executors.newSingleThreadExecutor();
+        public ThreadPoolExecutor create() {
+          return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+              new LinkedBlockingQueue<Runnable>());
         }
 
         @Override
-        public void close(ExecutorService instance) {
+        public void close(ThreadPoolExecutor instance) {
           instance.shutdown();
         }
       };
+  // guarded by CONSUMER_EXECUTOR
+  private static int consumerCount;
 
   private final PubSubOptions pubsubOptions;
   private final PubSubRpc pubsubRpc;
@@ -63,17 +75,27 @@ final class MessageConsumerImpl implements MessageConsumer {
   private final AckDeadlineRenewer deadlineRenewer;
   private final String subscription;
   private final MessageProcessor messageProcessor;
-  private final ExecutorService consumerExecutor;
+  private final ThreadPoolExecutor consumerExecutor;
   private final ExecutorFactory<ExecutorService> executorFactory;
   private final ExecutorService executor;
   private final AtomicInteger queuedCallbacks;
+  private final AtomicLong queuedBytes;
   private final int maxQueuedCallbacks;
+  private final int maxConcurrentPulls;
+  private final int maxMessagesPerPull;
+  private final Long maxQueuedBytes;
   private final Object futureLock = new Object();
-  private final Runnable consumerRunnable;
   private final NextPullPolicy pullPolicy;
   private boolean closed;
-  private Future<?> scheduledFuture;
-  private PullFuture pullerFuture;
+  // pulls either scheduled or in flight, guarded by futureLock
+  private final Set<ConsumerRunnable> pendingPulls = new HashSet<>();
+  // messages requested by pending pulls, guarded by futureLock
+  private int requestedMessages;
+  // estimated bytes of the messages requested by pending pulls, guarded by futureLock
+  private long requestedBytes;
+  // messages pulled so far and their bytes, guarded by futureLock
+  private long pulledMessages;
+  private long pulledBytes;
 
   /**
    * Interface for policies according to which the consumer should pull messages.
@@ -124,29 +146,52 @@ final class MessageConsumerImpl implements MessageConsumer {
 
   class ConsumerRunnable implements Runnable {
 
+    private final int maxMessages;
+    private final long estimatedBytes;
+    // guarded by futureLock
+    private Future<?> scheduledFuture;
+    private PullFuture pullerFuture;
+
+    ConsumerRunnable(int maxMessages, long estimatedBytes) {
+      this.maxMessages = maxMessages;
+      this.estimatedBytes = estimatedBytes;
+    }
+
     @Override
     public void run() {
       if (closed) {
         return;
       }
-      pullerFuture = pubsubRpc.pull(createPullRequest());
-      pullerFuture.addCallback(new PullCallback() {
+      PullFuture future = pubsubRpc.pull(createPullRequest());
+      synchronized (futureLock) {
+        pullerFuture = future;
+        if (closed) {
+          future.cancel(true);
+        }
+      }
+      future.addCallback(new PullCallback() {
         @Override
         public void success(PullResponse response) {
           List<com.google.pubsub.v1.ReceivedMessage> messages = response.getReceivedMessagesList();
+          long bytes = 0;
+          for (com.google.pubsub.v1.ReceivedMessage message : messages) {
+            bytes += message.getMessage().getSerializedSize();
+          }
           queuedCallbacks.addAndGet(messages.size());
+          queuedBytes.addAndGet(bytes);
           for (com.google.pubsub.v1.ReceivedMessage message : messages) {
             deadlineRenewer.add(subscription, message.getAckId());
             ReceivedMessage receivedMessage = ReceivedMessage.fromPb(pubsub, subscription, message);
-            executor.execute(ackingRunnable(receivedMessage));
+            executor.execute(
+                ackingRunnable(receivedMessage, message.getMessage().getSerializedSize()));
           }
-          nextPull();
+          nextPull(ConsumerRunnable.this, messages.size(), bytes);
         }
 
         @Override
         public void failure(Throwable error) {
           if (!(error instanceof CancellationException)) {
-            nextPull();
+            nextPull(ConsumerRunnable.this, 0, 0);
           }
         }
       });
@@ -155,12 +200,12 @@ final class MessageConsumerImpl implements MessageConsumer {
     private PullRequest createPullRequest() {
       return PullRequest.newBuilder()
           .setSubscription(formatSubscriptionName(pubsubOptions.getProjectId(), subscription))
-          .setMaxMessages(maxQueuedCallbacks - queuedCallbacks.get())
+          .setMaxMessages(maxMessages)
           .setReturnImmediately(false)
           .build();
     }
 
-    private Runnable ackingRunnable(final ReceivedMessage receivedMessage) {
+    private Runnable ackingRunnable(final ReceivedMessage receivedMessage, final long bytes) {
       return new Runnable() {
         @Override
         public void run() {
@@ -172,6 +217,7 @@ final class MessageConsumerImpl implements MessageConsumer {
           } finally {
             deadlineRenewer.remove(receivedMessage.getSubscription(), receivedMessage.getAckId());
             queuedCallbacks.decrementAndGet();
+            queuedBytes.addAndGet(-bytes);
             // We can now pull more messages, according to the next pull policy.
             pullIfNeeded();
           }
@@ -188,37 +234,127 @@ final class MessageConsumerImpl implements MessageConsumer {
     this.pubsub = pubsubOptions.getService();
     this.deadlineRenewer = builder.deadlineRenewer;
     this.queuedCallbacks = new AtomicInteger();
-    this.consumerExecutor = SharedResourceHolder.get(CONSUMER_EXECUTOR);
+    this.queuedBytes = new AtomicLong();
+    this.consumerExecutor = acquireConsumerExecutor();
     this.executorFactory =
         builder.executorFactory != null ? builder.executorFactory : new DefaultExecutorFactory();
     this.executor = executorFactory.get();
     this.maxQueuedCallbacks = firstNonNull(builder.maxQueuedCallbacks, MAX_QUEUED_CALLBACKS);
-    this.consumerRunnable = new ConsumerRunnable();
+    this.maxConcurrentPulls = firstNonNull(builder.maxConcurrentPulls, MAX_CONCURRENT_PULLS);
+    // The budget of queued callbacks is split among concurrent pulls
+    this.maxMessagesPerPull = (maxQueuedCallbacks + maxConcurrentPulls - 1) / maxConcurrentPulls;
+    this.maxQueuedBytes = builder.maxQueuedBytes;
     int nextPullThreshold = builder.nextPullThreshold != null ? builder.nextPullThreshold
         : this.maxQueuedCallbacks / 2;
     this.pullPolicy = new DefaultNextPullPolicy(maxQueuedCallbacks, nextPullThreshold);
-    nextPull();
+    synchronized (futureLock) {
+      schedulePulls();
+    }
   }
 
-  private void pullIfNeeded() {
-    synchronized (futureLock) {
-      if (closed || scheduledFuture != null || !pullPolicy.shouldPull(queuedCallbacks.get())) {
+  private static ThreadPoolExecutor acquireConsumerExecutor() {
+    synchronized (CONSUMER_EXECUTOR) {
+      ThreadPoolExecutor consumerExecutor = SharedResourceHolder.get(CONSUMER_EXECUTOR);
+      resize(consumerExecutor, ++consumerCount);
+      return consumerExecutor;
+    }
+  }
+
+  private static void releaseConsumerExecutor(ThreadPoolExecutor consumerExecutor) {
+    synchronized (CONSUMER_EXECUTOR) {
+      consumerCount--;
+      if (consumerCount > 0) {
+        resize(consumerExecutor, consumerCount);
+      }
+      SharedResourceHolder.release(CONSUMER_EXECUTOR, consumerExecutor);
+    }
+  }
+
+  private static void resize(ThreadPoolExecutor consumerExecutor, int threads) {
+    // The core pool size can not exceed the maximum pool size
+    if (threads > consumerExecutor.getMaximumPoolSize()) {
+      consumerExecutor.setMaximumPoolSize(threads);
+      consumerExecutor.setCorePoolSize(threads);
+    } else {
+      consumerExecutor.setCorePoolSize(threads);
+      consumerExecutor.setMaximumPoolSize(threads);
+    }
+  }
+
+  /**
+   * Returns the average size of the messages pulled so far. Must be called holding
+   * {@code futureLock}.
+   */
+  private long estimatedMessageBytes() {
+    return pulledMessages > 0 ? Math.max(1, pulledBytes / pulledMessages) : DEFAULT_MESSAGE_BYTES;
+  }
+
+  /**
+   * Schedules pulls until {@code maxConcurrentPulls} are pending or until the messages requested
+   * by pending pulls would exceed the free queued callbacks or, given the estimated message size,
+   * the free queued bytes. Must be called holding {@code futureLock}.
+   */
+  private void schedulePulls() {
+    while (!closed && pendingPulls.size() < maxConcurrentPulls) {
+      int maxMessages = Math.min(maxMessagesPerPull,
+          maxQueuedCallbacks - queuedCallbacks.get() - requestedMessages);
+      long messageBytes = estimatedMessageBytes();
+      if (maxQueuedBytes != null) {
+        long freeBytes = maxQueuedBytes - queuedBytes.get() - requestedBytes;
+        if (queuedBytes.get() == 0 && pendingPulls.isEmpty()) {
+          // Messages larger than the maximum queued bytes are pulled one at a time
+          freeBytes = Math.max(freeBytes, messageBytes);
+        }
+        maxMessages = (int) Math.min(maxMessages, freeBytes / messageBytes);
+      }
+      if (maxMessages <= 0) {
         return;
       }
-      scheduledFuture = consumerExecutor.submit(consumerRunnable);
+      ConsumerRunnable consumerRunnable = new ConsumerRunnable(maxMessages,
+          maxMessages * messageBytes);
+      pendingPulls.add(consumerRunnable);
+      requestedMessages += maxMessages;
+      requestedBytes += consumerRunnable.estimatedBytes;
+      consumerRunnable.scheduledFuture = consumerExecutor.submit(consumerRunnable);
     }
   }
 
-  private void nextPull() {
+  private void pullIfNeeded() {
     synchronized (futureLock) {
-      if (closed || queuedCallbacks.get() == maxQueuedCallbacks) {
-        scheduledFuture = null;
+      if (closed || pendingPulls.size() >= maxConcurrentPulls
+          || !pullPolicy.shouldPull(queuedCallbacks.get() + requestedMessages)) {
         return;
       }
-      scheduledFuture = consumerExecutor.submit(consumerRunnable);
+      // Like queued callbacks, pulls resume once half of the maximum queued bytes are free
+      if (maxQueuedBytes != null
+          && maxQueuedBytes - queuedBytes.get() - requestedBytes < maxQueuedBytes / 2) {
+        return;
+      }
+      schedulePulls();
+    }
+  }
+
+  private void nextPull(ConsumerRunnable completedPull, int messages, long bytes) {
+    synchronized (futureLock) {
+      pendingPulls.remove(completedPull);
+      requestedMessages -= completedPull.maxMessages;
+      requestedBytes -= completedPull.estimatedBytes;
+      pulledMessages += messages;
+      pulledBytes += bytes;
+      schedulePulls();
     }
   }
 
+  @Override
+  public int getQueuedMessages() {
+    return queuedCallbacks.get();
+  }
+
+  @Override
+  public long getQueuedBytes() {
+    return queuedBytes.get();
+  }
+
   @Override
   public void close() {
     synchronized (futureLock) {
@@ -226,14 +362,14 @@ final class MessageConsumerImpl implements MessageConsumer {
         return;
       }
       closed = true;
-      if (scheduledFuture != null) {
-        scheduledFuture.cancel(true);
-      }
-      if (pullerFuture != null) {
-        pullerFuture.cancel(true);
+      for (ConsumerRunnable pendingPull : pendingPulls) {
+        pendingPull.scheduledFuture.cancel(true);
+        if (pendingPull.pullerFuture != null) {
+          pendingPull.pullerFuture.cancel(true);
+        }
       }
     }
-    SharedResourceHolder.release(CONSUMER_EXECUTOR, consumerExecutor);
+    releaseConsumerExecutor(consumerExecutor);
     executorFactory.release(executor);
   }
 
@@ -243,6 +379,8 @@ final class MessageConsumerImpl implements MessageConsumer {
     private final AckDeadlineRenewer deadlineRenewer;
     private final MessageProcessor messageProcessor;
     private Integer maxQueuedCallbacks;
+    private Integer maxConcurrentPulls;
+    private Long maxQueuedBytes;
     private ExecutorFactory<ExecutorService> executorFactory;
     private Integer nextPullThreshold;
 
@@ -262,6 +400,25 @@ final class MessageConsumerImpl implements MessageConsumer {
       return this;
     }
 
+    /**
+     * Sets the maximum number of pulls in flight at the same time. The messages requested by
+     * concurrent pulls never exceed the maximum number of queued callbacks.
+     */
+    Builder maxConcurrentPulls(Integer maxConcurrentPulls) {
+      this.maxConcurrentPulls = maxConcurrentPulls;
+      return this;
+    }
+
+    /**
+     * Sets the maximum total size, in bytes, of the queued messages. Pulls are sized from the
+     * remaining bytes and the average size of pulled messages, and pause while no bytes remain.
+     * If not set, only the number of queued messages is limited.
+     */
+    Builder maxQueuedBytes(Long maxQueuedBytes) {
+      this.maxQueuedBytes = maxQueuedBytes;
+      return this;
+    }
+
     /**
      * Sets the executor factory, used to manage the executor that will run message processor
      * callbacks message consumer.
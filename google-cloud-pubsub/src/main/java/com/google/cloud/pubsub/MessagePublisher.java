@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.pubsub;
+
+import com.google.cloud.Clock;
+import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
+import com.google.cloud.MetricsRecorder;
+import com.google.cloud.pubsub.spi.PubSubRpc;
+import com.google.cloud.pubsub.spi.v1.PublisherClient;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.pubsub.v1.PublishRequest;
+import com.google.pubsub.v1.PublishResponse;
+import com.google.pubsub.v1.PubsubMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class for a batching publisher. Messages added to a publisher (via
+ * {@link #publish(String, Message)}) are accumulated in a batch per topic and sent in a single
+ * request when the batch is full or its maximum delay elapsed, as configured by
+ * {@link PublishBatchingSettings}. The size of each sent batch is recorded with
+ * {@link MetricsRecorder#recordChunk(String, long, long)} as {@value #METRIC_NAME}.
+ */
+class MessagePublisher implements AutoCloseable {
+
+  static final String METRIC_NAME = "PubSub.publishBatch";
+
+  private final PubSubRpc rpc;
+  private final String projectId;
+  private final PublishBatchingSettings settings;
+  private final ScheduledExecutorService executor;
+  private final ExecutorFactory<ScheduledExecutorService> executorFactory;
+  private final Clock clock;
+  private final MetricsRecorder metricsRecorder;
+  // Not a monitor, see com.google.cloud.VirtualThreads
+  private final Lock lock = new ReentrantLock();
+  private final Condition bytesReleased = lock.newCondition();
+  private final Map<String, Batch> batches = new HashMap<>();
+  private long outstandingBytes;
+  private boolean closed;
+
+  /**
+   * The messages accumulated for a topic, and the futures of their callers.
+   */
+  private static final class Batch {
+
+    private final String topic;
+    private final List<PubsubMessage> messages = new ArrayList<>();
+    private final List<SettableFuture<String>> futures = new ArrayList<>();
+    private long bytes;
+    private Future<?> scheduledFlush;
+
+    Batch(String topic) {
+      this.topic = topic;
+    }
+  }
+
+  MessagePublisher(PubSubOptions options) {
+    this.rpc = options.getRpc();
+    this.projectId = options.getProjectId();
+    this.settings = options.getPublishBatchingSettings();
+    this.executorFactory = options.getExecutorFactory();
+    this.executor = executorFactory.get();
+    this.clock = options.getClock();
+    this.metricsRecorder = options.getMetricsRecorder();
+  }
+
+  /**
+   * Adds a message to the batch of {@code topic}, blocking or failing if the maximum outstanding
+   * bytes are reached. Returns a future for the id of the message, set once its batch is sent.
+   */
+  ListenableFuture<String> publish(String topic, Message message) {
+    PubsubMessage messagePb = message.toPb();
+    long bytes = messagePb.getSerializedSize();
+    SettableFuture<String> future = SettableFuture.create();
+    List<Batch> toSend = new ArrayList<>(2);
+    lock.lock();
+    try {
+      if (!acquire(bytes, future)) {
+        return future;
+      }
+      Batch batch = batches.get(topic);
+      if (batch != null && batch.bytes + bytes > settings.getMaxBytes()) {
+        // The message does not fit, the current batch is sent as is
+        toSend.add(batches.remove(topic));
+        batch = null;
+      }
+      if (batch == null) {
+        batch = new Batch(topic);
+        batches.put(topic, batch);
+      }
+      batch.messages.add(messagePb);
+      batch.futures.add(future);
+      batch.bytes += bytes;
+      if (batch.messages.size() >= settings.getMaxMessages()
+          || batch.bytes >= settings.getMaxBytes()) {
+        toSend.add(batches.remove(topic));
+      } else if (batch.messages.size() == 1) {
+        scheduleFlush(batch);
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (Batch batch : toSend) {
+      send(batch);
+    }
+    return future;
+  }
+
+  /**
+   * Reserves {@code bytes} of the outstanding bytes, or fails {@code future}. Must be called with
+   * the lock held.
+   */
+  private boolean acquire(long bytes, SettableFuture<String> future) {
+    while (true) {
+      if (closed) {
+        future.setException(new RejectedExecutionException("The publisher is closed"));
+        return false;
+      }
+      // A message larger than the limit is let through once nothing else is outstanding
+      if (outstandingBytes == 0
+          || outstandingBytes + bytes <= settings.getMaxOutstandingBytes()) {
+        outstandingBytes += bytes;
+        return true;
+      }
+      if (!settings.isBlockOnOverflow()) {
+        future.setException(new RejectedExecutionException("Too many outstanding bytes ("
+            + outstandingBytes + ") to publish a message of " + bytes + " bytes"));
+        return false;
+      }
+      try {
+        bytesReleased.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        future.setException(ex);
+        return false;
+      }
+    }
+  }
+
+  private void release(long bytes) {
+    lock.lock();
+    try {
+      outstandingBytes -= bytes;
+      bytesReleased.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void scheduleFlush(final Batch batch) {
+    batch.scheduledFlush = executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        flush(batch);
+      }
+    }, settings.getMaxDelayMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void flush(Batch batch) {
+    lock.lock();
+    try {
+      // The batch may have been sent already, because it filled up
+      if (batches.get(batch.topic) != batch) {
+        return;
+      }
+      batches.remove(batch.topic);
+    } finally {
+      lock.unlock();
+    }
+    send(batch);
+  }
+
+  private void send(final Batch batch) {
+    if (batch.scheduledFlush != null) {
+      batch.scheduledFlush.cancel(false);
+    }
+    PublishRequest request = PublishRequest.newBuilder()
+        .setTopic(PublisherClient.formatTopicName(projectId, batch.topic))
+        .addAllMessages(batch.messages)
+        .build();
+    final long startMillis = clock.millis();
+    ListenableFuture<PublishResponse> response;
+    try {
+      response = JdkFutureAdapters.listenInPoolThread(rpc.publish(request), executor);
+    } catch (RuntimeException ex) {
+      response = Futures.immediateFailedFuture(ex);
+    }
+    Futures.addCallback(response, new FutureCallback<PublishResponse>() {
+      @Override
+      public void onSuccess(PublishResponse result) {
+        release(batch.bytes);
+        metricsRecorder.recordChunk(METRIC_NAME, batch.bytes, clock.millis() - startMillis);
+        List<String> messageIds = result.getMessageIdsList();
+        for (int i = 0; i < batch.futures.size(); i++) {
+          batch.futures.get(i).set(messageIds.get(i));
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable error) {
+        release(batch.bytes);
+        for (SettableFuture<String> future : batch.futures) {
+          future.setException(error);
+        }
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Sends all the batches being accumulated and waits for all sent batches to complete.
+   */
+  @Override
+  public void close() throws Exception {
+    List<Batch> toSend;
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      toSend = new ArrayList<>(batches.values());
+      batches.clear();
+    } finally {
+      lock.unlock();
+    }
+    for (Batch batch : toSend) {
+      send(batch);
+    }
+    lock.lock();
+    try {
+      while (outstandingBytes > 0) {
+        bytesReleased.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+    executorFactory.release(executor);
+  }
+}
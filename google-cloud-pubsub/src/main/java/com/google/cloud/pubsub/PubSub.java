@@ -16,6 +16,8 @@
 
 package com.google.cloud.pubsub;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.cloud.AsyncPage;
 import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
 import com.google.cloud.Page;
@@ -88,7 +90,9 @@ public interface PubSub extends AutoCloseable, Service<PubSubOptions> {
 
     enum OptionType implements Option.OptionType {
       EXECUTOR_FACTORY,
-      MAX_QUEUED_CALLBACKS;
+      MAX_QUEUED_CALLBACKS,
+      MAX_CONCURRENT_PULLS,
+      MAX_QUEUED_BYTES;
 
       @SuppressWarnings("unchecked")
       <T> T get(Map<Option.OptionType, ?> options) {
@@ -99,6 +103,10 @@ public interface PubSub extends AutoCloseable, Service<PubSubOptions> {
         return get(options);
       }
 
+      Long getLong(Map<Option.OptionType, ?> options) {
+        return get(options);
+      }
+
       ExecutorFactory<ExecutorService> getExecutorFactory(Map<Option.OptionType, ?> options) {
         return get(options);
       }
@@ -119,6 +127,30 @@ public interface PubSub extends AutoCloseable, Service<PubSubOptions> {
       return new PullOption(OptionType.MAX_QUEUED_CALLBACKS, maxQueuedCallbacks);
     }
 
+    /**
+     * Returns an option to specify the maximum total size, in bytes, of the messages that can be
+     * queued in the message consumer at any time (see {@link #maxQueuedCallbacks(int)}). The
+     * number of messages requested by each pull is estimated from the remaining bytes and the
+     * average size of the messages pulled so far, and pulls pause while no bytes remain. As message
+     * sizes are only estimated, the queued bytes may temporarily exceed this limit. If not
+     * provided, only the number of queued messages is limited.
+     */
+    public static PullOption maxQueuedBytes(long maxQueuedBytes) {
+      checkArgument(maxQueuedBytes > 0, "maxQueuedBytes must be > 0");
+      return new PullOption(OptionType.MAX_QUEUED_BYTES, maxQueuedBytes);
+    }
+
+    /**
+     * Returns an option to specify the maximum number of pull requests that the message consumer
+     * keeps in flight at any time. The number of messages requested by concurrent pulls is split so
+     * that their total never exceeds the number of messages that can be queued (see
+     * {@link #maxQueuedCallbacks(int)}). If not provided, at most one pull request is in flight.
+     */
+    public static PullOption maxConcurrentPulls(int maxConcurrentPulls) {
+      checkArgument(maxConcurrentPulls > 0, "maxConcurrentPulls must be > 0");
+      return new PullOption(OptionType.MAX_CONCURRENT_PULLS, maxConcurrentPulls);
+    }
+
     /**
      * Returns an option to specify the executor used to execute message processor callbacks. The
      * executor determines the number of messages that can be processed at the same time. If not
@@ -162,6 +194,18 @@ public interface PubSub extends AutoCloseable, Service<PubSubOptions> {
      */
     @Override
     void close() throws Exception;
+
+    /**
+     * Returns the number of messages that have been pulled and are waiting to be processed or
+     * being processed.
+     */
+    int getQueuedMessages();
+
+    /**
+     * Returns the total size, in bytes, of the messages that have been pulled and are waiting to
+     * be processed or being processed.
+     */
+    long getQueuedBytes();
   }
 
   /**
@@ -334,6 +378,9 @@ public interface PubSub extends AutoCloseable, Service<PubSubOptions> {
    * id for the published message. Service-generated ids are guaranteed to be unique within the
    * topic.
    *
+   * <p>If {@link PubSubOptions#getPublishBatchingSettings()} are set, the message is sent together
+   * with other messages published to the same topic, see {@link PublishBatchingSettings}.
+   *
    * <p>Example of asynchronously publishing one message to a topic.
    * <pre> {@code
    * String topicName = "my_topic_name";
@@ -880,6 +927,9 @@ public interface PubSub extends AutoCloseable, Service<PubSubOptions> {
    * {@link #pull(String, int)} and {@link #pullAsync(String, int)}. The method returns a
    * {@code Future} object that can be used to wait for the acknowledge operation to be completed.
    *
+   * <p>If {@link PubSubOptions#getAckBatchingSettings()} are set, the ack ids are sent together
+   * with other ack ids acknowledged for the same subscription, see {@link AckBatchingSettings}.
+   *
    * <p>Example of asynchronously acking a list of messages.
    * <pre> {@code
    * String subscriptionName = "my_subscription_name";
@@ -990,6 +1040,9 @@ public interface PubSub extends AutoCloseable, Service<PubSubOptions> {
    * The method returns a {@code Future} object that can be used to wait for the "nack" operation to
    * be completed.
    *
+   * <p>If {@link PubSubOptions#getAckBatchingSettings()} are set, the ack ids are sent together
+   * with other ack ids "nacked" for the same subscription, see {@link AckBatchingSettings}.
+   *
    * <p>Example of asynchronously nacking a list of messages.
    * <pre> {@code
    * String subscriptionName = "my_subscription_name";
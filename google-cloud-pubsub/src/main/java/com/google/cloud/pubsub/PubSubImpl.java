@@ -19,6 +19,8 @@ package com.google.cloud.pubsub;
 import static com.google.cloud.pubsub.PubSub.ListOption.OptionType.PAGE_SIZE;
 import static com.google.cloud.pubsub.PubSub.ListOption.OptionType.PAGE_TOKEN;
 import static com.google.cloud.pubsub.PubSub.PullOption.OptionType.EXECUTOR_FACTORY;
+import static com.google.cloud.pubsub.PubSub.PullOption.OptionType.MAX_CONCURRENT_PULLS;
+import static com.google.cloud.pubsub.PubSub.PullOption.OptionType.MAX_QUEUED_BYTES;
 import static com.google.cloud.pubsub.PubSub.PullOption.OptionType.MAX_QUEUED_CALLBACKS;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -74,12 +76,17 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
 
   private final PubSubRpc rpc;
   private final AckDeadlineRenewer ackDeadlineRenewer;
+  private final Object publisherLock = new Object();
+  private final Object ackBatcherLock = new Object();
+  private MessagePublisher publisher;
+  private AckBatcher ackBatcher;
   private boolean closed;
 
   private static final Function<Empty, Void> EMPTY_TO_VOID_FUNCTION = new Function<Empty, Void>() {
@@ -323,6 +330,10 @@ class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
 
   @Override
   public Future<String> publishAsync(String topic, Message message) {
+    MessagePublisher batchingPublisher = getPublisher();
+    if (batchingPublisher != null) {
+      return batchingPublisher.publish(topic, message);
+    }
     return transform(
         rpc.publish(publishRequest(getOptions(), topic, Collections.singletonList(message))),
         new Function<PublishResponse, String>() {
@@ -333,6 +344,24 @@ class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
         });
   }
 
+  /**
+   * Returns the publisher batching messages, created upon first use, or {@code null} if messages
+   * are not batched.
+   *
+   * @throws RejectedExecutionException if the service is closed
+   */
+  private MessagePublisher getPublisher() {
+    synchronized (publisherLock) {
+      if (closed) {
+        throw new RejectedExecutionException("The service is closed");
+      }
+      if (publisher == null && getOptions().getPublishBatchingSettings() != null) {
+        publisher = new MessagePublisher(getOptions());
+      }
+      return publisher;
+    }
+  }
+
   @Override
   public List<String> publish(String topic, Message message, Message... messages) {
     return publish(topic, Lists.asList(message, messages));
@@ -566,6 +595,8 @@ class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
     Map<Option.OptionType, ?> optionMap = optionMap(options);
     return MessageConsumerImpl.builder(getOptions(), subscription, ackDeadlineRenewer, callback)
         .maxQueuedCallbacks(MAX_QUEUED_CALLBACKS.getInteger(optionMap))
+        .maxConcurrentPulls(MAX_CONCURRENT_PULLS.getInteger(optionMap))
+        .maxQueuedBytes(MAX_QUEUED_BYTES.getLong(optionMap))
         .executorFactory(EXECUTOR_FACTORY.getExecutorFactory(optionMap))
         .build();
   }
@@ -587,6 +618,10 @@ class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
 
   @Override
   public Future<Void> ackAsync(String subscription, Iterable<String> ackIds) {
+    AckBatcher batcher = getAckBatcher();
+    if (batcher != null) {
+      return batcher.ack(subscription, ackIds);
+    }
     AcknowledgeRequest request = AcknowledgeRequest.newBuilder()
         .setSubscription(
             SubscriberClient.formatSubscriptionName(getOptions().getProjectId(), subscription))
@@ -595,6 +630,24 @@ class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
     return transform(rpc.acknowledge(request), EMPTY_TO_VOID_FUNCTION);
   }
 
+  /**
+   * Returns the batcher of acknowledgements and "nacks", created upon first use, or {@code null}
+   * if they are not batched.
+   *
+   * @throws RejectedExecutionException if the service is closed
+   */
+  private AckBatcher getAckBatcher() {
+    synchronized (ackBatcherLock) {
+      if (closed) {
+        throw new RejectedExecutionException("The service is closed");
+      }
+      if (ackBatcher == null && getOptions().getAckBatchingSettings() != null) {
+        ackBatcher = new AckBatcher(getOptions());
+      }
+      return ackBatcher;
+    }
+  }
+
   @Override
   public void nack(String subscription, String ackId, String... ackIds) {
     nack(subscription, Lists.asList(ackId, ackIds));
@@ -612,6 +665,10 @@ class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
 
   @Override
   public Future<Void> nackAsync(String subscription, Iterable<String> ackIds) {
+    AckBatcher batcher = getAckBatcher();
+    if (batcher != null) {
+      return batcher.modifyAckDeadline(subscription, 0, ackIds);
+    }
     return modifyAckDeadlineAsync(subscription, 0, TimeUnit.SECONDS, ackIds);
   }
 
@@ -760,6 +817,18 @@ class PubSubImpl extends BaseService<PubSubOptions> implements PubSub {
       return;
     }
     closed = true;
+    synchronized (publisherLock) {
+      if (publisher != null) {
+        // Sends the messages being batched before the rpc is closed
+        publisher.close();
+      }
+    }
+    synchronized (ackBatcherLock) {
+      if (ackBatcher != null) {
+        // Sends the ack ids being batched before the rpc is closed
+        ackBatcher.close();
+      }
+    }
     rpc.close();
     if (ackDeadlineRenewer != null) {
       ackDeadlineRenewer.close();
@@ -24,6 +24,7 @@ import com.google.cloud.pubsub.spi.v1.PublisherSettings;
 import com.google.common.collect.ImmutableSet;
 
 import java.io.IOException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -36,6 +37,9 @@ public class PubSubOptions extends GrpcServiceOptions<PubSub, PubSubRpc, PubSubO
   private static final String DEFAULT_HOST = PublisherSettings.getDefaultServiceAddress()
       + ':' + PublisherSettings.getDefaultServicePort();
 
+  private final PublishBatchingSettings publishBatchingSettings;
+  private final AckBatchingSettings ackBatchingSettings;
+
   public static class DefaultPubSubFactory implements PubSubFactory {
     private static final PubSubFactory INSTANCE = new DefaultPubSubFactory();
 
@@ -82,10 +86,41 @@ public class PubSubOptions extends GrpcServiceOptions<PubSub, PubSubRpc, PubSubO
   public static class Builder extends
       GrpcServiceOptions.Builder<PubSub, PubSubRpc, PubSubOptions, Builder> {
 
+    private PublishBatchingSettings publishBatchingSettings;
+    private AckBatchingSettings ackBatchingSettings;
+
     private Builder() {}
 
     private Builder(PubSubOptions options) {
       super(options);
+      publishBatchingSettings = options.publishBatchingSettings;
+      ackBatchingSettings = options.ackBatchingSettings;
+    }
+
+    /**
+     * Sets the settings used to batch messages published with
+     * {@link PubSub#publishAsync(String, Message)}. Batching is disabled by default, in which case
+     * each message is sent in a request of its own.
+     *
+     * @return the builder
+     */
+    public Builder setPublishBatchingSettings(PublishBatchingSettings publishBatchingSettings) {
+      this.publishBatchingSettings = publishBatchingSettings;
+      return this;
+    }
+
+    /**
+     * Sets the settings used to batch ack ids acknowledged with
+     * {@link PubSub#ackAsync(String, Iterable)} or "nacked" with
+     * {@link PubSub#nackAsync(String, Iterable)}, including those of messages processed by message
+     * consumers. Batching is disabled by default, in which case each call sends a request of its
+     * own.
+     *
+     * @return the builder
+     */
+    public Builder setAckBatchingSettings(AckBatchingSettings ackBatchingSettings) {
+      this.ackBatchingSettings = ackBatchingSettings;
+      return this;
     }
 
     @Override
@@ -96,6 +131,24 @@ public class PubSubOptions extends GrpcServiceOptions<PubSub, PubSubRpc, PubSubO
 
   protected PubSubOptions(Builder builder) {
     super(PubSubFactory.class, PubSubRpcFactory.class, builder);
+    publishBatchingSettings = builder.publishBatchingSettings;
+    ackBatchingSettings = builder.ackBatchingSettings;
+  }
+
+  /**
+   * Returns the settings used to batch published messages, or {@code null} if messages are not
+   * batched.
+   */
+  public PublishBatchingSettings getPublishBatchingSettings() {
+    return publishBatchingSettings;
+  }
+
+  /**
+   * Returns the settings used to batch acknowledgements and "nacks", or {@code null} if they are
+   * not batched.
+   */
+  public AckBatchingSettings getAckBatchingSettings() {
+    return ackBatchingSettings;
   }
 
   @Override
@@ -120,12 +173,18 @@ public class PubSubOptions extends GrpcServiceOptions<PubSub, PubSubRpc, PubSubO
 
   @Override
   public boolean equals(Object obj) {
-    return obj instanceof PubSubOptions && baseEquals((PubSubOptions) obj);
+    if (!(obj instanceof PubSubOptions)) {
+      return false;
+    }
+    PubSubOptions other = (PubSubOptions) obj;
+    return baseEquals(other)
+        && Objects.equals(publishBatchingSettings, other.publishBatchingSettings)
+        && Objects.equals(ackBatchingSettings, other.ackBatchingSettings);
   }
 
   @Override
   public int hashCode() {
-    return baseHashCode();
+    return Objects.hash(baseHashCode(), publishBatchingSettings, ackBatchingSettings);
   }
 
   @Override
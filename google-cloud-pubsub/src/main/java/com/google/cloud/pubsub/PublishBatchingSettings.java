@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.pubsub;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Settings for batching messages published with {@link PubSub#publishAsync(String, Message)}.
+ * Messages published to the same topic are accumulated in a batch that is sent in a single
+ * request once it holds {@link #getMaxMessages()} messages or {@link #getMaxBytes()} bytes, or
+ * {@link #getMaxDelayMillis()} after its first message was added, whichever comes first. Each
+ * caller still receives a future for the id of its own message.
+ *
+ * <p>The bytes of messages that are being batched or sent are limited to
+ * {@link #getMaxOutstandingBytes()}. When the limit is reached publishing either blocks until
+ * enough outstanding messages are sent or, if {@link #isBlockOnOverflow()} is {@code false}, fails
+ * with a {@link java.util.concurrent.RejectedExecutionException}.
+ *
+ * <p>Batching is enabled by setting the settings on the service options, with
+ * {@link PubSubOptions.Builder#setPublishBatchingSettings(PublishBatchingSettings)}. Messages
+ * published with the other {@code publish} methods are sent in a request of their own.
+ */
+public final class PublishBatchingSettings implements Serializable {
+
+  private static final long serialVersionUID = -2853390432128562331L;
+
+  public static final int DEFAULT_MAX_MESSAGES = 100;
+  public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+  public static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+  public static final long DEFAULT_MAX_OUTSTANDING_BYTES = 64 * 1024 * 1024;
+
+  private static final PublishBatchingSettings DEFAULT_INSTANCE = newBuilder().build();
+
+  private final int maxMessages;
+  private final long maxBytes;
+  private final long maxDelayMillis;
+  private final long maxOutstandingBytes;
+  private final boolean blockOnOverflow;
+
+  /**
+   * Builder for {@code PublishBatchingSettings}.
+   */
+  public static final class Builder {
+
+    private int maxMessages = DEFAULT_MAX_MESSAGES;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private long maxOutstandingBytes = DEFAULT_MAX_OUTSTANDING_BYTES;
+    private boolean blockOnOverflow = true;
+
+    private Builder() {}
+
+    private Builder(PublishBatchingSettings settings) {
+      maxMessages = settings.maxMessages;
+      maxBytes = settings.maxBytes;
+      maxDelayMillis = settings.maxDelayMillis;
+      maxOutstandingBytes = settings.maxOutstandingBytes;
+      blockOnOverflow = settings.blockOnOverflow;
+    }
+
+    /**
+     * Sets the maximum number of messages in a batch.
+     */
+    public Builder setMaxMessages(int maxMessages) {
+      this.maxMessages = maxMessages;
+      return this;
+    }
+
+    /**
+     * Sets the maximum size, in bytes, of the messages in a batch. A message larger than this size
+     * is sent in a batch of its own.
+     */
+    public Builder setMaxBytes(long maxBytes) {
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    /**
+     * Sets the maximum time, in milliseconds, a message waits for its batch to fill up.
+     */
+    public Builder setMaxDelayMillis(long maxDelayMillis) {
+      this.maxDelayMillis = maxDelayMillis;
+      return this;
+    }
+
+    /**
+     * Sets the maximum size, in bytes, of the messages being batched or sent.
+     */
+    public Builder setMaxOutstandingBytes(long maxOutstandingBytes) {
+      this.maxOutstandingBytes = maxOutstandingBytes;
+      return this;
+    }
+
+    /**
+     * Sets whether publishing blocks, rather than fails, when the maximum outstanding bytes are
+     * reached. Publishing blocks by default.
+     */
+    public Builder setBlockOnOverflow(boolean blockOnOverflow) {
+      this.blockOnOverflow = blockOnOverflow;
+      return this;
+    }
+
+    /**
+     * Creates a {@code PublishBatchingSettings} object.
+     */
+    public PublishBatchingSettings build() {
+      return new PublishBatchingSettings(this);
+    }
+  }
+
+  private PublishBatchingSettings(Builder builder) {
+    checkArgument(builder.maxMessages > 0, "maxMessages must be > 0");
+    checkArgument(builder.maxBytes > 0, "maxBytes must be > 0");
+    checkArgument(builder.maxDelayMillis >= 0, "maxDelayMillis must be >= 0");
+    checkArgument(builder.maxOutstandingBytes >= builder.maxBytes,
+        "maxOutstandingBytes must be >= maxBytes");
+    maxMessages = builder.maxMessages;
+    maxBytes = builder.maxBytes;
+    maxDelayMillis = builder.maxDelayMillis;
+    maxOutstandingBytes = builder.maxOutstandingBytes;
+    blockOnOverflow = builder.blockOnOverflow;
+  }
+
+  /**
+   * Returns the default settings.
+   */
+  public static PublishBatchingSettings getDefaultInstance() {
+    return DEFAULT_INSTANCE;
+  }
+
+  /**
+   * Returns the maximum number of messages in a batch.
+   */
+  public int getMaxMessages() {
+    return maxMessages;
+  }
+
+  /**
+   * Returns the maximum size, in bytes, of the messages in a batch.
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Returns the maximum time, in milliseconds, a message waits for its batch to fill up.
+   */
+  public long getMaxDelayMillis() {
+    return maxDelayMillis;
+  }
+
+  /**
+   * Returns the maximum size, in bytes, of the messages being batched or sent.
+   */
+  public long getMaxOutstandingBytes() {
+    return maxOutstandingBytes;
+  }
+
+  /**
+   * Returns whether publishing blocks, rather than fails, when the maximum outstanding bytes are
+   * reached.
+   */
+  public boolean isBlockOnOverflow() {
+    return blockOnOverflow;
+  }
+
+  public Builder toBuilder() {
+    return new Builder(this);
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxMessages, maxBytes, maxDelayMillis, maxOutstandingBytes,
+        blockOnOverflow);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof PublishBatchingSettings)) {
+      return false;
+    }
+    PublishBatchingSettings other = (PublishBatchingSettings) obj;
+    return maxMessages == other.maxMessages
+        && maxBytes == other.maxBytes
+        && maxDelayMillis == other.maxDelayMillis
+        && maxOutstandingBytes == other.maxOutstandingBytes
+        && blockOnOverflow == other.blockOnOverflow;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("maxMessages", maxMessages)
+        .add("maxBytes", maxBytes)
+        .add("maxDelayMillis", maxDelayMillis)
+        .add("maxOutstandingBytes", maxOutstandingBytes)
+        .add("blockOnOverflow", blockOnOverflow)
+        .toString();
+  }
+}
@@ -108,6 +108,11 @@ public class DefaultPubSubRpc implements PubSubRpc {
     protected ChannelProvider getChannelProvider() {
       return super.getChannelProvider();
     }
+
+    @Override
+    protected ManagedChannel instrumentChannel(ManagedChannel channel) {
+      return super.instrumentChannel(channel);
+    }
   }
 
   private static final class PullFutureImpl
@@ -156,14 +161,16 @@ public class DefaultPubSubRpc implements PubSubRpc {
           .setChannelProvider(channelProvider)
           .setExecutorProvider(executorProvider)
           .build();
+      ChannelProvider instrumentedChannelProvider = FixedChannelProvider.create(
+          internalOptions.instrumentChannel(providerManager.getChannel()));
       UnaryCallSettings.Builder callSettingsBuilder = internalOptions.getApiCallSettings();
       PublisherSettings.Builder pubBuilder = PublisherSettings.defaultBuilder()
           .setExecutorProvider(providerManager)
-          .setChannelProvider(providerManager)
+          .setChannelProvider(instrumentedChannelProvider)
           .applyToAllUnaryMethods(callSettingsBuilder);
       SubscriberSettings.Builder subBuilder = SubscriberSettings.defaultBuilder()
           .setExecutorProvider(providerManager)
-          .setChannelProvider(providerManager)
+          .setChannelProvider(instrumentedChannelProvider)
           .applyToAllUnaryMethods(callSettingsBuilder);
       publisherClient = PublisherClient.create(pubBuilder.build());
       subscriberClient = SubscriberClient.create(subBuilder.build());
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.cloud.pubsub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
+import com.google.cloud.MetricsRecorder;
+import com.google.cloud.pubsub.spi.PubSubRpc;
+import com.google.cloud.pubsub.spi.PubSubRpcFactory;
+import com.google.cloud.pubsub.spi.v1.SubscriberClient;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.protobuf.Empty;
+import com.google.pubsub.v1.AcknowledgeRequest;
+import com.google.pubsub.v1.ModifyAckDeadlineRequest;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AckBatcherTest {
+
+  private static final String PROJECT = "projectId";
+  private static final String SUBSCRIPTION = "subscription";
+  private static final String ACK_ID1 = "ackId1";
+  private static final String ACK_ID2 = "ackId2";
+  private static final String ACK_ID3 = "ackId3";
+  private static final long MAX_DELAY_MILLIS = 100;
+  private static final long RETRY_DELAY_MILLIS = 50;
+
+  private final FakeClock clock = new FakeClock();
+  private FakeScheduledExecutorService executorService;
+  private PubSubRpcFactory rpcFactoryMock;
+  private PubSubRpc pubsubRpcMock;
+  private MetricsRecorder metricsRecorder = MetricsRecorder.NO_OP;
+  private AckBatcher batcher;
+
+  @Rule
+  public Timeout globalTimeout = Timeout.seconds(60);
+
+  @Before
+  public void setUp() {
+    executorService = new FakeScheduledExecutorService(4, clock);
+    rpcFactoryMock = EasyMock.createMock(PubSubRpcFactory.class);
+    pubsubRpcMock = EasyMock.createStrictMock(PubSubRpc.class);
+    EasyMock.expect(rpcFactoryMock.create(EasyMock.<PubSubOptions>anyObject()))
+        .andReturn(pubsubRpcMock);
+    EasyMock.replay(rpcFactoryMock);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    batcher.close();
+    EasyMock.verify(pubsubRpcMock);
+  }
+
+  private AckBatcher createBatcher(AckBatchingSettings settings) {
+    ExecutorFactory executorFactory = new ExecutorFactory() {
+      @Override
+      public ExecutorService get() {
+        return executorService;
+      }
+
+      @Override
+      public void release(ExecutorService executor) {
+        executorService.shutdown();
+      }
+    };
+    PubSubOptions options = PubSubOptions.newBuilder()
+        .setProjectId(PROJECT)
+        .setServiceRpcFactory(rpcFactoryMock)
+        .setExecutorFactory(executorFactory)
+        .setClock(clock)
+        .setMetricsRecorder(metricsRecorder)
+        .setAckBatchingSettings(settings)
+        .build();
+    return new AckBatcher(options);
+  }
+
+  private static AcknowledgeRequest ackRequest(String... ackIds) {
+    return AcknowledgeRequest.newBuilder()
+        .setSubscription(SubscriberClient.formatSubscriptionName(PROJECT, SUBSCRIPTION))
+        .addAllAckIds(ImmutableList.copyOf(ackIds))
+        .build();
+  }
+
+  private static ModifyAckDeadlineRequest modifyRequest(int deadlineSeconds, String... ackIds) {
+    return ModifyAckDeadlineRequest.newBuilder()
+        .setSubscription(SubscriberClient.formatSubscriptionName(PROJECT, SUBSCRIPTION))
+        .setAckDeadlineSeconds(deadlineSeconds)
+        .addAllAckIds(ImmutableList.copyOf(ackIds))
+        .build();
+  }
+
+  private static Future<Empty> response() {
+    return Futures.immediateFuture(Empty.getDefaultInstance());
+  }
+
+  @Test
+  public void testAckBatchOnMaxAckIds() throws Exception {
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID1, ACK_ID2))).andReturn(response());
+    EasyMock.replay(pubsubRpcMock);
+    batcher = createBatcher(AckBatchingSettings.newBuilder().setMaxAckIds(2).build());
+    Future<Void> future1 = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID1));
+    assertFalse(future1.isDone());
+    Future<Void> future2 = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID2));
+    assertNull(future1.get());
+    assertNull(future2.get());
+  }
+
+  @Test
+  public void testAckSplitAcrossBatches() throws Exception {
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID1, ACK_ID2))).andReturn(response());
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID3))).andReturn(response());
+    EasyMock.replay(pubsubRpcMock);
+    batcher = createBatcher(AckBatchingSettings.newBuilder()
+        .setMaxAckIds(2)
+        .setMaxDelayMillis(MAX_DELAY_MILLIS)
+        .build());
+    Future<Void> future = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID1, ACK_ID2, ACK_ID3));
+    assertFalse(future.isDone());
+    executorService.tick(MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    assertNull(future.get());
+  }
+
+  @Test
+  public void testBatchPerDeadlineOnMaxDelay() throws Exception {
+    EasyMock.expect(pubsubRpcMock.modify(modifyRequest(0, ACK_ID1))).andReturn(response());
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID2))).andReturn(response());
+    EasyMock.replay(pubsubRpcMock);
+    batcher = createBatcher(
+        AckBatchingSettings.newBuilder().setMaxDelayMillis(MAX_DELAY_MILLIS).build());
+    Future<Void> future1 = batcher.modifyAckDeadline(SUBSCRIPTION, 0, ImmutableList.of(ACK_ID1));
+    executorService.tick(MAX_DELAY_MILLIS / 2, TimeUnit.MILLISECONDS);
+    Future<Void> future2 = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID2));
+    assertFalse(future1.isDone());
+    executorService.tick(MAX_DELAY_MILLIS / 2, TimeUnit.MILLISECONDS);
+    assertNull(future1.get());
+    assertFalse(future2.isDone());
+    executorService.tick(MAX_DELAY_MILLIS / 2, TimeUnit.MILLISECONDS);
+    assertNull(future2.get());
+  }
+
+  @Test
+  public void testRetryOnRetryableError() throws Exception {
+    PubSubException exception = new PubSubException(new SocketTimeoutException(), true);
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID1)))
+        .andReturn(Futures.<Empty>immediateFailedFuture(exception));
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID1))).andReturn(response());
+    EasyMock.replay(pubsubRpcMock);
+    metricsRecorder = EasyMock.createStrictMock(MetricsRecorder.class);
+    metricsRecorder.recordAttempt(EasyMock.eq(AckBatcher.ACK_METRIC_NAME),
+        EasyMock.eq("SocketTimeoutException"), EasyMock.eq(1), EasyMock.eq(MAX_DELAY_MILLIS),
+        EasyMock.anyLong(), EasyMock.eq(MetricsRecorder.UNKNOWN_BYTES));
+    metricsRecorder.recordAttempt(EasyMock.eq(AckBatcher.ACK_METRIC_NAME),
+        EasyMock.eq(MetricsRecorder.OK), EasyMock.eq(2),
+        EasyMock.eq(MAX_DELAY_MILLIS + RETRY_DELAY_MILLIS), EasyMock.anyLong(),
+        EasyMock.eq(MetricsRecorder.UNKNOWN_BYTES));
+    EasyMock.replay(metricsRecorder);
+    batcher = createBatcher(AckBatchingSettings.newBuilder()
+        .setMaxDelayMillis(MAX_DELAY_MILLIS)
+        .setRetryDelayMillis(RETRY_DELAY_MILLIS)
+        .build());
+    Future<Void> future = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID1));
+    executorService.tick(MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    assertFalse(future.isDone());
+    executorService.tick(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    assertNull(future.get());
+    EasyMock.verify(metricsRecorder);
+  }
+
+  @Test
+  public void testRetryDelayIsCapped() {
+    assertEquals(RETRY_DELAY_MILLIS, AckBatcher.retryDelayMillis(RETRY_DELAY_MILLIS, 1));
+    assertEquals(4 * RETRY_DELAY_MILLIS, AckBatcher.retryDelayMillis(RETRY_DELAY_MILLIS, 3));
+    assertEquals(60_000, AckBatcher.retryDelayMillis(RETRY_DELAY_MILLIS, 100));
+    assertEquals(120_000, AckBatcher.retryDelayMillis(120_000, 100));
+  }
+
+  @Test
+  public void testFailureNotRetryable() throws Exception {
+    PubSubException exception = new PubSubException(new IOException("error"), false);
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID1, ACK_ID2)))
+        .andReturn(Futures.<Empty>immediateFailedFuture(exception));
+    EasyMock.replay(pubsubRpcMock);
+    batcher = createBatcher(AckBatchingSettings.newBuilder().setMaxAckIds(2).build());
+    Future<Void> future1 = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID1));
+    Future<Void> future2 = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID2));
+    for (Future<Void> future : ImmutableList.of(future1, future2)) {
+      try {
+        future.get();
+        fail("Expected ExecutionException");
+      } catch (ExecutionException ex) {
+        assertEquals(exception, ex.getCause());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseSendsBatches() throws Exception {
+    EasyMock.expect(pubsubRpcMock.acknowledge(ackRequest(ACK_ID1))).andReturn(response());
+    EasyMock.replay(pubsubRpcMock);
+    batcher = createBatcher(AckBatchingSettings.getDefaultInstance());
+    Future<Void> future = batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID1));
+    batcher.close();
+    assertNull(future.get());
+    try {
+      batcher.ack(SUBSCRIPTION, ImmutableList.of(ACK_ID2)).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof RejectedExecutionException);
+    }
+  }
+}
@@ -264,6 +264,25 @@ public class AckDeadlineRenewerTest {
     assertTrue(secondRenewalSub2.get() < (firstRenewalSub2.get() + MIN_DEADLINE_MILLIS));
   }
 
+  @Test
+  public void testDeadlineAdaptsToProcessingTime() {
+    EasyMock.reset(pubsub);
+    EasyMock.expect(pubsub.modifyAckDeadlineAsync(SUBSCRIPTION1, MIN_DEADLINE_MILLIS,
+        TimeUnit.MILLISECONDS, ImmutableList.of(ACK_ID1))).andReturn(null);
+    EasyMock.expect(pubsub.modifyAckDeadlineAsync(SUBSCRIPTION1, MIN_DEADLINE_MILLIS,
+        TimeUnit.MILLISECONDS, ImmutableList.of(ACK_ID1, ACK_ID2))).andReturn(null);
+    // ACK_ID1 was processed in 18 seconds, the deadline is extended to 19 seconds
+    EasyMock.expect(pubsub.modifyAckDeadlineAsync(SUBSCRIPTION1, 19_000, TimeUnit.MILLISECONDS,
+        ImmutableList.of(ACK_ID2))).andReturn(null);
+    EasyMock.replay(pubsub);
+    ackDeadlineRenewer.add(SUBSCRIPTION1, ACK_ID1);
+    executorService.tick(TIME_ADVANCE, TimeUnit.MILLISECONDS);
+    ackDeadlineRenewer.add(SUBSCRIPTION1, ACK_ID2);
+    executorService.tick(TIME_ADVANCE, TimeUnit.MILLISECONDS);
+    ackDeadlineRenewer.remove(SUBSCRIPTION1, ACK_ID1);
+    executorService.tick(TIME_ADVANCE, TimeUnit.MILLISECONDS);
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testClose() throws Exception {
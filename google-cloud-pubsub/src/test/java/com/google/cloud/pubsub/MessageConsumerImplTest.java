@@ -16,15 +16,20 @@
 
 package com.google.cloud.pubsub;
 
+import static org.junit.Assert.assertEquals;
+
 import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
 import com.google.cloud.pubsub.PubSub.MessageConsumer;
 import com.google.cloud.pubsub.PubSub.MessageProcessor;
 import com.google.cloud.pubsub.spi.PubSubRpc;
 import com.google.cloud.pubsub.spi.PubSubRpc.PullCallback;
 import com.google.cloud.pubsub.spi.PubSubRpc.PullFuture;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ForwardingListenableFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.pubsub.v1.PullRequest;
 import com.google.pubsub.v1.PullResponse;
 
@@ -36,6 +41,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -77,6 +85,7 @@ public class MessageConsumerImplTest {
     }
   };
   private static final PullResponse EMPTY_RESPONSE = PullResponse.getDefaultInstance();
+  private static final long MESSAGE_BYTES = MESSAGE1_PB.getMessage().getSerializedSize();
 
   private PubSubRpc pubsubRpc;
   private PubSub pubsub;
@@ -91,7 +100,11 @@ public class MessageConsumerImplTest {
       implements PullFuture {
 
     TestPullFuture(PullResponse response) {
-      super(Futures.immediateFuture(response));
+      this(Futures.immediateFuture(response));
+    }
+
+    TestPullFuture(ListenableFuture<PullResponse> delegate) {
+      super(delegate);
     }
 
     @Override
@@ -423,6 +436,132 @@ public class MessageConsumerImplTest {
     }
   }
 
+  @Test
+  public void testMessageConsumerConcurrentPulls() throws Exception {
+    PullRequest request = pullRequest(2);
+    EasyMock.expect(options.getRpc()).andReturn(pubsubRpc);
+    EasyMock.expect(options.getService()).andReturn(pubsub);
+    EasyMock.expect(options.getProjectId()).andReturn(PROJECT).anyTimes();
+    final CountDownLatch latch = new CountDownLatch(2);
+    // pulls never complete, the second pull is issued while the first one is in flight
+    EasyMock.expect(pubsubRpc.pull(request)).andAnswer(new IAnswer<PullFuture>() {
+      @Override
+      public PullFuture answer() throws Throwable {
+        latch.countDown();
+        return new TestPullFuture(SettableFuture.<PullResponse>create());
+      }
+    }).times(2);
+    EasyMock.replay(pubsubRpc, pubsub, options, renewer);
+    try (MessageConsumer consumer =
+        MessageConsumerImpl.builder(options, SUBSCRIPTION, renewer, DO_NOTHING_PROCESSOR)
+            .maxQueuedCallbacks(4)
+            .maxConcurrentPulls(2)
+            .build()) {
+      latch.await();
+    }
+  }
+
+  @Test
+  public void testMessageConsumerMaxQueuedBytes() throws Exception {
+    final String nextPull = "nextPull";
+    final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    EasyMock.expect(options.getRpc()).andReturn(pubsubRpc);
+    EasyMock.expect(options.getService()).andReturn(pubsub);
+    EasyMock.expect(options.getProjectId()).andReturn(PROJECT).anyTimes();
+    EasyMock.expect(pubsub.getOptions()).andReturn(options).times(2);
+    final CountDownLatch nextPullLatch = new CountDownLatch(1);
+    final CountDownLatch latch = new CountDownLatch(2);
+    EasyMock.expect(pubsub.ackAsync(SUBSCRIPTION, ACK_ID1)).andAnswer(new IAnswer<Future<Void>>() {
+      @Override
+      public Future<Void> answer() throws Throwable {
+        events.add(ACK_ID1);
+        return null;
+      }
+    });
+    EasyMock.expect(pubsub.ackAsync(SUBSCRIPTION, ACK_ID2)).andAnswer(new IAnswer<Future<Void>>() {
+      @Override
+      public Future<Void> answer() throws Throwable {
+        nextPullLatch.await();
+        return null;
+      }
+    });
+    EasyMock.replay(pubsub);
+    // The first pull returns more bytes than the maximum, pulling resumes once one is processed
+    EasyMock.expect(pubsubRpc.pull(pullRequest(1))).andReturn(new TestPullFuture(PULL_RESPONSE));
+    EasyMock.expect(pubsubRpc.pull(pullRequest(1))).andAnswer(new IAnswer<PullFuture>() {
+      @Override
+      public PullFuture answer() throws Throwable {
+        events.add(nextPull);
+        nextPullLatch.countDown();
+        return new TestPullFuture(EMPTY_RESPONSE);
+      }
+    });
+    EasyMock.expect(pubsubRpc.pull(EasyMock.<PullRequest>anyObject()))
+        .andReturn(new TestPullFuture(EMPTY_RESPONSE)).anyTimes();
+    renewer.add(SUBSCRIPTION, ACK_ID1);
+    EasyMock.expectLastCall();
+    renewer.add(SUBSCRIPTION, ACK_ID2);
+    EasyMock.expectLastCall();
+    renewer.remove(SUBSCRIPTION, ACK_ID1);
+    EasyMock.expectLastCall().andAnswer(createAnswer(latch));
+    renewer.remove(SUBSCRIPTION, ACK_ID2);
+    EasyMock.expectLastCall().andAnswer(createAnswer(latch));
+    EasyMock.replay(pubsubRpc, options, renewer);
+    try (MessageConsumer consumer =
+        MessageConsumerImpl.builder(options, SUBSCRIPTION, renewer, DO_NOTHING_PROCESSOR)
+            .maxQueuedCallbacks(MAX_QUEUED_CALLBACKS)
+            .maxQueuedBytes(2 * MESSAGE_BYTES)
+            .build()) {
+      latch.await();
+    }
+    assertEquals(ImmutableList.of(ACK_ID1, nextPull), events);
+  }
+
+  @Test
+  public void testMessageConsumerQueuedMessagesAndBytes() throws Exception {
+    PullRequest request = pullRequest(MAX_QUEUED_CALLBACKS);
+    EasyMock.expect(options.getRpc()).andReturn(pubsubRpc);
+    EasyMock.expect(options.getService()).andReturn(pubsub);
+    EasyMock.expect(options.getProjectId()).andReturn(PROJECT).anyTimes();
+    EasyMock.expect(pubsub.getOptions()).andReturn(options).times(2);
+    final CountDownLatch processingLatch = new CountDownLatch(1);
+    final CountDownLatch processLatch = new CountDownLatch(1);
+    final CountDownLatch latch = new CountDownLatch(2);
+    EasyMock.expect(pubsub.ackAsync(SUBSCRIPTION, ACK_ID1)).andReturn(null);
+    EasyMock.expect(pubsub.ackAsync(SUBSCRIPTION, ACK_ID2)).andReturn(null);
+    EasyMock.replay(pubsub);
+    EasyMock.expect(pubsubRpc.pull(request)).andReturn(new TestPullFuture(PULL_RESPONSE));
+    EasyMock.expect(pubsubRpc.pull(EasyMock.<PullRequest>anyObject()))
+        .andReturn(new TestPullFuture(EMPTY_RESPONSE)).anyTimes();
+    renewer.add(SUBSCRIPTION, ACK_ID1);
+    EasyMock.expectLastCall();
+    renewer.add(SUBSCRIPTION, ACK_ID2);
+    EasyMock.expectLastCall();
+    renewer.remove(SUBSCRIPTION, ACK_ID1);
+    EasyMock.expectLastCall().andAnswer(createAnswer(latch));
+    renewer.remove(SUBSCRIPTION, ACK_ID2);
+    EasyMock.expectLastCall().andAnswer(createAnswer(latch));
+    EasyMock.replay(pubsubRpc, options, renewer);
+    MessageProcessor processor = new MessageProcessor() {
+      @Override
+      public void process(Message message) throws Exception {
+        processingLatch.countDown();
+        processLatch.await();
+      }
+    };
+    try (MessageConsumer consumer =
+         MessageConsumerImpl.builder(options, SUBSCRIPTION, renewer, processor)
+             .maxQueuedCallbacks(MAX_QUEUED_CALLBACKS)
+             .build()) {
+      processingLatch.await();
+      // both pulled messages are counted until processed
+      assertEquals(2, consumer.getQueuedMessages());
+      assertEquals(2 * MESSAGE_BYTES, consumer.getQueuedBytes());
+      processLatch.countDown();
+      latch.await();
+    }
+  }
+
   @Test
   public void testClose() throws Exception {
     EasyMock.expect(options.getRpc()).andReturn(pubsubRpc);
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.pubsub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
+import com.google.cloud.pubsub.spi.PubSubRpc;
+import com.google.cloud.pubsub.spi.PubSubRpcFactory;
+import com.google.cloud.pubsub.spi.v1.PublisherClient;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.pubsub.v1.PublishRequest;
+import com.google.pubsub.v1.PublishResponse;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class MessagePublisherTest {
+
+  private static final String PROJECT = "projectId";
+  private static final String TOPIC1 = "topic1";
+  private static final String TOPIC2 = "topic2";
+  private static final Message MESSAGE1 = Message.of("payload1");
+  private static final Message MESSAGE2 = Message.of("payload2");
+  private static final long MESSAGE_BYTES = MESSAGE1.toPb().getSerializedSize();
+  private static final long MAX_DELAY_MILLIS = 100;
+
+  private final FakeClock clock = new FakeClock();
+  private FakeScheduledExecutorService executorService;
+  private PubSubRpcFactory rpcFactoryMock;
+  private PubSubRpc pubsubRpcMock;
+  private MessagePublisher publisher;
+
+  @Rule
+  public Timeout globalTimeout = Timeout.seconds(60);
+
+  @Before
+  public void setUp() {
+    executorService = new FakeScheduledExecutorService(4, clock);
+    rpcFactoryMock = EasyMock.createMock(PubSubRpcFactory.class);
+    pubsubRpcMock = EasyMock.createStrictMock(PubSubRpc.class);
+    EasyMock.expect(rpcFactoryMock.create(EasyMock.<PubSubOptions>anyObject()))
+        .andReturn(pubsubRpcMock);
+    EasyMock.replay(rpcFactoryMock);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    publisher.close();
+    EasyMock.verify(pubsubRpcMock);
+  }
+
+  private MessagePublisher createPublisher(PublishBatchingSettings settings) {
+    ExecutorFactory executorFactory = new ExecutorFactory() {
+      @Override
+      public ExecutorService get() {
+        return executorService;
+      }
+
+      @Override
+      public void release(ExecutorService executor) {
+        executorService.shutdown();
+      }
+    };
+    PubSubOptions options = PubSubOptions.newBuilder()
+        .setProjectId(PROJECT)
+        .setServiceRpcFactory(rpcFactoryMock)
+        .setExecutorFactory(executorFactory)
+        .setClock(clock)
+        .setPublishBatchingSettings(settings)
+        .build();
+    return new MessagePublisher(options);
+  }
+
+  private static PublishRequest request(String topic, Message... messages) {
+    PublishRequest.Builder builder = PublishRequest.newBuilder()
+        .setTopic(PublisherClient.formatTopicName(PROJECT, topic));
+    for (Message message : messages) {
+      builder.addMessages(message.toPb());
+    }
+    return builder.build();
+  }
+
+  private static Future<PublishResponse> response(String... messageIds) {
+    PublishResponse.Builder builder = PublishResponse.newBuilder();
+    for (String messageId : messageIds) {
+      builder.addMessageIds(messageId);
+    }
+    return Futures.immediateFuture(builder.build());
+  }
+
+  @Test
+  public void testPublishBatchOnMaxMessages() throws Exception {
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE1, MESSAGE2)))
+        .andReturn(response("id1", "id2"));
+    EasyMock.replay(pubsubRpcMock);
+    publisher = createPublisher(
+        PublishBatchingSettings.newBuilder().setMaxMessages(2).build());
+    Future<String> future1 = publisher.publish(TOPIC1, MESSAGE1);
+    assertFalse(future1.isDone());
+    Future<String> future2 = publisher.publish(TOPIC1, MESSAGE2);
+    assertEquals("id1", future1.get());
+    assertEquals("id2", future2.get());
+  }
+
+  @Test
+  public void testPublishBatchOnMaxBytes() throws Exception {
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE1)))
+        .andReturn(response("id1"));
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE2)))
+        .andReturn(response("id2"));
+    EasyMock.replay(pubsubRpcMock);
+    publisher = createPublisher(PublishBatchingSettings.newBuilder()
+        .setMaxBytes(MESSAGE_BYTES + 1)
+        .setMaxDelayMillis(MAX_DELAY_MILLIS)
+        .build());
+    Future<String> future1 = publisher.publish(TOPIC1, MESSAGE1);
+    // The second message does not fit, the first one is sent on its own
+    Future<String> future2 = publisher.publish(TOPIC1, MESSAGE2);
+    assertEquals("id1", future1.get());
+    assertFalse(future2.isDone());
+    executorService.tick(MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    assertEquals("id2", future2.get());
+  }
+
+  @Test
+  public void testPublishBatchOnMaxDelay() throws Exception {
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE1)))
+        .andReturn(response("id1"));
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC2, MESSAGE2)))
+        .andReturn(response("id2"));
+    EasyMock.replay(pubsubRpcMock);
+    publisher = createPublisher(
+        PublishBatchingSettings.newBuilder().setMaxDelayMillis(MAX_DELAY_MILLIS).build());
+    Future<String> future1 = publisher.publish(TOPIC1, MESSAGE1);
+    executorService.tick(MAX_DELAY_MILLIS / 2, TimeUnit.MILLISECONDS);
+    Future<String> future2 = publisher.publish(TOPIC2, MESSAGE2);
+    assertFalse(future1.isDone());
+    executorService.tick(MAX_DELAY_MILLIS / 2, TimeUnit.MILLISECONDS);
+    assertEquals("id1", future1.get());
+    assertFalse(future2.isDone());
+    executorService.tick(MAX_DELAY_MILLIS / 2, TimeUnit.MILLISECONDS);
+    assertEquals("id2", future2.get());
+  }
+
+  @Test
+  public void testPublishFailure() throws Exception {
+    SettableFuture<PublishResponse> response = SettableFuture.create();
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE1, MESSAGE2)))
+        .andReturn(response);
+    EasyMock.replay(pubsubRpcMock);
+    publisher = createPublisher(
+        PublishBatchingSettings.newBuilder().setMaxMessages(2).build());
+    Future<String> future1 = publisher.publish(TOPIC1, MESSAGE1);
+    Future<String> future2 = publisher.publish(TOPIC1, MESSAGE2);
+    PubSubException exception = new PubSubException(new IOException("error"), false);
+    response.setException(exception);
+    for (Future<String> future : ImmutableList.of(future1, future2)) {
+      try {
+        future.get();
+        fail("Expected ExecutionException");
+      } catch (ExecutionException ex) {
+        assertEquals(exception, ex.getCause());
+      }
+    }
+  }
+
+  @Test
+  public void testPublishOverflowFails() throws Exception {
+    SettableFuture<PublishResponse> response = SettableFuture.create();
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE1))).andReturn(response);
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE2)))
+        .andReturn(response("id2"));
+    EasyMock.replay(pubsubRpcMock);
+    publisher = createPublisher(PublishBatchingSettings.newBuilder()
+        .setMaxBytes(MESSAGE_BYTES)
+        .setMaxOutstandingBytes(MESSAGE_BYTES)
+        .setBlockOnOverflow(false)
+        .build());
+    Future<String> future1 = publisher.publish(TOPIC1, MESSAGE1);
+    try {
+      publisher.publish(TOPIC1, MESSAGE2).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof RejectedExecutionException);
+    }
+    response.set(PublishResponse.newBuilder().addMessageIds("id1").build());
+    assertEquals("id1", future1.get());
+    assertEquals("id2", publisher.publish(TOPIC1, MESSAGE2).get());
+  }
+
+  @Test
+  public void testCloseSendsBatches() throws Exception {
+    EasyMock.expect(pubsubRpcMock.publish(request(TOPIC1, MESSAGE1)))
+        .andReturn(response("id1"));
+    EasyMock.replay(pubsubRpcMock);
+    publisher = createPublisher(PublishBatchingSettings.getDefaultInstance());
+    Future<String> future = publisher.publish(TOPIC1, MESSAGE1);
+    publisher.close();
+    assertEquals("id1", future.get());
+    try {
+      publisher.publish(TOPIC1, MESSAGE2).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof RejectedExecutionException);
+    }
+  }
+}
@@ -85,6 +85,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 public class PubSubImplTest {
@@ -173,6 +174,8 @@ public class PubSubImplTest {
     EasyMock.expect(options.getProjectId()).andReturn(PROJECT).anyTimes();
     EasyMock.expect(options.getRpc()).andReturn(pubsubRpcMock).anyTimes();
     EasyMock.expect(options.getRetryParams()).andReturn(RetryParams.noRetries()).anyTimes();
+    EasyMock.expect(options.getPublishBatchingSettings()).andReturn(null).anyTimes();
+    EasyMock.expect(options.getAckBatchingSettings()).andReturn(null).anyTimes();
     EasyMock.replay(rpcFactoryMock, pubsubRpcMock, renewerMock, options);
     EasyMock.reset(pubsubRpcMock, renewerMock);
   }
@@ -1985,4 +1988,30 @@ public class PubSubImplTest {
     // closing again should do nothing
     pubsub.close();
   }
+
+  @Test
+  public void testPublishAsyncAfterClose() throws Exception {
+    pubsub = new PubSubImpl(options, renewerMock);
+    pubsubRpcMock.close();
+    EasyMock.expectLastCall();
+    renewerMock.close();
+    EasyMock.expectLastCall();
+    EasyMock.replay(pubsubRpcMock, renewerMock);
+    pubsub.close();
+    thrown.expect(RejectedExecutionException.class);
+    pubsub.publishAsync(TOPIC, MESSAGE);
+  }
+
+  @Test
+  public void testAckAsyncAfterClose() throws Exception {
+    pubsub = new PubSubImpl(options, renewerMock);
+    pubsubRpcMock.close();
+    EasyMock.expectLastCall();
+    renewerMock.close();
+    EasyMock.expectLastCall();
+    EasyMock.replay(pubsubRpcMock, renewerMock);
+    pubsub.close();
+    thrown.expect(RejectedExecutionException.class);
+    pubsub.ackAsync(SUBSCRIPTION, "ackId");
+  }
 }
@@ -31,6 +31,8 @@ public class PubSubTest {
   private static final int PAGE_SIZE = 42;
   private static final String PAGE_TOKEN = "page token";
   private static final int MAX_QUEUED_CALLBACKS = 42;
+  private static final int MAX_CONCURRENT_PULLS = 3;
+  private static final long MAX_QUEUED_BYTES = 1024L;
 
   @Test
   public void testListOption() {
@@ -51,6 +53,14 @@ public class PubSubTest {
     PullOption pullOption = PullOption.maxQueuedCallbacks(MAX_QUEUED_CALLBACKS);
     assertEquals(MAX_QUEUED_CALLBACKS, pullOption.getValue());
     assertEquals(PullOption.OptionType.MAX_QUEUED_CALLBACKS, pullOption.getOptionType());
+    // max concurrent pulls
+    pullOption = PullOption.maxConcurrentPulls(MAX_CONCURRENT_PULLS);
+    assertEquals(MAX_CONCURRENT_PULLS, pullOption.getValue());
+    assertEquals(PullOption.OptionType.MAX_CONCURRENT_PULLS, pullOption.getOptionType());
+    // max queued bytes
+    pullOption = PullOption.maxQueuedBytes(MAX_QUEUED_BYTES);
+    assertEquals(MAX_QUEUED_BYTES, pullOption.getValue());
+    assertEquals(PullOption.OptionType.MAX_QUEUED_BYTES, pullOption.getOptionType());
     ExecutorFactory executorFactory = EasyMock.createStrictMock(ExecutorFactory.class);
     pullOption = PullOption.executorFactory(executorFactory);
     assertSame(executorFactory, pullOption.getValue());
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.resourcemanager;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link ResourceManager} service that can also get and delete projects without blocking the
+ * caller. The service returned by {@link ResourceManagerOptions#getService()} implements this
+ * interface.
+ */
+public interface AsyncResourceManager extends ResourceManager {
+
+  /**
+   * Sends a request marking the project for deletion without blocking the caller. The request and
+   * its retries run on a shared executor.
+   *
+   * @return a future that fails with a {@link ResourceManagerException} upon failure
+   */
+  ListenableFuture<Void> deleteAsync(String projectId);
+
+  /**
+   * Sends a request for the project identified by the specified project ID without blocking the
+   * caller. The request and its retries run on a shared executor.
+   *
+   * @return a future that yields the project, or {@code null} if it was not found or the user
+   *     doesn't have read permissions, and fails with a {@link ResourceManagerException} upon
+   *     failure
+   */
+  ListenableFuture<Project> getAsync(String projectId, ProjectGetOption... options);
+}
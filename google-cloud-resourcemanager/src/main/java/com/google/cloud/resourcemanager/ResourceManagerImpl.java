@@ -17,6 +17,7 @@
 package com.google.cloud.resourcemanager;
 
 import static com.google.cloud.RetryHelper.runWithRetries;
+import static com.google.cloud.RetryHelper.runWithRetriesAsync;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.cloud.BaseService;
@@ -32,13 +33,24 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
 final class ResourceManagerImpl
-    extends BaseService<ResourceManagerOptions> implements ResourceManager {
+    extends BaseService<ResourceManagerOptions> implements AsyncResourceManager {
+
+  private static final Function<RetryHelperException, RuntimeException> EXCEPTION_TRANSLATOR =
+      new Function<RetryHelperException, RuntimeException>() {
+        @Override
+        public RuntimeException apply(RetryHelperException exception) {
+          return ResourceManagerException.translateAndThrow(exception);
+        }
+      };
 
   private final ResourceManagerRpc resourceManagerRpc;
 
@@ -77,23 +89,64 @@ final class ResourceManagerImpl
     }
   }
 
+  @Override
+  public ListenableFuture<Void> deleteAsync(final String projectId) {
+    return translateFailure(runWithRetriesAsync(new Callable<Void>() {
+      @Override
+      public Void call() {
+        resourceManagerRpc.delete(projectId);
+        return null;
+      }
+    }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+        getOptions().getClock()), EXCEPTION_TRANSLATOR);
+  }
+
   @Override
   public Project get(final String projectId, ProjectGetOption... options) {
     final Map<ResourceManagerRpc.Option, ?> optionsMap = optionMap(options);
     try {
-      com.google.api.services.cloudresourcemanager.model.Project answer = runWithRetries(
+      com.google.api.services.cloudresourcemanager.model.Project answer = coalesceRead(
+          Arrays.asList("get", projectId, optionsMap),
           new Callable<com.google.api.services.cloudresourcemanager.model.Project>() {
             @Override
             public com.google.api.services.cloudresourcemanager.model.Project call() {
-              return resourceManagerRpc.get(projectId, optionsMap);
+              return runWithRetries(
+                  new Callable<com.google.api.services.cloudresourcemanager.model.Project>() {
+                    @Override
+                    public com.google.api.services.cloudresourcemanager.model.Project call() {
+                      return resourceManagerRpc.get(projectId, optionsMap);
+                    }
+                  }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
             }
-          }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
+          });
       return answer == null ? null : Project.fromPb(this, answer);
     } catch (RetryHelperException ex) {
       throw ResourceManagerException.translateAndThrow(ex);
     }
   }
 
+  @Override
+  public ListenableFuture<Project> getAsync(final String projectId,
+      ProjectGetOption... options) {
+    final Map<ResourceManagerRpc.Option, ?> optionsMap = optionMap(options);
+    ListenableFuture<com.google.api.services.cloudresourcemanager.model.Project> future =
+        runWithRetriesAsync(
+            new Callable<com.google.api.services.cloudresourcemanager.model.Project>() {
+              @Override
+              public com.google.api.services.cloudresourcemanager.model.Project call() {
+                return resourceManagerRpc.get(projectId, optionsMap);
+              }
+            }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(),
+            getAsyncExecutor(), getOptions().getClock());
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<com.google.api.services.cloudresourcemanager.model.Project, Project>() {
+          @Override
+          public Project apply(com.google.api.services.cloudresourcemanager.model.Project answer) {
+            return answer == null ? null : Project.fromPb(ResourceManagerImpl.this, answer);
+          }
+        });
+  }
+
   private static class ProjectPageFetcher implements NextPageFetcher<Project> {
 
     private static final long serialVersionUID = 2158209410430566961L;
@@ -50,6 +50,7 @@ import org.junit.rules.ExpectedException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class ResourceManagerImplTest {
 
@@ -159,6 +160,33 @@ public class ResourceManagerImplTest {
     assertNull(RESOURCE_MANAGER.get(COMPLETE_PROJECT.getProjectId()));
   }
 
+  @Test
+  public void testGetAsync() throws Exception {
+    AsyncResourceManager resourceManager = (AsyncResourceManager) RESOURCE_MANAGER;
+    RESOURCE_MANAGER.create(COMPLETE_PROJECT);
+    Project returnedProject = resourceManager.getAsync(COMPLETE_PROJECT.getProjectId()).get();
+    compareReadWriteFields(COMPLETE_PROJECT, returnedProject);
+    assertEquals(RESOURCE_MANAGER, returnedProject.getResourceManager());
+    RESOURCE_MANAGER_HELPER.removeProject(COMPLETE_PROJECT.getProjectId());
+    assertNull(resourceManager.getAsync(COMPLETE_PROJECT.getProjectId()).get());
+  }
+
+  @Test
+  public void testDeleteAsync() throws Exception {
+    AsyncResourceManager resourceManager = (AsyncResourceManager) RESOURCE_MANAGER;
+    RESOURCE_MANAGER.create(COMPLETE_PROJECT);
+    resourceManager.deleteAsync(COMPLETE_PROJECT.getProjectId()).get();
+    assertEquals(ProjectInfo.State.DELETE_REQUESTED,
+        RESOURCE_MANAGER.get(COMPLETE_PROJECT.getProjectId()).getState());
+    try {
+      resourceManager.deleteAsync("some-nonexistant-project-id").get();
+      fail("Should fail because the project doesn't exist.");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ResourceManagerException);
+      assertEquals(403, ((ResourceManagerException) e.getCause()).getCode());
+    }
+  }
+
   @Test
   public void testGetWithOptions() {
     Project originalProject = RESOURCE_MANAGER.create(COMPLETE_PROJECT);
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link Storage} service that can also get, delete and read blobs without blocking the caller.
+ * The service returned by {@link StorageOptions#getService()} implements this interface.
+ */
+public interface AsyncStorage extends Storage {
+
+  /**
+   * Sends a request for the requested blob without blocking the caller. The request and its
+   * retries run on a shared executor; the returned future yields {@code null} if the blob is not
+   * found.
+   *
+   * <p>Example of getting information on a blob asynchronously.
+   * <pre> {@code
+   * String bucketName = "my_unique_bucket";
+   * String blobName = "my_blob_name";
+   * ListenableFuture<Blob> future = storage.getAsync(BlobId.of(bucketName, blobName));
+   * // do other work
+   * Blob blob = future.get();
+   * }</pre>
+   *
+   * @return a future that fails with a {@link StorageException} upon failure
+   */
+  ListenableFuture<Blob> getAsync(BlobId blob, BlobGetOption... options);
+
+  /**
+   * Sends a delete request for the requested blob without blocking the caller. The request and its
+   * retries run on a shared executor.
+   *
+   * @return a future that yields {@code true} if the blob was deleted, {@code false} if it was not
+   *     found, and fails with a {@link StorageException} upon failure
+   */
+  ListenableFuture<Boolean> deleteAsync(BlobId blob, BlobSourceOption... options);
+
+  /**
+   * Reads all the bytes from a blob without blocking the caller. The request and its retries run
+   * on a shared executor.
+   *
+   * @return a future that yields the blob's content and fails with a {@link StorageException} upon
+   *     failure
+   */
+  ListenableFuture<byte[]> readAllBytesAsync(BlobId blob, BlobSourceOption... options);
+}
@@ -18,6 +18,7 @@ package com.google.cloud.storage;
 
 import static com.google.cloud.storage.Blob.BlobSourceOption.toGetOptions;
 import static com.google.cloud.storage.Blob.BlobSourceOption.toSourceOptions;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.api.services.storage.model.StorageObject;
@@ -29,6 +30,7 @@ import com.google.cloud.storage.Acl.Entity;
 import com.google.cloud.storage.Storage.BlobTargetOption;
 import com.google.cloud.storage.Storage.BlobWriteOption;
 import com.google.cloud.storage.Storage.CopyRequest;
+import com.google.cloud.storage.Storage.ParallelDownloadOption;
 import com.google.cloud.storage.Storage.SignUrlOption;
 import com.google.cloud.storage.spi.StorageRpc;
 import com.google.cloud.storage.spi.StorageRpc.Tuple;
@@ -38,6 +40,7 @@ import com.google.common.io.BaseEncoding;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.net.URL;
+import java.nio.file.Path;
 import java.security.Key;
 import java.util.Arrays;
 import java.util.List;
@@ -96,6 +99,8 @@ public class Blob extends BlobInfo {
           return Storage.BlobSourceOption.metagenerationNotMatch(blobInfo.getMetageneration());
         case CUSTOMER_SUPPLIED_KEY:
           return Storage.BlobSourceOption.decryptionKey((String) getValue());
+        case READ_AHEAD:
+          return Storage.BlobSourceOption.readAhead((Integer) getValue());
         default:
           throw new AssertionError("Unexpected enum value");
       }
@@ -167,6 +172,18 @@ public class Blob extends BlobInfo {
       return new BlobSourceOption(StorageRpc.Option.CUSTOMER_SUPPLIED_KEY, key);
     }
 
+    /**
+     * Returns an option to enable read-ahead on the channel returned by
+     * {@link Blob#reader(BlobSourceOption...)}. Up to {@code chunks} ranged requests are kept in
+     * flight in the background.
+     *
+     * @see Storage.BlobSourceOption#readAhead(int)
+     */
+    public static BlobSourceOption readAhead(int chunks) {
+      checkArgument(chunks > 0, "Read-ahead chunks must be > 0");
+      return new BlobSourceOption(StorageRpc.Option.READ_AHEAD, chunks);
+    }
+
     static Storage.BlobSourceOption[] toSourceOptions(BlobInfo blobInfo,
         BlobSourceOption... options) {
       Storage.BlobSourceOption[] convertedOptions = new Storage.BlobSourceOption[options.length];
@@ -645,6 +662,27 @@ public class Blob extends BlobInfo {
     return storage.reader(getBlobId(), toSourceOptions(this, options));
   }
 
+  /**
+   * Downloads this blob's content to a local file over several connections. If this blob has a
+   * generation, that generation is downloaded. A download that failed can be resumed by calling
+   * this method again with the same arguments.
+   *
+   * <p>Example of downloading the blob to a file.
+   * <pre> {@code
+   * blob.downloadTo(Paths.get("/path/to/file"));
+   * }</pre>
+   *
+   * @param path the file to write the blob's content to
+   * @param options parallel download options
+   * @return the downloaded blob
+   * @throws IOException upon failure writing the file
+   * @throws StorageException upon failure
+   * @see Storage#downloadTo(BlobId, Path, ParallelDownloadOption...)
+   */
+  public Blob downloadTo(Path path, ParallelDownloadOption... options) throws IOException {
+    return storage.downloadTo(getBlobId(), path, options);
+  }
+
   /**
    * Returns a {@code WriteChannel} object for writing to this blob. By default any md5 and
    * crc32c values in the current blob are ignored unless requested via the
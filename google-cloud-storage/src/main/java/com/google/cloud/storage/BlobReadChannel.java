@@ -22,20 +22,41 @@ import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.ReadChannel;
 import com.google.cloud.RestorableState;
 import com.google.cloud.RetryHelper;
+import com.google.cloud.storage.spi.DirectStorageRpc;
 import com.google.cloud.storage.spi.StorageRpc;
 import com.google.cloud.storage.spi.StorageRpc.Tuple;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Default implementation for ReadChannel.
+ *
+ * <p>Data is read straight into the caller's buffer when it can hold at least a chunk, otherwise a
+ * chunk is read into an internal buffer that is reused across reads. If the channel is created
+ * with {@link Storage.BlobSourceOption#readAhead(int)} chunks are fetched in the background, up to
+ * the requested number of chunks ahead of the reader, but not past the end of the blob once a read
+ * reported its size. Background reads run on the storage options' channel executor, see
+ * {@link StorageOptions#getChannelExecutor()}, so that a reader used from a task of the async
+ * executor never waits for reads queued behind it.
+ *
+ * <p>The CRC32C of the bytes returned to the reader is computed as they are read. If the whole blob
+ * is read sequentially from the start, the checksum is verified against the blob's stored crc32c
+ * when the end of the blob is reached.
  */
 class BlobReadChannel implements ReadChannel {
 
@@ -49,11 +70,35 @@ class BlobReadChannel implements ReadChannel {
   private boolean isOpen;
   private boolean endOfStream;
   private int chunkSize = DEFAULT_CHUNK_SIZE;
+  // CRC32C of the bytes returned so far, null if they are not the blob's first bytes in order
+  private Integer crc32c = 0;
+  private String expectedCrc32c;
 
   private final StorageRpc storageRpc;
   private final StorageObject storageObject;
-  private int bufferPos;
-  private byte[] buffer;
+  private ByteBuffer buffer;
+  private final Deque<ByteBuffer> spareBuffers = new ArrayDeque<>();
+
+  private final int readAhead;
+  private final Deque<PendingRead> pendingReads = new ArrayDeque<>();
+  private long readAheadPosition;
+  // Size of the blob as reported by the reads, -1 if no read reported it yet
+  private long blobSize = -1;
+  private boolean readDone;
+
+  /**
+   * A ranged read submitted ahead of the reader.
+   */
+  private static final class PendingRead {
+
+    private final ByteBuffer buffer;
+    private final Future<StorageObject> future;
+
+    PendingRead(ByteBuffer buffer, Future<StorageObject> future) {
+      this.buffer = buffer;
+      this.future = future;
+    }
+  }
 
   BlobReadChannel(StorageOptions serviceOptions, BlobId blob,
       Map<StorageRpc.Option, ?> requestOptions) {
@@ -63,6 +108,8 @@ class BlobReadChannel implements ReadChannel {
     isOpen = true;
     storageRpc = serviceOptions.getRpc();
     storageObject = blob.toPb();
+    Integer readAheadChunks = (Integer) requestOptions.get(StorageRpc.Option.READ_AHEAD);
+    readAhead = readAheadChunks != null ? readAheadChunks : 0;
   }
 
   @Override
@@ -73,7 +120,7 @@ class BlobReadChannel implements ReadChannel {
         .setEndOfStream(endOfStream)
         .setChunkSize(chunkSize);
     if (buffer != null) {
-      builder.setPosition(position + bufferPos);
+      builder.setPosition(position + buffer.position());
       builder.setEndOfStream(false);
     }
     return builder.build();
@@ -88,7 +135,9 @@ class BlobReadChannel implements ReadChannel {
   public void close() {
     if (isOpen) {
       buffer = null;
+      spareBuffers.clear();
       isOpen = false;
+      cancelReadAhead();
     }
   }
 
@@ -101,10 +150,19 @@ class BlobReadChannel implements ReadChannel {
   @Override
   public void seek(long position) throws IOException {
     validateOpen();
+    long readPosition = buffer != null ? this.position + buffer.position() : this.position;
+    if (position == 0) {
+      crc32c = 0;
+    } else if (position != readPosition) {
+      crc32c = null;
+    }
     this.position = position;
-    buffer = null;
-    bufferPos = 0;
+    if (buffer != null) {
+      releaseBuffer(buffer);
+      buffer = null;
+    }
     endOfStream = false;
+    cancelReadAhead();
   }
 
   @Override
@@ -123,46 +181,221 @@ class BlobReadChannel implements ReadChannel {
     validateOpen();
     if (buffer == null) {
       if (endOfStream) {
-        return -1;
+        return endOfBlob();
       }
-      final int toRead = Math.max(byteBuffer.remaining(), chunkSize);
-      try {
-        Tuple<String, byte[]> result = runWithRetries(new Callable<Tuple<String, byte[]>>() {
-          @Override
-          public Tuple<String, byte[]> call() {
-            return storageRpc.read(storageObject, requestOptions, position, toRead);
-          }
-        }, serviceOptions.getRetryParams(), StorageImpl.EXCEPTION_HANDLER,
-            serviceOptions.getClock());
-        if (result.y().length > 0 && lastEtag != null && !Objects.equals(result.x(), lastEtag)) {
-          StringBuilder messageBuilder = new StringBuilder();
-          messageBuilder.append("Blob ").append(blob).append(" was updated while reading");
-          throw new StorageException(0, messageBuilder.toString());
+      if (readAhead > 0) {
+        if (blobSize >= 0 && position >= blobSize) {
+          endOfStream = true;
+          return endOfBlob();
         }
-        lastEtag = result.x();
-        buffer = result.y();
-      } catch (RetryHelper.RetryHelperException e) {
-        throw StorageException.translateAndThrow(e);
+        PendingRead next = nextPendingRead();
+        StorageObject object = getPendingRead(next);
+        buffer = next.buffer;
+        buffer.flip();
+        checkEtag(object, buffer.limit());
+      } else if (byteBuffer.remaining() >= chunkSize) {
+        return readDirect(byteBuffer);
+      } else {
+        buffer = acquireBuffer(chunkSize);
+        StorageObject object = fetch(position, buffer);
+        buffer.flip();
+        checkEtag(object, buffer.limit());
       }
-      if (toRead > buffer.length) {
+      if (buffer.limit() < buffer.capacity()) {
         endOfStream = true;
-        if (buffer.length == 0) {
+        cancelReadAhead();
+        if (buffer.limit() == 0) {
+          releaseBuffer(buffer);
           buffer = null;
-          return -1;
+          return endOfBlob();
         }
       }
     }
-    int toWrite = Math.min(buffer.length - bufferPos, byteBuffer.remaining());
-    byteBuffer.put(buffer, bufferPos, toWrite);
-    bufferPos += toWrite;
-    if (bufferPos >= buffer.length) {
-      position += buffer.length;
+    int toWrite = Math.min(buffer.remaining(), byteBuffer.remaining());
+    ByteBuffer slice = buffer.duplicate();
+    slice.limit(buffer.position() + toWrite);
+    int start = byteBuffer.position();
+    byteBuffer.put(slice);
+    buffer.position(slice.position());
+    updateCrc32c(byteBuffer, start);
+    if (!buffer.hasRemaining()) {
+      position += buffer.limit();
+      releaseBuffer(buffer);
       buffer = null;
-      bufferPos = 0;
     }
     return toWrite;
   }
 
+  /**
+   * Reads straight into {@code byteBuffer}, which can hold at least a chunk.
+   */
+  private int readDirect(ByteBuffer byteBuffer) {
+    int start = byteBuffer.position();
+    int toRead = byteBuffer.remaining();
+    StorageObject object = fetch(position, byteBuffer);
+    int read = byteBuffer.position() - start;
+    try {
+      checkEtag(object, read);
+    } catch (StorageException ex) {
+      byteBuffer.position(start);
+      throw ex;
+    }
+    position += read;
+    updateCrc32c(byteBuffer, start);
+    if (read < toRead) {
+      endOfStream = true;
+      if (read == 0) {
+        return endOfBlob();
+      }
+    }
+    return read;
+  }
+
+  private void updateCrc32c(ByteBuffer byteBuffer, int start) {
+    if (crc32c != null) {
+      crc32c = Crc32c.update(crc32c, byteBuffer, start);
+    }
+  }
+
+  /**
+   * Verifies the CRC32C of the blob, if it was read sequentially from the start, and returns
+   * {@code -1}.
+   */
+  private int endOfBlob() {
+    if (crc32c != null && expectedCrc32c != null) {
+      String actualCrc32c = Crc32c.toBase64(crc32c);
+      crc32c = null;
+      if (!actualCrc32c.equals(expectedCrc32c)) {
+        StringBuilder messageBuilder = new StringBuilder();
+        messageBuilder.append("Blob ").append(blob).append(" failed crc32c validation: expected ")
+            .append(expectedCrc32c).append(", read ").append(actualCrc32c);
+        throw new StorageException(0, messageBuilder.toString());
+      }
+    }
+    return -1;
+  }
+
+  private void checkEtag(StorageObject object, int read) {
+    String etag = object != null ? object.getEtag() : null;
+    if (object != null && object.getCrc32c() != null) {
+      expectedCrc32c = object.getCrc32c();
+    }
+    if (object != null && object.getSize() != null) {
+      blobSize = object.getSize().longValue();
+    }
+    readDone = true;
+    if (read > 0 && lastEtag != null && !Objects.equals(etag, lastEtag)) {
+      cancelReadAhead();
+      StringBuilder messageBuilder = new StringBuilder();
+      messageBuilder.append("Blob ").append(blob).append(" was updated while reading");
+      throw new StorageException(0, messageBuilder.toString());
+    }
+    lastEtag = etag;
+  }
+
+  private StorageObject fetch(final long from, final ByteBuffer into) {
+    final int start = into.position();
+    long startMillis = serviceOptions.getClock().millis();
+    try {
+      StorageObject object = runWithRetries(new Callable<StorageObject>() {
+        @Override
+        public StorageObject call() {
+          // A failed attempt may have partially filled the buffer
+          into.position(start);
+          return read(from, into);
+        }
+      }, serviceOptions.getRetryParams(), StorageImpl.EXCEPTION_HANDLER,
+          serviceOptions.getClock());
+      serviceOptions.getMetricsRecorder().recordChunk("BlobReadChannel.read",
+          into.position() - start, serviceOptions.getClock().millis() - startMillis);
+      return object;
+    } catch (RetryHelper.RetryHelperException e) {
+      throw StorageException.translateAndThrow(e);
+    }
+  }
+
+  /**
+   * Reads the chunk at {@code from} into {@code into}. A {@link DirectStorageRpc} reads it in place
+   * and reports the blob's hashes. Other {@link StorageRpc} implementations return a copy, and only
+   * report the blob's etag.
+   */
+  private StorageObject read(long from, ByteBuffer into) {
+    if (storageRpc instanceof DirectStorageRpc) {
+      return ((DirectStorageRpc) storageRpc).read(storageObject, requestOptions, from, into);
+    }
+    Tuple<String, byte[]> result =
+        storageRpc.read(storageObject, requestOptions, from, into.remaining());
+    into.put(result.y());
+    return new StorageObject().setEtag(result.x());
+  }
+
+  private ByteBuffer acquireBuffer(int size) {
+    ByteBuffer spare = spareBuffers.poll();
+    if (spare != null && spare.capacity() == size) {
+      spare.clear();
+      return spare;
+    }
+    return ByteBuffer.allocate(size);
+  }
+
+  private void releaseBuffer(ByteBuffer released) {
+    if (spareBuffers.size() <= readAhead) {
+      spareBuffers.push(released);
+    }
+  }
+
+  /**
+   * Tops up the read-ahead queue and returns the read for the current position. Until a read
+   * completes only the current chunk is requested, as the blob may be smaller than the read-ahead
+   * window. Then chunks are requested up to the end of the blob, if a read reported its size.
+   */
+  private PendingRead nextPendingRead() {
+    if (pendingReads.isEmpty()) {
+      readAheadPosition = position;
+    }
+    int depth = readDone ? readAhead : 1;
+    while (pendingReads.isEmpty()
+        || pendingReads.size() < depth && (blobSize < 0 || readAheadPosition < blobSize)) {
+      final long from = readAheadPosition;
+      final ByteBuffer into = acquireBuffer(chunkSize);
+      Future<StorageObject> future =
+          serviceOptions.getChannelExecutor().submit(new Callable<StorageObject>() {
+            @Override
+            public StorageObject call() {
+              return fetch(from, into);
+            }
+          });
+      pendingReads.add(new PendingRead(into, future));
+      readAheadPosition += chunkSize;
+    }
+    return pendingReads.poll();
+  }
+
+  private StorageObject getPendingRead(PendingRead pendingRead) throws IOException {
+    try {
+      return pendingRead.future.get();
+    } catch (InterruptedException e) {
+      cancelReadAhead();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for blob " + blob);
+    } catch (ExecutionException e) {
+      cancelReadAhead();
+      Throwables.propagateIfPossible(e.getCause());
+      throw new StorageException(0, "Failed to read blob " + blob, e.getCause());
+    }
+  }
+
+  /**
+   * Cancels all reads submitted ahead of the reader. Their buffers are dropped rather than reused,
+   * as a cancelled read may still be writing to them.
+   */
+  private void cancelReadAhead() {
+    for (PendingRead pendingRead : pendingReads) {
+      pendingRead.future.cancel(true);
+    }
+    pendingReads.clear();
+  }
+
   static class StateImpl implements RestorableState<ReadChannel>, Serializable {
 
     private static final long serialVersionUID = 3889420316004453706L;
@@ -238,11 +471,41 @@ class BlobReadChannel implements ReadChannel {
       return new Builder(options, blob, reqOptions);
     }
 
+    /**
+     * Writes the state in the format of {@link Checkpoints}.
+     */
+    void writeTo(DataOutput out) throws IOException {
+      Checkpoints.writeOptionsKey(out, serviceOptions);
+      Checkpoints.writeBlobId(out, blob);
+      Checkpoints.writeRequestOptions(out, requestOptions);
+      Checkpoints.writeString(out, lastEtag);
+      out.writeLong(position);
+      out.writeBoolean(isOpen);
+      out.writeBoolean(endOfStream);
+      out.writeInt(chunkSize);
+    }
+
+    static RestorableState<ReadChannel> readFrom(StorageOptions options, DataInput in)
+        throws IOException {
+      Checkpoints.readOptionsKey(in, options);
+      BlobId blob = Checkpoints.readBlobId(in);
+      return builder(options, blob, Checkpoints.readRequestOptions(in))
+          .setLastEtag(Checkpoints.readString(in))
+          .setPosition(in.readLong())
+          .setIsOpen(in.readBoolean())
+          .setEndOfStream(in.readBoolean())
+          .setChunkSize(in.readInt())
+          .build();
+    }
+
     @Override
     public ReadChannel restore() {
       BlobReadChannel channel = new BlobReadChannel(serviceOptions, blob, requestOptions);
       channel.lastEtag = lastEtag;
       channel.position = position;
+      if (position != 0) {
+        channel.crc32c = null;
+      }
       channel.isOpen = isOpen;
       channel.endOfStream = endOfStream;
       channel.chunkSize = chunkSize;
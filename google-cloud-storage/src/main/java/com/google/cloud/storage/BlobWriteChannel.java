@@ -17,22 +17,33 @@
 package com.google.cloud.storage;
 
 import static com.google.cloud.RetryHelper.runWithRetries;
-import static java.util.concurrent.Executors.callable;
 
+import com.google.api.client.util.Data;
+import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.BaseWriteChannel;
 import com.google.cloud.RestorableState;
 import com.google.cloud.RetryHelper;
 import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.spi.DirectStorageRpc;
 import com.google.cloud.storage.spi.StorageRpc;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
  * Write channel implementation to upload Google Cloud Storage blobs.
+ *
+ * <p>The CRC32C of the uploaded bytes is computed as chunks are sent and, when the upload
+ * completes, verified against the crc32c of the created blob.
  */
 class BlobWriteChannel extends BaseWriteChannel<StorageOptions, BlobInfo> {
 
+  // CRC32C of the bytes uploaded so far, null if unknown (e.g. restored from an older state)
+  private Integer crc32c = 0;
+
   BlobWriteChannel(StorageOptions options, BlobInfo blob, Map<StorageRpc.Option, ?> optionsMap) {
     this(options, blob, open(options, blob, optionsMap));
   }
@@ -42,21 +53,84 @@ class BlobWriteChannel extends BaseWriteChannel<StorageOptions, BlobInfo> {
   }
 
   @Override
-  protected void flushBuffer(final int length, final boolean last) {
+  protected void flushBuffer(int length, boolean last) {
+    flushBuffer(getBuffer(), getPosition(), length, last);
+  }
+
+  @Override
+  protected boolean isPipeliningSupported() {
+    return true;
+  }
+
+  @Override
+  protected void flushBuffer(final byte[] buffer, final long position, final int length,
+      final boolean last) {
+    Integer newCrc32c = crc32c != null ? Crc32c.update(crc32c, buffer, 0, length) : null;
+    long startMillis = getOptions().getClock().millis();
     try {
-      runWithRetries(callable(new Runnable() {
-        @Override
-        public void run() {
-          getOptions().getRpc().write(getUploadId(), getBuffer(), 0, getPosition(), length, last);
+      if (!last) {
+        runWithRetries(new Callable<Void>() {
+          @Override
+          public Void call() {
+            getOptions().getRpc().write(getUploadId(), buffer, 0, position, length, false);
+            return null;
+          }
+        }, getOptions().getRetryParams(), StorageImpl.EXCEPTION_HANDLER, getOptions().getClock());
+      } else {
+        StorageObject object;
+        try {
+          object = runWithRetries(new Callable<StorageObject>() {
+            @Override
+            public StorageObject call() {
+              return writeLast(buffer, position, length);
+            }
+          }, getOptions().getRetryParams(), StorageImpl.EXCEPTION_HANDLER,
+              getOptions().getClock());
+        } finally {
+          StorageImpl.invalidateCachedBlob(getOptions(), getEntity().getBucket(),
+              getEntity().getName());
         }
-      }), getOptions().getRetryParams(), StorageImpl.EXCEPTION_HANDLER, getOptions().getClock());
+        checkCrc32c(object, newCrc32c);
+      }
     } catch (RetryHelper.RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
     }
+    getOptions().getMetricsRecorder().recordChunk("BlobWriteChannel.write", length,
+        getOptions().getClock().millis() - startMillis);
+    crc32c = newCrc32c;
+  }
+
+  /**
+   * Completes the upload. A {@link DirectStorageRpc} returns the created object, whose crc32c is
+   * then checked. Other {@link StorageRpc} implementations return {@code null}.
+   */
+  private StorageObject writeLast(byte[] buffer, long position, int length) {
+    StorageRpc rpc = getOptions().getRpc();
+    if (rpc instanceof DirectStorageRpc) {
+      return ((DirectStorageRpc) rpc)
+          .writeWithResponse(getUploadId(), buffer, 0, position, length, true);
+    }
+    rpc.write(getUploadId(), buffer, 0, position, length, true);
+    return null;
+  }
+
+  private void checkCrc32c(StorageObject object, Integer uploadedCrc32c) {
+    if (object == null || object.getCrc32c() == null || Data.isNull(object.getCrc32c())
+        || uploadedCrc32c == null) {
+      return;
+    }
+    String expectedCrc32c = Crc32c.toBase64(uploadedCrc32c);
+    if (!expectedCrc32c.equals(object.getCrc32c())) {
+      StringBuilder messageBuilder = new StringBuilder();
+      messageBuilder.append("Blob ").append(getEntity().getBlobId())
+          .append(" failed crc32c validation: uploaded ").append(expectedCrc32c)
+          .append(", stored ").append(object.getCrc32c());
+      throw new StorageException(0, messageBuilder.toString());
+    }
   }
 
   protected StateImpl.Builder stateBuilder() {
-    return StateImpl.builder(getOptions(), getEntity(), getUploadId());
+    return StateImpl.builder(getOptions(), getEntity(), getUploadId()).setCrc32c(crc32c);
   }
 
   private static String open(final StorageOptions options, final BlobInfo blob,
@@ -77,16 +151,26 @@ class BlobWriteChannel extends BaseWriteChannel<StorageOptions, BlobInfo> {
 
     private static final long serialVersionUID = -9028324143780151286L;
 
+    private final Integer crc32c;
+
     StateImpl(Builder builder) {
       super(builder);
+      this.crc32c = builder.crc32c;
     }
 
     static class Builder extends BaseWriteChannel.BaseState.Builder<StorageOptions, BlobInfo> {
 
+      private Integer crc32c;
+
       private Builder(StorageOptions options, BlobInfo blobInfo, String uploadId) {
         super(options, blobInfo, uploadId);
       }
 
+      Builder setCrc32c(Integer crc32c) {
+        this.crc32c = crc32c;
+        return this;
+      }
+
       @Override
       public RestorableState<WriteChannel> build() {
         return new StateImpl(this);
@@ -101,7 +185,39 @@ class BlobWriteChannel extends BaseWriteChannel<StorageOptions, BlobInfo> {
     public WriteChannel restore() {
       BlobWriteChannel channel = new BlobWriteChannel(serviceOptions, entity, uploadId);
       channel.restore(this);
+      channel.crc32c = crc32c;
       return channel;
     }
+
+    /**
+     * Writes the state in the format of {@link Checkpoints}. Only the identity of the blob is
+     * written.
+     */
+    void writeTo(DataOutput out) throws IOException {
+      Checkpoints.writeOptionsKey(out, serviceOptions);
+      Checkpoints.writeBlobId(out, entity.getBlobId());
+      Checkpoints.writeString(out, uploadId);
+      out.writeLong(position);
+      out.writeBoolean(isOpen);
+      out.writeInt(chunkSize);
+      out.writeBoolean(crc32c != null);
+      if (crc32c != null) {
+        out.writeInt(crc32c);
+      }
+      Checkpoints.writeBytes(out, buffer);
+    }
+
+    static RestorableState<WriteChannel> readFrom(StorageOptions options, DataInput in)
+        throws IOException {
+      Checkpoints.readOptionsKey(in, options);
+      BlobInfo blobInfo = BlobInfo.newBuilder(Checkpoints.readBlobId(in)).build();
+      Builder builder = builder(options, blobInfo, Checkpoints.readString(in));
+      builder.setPosition(in.readLong());
+      builder.setIsOpen(in.readBoolean());
+      builder.setChunkSize(in.readInt());
+      builder.setCrc32c(in.readBoolean() ? in.readInt() : null);
+      builder.setBuffer(Checkpoints.readBytes(in));
+      return builder.build();
+    }
   }
 }
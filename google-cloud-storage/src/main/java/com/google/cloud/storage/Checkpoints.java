@@ -0,0 +1,303 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.services.storage.model.StorageObject;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.RestorableState;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.spi.StorageRpc;
+import com.google.common.collect.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact binary checkpoints of the state of write channels, read channels and copy writers.
+ *
+ * <p>Checkpoints are a cheaper alternative to Java serialization of {@link RestorableState}
+ * objects, suited to checkpointing long uploads, downloads and copies frequently. A checkpoint
+ * only holds what is needed to resume the operation: the service options are not written, only
+ * their project ID and host. The options are provided again when reading the checkpoint, and must
+ * refer to the same project and host. As a result a write channel restored from a checkpoint only
+ * knows the identity of the blob being written, not the rest of its information.
+ *
+ * <p>Example of checkpointing an upload and resuming it from a checkpoint:
+ * <pre> {@code
+ * WriteChannel writer = storage.writer(blobInfo);
+ * writer.write(ByteBuffer.wrap(bytes));
+ * try (FileChannel checkpoint = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+ *   Checkpoints.write(writer.capture(), checkpoint);
+ * }
+ * // later, possibly in another process
+ * try (FileChannel checkpoint = FileChannel.open(path)) {
+ *   writer = Checkpoints.readWriteChannelState(storage.getOptions(), checkpoint).restore();
+ * }
+ * writer.write(ByteBuffer.wrap(moreBytes));
+ * writer.close();
+ * }</pre>
+ */
+public final class Checkpoints {
+
+  private static final int VERSION = 1;
+  private static final int WRITE_CHANNEL = 1;
+  private static final int READ_CHANNEL = 2;
+  private static final int COPY_WRITER = 3;
+
+  private static final int NULL_VALUE = 0;
+  private static final int STRING_VALUE = 1;
+  private static final int LONG_VALUE = 2;
+  private static final int INTEGER_VALUE = 3;
+  private static final int BOOLEAN_VALUE = 4;
+
+  private Checkpoints() {}
+
+  /**
+   * Writes a checkpoint of {@code state} to {@code channel}. The channel is not closed.
+   *
+   * @param state the state of a write channel, read channel or copy writer, as returned by their
+   *     {@code capture()} method
+   * @throws IllegalArgumentException if {@code state} was not captured from a write channel, read
+   *     channel or copy writer of this library
+   * @throws IOException upon failure writing to {@code channel}
+   */
+  public static void write(RestorableState<?> state, WritableByteChannel channel)
+      throws IOException {
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    out.writeByte(VERSION);
+    if (state instanceof BlobWriteChannel.StateImpl) {
+      out.writeByte(WRITE_CHANNEL);
+      ((BlobWriteChannel.StateImpl) state).writeTo(out);
+    } else if (state instanceof BlobReadChannel.StateImpl) {
+      out.writeByte(READ_CHANNEL);
+      ((BlobReadChannel.StateImpl) state).writeTo(out);
+    } else if (state instanceof CopyWriter.StateImpl) {
+      out.writeByte(COPY_WRITER);
+      ((CopyWriter.StateImpl) state).writeTo(out);
+    } else {
+      throw new IllegalArgumentException("Can not checkpoint state " + state);
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads the checkpoint of a write channel from {@code channel}.
+   *
+   * @param options the options of the service the checkpointed channel was created from
+   * @throws IllegalArgumentException if the checkpoint was taken with options for a different
+   *     project or host
+   * @throws IOException upon failure reading from {@code channel}, or if it does not contain the
+   *     checkpoint of a write channel
+   */
+  public static RestorableState<WriteChannel> readWriteChannelState(StorageOptions options,
+      ReadableByteChannel channel) throws IOException {
+    return BlobWriteChannel.StateImpl.readFrom(options, readHeader(channel, WRITE_CHANNEL));
+  }
+
+  /**
+   * Reads the checkpoint of a read channel from {@code channel}.
+   *
+   * @param options the options of the service the checkpointed channel was created from
+   * @throws IllegalArgumentException if the checkpoint was taken with options for a different
+   *     project or host
+   * @throws IOException upon failure reading from {@code channel}, or if it does not contain the
+   *     checkpoint of a read channel
+   */
+  public static RestorableState<ReadChannel> readReadChannelState(StorageOptions options,
+      ReadableByteChannel channel) throws IOException {
+    return BlobReadChannel.StateImpl.readFrom(options, readHeader(channel, READ_CHANNEL));
+  }
+
+  /**
+   * Reads the checkpoint of a copy writer from {@code channel}.
+   *
+   * @param options the options of the service the checkpointed copy writer was created from
+   * @throws IllegalArgumentException if the checkpoint was taken with options for a different
+   *     project or host
+   * @throws IOException upon failure reading from {@code channel}, or if it does not contain the
+   *     checkpoint of a copy writer
+   */
+  public static RestorableState<CopyWriter> readCopyWriterState(StorageOptions options,
+      ReadableByteChannel channel) throws IOException {
+    return CopyWriter.StateImpl.readFrom(options, readHeader(channel, COPY_WRITER));
+  }
+
+  private static DataInput readHeader(ReadableByteChannel channel, int kind) throws IOException {
+    // Not buffered, so that no byte past the checkpoint is consumed from the channel
+    DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+    int version = in.readUnsignedByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported checkpoint version " + version);
+    }
+    int actualKind = in.readUnsignedByte();
+    if (actualKind != kind) {
+      throw new IOException("Unexpected checkpoint kind " + actualKind + ", expected " + kind);
+    }
+    return in;
+  }
+
+  static void writeOptionsKey(DataOutput out, StorageOptions options) throws IOException {
+    writeString(out, options.getProjectId());
+    writeString(out, options.getHost());
+  }
+
+  static void readOptionsKey(DataInput in, StorageOptions options) throws IOException {
+    String projectId = readString(in);
+    String host = readString(in);
+    checkArgument(Objects.equals(projectId, options.getProjectId()),
+        "Checkpoint was taken for project %s, not %s", projectId, options.getProjectId());
+    checkArgument(Objects.equals(host, options.getHost()),
+        "Checkpoint was taken for host %s, not %s", host, options.getHost());
+  }
+
+  static void writeString(DataOutput out, String value) throws IOException {
+    writeBytes(out, value != null ? value.getBytes(UTF_8) : null);
+  }
+
+  static String readString(DataInput in) throws IOException {
+    byte[] bytes = readBytes(in);
+    return bytes != null ? new String(bytes, UTF_8) : null;
+  }
+
+  static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+    if (bytes == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  static byte[] readBytes(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  static void writeLong(DataOutput out, Long value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value);
+    }
+  }
+
+  static Long readLong(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readLong() : null;
+  }
+
+  static void writeBlobId(DataOutput out, BlobId blobId) throws IOException {
+    writeString(out, blobId.getBucket());
+    writeString(out, blobId.getName());
+    writeLong(out, blobId.getGeneration());
+  }
+
+  static BlobId readBlobId(DataInput in) throws IOException {
+    return BlobId.of(readString(in), readString(in), readLong(in));
+  }
+
+  static void writeBlobInfo(DataOutput out, BlobInfo blobInfo) throws IOException {
+    writeString(out,
+        blobInfo != null ? JacksonFactory.getDefaultInstance().toString(blobInfo.toPb()) : null);
+  }
+
+  static BlobInfo readBlobInfo(DataInput in) throws IOException {
+    String json = readString(in);
+    return json != null
+        ? BlobInfo.fromPb(JacksonFactory.getDefaultInstance().fromString(json, StorageObject.class))
+        : null;
+  }
+
+  static void writeRequestOptions(DataOutput out, Map<StorageRpc.Option, ?> options)
+      throws IOException {
+    out.writeInt(options.size());
+    for (Map.Entry<StorageRpc.Option, ?> entry : options.entrySet()) {
+      // Options are written by name, so that checkpoints survive reordering the enum
+      writeString(out, entry.getKey().name());
+      Object value = entry.getValue();
+      if (value == null) {
+        out.writeByte(NULL_VALUE);
+      } else if (value instanceof String) {
+        out.writeByte(STRING_VALUE);
+        writeString(out, (String) value);
+      } else if (value instanceof Long) {
+        out.writeByte(LONG_VALUE);
+        out.writeLong((Long) value);
+      } else if (value instanceof Integer) {
+        out.writeByte(INTEGER_VALUE);
+        out.writeInt((Integer) value);
+      } else if (value instanceof Boolean) {
+        out.writeByte(BOOLEAN_VALUE);
+        out.writeBoolean((Boolean) value);
+      } else {
+        throw new IllegalArgumentException(
+            "Can not checkpoint value " + value + " of option " + entry.getKey());
+      }
+    }
+  }
+
+  static Map<StorageRpc.Option, ?> readRequestOptions(DataInput in) throws IOException {
+    Map<StorageRpc.Option, Object> options = Maps.newEnumMap(StorageRpc.Option.class);
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      StorageRpc.Option option;
+      try {
+        option = StorageRpc.Option.valueOf(readString(in));
+      } catch (IllegalArgumentException ex) {
+        throw new IOException("Unknown option in checkpoint", ex);
+      }
+      int type = in.readUnsignedByte();
+      switch (type) {
+        case NULL_VALUE:
+          options.put(option, null);
+          break;
+        case STRING_VALUE:
+          options.put(option, readString(in));
+          break;
+        case LONG_VALUE:
+          options.put(option, in.readLong());
+          break;
+        case INTEGER_VALUE:
+          options.put(option, in.readInt());
+          break;
+        case BOOLEAN_VALUE:
+          options.put(option, in.readBoolean());
+          break;
+        default:
+          throw new IOException("Unknown value type " + type + " of option " + option);
+      }
+    }
+    return options;
+  }
+}
@@ -26,6 +26,9 @@ import com.google.cloud.storage.spi.StorageRpc.RewriteRequest;
 import com.google.cloud.storage.spi.StorageRpc.RewriteResponse;
 import com.google.common.base.MoreObjects;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Map;
 import java.util.Objects;
@@ -151,6 +154,10 @@ public class CopyWriter implements Restorable<CopyWriter> {
             serviceOptions.getClock());
       } catch (RetryHelper.RetryHelperException e) {
         throw StorageException.translateAndThrow(e);
+      } finally {
+        StorageImpl.invalidateCachedBlob(serviceOptions,
+            rewriteResponse.rewriteRequest.target.getBucket(),
+            rewriteResponse.rewriteRequest.target.getName());
       }
     }
   }
@@ -272,6 +279,42 @@ public class CopyWriter implements Restorable<CopyWriter> {
       return new Builder(options, source, sourceOptions, overrideInfo, target, targetOptions);
     }
 
+    /**
+     * Writes the state in the format of {@link Checkpoints}.
+     */
+    void writeTo(DataOutput out) throws IOException {
+      Checkpoints.writeOptionsKey(out, serviceOptions);
+      Checkpoints.writeBlobId(out, source);
+      Checkpoints.writeRequestOptions(out, sourceOptions);
+      out.writeBoolean(overrideInfo);
+      Checkpoints.writeBlobInfo(out, target);
+      Checkpoints.writeRequestOptions(out, targetOptions);
+      Checkpoints.writeBlobInfo(out, result);
+      out.writeLong(blobSize);
+      out.writeBoolean(isDone);
+      Checkpoints.writeString(out, rewriteToken);
+      out.writeLong(totalBytesCopied);
+      Checkpoints.writeLong(out, megabytesCopiedPerChunk);
+    }
+
+    static RestorableState<CopyWriter> readFrom(StorageOptions options, DataInput in)
+        throws IOException {
+      Checkpoints.readOptionsKey(in, options);
+      BlobId source = Checkpoints.readBlobId(in);
+      Map<StorageRpc.Option, ?> sourceOptions = Checkpoints.readRequestOptions(in);
+      boolean overrideInfo = in.readBoolean();
+      BlobInfo target = Checkpoints.readBlobInfo(in);
+      Map<StorageRpc.Option, ?> targetOptions = Checkpoints.readRequestOptions(in);
+      return newBuilder(options, source, sourceOptions, overrideInfo, target, targetOptions)
+          .setResult(Checkpoints.readBlobInfo(in))
+          .setBlobSize(in.readLong())
+          .setIsDone(in.readBoolean())
+          .setRewriteToken(Checkpoints.readString(in))
+          .setTotalBytesRewritten(in.readLong())
+          .setMegabytesCopiedPerChunk(Checkpoints.readLong(in))
+          .build();
+    }
+
     @Override
     public CopyWriter restore() {
       RewriteRequest rewriteRequest = new RewriteRequest(source.toPb(), sourceOptions,
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental CRC32C (Castagnoli) computation. Values are plain {@code int}s, so that a partial
+ * checksum can be carried across chunks and saved with a channel's state. Eight bytes are processed
+ * at a time using the slicing-by-8 algorithm.
+ */
+final class Crc32c {
+
+  private static final int POLYNOMIAL = 0x82F63B78;
+  private static final int[][] TABLES = new int[8][256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      int crc = i;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+      }
+      TABLES[0][i] = crc;
+    }
+    for (int i = 0; i < 256; i++) {
+      for (int table = 1; table < 8; table++) {
+        int previous = TABLES[table - 1][i];
+        TABLES[table][i] = (previous >>> 8) ^ TABLES[0][previous & 0xFF];
+      }
+    }
+  }
+
+  private Crc32c() {}
+
+  /**
+   * Returns the CRC32C of the data hashed into {@code crc32c} followed by {@code length} bytes of
+   * {@code bytes} starting at {@code offset}. The CRC32C of no data is 0.
+   */
+  static int update(int crc32c, byte[] bytes, int offset, int length) {
+    int[] t0 = TABLES[0];
+    int[] t1 = TABLES[1];
+    int[] t2 = TABLES[2];
+    int[] t3 = TABLES[3];
+    int[] t4 = TABLES[4];
+    int[] t5 = TABLES[5];
+    int[] t6 = TABLES[6];
+    int[] t7 = TABLES[7];
+    int crc = ~crc32c;
+    int index = offset;
+    int end = offset + length;
+    for (; end - index >= 8; index += 8) {
+      crc ^= (bytes[index] & 0xFF)
+          | (bytes[index + 1] & 0xFF) << 8
+          | (bytes[index + 2] & 0xFF) << 16
+          | (bytes[index + 3] & 0xFF) << 24;
+      crc = t7[crc & 0xFF]
+          ^ t6[(crc >>> 8) & 0xFF]
+          ^ t5[(crc >>> 16) & 0xFF]
+          ^ t4[crc >>> 24]
+          ^ t3[bytes[index + 4] & 0xFF]
+          ^ t2[bytes[index + 5] & 0xFF]
+          ^ t1[bytes[index + 6] & 0xFF]
+          ^ t0[bytes[index + 7] & 0xFF];
+    }
+    for (; index < end; index++) {
+      crc = (crc >>> 8) ^ t0[(crc ^ bytes[index]) & 0xFF];
+    }
+    return ~crc;
+  }
+
+  /**
+   * Returns the CRC32C of the data hashed into {@code crc32c} followed by the bytes of
+   * {@code buffer} between {@code from} and its current position. The buffer is not modified.
+   */
+  static int update(int crc32c, ByteBuffer buffer, int from) {
+    int length = buffer.position() - from;
+    if (buffer.hasArray()) {
+      return update(crc32c, buffer.array(), buffer.arrayOffset() + from, length);
+    }
+    ByteBuffer slice = buffer.duplicate();
+    slice.position(from);
+    slice.limit(from + length);
+    byte[] bytes = new byte[Math.min(length, 8192)];
+    int crc = crc32c;
+    while (slice.hasRemaining()) {
+      int toHash = Math.min(slice.remaining(), bytes.length);
+      slice.get(bytes, 0, toHash);
+      crc = update(crc, bytes, 0, toHash);
+    }
+    return crc;
+  }
+
+  /**
+   * Returns the base64 encoding of {@code crc32c} in big-endian byte order, as used for
+   * {@link BlobInfo#getCrc32c()}.
+   */
+  static String toBase64(int crc32c) {
+    return BaseEncoding.base64().encode(Ints.toByteArray(crc32c));
+  }
+}
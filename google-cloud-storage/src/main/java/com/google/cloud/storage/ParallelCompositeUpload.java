@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Storage.BlobTargetOption;
+import com.google.cloud.storage.Storage.BlobWriteOption;
+import com.google.cloud.storage.Storage.ComposeRequest;
+import com.google.cloud.storage.Storage.ParallelUploadOption;
+import com.google.cloud.storage.spi.StorageRpc.Tuple;
+import com.google.common.collect.Lists;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Uploads a local file as a composite blob. The file is split into parts that are uploaded
+ * concurrently as temporary blobs, which are then composed into the target blob. As a compose
+ * request accepts at most {@link #MAX_COMPOSE_SOURCES} sources, parts are composed in several
+ * rounds when needed. Uploads and composes run on threads of their own, at most
+ * {@code parallelism} at a time, and temporary blobs are only deleted once none of them is
+ * running.
+ */
+final class ParallelCompositeUpload {
+
+  static final int MAX_COMPOSE_SOURCES = 32;
+  private static final long DEFAULT_PART_SIZE = 32L * 1024 * 1024;
+  private static final int DEFAULT_PARALLELISM = 8;
+  private static final int TRANSFER_BUFFER_SIZE = 2 * 1024 * 1024;
+  // Larger files are uploaded as parts even if they fit in one, to not buffer them in memory
+  private static final long MAX_DIRECT_UPLOAD_SIZE = DEFAULT_PART_SIZE;
+
+  private final Storage storage;
+  private final BlobInfo target;
+  private final BlobTargetOption[] targetOptions;
+  private final BlobWriteOption[] tempOptions;
+  private final Path path;
+  private final long partSize;
+  private final int parallelism;
+  private final String tempPrefix;
+  private final List<BlobId> tempBlobs = Collections.synchronizedList(new ArrayList<BlobId>());
+
+  ParallelCompositeUpload(Storage storage, BlobInfo target, Path path,
+      ParallelUploadOption... options) {
+    EnumMap<ParallelUploadOption.Option, Object> optionMap =
+        new EnumMap<>(ParallelUploadOption.Option.class);
+    for (ParallelUploadOption option : options) {
+      optionMap.put(option.getOption(), option.getValue());
+    }
+    BlobWriteOption[] writeOptions = (BlobWriteOption[]) firstNonNull(
+        optionMap.get(ParallelUploadOption.Option.WRITE_OPTIONS), new BlobWriteOption[0]);
+    Tuple<BlobInfo, BlobTargetOption[]> targetInfoAndOptions =
+        BlobTargetOption.convert(target, writeOptions);
+    this.storage = storage;
+    this.target = targetInfoAndOptions.x();
+    this.targetOptions = targetInfoAndOptions.y();
+    this.tempOptions = BlobWriteOption.withoutTargetConditions(writeOptions);
+    this.path = path;
+    this.partSize = (Long) firstNonNull(
+        optionMap.get(ParallelUploadOption.Option.PART_SIZE), DEFAULT_PART_SIZE);
+    this.parallelism = (Integer) firstNonNull(
+        optionMap.get(ParallelUploadOption.Option.PARALLELISM), DEFAULT_PARALLELISM);
+    this.tempPrefix = target.getName() + ".parallel-upload-" + UUID.randomUUID() + "-";
+  }
+
+  Blob run() throws IOException {
+    try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = file.size();
+      if (size <= Math.min(partSize, MAX_DIRECT_UPLOAD_SIZE)) {
+        return uploadDirectly(file, (int) size);
+      }
+      try {
+        return compose(uploadParts(file, size), 0);
+      } finally {
+        deleteTempBlobs();
+      }
+    }
+  }
+
+  /**
+   * Creates the target blob in a single request, whose response is the created blob.
+   */
+  private Blob uploadDirectly(FileChannel file, int size) throws IOException {
+    ByteBuffer content = ByteBuffer.allocate(size);
+    while (content.hasRemaining()) {
+      if (file.read(content, content.position()) < 0) {
+        throw new EOFException("Unexpected end of file " + path);
+      }
+    }
+    return storage.create(target, content.array(), targetOptions);
+  }
+
+  private List<BlobId> uploadParts(final FileChannel file, long size) throws IOException {
+    List<Callable<BlobId>> uploads = new ArrayList<>();
+    int index = 0;
+    for (long offset = 0; offset < size; offset += partSize) {
+      final long partOffset = offset;
+      final long length = Math.min(partSize, size - offset);
+      final BlobInfo part = tempBlob("part-" + index++);
+      uploads.add(new Callable<BlobId>() {
+        @Override
+        public BlobId call() throws IOException {
+          upload(file, partOffset, length, part);
+          return part.getBlobId();
+        }
+      });
+    }
+    return ParallelTasks.invokeAll(uploads, parallelism, "parallel upload");
+  }
+
+  /**
+   * Composes {@code sources} into the target blob. If there are too many sources, they are first
+   * composed in groups into temporary blobs, which are then composed recursively.
+   */
+  private Blob compose(List<BlobId> sources, int round) throws IOException {
+    if (sources.size() <= MAX_COMPOSE_SOURCES) {
+      return storage.compose(composeRequest(sources, target, targetOptions));
+    }
+    BlobTargetOption[] tempTargetOptions = BlobTargetOption.convert(target, tempOptions).y();
+    List<Callable<BlobId>> composes = new ArrayList<>();
+    int index = 0;
+    for (List<BlobId> group : Lists.partition(sources, MAX_COMPOSE_SOURCES)) {
+      final ComposeRequest request = composeRequest(group,
+          tempBlob("compose-" + round + "-" + index++), tempTargetOptions);
+      composes.add(new Callable<BlobId>() {
+        @Override
+        public BlobId call() {
+          return storage.compose(request).getBlobId();
+        }
+      });
+    }
+    return compose(ParallelTasks.invokeAll(composes, parallelism, "parallel compose"),
+        round + 1);
+  }
+
+  private static ComposeRequest composeRequest(List<BlobId> sources, BlobInfo composeTarget,
+      BlobTargetOption... options) {
+    ComposeRequest.Builder builder =
+        ComposeRequest.newBuilder().setTarget(composeTarget).setTargetOptions(options);
+    for (BlobId source : sources) {
+      if (source.getGeneration() != null) {
+        builder.addSource(source.getName(), source.getGeneration());
+      } else {
+        builder.addSource(source.getName());
+      }
+    }
+    return builder.build();
+  }
+
+  private BlobInfo tempBlob(String suffix) {
+    BlobId blobId = BlobId.of(target.getBucket(), tempPrefix + suffix);
+    tempBlobs.add(blobId);
+    return BlobInfo.newBuilder(blobId).build();
+  }
+
+  private void upload(FileChannel file, long offset, long length, BlobInfo blobInfo)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TRANSFER_BUFFER_SIZE, length));
+    try (WriteChannel writer = storage.writer(blobInfo, tempOptions)) {
+      long position = offset;
+      long end = offset + length;
+      while (position < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        int read = file.read(buffer, position);
+        if (read < 0) {
+          throw new EOFException("Unexpected end of file " + path);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          writer.write(buffer);
+        }
+        position += read;
+      }
+    }
+  }
+
+  private void deleteTempBlobs() {
+    List<BlobId> toDelete;
+    synchronized (tempBlobs) {
+      toDelete = new ArrayList<>(tempBlobs);
+    }
+    if (toDelete.isEmpty()) {
+      return;
+    }
+    try {
+      storage.delete(toDelete);
+    } catch (StorageException ex) {
+      // Best effort, temporary blobs that could not be deleted are left in the bucket
+    }
+  }
+}
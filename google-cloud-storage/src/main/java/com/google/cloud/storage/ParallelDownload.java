@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Storage.BlobSourceOption;
+import com.google.cloud.storage.Storage.ParallelDownloadOption;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Downloads a blob to a local file. The file is preallocated and split into ranges that are
+ * downloaded concurrently from a pinned generation of the blob, each range being written at its
+ * position in the file. Ranges are downloaded on threads of their own, at most
+ * {@code parallelism} at a time. Completed ranges are recorded in a progress file next to the
+ * target, so that a failed download can be resumed without downloading them again.
+ *
+ * <p>The progress file starts with a header identifying the blob generation, its size and the
+ * range size, followed by one byte per range that is set once the range is durably written.
+ */
+final class ParallelDownload {
+
+  static final String PROGRESS_SUFFIX = ".download-progress";
+  private static final int PROGRESS_MAGIC = 0x47435344;
+  private static final int PROGRESS_VERSION = 1;
+  private static final byte RANGE_DONE = 1;
+  private static final long DEFAULT_RANGE_SIZE = 32L * 1024 * 1024;
+  private static final int DEFAULT_PARALLELISM = 8;
+  private static final int TRANSFER_BUFFER_SIZE = 2 * 1024 * 1024;
+
+  private final Storage storage;
+  private final BlobId blobId;
+  private final BlobSourceOption[] sourceOptions;
+  private final Path path;
+  private final Path progressPath;
+  private final long rangeSize;
+  private final int parallelism;
+
+  ParallelDownload(Storage storage, BlobId blobId, Path path,
+      ParallelDownloadOption... options) {
+    EnumMap<ParallelDownloadOption.Option, Object> optionMap =
+        new EnumMap<>(ParallelDownloadOption.Option.class);
+    for (ParallelDownloadOption option : options) {
+      optionMap.put(option.getOption(), option.getValue());
+    }
+    this.storage = storage;
+    this.blobId = blobId;
+    this.sourceOptions = (BlobSourceOption[]) firstNonNull(
+        optionMap.get(ParallelDownloadOption.Option.SOURCE_OPTIONS), new BlobSourceOption[0]);
+    this.path = path;
+    this.progressPath = path.resolveSibling(path.getFileName() + PROGRESS_SUFFIX);
+    this.rangeSize = (Long) firstNonNull(
+        optionMap.get(ParallelDownloadOption.Option.RANGE_SIZE), DEFAULT_RANGE_SIZE);
+    this.parallelism = (Integer) firstNonNull(
+        optionMap.get(ParallelDownloadOption.Option.PARALLELISM), DEFAULT_PARALLELISM);
+  }
+
+  Blob run() throws IOException {
+    Blob blob = storage.get(blobId, BlobSourceOption.toGetOptions(sourceOptions));
+    if (blob == null) {
+      throw new StorageException(404, "Blob " + blobId + " not found");
+    }
+    // All ranges are read from the generation we got metadata for, even if the blob is replaced
+    final BlobId pinnedId = BlobId.of(blob.getBucket(), blob.getName(), blob.getGeneration());
+    final long size = firstNonNull(blob.getSize(), 0L);
+    final int rangeCount = (int) ((size + rangeSize - 1) / rangeSize);
+    byte[] header = progressHeader(pinnedId, size);
+    byte[] completed = readProgress(header, size, rangeCount);
+    try (final FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final FileChannel progress = FileChannel.open(progressPath, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      if (completed == null) {
+        completed = new byte[rangeCount];
+        startProgress(file, progress, header, size, rangeCount);
+      }
+      final long progressOffset = header.length;
+      List<Callable<Void>> downloads = new ArrayList<>();
+      for (int i = 0; i < rangeCount; i++) {
+        if (completed[i] == RANGE_DONE) {
+          continue;
+        }
+        final int index = i;
+        final long offset = i * rangeSize;
+        final long length = Math.min(rangeSize, size - offset);
+        downloads.add(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            download(pinnedId, file, offset, length);
+            // Make sure the range is on disk before recording it as done
+            file.force(false);
+            ByteBuffer done = ByteBuffer.wrap(new byte[] {RANGE_DONE});
+            writeFully(progress, done, progressOffset + index);
+            return null;
+          }
+        });
+      }
+      // Returns once no range is being written, as the channels are closed afterwards
+      ParallelTasks.invokeAll(downloads, parallelism, "parallel download");
+      file.force(true);
+    }
+    Files.delete(progressPath);
+    return blob;
+  }
+
+  private byte[] progressHeader(BlobId pinnedId, long size) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(PROGRESS_MAGIC);
+      out.writeInt(PROGRESS_VERSION);
+      out.writeUTF(pinnedId.getBucket());
+      out.writeUTF(pinnedId.getName());
+      out.writeLong(firstNonNull(pinnedId.getGeneration(), -1L));
+      out.writeLong(size);
+      out.writeLong(rangeSize);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Returns which ranges were completed by a previous download of the same blob generation with
+   * the same range size, or {@code null} if the download has to start over.
+   */
+  private byte[] readProgress(byte[] header, long size, int rangeCount) throws IOException {
+    byte[] record;
+    try {
+      if (Files.size(path) != size) {
+        return null;
+      }
+      record = Files.readAllBytes(progressPath);
+    } catch (NoSuchFileException ex) {
+      return null;
+    }
+    if (record.length != header.length + rangeCount) {
+      return null;
+    }
+    if (!Arrays.equals(header, Arrays.copyOf(record, header.length))) {
+      return null;
+    }
+    return Arrays.copyOfRange(record, header.length, record.length);
+  }
+
+  /**
+   * Truncates the progress file to a record with no completed range, then preallocates the file
+   * to the blob size.
+   */
+  private static void startProgress(FileChannel file, FileChannel progress, byte[] header,
+      long size, int rangeCount) throws IOException {
+    progress.truncate(0);
+    writeFully(progress, ByteBuffer.wrap(header), 0);
+    writeFully(progress, ByteBuffer.allocate(rangeCount), header.length);
+    progress.force(true);
+    file.truncate(0);
+    if (size > 0) {
+      // Extends the file to its final size, so that ranges can be written in any order
+      writeFully(file, ByteBuffer.allocate(1), size - 1);
+    }
+  }
+
+  private void download(BlobId pinnedId, FileChannel file, long offset, long length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TRANSFER_BUFFER_SIZE, length));
+    try (ReadChannel reader = storage.reader(pinnedId, sourceOptions)) {
+      reader.setChunkSize(buffer.capacity());
+      reader.seek(offset);
+      long position = offset;
+      long end = offset + length;
+      while (position < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        while (buffer.hasRemaining()) {
+          if (reader.read(buffer) < 0) {
+            throw new EOFException("Unexpected end of blob " + pinnedId);
+          }
+        }
+        buffer.flip();
+        position += writeFully(file, buffer, position);
+      }
+    }
+  }
+
+  private static int writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    int written = 0;
+    while (buffer.hasRemaining()) {
+      written += channel.write(buffer, position + written);
+    }
+    return written;
+  }
+}
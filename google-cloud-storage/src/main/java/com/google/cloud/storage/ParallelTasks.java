@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the tasks of a parallel upload or download. Tasks run on threads of their own rather than
+ * on the service's async executor, as they block on channels that use shared executors too.
+ */
+final class ParallelTasks {
+
+  private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+      .setDaemon(true)
+      .setNameFormat("storage-parallel-%d")
+      .build();
+
+  private ParallelTasks() {}
+
+  /**
+   * Runs all {@code tasks}, at most {@code parallelism} at a time, and returns their results in
+   * order. If a task fails no further task is started and its error is thrown. This method only
+   * returns once no task is running, so that callers can safely release what the tasks use.
+   * Running tasks are not interrupted, as interrupting a thread blocked on a
+   * {@link java.nio.channels.FileChannel} closes the channel for all tasks.
+   *
+   * @param description what the tasks do, used in error messages
+   */
+  static <T> List<T> invokeAll(List<Callable<T>> tasks, int parallelism, String description)
+      throws IOException {
+    if (tasks.isEmpty()) {
+      return new ArrayList<>();
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()), THREAD_FACTORY);
+    CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      while (futures.size() < Math.min(parallelism, tasks.size())) {
+        futures.add(completionService.submit(tasks.get(futures.size())));
+      }
+      for (int done = 0; done < tasks.size(); done++) {
+        completionService.take().get();
+        if (futures.size() < tasks.size()) {
+          futures.add(completionService.submit(tasks.get(futures.size())));
+        }
+      }
+      List<T> results = new ArrayList<>(tasks.size());
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + description);
+    } catch (ExecutionException ex) {
+      Throwables.propagateIfPossible(ex.getCause(), IOException.class);
+      throw new StorageException(0, description + " failed", ex.getCause());
+    } finally {
+      executor.shutdown();
+      awaitTermination(executor);
+    }
+  }
+
+  private static void awaitTermination(ExecutorService executor) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        if (executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+          break;
+        }
+      } catch (InterruptedException ex) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -35,9 +35,11 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.io.BaseEncoding;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.file.Path;
 import java.security.Key;
 import java.util.Arrays;
 import java.util.Collections;
@@ -367,6 +369,9 @@ public interface Storage extends Service<StorageOptions> {
           case IF_MD5_MATCH:
             infoBuilder.setMd5(info.getMd5());
             break;
+          case PIPELINED:
+            // Only affects the write channel, not the request
+            break;
           default:
             targetOptions.add(option.toTargetOption());
             break;
@@ -389,7 +394,8 @@ public interface Storage extends Service<StorageOptions> {
 
     enum Option {
       PREDEFINED_ACL, IF_GENERATION_MATCH, IF_GENERATION_NOT_MATCH, IF_METAGENERATION_MATCH,
-      IF_METAGENERATION_NOT_MATCH, IF_MD5_MATCH, IF_CRC32C_MATCH, CUSTOMER_SUPPLIED_KEY;
+      IF_METAGENERATION_NOT_MATCH, IF_MD5_MATCH, IF_CRC32C_MATCH, CUSTOMER_SUPPLIED_KEY,
+      PIPELINED;
 
       StorageRpc.Option toRpcOption() {
         return StorageRpc.Option.valueOf(this.name());
@@ -506,6 +512,47 @@ public interface Storage extends Service<StorageOptions> {
     public static BlobWriteOption encryptionKey(String key) {
       return new BlobWriteOption(Option.CUSTOMER_SUPPLIED_KEY, key);
     }
+
+    /**
+     * Returns an option to upload chunks in the background. If this option is passed to
+     * {@link Storage#writer(BlobInfo, BlobWriteOption...)} each full chunk is uploaded while the
+     * caller fills the next one, so {@link WriteChannel#write(java.nio.ByteBuffer)} does not block
+     * on every chunk upload. This option is ignored by all other methods.
+     *
+     * @see com.google.cloud.BaseWriteChannel#setPipelined(boolean)
+     */
+    public static BlobWriteOption pipelined() {
+      return new BlobWriteOption(Option.PIPELINED, true);
+    }
+
+    static boolean isPipelined(BlobWriteOption... options) {
+      for (BlobWriteOption option : options) {
+        if (option.option == Option.PIPELINED) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the options that don't depend on the target blob, i.e. all of them but the
+     * preconditions and hash matches. These also apply to the temporary blobs of a parallel upload.
+     */
+    static BlobWriteOption[] withoutTargetConditions(BlobWriteOption... options) {
+      List<BlobWriteOption> filtered = Lists.newArrayListWithCapacity(options.length);
+      for (BlobWriteOption option : options) {
+        switch (option.option) {
+          case PREDEFINED_ACL:
+          case CUSTOMER_SUPPLIED_KEY:
+          case PIPELINED:
+            filtered.add(option);
+            break;
+          default:
+            break;
+        }
+      }
+      return filtered.toArray(new BlobWriteOption[filtered.size()]);
+    }
   }
 
   /**
@@ -591,6 +638,42 @@ public interface Storage extends Service<StorageOptions> {
     public static BlobSourceOption decryptionKey(String key) {
       return new BlobSourceOption(StorageRpc.Option.CUSTOMER_SUPPLIED_KEY, key);
     }
+
+    /**
+     * Returns an option to enable read-ahead on a {@link ReadChannel}. If this option is passed to
+     * {@link Storage#reader(BlobId, BlobSourceOption...)} the returned channel keeps up to
+     * {@code chunks} ranged requests (each of the channel's chunk size) in flight in the
+     * background, and hands their data to {@link ReadChannel#read(java.nio.ByteBuffer)} in order.
+     * This option is ignored by all other methods.
+     *
+     * @param chunks the number of chunks to fetch ahead of the reader, must be &gt; 0
+     * @throws IllegalArgumentException if {@code chunks} is not positive
+     */
+    public static BlobSourceOption readAhead(int chunks) {
+      checkArgument(chunks > 0, "Read-ahead chunks must be > 0");
+      return new BlobSourceOption(StorageRpc.Option.READ_AHEAD, chunks);
+    }
+
+    /**
+     * Returns the preconditions in {@code options} as get options, e.g. to get the metadata of
+     * the blob they read.
+     */
+    static BlobGetOption[] toGetOptions(BlobSourceOption... options) {
+      List<BlobGetOption> getOptions = Lists.newArrayListWithCapacity(options.length);
+      for (BlobSourceOption option : options) {
+        switch (option.getRpcOption()) {
+          case IF_GENERATION_MATCH:
+          case IF_GENERATION_NOT_MATCH:
+          case IF_METAGENERATION_MATCH:
+          case IF_METAGENERATION_NOT_MATCH:
+            getOptions.add(new BlobGetOption(option.getRpcOption(), (Long) option.getValue()));
+            break;
+          default:
+            break;
+        }
+      }
+      return getOptions.toArray(new BlobGetOption[getOptions.size()]);
+    }
   }
 
   /**
@@ -850,6 +933,127 @@ public interface Storage extends Service<StorageOptions> {
     }
   }
 
+  /**
+   * Class for specifying parallel upload options.
+   *
+   * @see Storage#createFrom(BlobInfo, Path, ParallelUploadOption...)
+   */
+  class ParallelUploadOption implements Serializable {
+
+    private static final long serialVersionUID = 2466397853960325441L;
+
+    private final Option option;
+    private final Object value;
+
+    enum Option {
+      PART_SIZE, PARALLELISM, WRITE_OPTIONS
+    }
+
+    private ParallelUploadOption(Option option, Object value) {
+      this.option = option;
+      this.value = value;
+    }
+
+    Option getOption() {
+      return option;
+    }
+
+    Object getValue() {
+      return value;
+    }
+
+    /**
+     * Sets the size, in bytes, of the parts uploaded concurrently. Files that are not larger than
+     * a part, nor than 32 MB, are uploaded directly to the target blob. Default value is 32 MB.
+     *
+     * @throws IllegalArgumentException if {@code partSize} is not positive
+     */
+    public static ParallelUploadOption partSize(long partSize) {
+      checkArgument(partSize > 0, "Part size must be > 0");
+      return new ParallelUploadOption(Option.PART_SIZE, partSize);
+    }
+
+    /**
+     * Sets the maximum number of parts uploaded (and composed) at the same time. Default value
+     * is 8.
+     *
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public static ParallelUploadOption parallelism(int parallelism) {
+      checkArgument(parallelism > 0, "Parallelism must be > 0");
+      return new ParallelUploadOption(Option.PARALLELISM, parallelism);
+    }
+
+    /**
+     * Sets the options of the blob writes. Preconditions and hash matches only apply to the
+     * target blob, while the other options, e.g. an encryption key or a predefined ACL, also apply
+     * to the temporary blobs the target is composed from.
+     */
+    public static ParallelUploadOption writeOptions(BlobWriteOption... options) {
+      return new ParallelUploadOption(Option.WRITE_OPTIONS, options.clone());
+    }
+  }
+
+  /**
+   * Class for specifying parallel download options.
+   *
+   * @see Storage#downloadTo(BlobId, Path, ParallelDownloadOption...)
+   */
+  class ParallelDownloadOption implements Serializable {
+
+    private static final long serialVersionUID = -3425431745281283423L;
+
+    private final Option option;
+    private final Object value;
+
+    enum Option {
+      RANGE_SIZE, PARALLELISM, SOURCE_OPTIONS
+    }
+
+    private ParallelDownloadOption(Option option, Object value) {
+      this.option = option;
+      this.value = value;
+    }
+
+    Option getOption() {
+      return option;
+    }
+
+    Object getValue() {
+      return value;
+    }
+
+    /**
+     * Sets the size, in bytes, of the ranges downloaded concurrently. A download interrupted by a
+     * failure is resumed one range at a time, so this is also the largest amount of data that has
+     * to be downloaded again. Default value is 32 MB.
+     *
+     * @throws IllegalArgumentException if {@code rangeSize} is not positive
+     */
+    public static ParallelDownloadOption rangeSize(long rangeSize) {
+      checkArgument(rangeSize > 0, "Range size must be > 0");
+      return new ParallelDownloadOption(Option.RANGE_SIZE, rangeSize);
+    }
+
+    /**
+     * Sets the maximum number of ranges downloaded at the same time. Default value is 8.
+     *
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public static ParallelDownloadOption parallelism(int parallelism) {
+      checkArgument(parallelism > 0, "Parallelism must be > 0");
+      return new ParallelDownloadOption(Option.PARALLELISM, parallelism);
+    }
+
+    /**
+     * Sets the options of the blob reads, e.g. a decryption key. Preconditions also apply to the
+     * request that gets the blob's metadata.
+     */
+    public static ParallelDownloadOption sourceOptions(BlobSourceOption... options) {
+      return new ParallelDownloadOption(Option.SOURCE_OPTIONS, options.clone());
+    }
+  }
+
   /**
    * A class to contain all information needed for a Google Cloud Storage Compose operation.
    *
@@ -1550,7 +1754,7 @@ public interface Storage extends Service<StorageOptions> {
    * Blob blob = storage.create(blobInfo);
    * }</pre>
    *
-   * @return a [@code Blob} with complete information
+   * @return a {@code Blob} with complete information
    * @throws StorageException upon failure
    */
   Blob create(BlobInfo blobInfo, BlobTargetOption... options);
@@ -1569,7 +1773,7 @@ public interface Storage extends Service<StorageOptions> {
    * Blob blob = storage.create(blobInfo, "Hello, World!".getBytes(UTF_8));
    * }</pre>
    *
-   * @return a [@code Blob} with complete information
+   * @return a {@code Blob} with complete information
    * @throws StorageException upon failure
    * @see <a href="https://cloud.google.com/storage/docs/hashes-etags">Hashes and ETags</a>
    */
@@ -1606,7 +1810,7 @@ public interface Storage extends Service<StorageOptions> {
    * Blob blob = storage.create(blobInfo, content, BlobWriteOption.encryptionKey(encryptionKey));
    * }</pre>
    *
-   * @return a [@code Blob} with complete information
+   * @return a {@code Blob} with complete information
    * @throws StorageException upon failure
    */
   Blob create(BlobInfo blobInfo, InputStream content, BlobWriteOption... options);
@@ -2103,6 +2307,65 @@ public interface Storage extends Service<StorageOptions> {
    */
   WriteChannel writer(BlobInfo blobInfo, BlobWriteOption... options);
 
+  /**
+   * Creates a blob with the content of a local file, uploading it over several connections. The
+   * file is split into parts that are uploaded concurrently as temporary blobs, which are then
+   * stitched together with {@link #compose(ComposeRequest)} (in several rounds if there are more
+   * than 32 parts). Temporary blobs are deleted once the upload completes or fails. Files that are
+   * not larger than a part, nor than 32 MB, are uploaded directly. The parts are uploaded, and
+   * composed, on threads created for this call, at most {@link ParallelUploadOption#parallelism}
+   * of them (8 by default), which are stopped before the method returns. Blob write options are
+   * passed with {@link ParallelUploadOption#writeOptions}. By default any md5 and crc32c values in
+   * the given {@code blobInfo} are ignored, as composite blobs have no md5 hash.
+   *
+   * <p>Example of uploading a large file in 64 MB parts, 16 parts at a time.
+   * <pre> {@code
+   * String bucketName = "my_unique_bucket";
+   * String blobName = "my_blob_name";
+   * Path path = Paths.get("/path/to/large/file");
+   * BlobInfo blobInfo = BlobInfo.newBuilder(bucketName, blobName).build();
+   * Blob blob = storage.createFrom(blobInfo, path,
+   *     ParallelUploadOption.partSize(64L * 1024 * 1024), ParallelUploadOption.parallelism(16));
+   * }</pre>
+   *
+   * @return the created blob
+   * @throws IOException upon failure reading the file
+   * @throws StorageException upon failure
+   */
+  Blob createFrom(BlobInfo blobInfo, Path path, ParallelUploadOption... options)
+      throws IOException;
+
+  /**
+   * Downloads a blob to a local file over several connections. The file is preallocated to the
+   * size of the blob and byte ranges of the blob are downloaded concurrently, each being written
+   * at its position in the file. All ranges are read from the same generation of the blob: the
+   * generation in {@code blob} if set, the latest generation otherwise. The ranges are downloaded
+   * on threads created for this call, at most {@link ParallelDownloadOption#parallelism} of them
+   * (8 by default), which are stopped before the method returns. Blob source options are passed
+   * with {@link ParallelDownloadOption#sourceOptions}.
+   *
+   * <p>Progress is recorded in a small file next to {@code path}, named after it with a
+   * {@code .download-progress} suffix. If a download fails, or the process dies, calling this
+   * method again with the same arguments only downloads the ranges that were not completed, as
+   * long as the generation of the blob and the range size did not change. The progress file is
+   * deleted once the download completes.
+   *
+   * <p>Example of downloading a large blob in 64 MB ranges, 16 ranges at a time.
+   * <pre> {@code
+   * String bucketName = "my_unique_bucket";
+   * String blobName = "my_blob_name";
+   * Path path = Paths.get("/path/to/large/file");
+   * Blob blob = storage.downloadTo(BlobId.of(bucketName, blobName), path,
+   *     ParallelDownloadOption.rangeSize(64L * 1024 * 1024),
+   *     ParallelDownloadOption.parallelism(16));
+   * }</pre>
+   *
+   * @return the downloaded blob
+   * @throws IOException upon failure writing the file
+   * @throws StorageException upon failure, or if the blob does not exist
+   */
+  Blob downloadTo(BlobId blob, Path path, ParallelDownloadOption... options) throws IOException;
+
   /**
    * Generates a signed URL for a blob. If you have a blob that you want to allow access to for a
    * fixed amount of time, you can use this method to generate a URL that is only valid within a
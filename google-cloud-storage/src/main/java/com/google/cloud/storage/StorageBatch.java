@@ -27,6 +27,8 @@ import com.google.cloud.storage.spi.RpcBatch;
 import com.google.cloud.storage.spi.StorageRpc;
 import com.google.common.annotations.VisibleForTesting;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -57,6 +59,7 @@ public class StorageBatch {
   private final RpcBatch batch;
   private final StorageRpc storageRpc;
   private final StorageOptions options;
+  private final List<BlobId> mutatedBlobs = new ArrayList<>();
 
   StorageBatch(StorageOptions options) {
     this.options = options;
@@ -101,6 +104,7 @@ public class StorageBatch {
     RpcBatch.Callback<Void> callback = createDeleteCallback(result);
     Map<StorageRpc.Option, ?> optionMap = StorageImpl.optionMap(blob, options);
     batch.addDelete(blob.toPb(), callback, optionMap);
+    mutatedBlobs.add(blob);
     return result;
   }
 
@@ -115,6 +119,7 @@ public class StorageBatch {
     RpcBatch.Callback<StorageObject> callback = createUpdateCallback(this.options, result);
     Map<StorageRpc.Option, ?> optionMap = StorageImpl.optionMap(blobInfo, options);
     batch.addPatch(blobInfo.toPb(), callback, optionMap);
+    mutatedBlobs.add(blobInfo.getBlobId());
     return result;
   }
 
@@ -145,10 +150,20 @@ public class StorageBatch {
   }
 
   /**
-   * Submits this batch for processing using a single RPC request.
+   * Submits this batch for processing. Batches of more than 100 operations are split into
+   * sub-batches that are sent concurrently, up to {@link StorageOptions#getBatchParallelism()} at a
+   * time. Result callbacks may therefore be invoked from threads other than the calling one, but
+   * all of them have been invoked when this method returns. The cached responses of the blobs
+   * deleted or updated by the batch, see {@link StorageOptions#getResponseCache()}, are dropped.
    */
   public void submit() {
-    batch.submit();
+    try {
+      batch.submit();
+    } finally {
+      for (BlobId blob : mutatedBlobs) {
+        StorageImpl.invalidateCachedBlob(options, blob.getBucket(), blob.getName());
+      }
+    }
   }
 
   private RpcBatch.Callback<Void> createDeleteCallback(final StorageBatchResult<Boolean> result) {
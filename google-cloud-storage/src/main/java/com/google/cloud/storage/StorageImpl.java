@@ -17,7 +17,9 @@
 package com.google.cloud.storage;
 
 import static com.google.cloud.RetryHelper.runWithRetries;
+import static com.google.cloud.RetryHelper.runWithRetriesAsync;
 import static com.google.cloud.storage.spi.StorageRpc.Option.DELIMITER;
+import static com.google.cloud.storage.spi.StorageRpc.Option.FIELDS;
 import static com.google.cloud.storage.spi.StorageRpc.Option.IF_GENERATION_MATCH;
 import static com.google.cloud.storage.spi.StorageRpc.Option.IF_GENERATION_NOT_MATCH;
 import static com.google.cloud.storage.spi.StorageRpc.Option.IF_METAGENERATION_MATCH;
@@ -29,6 +31,8 @@ import static com.google.cloud.storage.spi.StorageRpc.Option.IF_SOURCE_METAGENER
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_PRECON_FAILED;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.api.services.storage.model.BucketAccessControl;
@@ -36,11 +40,11 @@ import com.google.api.services.storage.model.ObjectAccessControl;
 import com.google.api.services.storage.model.StorageObject;
 import com.google.auth.ServiceAccountSigner;
 import com.google.cloud.BaseService;
-import com.google.cloud.BatchResult;
 import com.google.cloud.Page;
 import com.google.cloud.PageImpl;
 import com.google.cloud.PageImpl.NextPageFetcher;
 import com.google.cloud.ReadChannel;
+import com.google.cloud.ResponseCache;
 import com.google.cloud.RetryHelper.RetryHelperException;
 import com.google.cloud.storage.Acl.Entity;
 import com.google.cloud.storage.spi.StorageRpc;
@@ -56,27 +60,43 @@ import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
 import com.google.common.net.UrlEscapers;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
-final class StorageImpl extends BaseService<StorageOptions> implements Storage {
+final class StorageImpl extends BaseService<StorageOptions> implements AsyncStorage {
+
+  private static final Function<RetryHelperException, RuntimeException> EXCEPTION_TRANSLATOR =
+      new Function<RetryHelperException, RuntimeException>() {
+        @Override
+        public RuntimeException apply(RetryHelperException exception) {
+          return StorageException.translateAndThrow(exception);
+        }
+      };
 
   private static final byte[] EMPTY_BYTE_ARRAY = {};
   private static final String EMPTY_BYTE_ARRAY_MD5 = "1B2M2Y8AsgTpgAmY7PhCfg==";
   private static final String EMPTY_BYTE_ARRAY_CRC32C = "AAAAAA==";
   private static final String PATH_DELIMITER = "/";
+  private static final EnumSet<StorageRpc.Option> CACHEABLE_OPTIONS = EnumSet.of(FIELDS);
 
   private static final Function<Tuple<Storage, Boolean>, Boolean> DELETE_FUNCTION =
       new Function<Tuple<Storage, Boolean>, Boolean>() {
@@ -107,6 +127,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
         }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucketInfo.getName()));
     }
   }
 
@@ -149,6 +171,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(info.getBucket(), info.getName()));
     }
   }
 
@@ -157,13 +181,21 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
     final com.google.api.services.storage.model.Bucket bucketPb = BucketInfo.of(bucket).toPb();
     final Map<StorageRpc.Option, ?> optionsMap = optionMap(options);
     try {
-      com.google.api.services.storage.model.Bucket answer = runWithRetries(
-          new Callable<com.google.api.services.storage.model.Bucket>() {
+      ResponseCache.Loader<com.google.api.services.storage.model.Bucket> loader =
+          new ResponseCache.Loader<com.google.api.services.storage.model.Bucket>() {
             @Override
-            public com.google.api.services.storage.model.Bucket call() {
-              return storageRpc.get(bucketPb, optionsMap);
+            public com.google.api.services.storage.model.Bucket load(
+                com.google.api.services.storage.model.Bucket expired) {
+              return runWithRetries(new Callable<com.google.api.services.storage.model.Bucket>() {
+                @Override
+                public com.google.api.services.storage.model.Bucket call() {
+                  return storageRpc.get(bucketPb, optionsMap);
+                }
+              }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
             }
-          }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
+          };
+      com.google.api.services.storage.model.Bucket answer = isCacheable(optionsMap)
+          ? cachedRead(bucketResource(bucket), optionsMap, loader) : loader.load(null);
       return answer == null ? null : Bucket.fromPb(this, answer);
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
@@ -176,16 +208,57 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
   }
 
   @Override
-  public Blob get(BlobId blob, BlobGetOption... options) {
+  public Blob get(final BlobId blob, BlobGetOption... options) {
     final StorageObject storedObject = blob.toPb();
     final Map<StorageRpc.Option, ?> optionsMap = optionMap(blob, options);
     try {
-      StorageObject storageObject = runWithRetries(new Callable<StorageObject>() {
+      ResponseCache.Loader<StorageObject> loader = new ResponseCache.Loader<StorageObject>() {
         @Override
-        public StorageObject call() {
-          return storageRpc.get(storedObject, optionsMap);
+        public StorageObject load(StorageObject expired) {
+          if (expired == null || expired.getGeneration() == null
+              || expired.getMetageneration() == null) {
+            return fetch(optionsMap);
+          }
+          // The server answers 304 if the object was not modified, 412 if it was overwritten
+          Map<StorageRpc.Option, Object> conditionalOptions =
+              Maps.newEnumMap(StorageRpc.Option.class);
+          conditionalOptions.putAll(optionsMap);
+          conditionalOptions.put(IF_GENERATION_MATCH, expired.getGeneration());
+          conditionalOptions.put(IF_METAGENERATION_NOT_MATCH, expired.getMetageneration());
+          try {
+            return fetch(conditionalOptions);
+          } catch (RetryHelperException e) {
+            int code = e.getCause() instanceof StorageException
+                ? ((StorageException) e.getCause()).getCode() : StorageException.UNKNOWN_CODE;
+            if (code == HTTP_NOT_MODIFIED) {
+              return expired;
+            } else if (code == HTTP_PRECON_FAILED) {
+              return fetch(optionsMap);
+            }
+            throw e;
+          }
         }
-      }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
+
+        private StorageObject fetch(final Map<StorageRpc.Option, ?> requestOptions) {
+          return coalesceRead(Arrays.asList("get", blob, requestOptions),
+              new Callable<StorageObject>() {
+                @Override
+                public StorageObject call() {
+                  return runWithRetries(new Callable<StorageObject>() {
+                    @Override
+                    public StorageObject call() {
+                      return storageRpc.get(storedObject, requestOptions);
+                    }
+                  }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock(),
+                      getScheduler(), getHedgingExecutor());
+                }
+              });
+        }
+      };
+      StorageObject storageObject = isCacheable(optionsMap)
+          ? cachedRead(blobResource(blob.getBucket(), blob.getName()),
+              Arrays.asList(blob.getGeneration(), optionsMap), loader)
+          : loader.load(null);
       return storageObject == null ? null : Blob.fromPb(this, storageObject);
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
@@ -197,6 +270,65 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
     return get(blob, new BlobGetOption[0]);
   }
 
+  @Override
+  public ListenableFuture<Blob> getAsync(BlobId blob, BlobGetOption... options) {
+    final StorageObject storedObject = blob.toPb();
+    final Map<StorageRpc.Option, ?> optionsMap = optionMap(blob, options);
+    ResponseCache.AsyncLoader<StorageObject> loader =
+        new ResponseCache.AsyncLoader<StorageObject>() {
+          @Override
+          public ListenableFuture<StorageObject> load(final StorageObject expired) {
+            if (expired == null || expired.getGeneration() == null
+                || expired.getMetageneration() == null) {
+              return fetch(optionsMap);
+            }
+            // The server answers 304 if the object was not modified, 412 if it was overwritten
+            Map<StorageRpc.Option, Object> conditionalOptions =
+                Maps.newEnumMap(StorageRpc.Option.class);
+            conditionalOptions.putAll(optionsMap);
+            conditionalOptions.put(IF_GENERATION_MATCH, expired.getGeneration());
+            conditionalOptions.put(IF_METAGENERATION_NOT_MATCH, expired.getMetageneration());
+            return Futures.catchingAsync(fetch(conditionalOptions), RetryHelperException.class,
+                new AsyncFunction<RetryHelperException, StorageObject>() {
+                  @Override
+                  public ListenableFuture<StorageObject> apply(RetryHelperException e) {
+                    int code = e.getCause() instanceof StorageException
+                        ? ((StorageException) e.getCause()).getCode()
+                        : StorageException.UNKNOWN_CODE;
+                    if (code == HTTP_NOT_MODIFIED) {
+                      return Futures.immediateFuture(expired);
+                    } else if (code == HTTP_PRECON_FAILED) {
+                      return fetch(optionsMap);
+                    }
+                    throw e;
+                  }
+                });
+          }
+
+          private ListenableFuture<StorageObject> fetch(
+              final Map<StorageRpc.Option, ?> requestOptions) {
+            return runWithRetriesAsync(new Callable<StorageObject>() {
+              @Override
+              public StorageObject call() {
+                return storageRpc.get(storedObject, requestOptions);
+              }
+            }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(),
+                getAsyncExecutor(), getOptions().getClock());
+          }
+        };
+    ListenableFuture<StorageObject> future = isCacheable(optionsMap)
+        ? cachedReadAsync(blobResource(blob.getBucket(), blob.getName()),
+            Arrays.asList(blob.getGeneration(), optionsMap), loader)
+        : loader.load(null);
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<StorageObject, Blob>() {
+          @Override
+          public Blob apply(StorageObject storageObject) {
+            return storageObject == null ? null : Blob.fromPb(StorageImpl.this, storageObject);
+          }
+        });
+  }
+
   private static class BucketPageFetcher implements NextPageFetcher<Bucket> {
 
     private static final long serialVersionUID = 5850406828803613729L;
@@ -330,6 +462,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
           }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucketInfo.getName()));
     }
   }
 
@@ -346,6 +480,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(blobInfo.getBucket(), blobInfo.getName()));
     }
   }
 
@@ -367,6 +503,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucket));
     }
   }
 
@@ -388,6 +526,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(blob.getBucket(), blob.getName()));
     }
   }
 
@@ -396,6 +536,26 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
     return delete(blob, new BlobSourceOption[0]);
   }
 
+  @Override
+  public ListenableFuture<Boolean> deleteAsync(final BlobId blob, BlobSourceOption... options) {
+    final StorageObject storageObject = blob.toPb();
+    final Map<StorageRpc.Option, ?> optionsMap = optionMap(blob, options);
+    ListenableFuture<Boolean> future = runWithRetriesAsync(new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        return storageRpc.delete(storageObject, optionsMap);
+      }
+    }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+        getOptions().getClock());
+    future.addListener(new Runnable() {
+      @Override
+      public void run() {
+        invalidateCachedReads(blobResource(blob.getBucket(), blob.getName()));
+      }
+    }, MoreExecutors.directExecutor());
+    return translateFailure(future, EXCEPTION_TRANSLATOR);
+  }
+
   @Override
   public Blob compose(final ComposeRequest composeRequest) {
     final List<StorageObject> sources =
@@ -419,6 +579,9 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(
+          composeRequest.getTarget().getBucket(), composeRequest.getTarget().getName()));
     }
   }
 
@@ -443,6 +606,9 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       return new CopyWriter(getOptions(), rewriteResponse);
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(
+          copyRequest.getTarget().getBucket(), copyRequest.getTarget().getName()));
     }
   }
 
@@ -461,12 +627,26 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
         public byte[] call() {
           return storageRpc.load(storageObject, optionsMap);
         }
-      }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
+      }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock(),
+          getScheduler(), getHedgingExecutor());
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
     }
   }
 
+  @Override
+  public ListenableFuture<byte[]> readAllBytesAsync(BlobId blob, BlobSourceOption... options) {
+    final StorageObject storageObject = blob.toPb();
+    final Map<StorageRpc.Option, ?> optionsMap = optionMap(blob, options);
+    return translateFailure(runWithRetriesAsync(new Callable<byte[]>() {
+      @Override
+      public byte[] call() {
+        return storageRpc.load(storageObject, optionsMap);
+      }
+    }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+        getOptions().getClock()), EXCEPTION_TRANSLATOR);
+  }
+
   @Override
   public StorageBatch batch() {
     return new StorageBatch(this.getOptions());
@@ -487,7 +667,9 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
   @Override
   public BlobWriteChannel writer(BlobInfo blobInfo, BlobWriteOption... options) {
     Tuple<BlobInfo, BlobTargetOption[]> targetOptions = BlobTargetOption.convert(blobInfo, options);
-    return writer(targetOptions.x(), targetOptions.y());
+    BlobWriteChannel channel = writer(targetOptions.x(), targetOptions.y());
+    channel.setPipelined(BlobWriteOption.isPipelined(options));
+    return channel;
   }
 
   private BlobWriteChannel writer(BlobInfo blobInfo, BlobTargetOption... options) {
@@ -495,6 +677,18 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
     return new BlobWriteChannel(getOptions(), blobInfo, optionsMap);
   }
 
+  @Override
+  public Blob createFrom(BlobInfo blobInfo, Path path, ParallelUploadOption... options)
+      throws IOException {
+    return new ParallelCompositeUpload(this, blobInfo, path, options).run();
+  }
+
+  @Override
+  public Blob downloadTo(BlobId blob, Path path, ParallelDownloadOption... options)
+      throws IOException {
+    return new ParallelDownload(this, blob, path, options).run();
+  }
+
   @Override
   public URL signUrl(BlobInfo blobInfo, long duration, TimeUnit unit, SignUrlOption... options) {
     EnumMap<SignUrlOption.Option, Object> optionMap = Maps.newEnumMap(SignUrlOption.Option.class);
@@ -565,21 +759,19 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
   @Override
   public List<Blob> get(Iterable<BlobId> blobIds) {
     StorageBatch batch = batch();
-    final List<Blob> results = Lists.newArrayList();
+    List<StorageBatchResult<Blob>> batchResults = Lists.newArrayList();
     for (BlobId blob : blobIds) {
-      batch.get(blob).notify(new BatchResult.Callback<Blob, StorageException>() {
-        @Override
-        public void success(Blob result) {
-          results.add(result);
-        }
-
-        @Override
-        public void error(StorageException exception) {
-          results.add(null);
-        }
-      });
+      batchResults.add(batch.get(blob));
     }
     batch.submit();
+    List<Blob> results = Lists.newArrayListWithCapacity(batchResults.size());
+    for (StorageBatchResult<Blob> batchResult : batchResults) {
+      try {
+        results.add(batchResult.get());
+      } catch (StorageException ex) {
+        results.add(null);
+      }
+    }
     return Collections.unmodifiableList(results);
   }
 
@@ -591,21 +783,19 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
   @Override
   public List<Blob> update(Iterable<BlobInfo> blobInfos) {
     StorageBatch batch = batch();
-    final List<Blob> results = Lists.newArrayList();
+    List<StorageBatchResult<Blob>> batchResults = Lists.newArrayList();
     for (BlobInfo blobInfo : blobInfos) {
-      batch.update(blobInfo).notify(new BatchResult.Callback<Blob, StorageException>() {
-        @Override
-        public void success(Blob result) {
-          results.add(result);
-        }
-
-        @Override
-        public void error(StorageException exception) {
-          results.add(null);
-        }
-      });
+      batchResults.add(batch.update(blobInfo));
     }
     batch.submit();
+    List<Blob> results = Lists.newArrayListWithCapacity(batchResults.size());
+    for (StorageBatchResult<Blob> batchResult : batchResults) {
+      try {
+        results.add(batchResult.get());
+      } catch (StorageException ex) {
+        results.add(null);
+      }
+    }
     return Collections.unmodifiableList(results);
   }
 
@@ -617,21 +807,19 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
   @Override
   public List<Boolean> delete(Iterable<BlobId> blobIds) {
     StorageBatch batch = batch();
-    final List<Boolean> results = Lists.newArrayList();
+    List<StorageBatchResult<Boolean>> batchResults = Lists.newArrayList();
     for (BlobId blob : blobIds) {
-      batch.delete(blob).notify(new BatchResult.Callback<Boolean, StorageException>() {
-        @Override
-        public void success(Boolean result) {
-          results.add(result);
-        }
-
-        @Override
-        public void error(StorageException exception) {
-          results.add(Boolean.FALSE);
-        }
-      });
+      batchResults.add(batch.delete(blob));
     }
     batch.submit();
+    List<Boolean> results = Lists.newArrayListWithCapacity(batchResults.size());
+    for (StorageBatchResult<Boolean> batchResult : batchResults) {
+      try {
+        results.add(batchResult.get());
+      } catch (StorageException ex) {
+        results.add(Boolean.FALSE);
+      }
+    }
     return Collections.unmodifiableList(results);
   }
 
@@ -661,6 +849,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucket));
     }
   }
 
@@ -676,6 +866,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucket));
     }
   }
 
@@ -691,6 +883,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucket));
     }
   }
 
@@ -735,6 +929,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucket));
     }
   }
 
@@ -750,6 +946,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucket));
     }
   }
 
@@ -765,6 +963,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(bucketResource(bucket));
     }
   }
 
@@ -811,6 +1011,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock());
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(blob.getBucket(), blob.getName()));
     }
   }
 
@@ -829,6 +1031,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(blob.getBucket(), blob.getName()));
     }
   }
 
@@ -847,6 +1051,8 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
       }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getOptions().getClock()));
     } catch (RetryHelperException e) {
       throw StorageException.translateAndThrow(e);
+    } finally {
+      invalidateCachedReads(blobResource(blob.getBucket(), blob.getName()));
     }
   }
 
@@ -933,4 +1139,38 @@ final class StorageImpl extends BaseService<StorageOptions> implements Storage {
   static Map<StorageRpc.Option, ?> optionMap(BlobId blobId, Option... options) {
     return optionMap(blobId.getGeneration(), null, options);
   }
+
+  /**
+   * Returns whether the response to a read with the given options may be cached. Reads with
+   * preconditions are not cached, as their response depends on the state of the resource.
+   */
+  private static boolean isCacheable(Map<StorageRpc.Option, ?> optionsMap) {
+    return CACHEABLE_OPTIONS.containsAll(optionsMap.keySet());
+  }
+
+  /**
+   * Returns the key of a bucket in the response cache, see {@link ResponseCache}.
+   */
+  static Object bucketResource(String bucket) {
+    return Arrays.asList("storage#bucket", bucket);
+  }
+
+  /**
+   * Returns the key of a blob, of all its generations, in the response cache, see
+   * {@link ResponseCache}.
+   */
+  static Object blobResource(String bucket, String name) {
+    return Arrays.asList("storage#object", bucket, name);
+  }
+
+  /**
+   * Drops the cached responses of a blob, if {@code options} have a response cache. Used by the
+   * writers that complete outside of {@code StorageImpl}.
+   */
+  static void invalidateCachedBlob(StorageOptions options, String bucket, String name) {
+    ResponseCache cache = options.getResponseCache();
+    if (cache != null) {
+      cache.invalidate(blobResource(bucket, name));
+    }
+  }
 }
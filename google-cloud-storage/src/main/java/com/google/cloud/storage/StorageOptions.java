@@ -16,19 +16,26 @@
 
 package com.google.cloud.storage;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.cloud.HttpServiceOptions;
 import com.google.cloud.storage.spi.DefaultStorageRpc;
 import com.google.cloud.storage.spi.StorageRpc;
 import com.google.cloud.storage.spi.StorageRpcFactory;
 import com.google.common.collect.ImmutableSet;
 
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 public class StorageOptions extends HttpServiceOptions<Storage, StorageRpc, StorageOptions> {
 
   private static final long serialVersionUID = -2907268477247502947L;
   private static final String GCS_SCOPE = "https://www.googleapis.com/auth/devstorage.full_control";
   private static final Set<String> SCOPES = ImmutableSet.of(GCS_SCOPE);
+  private static final int DEFAULT_BATCH_PARALLELISM = 4;
+
+  private final int batchParallelism;
 
   public static class DefaultStorageFactory implements StorageFactory {
 
@@ -53,10 +60,27 @@ public class StorageOptions extends HttpServiceOptions<Storage, StorageRpc, Stor
   public static class Builder extends
       HttpServiceOptions.Builder<Storage, StorageRpc, StorageOptions, Builder> {
 
+    private int batchParallelism = DEFAULT_BATCH_PARALLELISM;
+
     private Builder() {}
 
     private Builder(StorageOptions options) {
       super(options);
+      batchParallelism = options.batchParallelism;
+    }
+
+    /**
+     * Sets the maximum number of sub-batches of a {@link StorageBatch} that are sent to the
+     * service at the same time. Large batches are split into sub-batches of at most 100
+     * operations each. Setting this value to 1 sends sub-batches one after the other. Default
+     * value is 4.
+     *
+     * @throws IllegalArgumentException if {@code batchParallelism} is not positive
+     */
+    public Builder setBatchParallelism(int batchParallelism) {
+      checkArgument(batchParallelism > 0, "Batch parallelism must be > 0");
+      this.batchParallelism = batchParallelism;
+      return this;
     }
 
     @Override
@@ -67,6 +91,7 @@ public class StorageOptions extends HttpServiceOptions<Storage, StorageRpc, Stor
 
   private StorageOptions(Builder builder) {
     super(StorageFactory.class, StorageRpcFactory.class, builder);
+    batchParallelism = builder.batchParallelism;
   }
 
   @Override
@@ -84,6 +109,22 @@ public class StorageOptions extends HttpServiceOptions<Storage, StorageRpc, Stor
     return SCOPES;
   }
 
+  /**
+   * {@inheritDoc} Read channels also run their read-ahead on this executor.
+   */
+  @Override
+  protected ExecutorService getChannelExecutor() {
+    return super.getChannelExecutor();
+  }
+
+  /**
+   * Returns the maximum number of sub-batches of a {@link StorageBatch} that are sent to the
+   * service at the same time.
+   */
+  public int getBatchParallelism() {
+    return batchParallelism;
+  }
+
   /**
    * Returns a default {@code StorageOptions} instance.
    */
@@ -107,12 +148,16 @@ public class StorageOptions extends HttpServiceOptions<Storage, StorageRpc, Stor
 
   @Override
   public int hashCode() {
-    return baseHashCode();
+    return Objects.hash(baseHashCode(), batchParallelism);
   }
 
   @Override
   public boolean equals(Object obj) {
-    return obj instanceof StorageOptions && baseEquals((StorageOptions) obj);
+    if (!(obj instanceof StorageOptions)) {
+      return false;
+    }
+    StorageOptions other = (StorageOptions) obj;
+    return baseEquals(other) && batchParallelism == other.batchParallelism;
   }
 
   @Deprecated
@@ -71,32 +71,54 @@ import com.google.cloud.BaseServiceException;
 import com.google.cloud.storage.StorageException;
 import com.google.cloud.storage.StorageOptions;
 import com.google.common.base.Function;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-public class DefaultStorageRpc implements StorageRpc {
+public class DefaultStorageRpc implements DirectStorageRpc {
 
   public static final String DEFAULT_PROJECTION = "full";
   private static final String ENCRYPTION_KEY_PREFIX = "x-goog-encryption-";
   private static final String SOURCE_ENCRYPTION_KEY_PREFIX = "x-goog-copy-source-encryption-";
   private final StorageOptions options;
   private final Storage storage;
+  private ExecutorService batchExecutor;
 
   private static final long MEGABYTE = 1024L * 1024L;
+  private static final ThreadFactory BATCH_THREAD_FACTORY = new ThreadFactoryBuilder()
+      .setDaemon(true)
+      .setNameFormat("storage-batch-%d")
+      .build();
 
   public DefaultStorageRpc(StorageOptions options) {
     HttpTransport transport = options.getHttpTransportFactory().create();
@@ -171,16 +193,69 @@ public class DefaultStorageRpc implements StorageRpc {
       }
     }
 
+    /**
+     * Executes the sub-batches. Up to {@link StorageOptions#getBatchParallelism()} sub-batches are
+     * executed at the same time: the calling thread and helper threads from
+     * {@link #batchExecutor()} take sub-batches from a shared queue until it is empty. This method
+     * returns only once all started sub-batches have completed, so that no callback is invoked
+     * after it returns.
+     */
     @Override
     public void submit() {
+      final Queue<BatchRequest> queue = new ConcurrentLinkedQueue<>(batches);
+      Callable<Void> worker = new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          BatchRequest batch;
+          while ((batch = queue.poll()) != null) {
+            batch.execute();
+          }
+          return null;
+        }
+      };
+      int helpers = Math.max(0, Math.min(options.getBatchParallelism(), batches.size()) - 1);
+      List<Future<Void>> futures = new ArrayList<>(helpers);
+      for (int i = 0; i < helpers; i++) {
+        futures.add(batchExecutor().submit(worker));
+      }
+      Throwable failure = null;
       try {
-        for (BatchRequest batch : batches) {
-          batch.execute();
+        worker.call();
+      } catch (Exception ex) {
+        queue.clear();
+        failure = ex;
+      }
+      for (Future<Void> future : futures) {
+        try {
+          Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException ex) {
+          queue.clear();
+          failure = firstNonNull(failure, ex.getCause());
         }
-      } catch (IOException ex) {
-        throw translate(ex);
       }
+      if (failure != null) {
+        Throwables.propagateIfPossible(failure);
+        if (failure instanceof IOException) {
+          throw translate((IOException) failure);
+        }
+        throw new StorageException(0, failure.getMessage(), failure);
+      }
+    }
+  }
+
+  /**
+   * Returns the executor used to run sub-batches concurrently. Its threads are created lazily, up
+   * to the configured batch parallelism, and terminate when idle.
+   */
+  private synchronized ExecutorService batchExecutor() {
+    if (batchExecutor == null) {
+      int threads = options.getBatchParallelism();
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L,
+          TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), BATCH_THREAD_FACTORY);
+      executor.allowCoreThreadTimeOut(true);
+      batchExecutor = executor;
     }
+    return batchExecutor;
   }
 
   private static <T> JsonBatchCallback<T> toJsonCallback(final RpcBatch.Callback<T> callback) {
@@ -452,30 +527,145 @@ public class DefaultStorageRpc implements StorageRpc {
     }
     request.setSourceObjects(sourceObjects);
     try {
-      return storage.objects()
+      Storage.Objects.Compose compose = storage.objects()
           .compose(target.getBucket(), target.getName(), request)
+          .setDestinationPredefinedAcl(PREDEFINED_ACL.getString(targetOptions))
           .setIfMetagenerationMatch(IF_METAGENERATION_MATCH.getLong(targetOptions))
-          .setIfGenerationMatch(IF_GENERATION_MATCH.getLong(targetOptions))
-          .execute();
+          .setIfGenerationMatch(IF_GENERATION_MATCH.getLong(targetOptions));
+      setEncryptionHeaders(compose.getRequestHeaders(), ENCRYPTION_KEY_PREFIX, targetOptions);
+      return compose.execute();
     } catch (IOException ex) {
       throw translate(ex);
     }
   }
 
+  private Get getMediaCall(StorageObject from, Map<Option, ?> options) throws IOException {
+    Get req = storage.objects()
+        .get(from.getBucket(), from.getName())
+        .setGeneration(from.getGeneration())
+        .setIfMetagenerationMatch(IF_METAGENERATION_MATCH.getLong(options))
+        .setIfMetagenerationNotMatch(IF_METAGENERATION_NOT_MATCH.getLong(options))
+        .setIfGenerationMatch(IF_GENERATION_MATCH.getLong(options))
+        .setIfGenerationNotMatch(IF_GENERATION_NOT_MATCH.getLong(options));
+    setEncryptionHeaders(req.getRequestHeaders(), ENCRYPTION_KEY_PREFIX, options);
+    return req;
+  }
+
+  private Get rangedMediaCall(StorageObject from, Map<Option, ?> options, long position,
+      int bytes) throws IOException {
+    checkArgument(position >= 0, "Position should be non-negative, is %d", position);
+    Get req = getMediaCall(from, options);
+    StringBuilder range = new StringBuilder();
+    range.append("bytes=").append(position).append("-").append(position + bytes - 1);
+    req.getRequestHeaders().setRange(range.toString());
+    return req;
+  }
+
+  /**
+   * Returns the content of a ranged media response, as stored by the service.
+   */
+  private static InputStream rangedContent(HttpResponse httpResponse) throws IOException {
+    // todo(mziccard) remove when
+    // https://github.com/GoogleCloudPlatform/google-cloud-java/issues/982 is fixed
+    String contentEncoding = httpResponse.getContentEncoding();
+    if (contentEncoding != null && contentEncoding.contains("gzip")) {
+      try {
+        Field responseField = httpResponse.getClass().getDeclaredField("response");
+        responseField.setAccessible(true);
+        LowLevelHttpResponse lowLevelHttpResponse =
+            (LowLevelHttpResponse) responseField.get(httpResponse);
+        return lowLevelHttpResponse.getContent();
+      } catch (IllegalAccessException|NoSuchFieldException ex) {
+        throw new StorageException(
+            BaseServiceException.UNKNOWN_CODE, "Error parsing gzip response", ex);
+      }
+    }
+    return httpResponse.getContent();
+  }
+
+  /**
+   * Returns the object metadata carried by the headers of a media response. Hashes describe the
+   * object as stored, so they are only set if the content was not transcoded by the service.
+   */
+  private static StorageObject objectFromHeaders(HttpResponse response) {
+    HttpHeaders headers = response.getHeaders();
+    StorageObject object = new StorageObject().setEtag(headers.getETag());
+    String generation = headers.getFirstHeaderStringValue("x-goog-generation");
+    if (generation != null) {
+      object.setGeneration(Long.valueOf(generation));
+    }
+    String contentRange = headers.getContentRange();
+    if (contentRange != null) {
+      try {
+        // Content-Range is "bytes <first>-<last>/<size>"
+        object.setSize(new BigInteger(contentRange.substring(contentRange.lastIndexOf('/') + 1)));
+      } catch (NumberFormatException ex) {
+        // The size is "*" when unknown
+      }
+    }
+    String storedEncoding = headers.getFirstHeaderStringValue("x-goog-stored-content-encoding");
+    String contentEncoding = response.getContentEncoding();
+    if (storedEncoding != null && !"identity".equals(storedEncoding)
+        && (contentEncoding == null || !contentEncoding.contains(storedEncoding))) {
+      return object;
+    }
+    for (String hashes : headers.getHeaderStringValues("x-goog-hash")) {
+      for (String hash : hashes.split(",")) {
+        hash = hash.trim();
+        if (hash.startsWith("crc32c=")) {
+          object.setCrc32c(hash.substring("crc32c=".length()));
+        } else if (hash.startsWith("md5=")) {
+          object.setMd5Hash(hash.substring("md5=".length()));
+        }
+      }
+    }
+    return object;
+  }
+
+  /**
+   * Reads from {@code input} into {@code buffer} until either the buffer is full or the end of the
+   * stream is reached. Heap buffers are filled in place; direct buffers are filled through a
+   * channel, which only uses a small transfer buffer.
+   */
+  private static void readFully(InputStream input, ByteBuffer buffer) throws IOException {
+    if (buffer.hasArray()) {
+      byte[] array = buffer.array();
+      while (buffer.hasRemaining()) {
+        int read = input.read(array, buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (read < 0) {
+          break;
+        }
+        buffer.position(buffer.position() + read);
+      }
+    } else {
+      ReadableByteChannel channel = Channels.newChannel(input);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // keep reading until the buffer is full or the stream is over
+      }
+    }
+  }
+
   @Override
   public byte[] load(StorageObject from, Map<Option, ?> options) {
     try {
-      Storage.Objects.Get getRequest = storage.objects()
-          .get(from.getBucket(), from.getName())
-          .setGeneration(from.getGeneration())
-          .setIfMetagenerationMatch(IF_METAGENERATION_MATCH.getLong(options))
-          .setIfMetagenerationNotMatch(IF_METAGENERATION_NOT_MATCH.getLong(options))
-          .setIfGenerationMatch(IF_GENERATION_MATCH.getLong(options))
-          .setIfGenerationNotMatch(IF_GENERATION_NOT_MATCH.getLong(options));
-      setEncryptionHeaders(getRequest.getRequestHeaders(), ENCRYPTION_KEY_PREFIX, options);
-      ByteArrayOutputStream out = new ByteArrayOutputStream();
-      getRequest.executeMedia().download(out);
-      return out.toByteArray();
+      HttpResponse httpResponse = getMediaCall(from, options).executeMedia();
+      Long contentLength = httpResponse.getHeaders().getContentLength();
+      if (httpResponse.getContentEncoding() != null || contentLength == null
+          || contentLength > Integer.MAX_VALUE) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        httpResponse.download(out);
+        return out.toByteArray();
+      }
+      // The size is known upfront, read straight into the returned array
+      byte[] content = new byte[contentLength.intValue()];
+      ByteBuffer buffer = ByteBuffer.wrap(content);
+      InputStream input = httpResponse.getContent();
+      try {
+        readFully(input, buffer);
+      } finally {
+        input.close();
+      }
+      return buffer.hasRemaining() ? Arrays.copyOf(content, buffer.position()) : content;
     } catch (IOException ex) {
       throw translate(ex);
     }
@@ -490,37 +680,13 @@ public class DefaultStorageRpc implements StorageRpc {
   public Tuple<String, byte[]> read(StorageObject from, Map<Option, ?> options, long position,
       int bytes) {
     try {
-      Get req = storage.objects()
-          .get(from.getBucket(), from.getName())
-          .setGeneration(from.getGeneration())
-          .setIfMetagenerationMatch(IF_METAGENERATION_MATCH.getLong(options))
-          .setIfMetagenerationNotMatch(IF_METAGENERATION_NOT_MATCH.getLong(options))
-          .setIfGenerationMatch(IF_GENERATION_MATCH.getLong(options))
-          .setIfGenerationNotMatch(IF_GENERATION_NOT_MATCH.getLong(options));
-      checkArgument(position >= 0, "Position should be non-negative, is %d", position);
-      StringBuilder range = new StringBuilder();
-      range.append("bytes=").append(position).append("-").append(position + bytes - 1);
-      HttpHeaders requestHeaders = req.getRequestHeaders();
-      requestHeaders.setRange(range.toString());
-      setEncryptionHeaders(requestHeaders, ENCRYPTION_KEY_PREFIX, options);
+      Get req = rangedMediaCall(from, options, position, bytes);
       ByteArrayOutputStream output = new ByteArrayOutputStream(bytes);
-      HttpResponse httpResponse = req.executeMedia();
-      // todo(mziccard) remove when
-      // https://github.com/GoogleCloudPlatform/google-cloud-java/issues/982 is fixed
-      String contentEncoding = httpResponse.getContentEncoding();
-      if (contentEncoding != null && contentEncoding.contains("gzip")) {
-        try {
-          Field responseField = httpResponse.getClass().getDeclaredField("response");
-          responseField.setAccessible(true);
-          LowLevelHttpResponse lowLevelHttpResponse =
-              (LowLevelHttpResponse) responseField.get(httpResponse);
-          IOUtils.copy(lowLevelHttpResponse.getContent(), output);
-        } catch (IllegalAccessException|NoSuchFieldException ex) {
-          throw new StorageException(
-              BaseServiceException.UNKNOWN_CODE, "Error parsing gzip response", ex);
-        }
-      } else {
-        httpResponse.download(output);
+      InputStream input = rangedContent(req.executeMedia());
+      try {
+        IOUtils.copy(input, output);
+      } finally {
+        input.close();
       }
       String etag = req.getLastResponseHeaders().getETag();
       return Tuple.of(etag, output.toByteArray());
@@ -533,16 +699,46 @@ public class DefaultStorageRpc implements StorageRpc {
     }
   }
 
+  @Override
+  public StorageObject read(StorageObject from, Map<Option, ?> options, long position,
+      ByteBuffer buffer) {
+    checkArgument(buffer.hasRemaining(), "Buffer should have remaining space");
+    try {
+      Get req = rangedMediaCall(from, options, position, buffer.remaining());
+      HttpResponse response = req.executeMedia();
+      InputStream input = rangedContent(response);
+      try {
+        readFully(input, buffer);
+      } finally {
+        input.close();
+      }
+      return objectFromHeaders(response);
+    } catch (IOException ex) {
+      StorageException serviceException = translate(ex);
+      if (serviceException.getCode() == SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+        return null;
+      }
+      throw serviceException;
+    }
+  }
+
   @Override
   public void write(String uploadId, byte[] toWrite, int toWriteOffset, long destOffset, int length,
       boolean last) {
+    writeWithResponse(uploadId, toWrite, toWriteOffset, destOffset, length, last);
+  }
+
+  @Override
+  public StorageObject writeWithResponse(String uploadId, byte[] toWrite, int toWriteOffset,
+      long destOffset, int length, boolean last) {
     try {
       if (length == 0 && !last) {
-        return;
+        return null;
       }
       GenericUrl url = new GenericUrl(uploadId);
       HttpRequest httpRequest = storage.getRequestFactory().buildPutRequest(url,
           new ByteArrayContent(null, toWrite, toWriteOffset, length));
+      httpRequest.setParser(storage.getObjectParser());
       long limit = destOffset + length;
       StringBuilder range = new StringBuilder("bytes ");
       if (length == 0) {
@@ -560,8 +756,9 @@ public class DefaultStorageRpc implements StorageRpc {
       int code;
       String message;
       IOException exception = null;
+      HttpResponse response = null;
       try {
-        HttpResponse response = httpRequest.execute();
+        response = httpRequest.execute();
         code = response.getStatusCode();
         message = response.getStatusMessage();
       } catch (HttpResponseException ex) {
@@ -578,6 +775,7 @@ public class DefaultStorageRpc implements StorageRpc {
         error.setMessage(message);
         throw translate(error);
       }
+      return last ? response.parseAs(StorageObject.class) : null;
     } catch (IOException ex) {
       throw translate(ex);
     }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.spi;
+
+import com.google.api.services.storage.model.StorageObject;
+import com.google.cloud.storage.StorageException;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * An optional extension of {@link StorageRpc} for implementations that can read object content
+ * straight into a caller's buffer and report the object metadata returned along with media reads
+ * and writes. Read and write channels use these methods when the service's rpc implements this
+ * interface, which lets them avoid a copy per chunk and verify the checksums of the transferred
+ * bytes. Otherwise they fall back to {@link StorageRpc#read(StorageObject, Map, long, int)} and
+ * {@link StorageRpc#write(String, byte[], int, long, int, boolean)}, without checksum verification.
+ */
+public interface DirectStorageRpc extends StorageRpc {
+
+  /**
+   * Reads up to {@code buffer.remaining()} bytes from a storage object at the given position,
+   * writing them directly into {@code buffer}. On return the buffer's position is advanced by the
+   * number of bytes read, which is less than requested only if the end of the object was reached.
+   *
+   * @return the storage object's metadata reported along with its content (etag, generation,
+   *     size and, when they apply to the returned bytes, crc32c and md5 hashes of the whole
+   *     object), or {@code null} if {@code position} is past the end of the object
+   * @throws StorageException upon failure
+   */
+  StorageObject read(StorageObject from, Map<Option, ?> options, long position, ByteBuffer buffer);
+
+  /**
+   * Writes the provided bytes to a storage object at the provided location. If {@code last} is
+   * {@code true} the upload is completed and the metadata of the created object is returned.
+   *
+   * @return the created object if {@code last} is {@code true}, {@code null} otherwise
+   * @throws StorageException upon failure
+   */
+  StorageObject writeWithResponse(String uploadId, byte[] toWrite, int toWriteOffset,
+      long destOffset, int length, boolean last);
+}
@@ -47,7 +47,9 @@ public interface StorageRpc {
     DELIMITER("delimiter"),
     VERSIONS("versions"),
     FIELDS("fields"),
-    CUSTOMER_SUPPLIED_KEY("customerSuppliedKey");
+    CUSTOMER_SUPPLIED_KEY("customerSuppliedKey"),
+    // Client-side only, never sent to the service
+    READ_AHEAD("readAhead");
 
     private final String value;
 
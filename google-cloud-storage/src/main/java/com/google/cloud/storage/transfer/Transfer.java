@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.transfer;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bulk upload or download started by a {@link TransferManager}. This class exposes the progress
+ * and throughput of the transfer while it runs, and the result of every file once it completes.
+ * This class is thread-safe.
+ */
+public final class Transfer {
+
+  private final long startNanos = System.nanoTime();
+  private final List<Future<TransferResult>> futures = new ArrayList<>();
+  private final AtomicLong totalBytes = new AtomicLong();
+  private final AtomicLong bytesTransferred = new AtomicLong();
+  private final AtomicInteger completedCount = new AtomicInteger();
+  private final AtomicInteger failedCount = new AtomicInteger();
+  private volatile int totalCount;
+  private volatile boolean scheduled;
+  private volatile long endNanos = -1;
+
+  Transfer() {}
+
+  synchronized void add(Future<TransferResult> future, long size) {
+    futures.add(future);
+    totalBytes.addAndGet(size);
+    totalCount++;
+  }
+
+  void addBytes(long bytes) {
+    bytesTransferred.addAndGet(bytes);
+  }
+
+  /**
+   * Marks that all files have been scheduled, so that the transfer completes with the last of them.
+   */
+  void scheduled() {
+    scheduled = true;
+    if (isDone()) {
+      endNanos = System.nanoTime();
+    }
+  }
+
+  void completed(TransferResult result) {
+    if (!result.isSuccessful()) {
+      failedCount.incrementAndGet();
+    }
+    completedCount.incrementAndGet();
+    if (isDone()) {
+      endNanos = System.nanoTime();
+    }
+  }
+
+  /**
+   * Returns the number of files to transfer.
+   */
+  public int getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * Returns the number of files whose transfer completed, either successfully or not.
+   */
+  public int getCompletedCount() {
+    return completedCount.get();
+  }
+
+  /**
+   * Returns the number of files whose transfer failed.
+   */
+  public int getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Returns the number of bytes to transfer.
+   */
+  public long getTotalBytes() {
+    return totalBytes.get();
+  }
+
+  /**
+   * Returns the number of bytes transferred so far.
+   */
+  public long getBytesTransferred() {
+    return bytesTransferred.get();
+  }
+
+  /**
+   * Returns the time elapsed since the transfer started, up to its completion.
+   */
+  public long getElapsedTime(TimeUnit unit) {
+    long end = endNanos >= 0 ? endNanos : System.nanoTime();
+    return unit.convert(end - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the average throughput of the transfer so far, in bytes per second.
+   */
+  public double getThroughput() {
+    long elapsedNanos = getElapsedTime(TimeUnit.NANOSECONDS);
+    if (elapsedNanos <= 0) {
+      return 0;
+    }
+    return getBytesTransferred() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  /**
+   * Returns {@code true} if all files have been transferred, either successfully or not.
+   */
+  public boolean isDone() {
+    return scheduled && completedCount.get() == totalCount;
+  }
+
+  /**
+   * Waits for the transfer to complete and returns the result of every file, in the order they
+   * were scheduled. Failures are reported by {@link TransferResult#getError()} rather than thrown.
+   *
+   * @throws InterruptedException if the current thread was interrupted while waiting
+   */
+  public List<TransferResult> getResults() throws InterruptedException {
+    List<Future<TransferResult>> toWait;
+    synchronized (this) {
+      toWait = new ArrayList<>(futures);
+    }
+    List<TransferResult> results = new ArrayList<>(toWait.size());
+    for (Future<TransferResult> future : toWait) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException ex) {
+        // Transfer tasks report failures in their result
+        throw Throwables.propagate(ex.getCause());
+      }
+    }
+    return Collections.unmodifiableList(results);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("completedCount", getCompletedCount())
+        .add("failedCount", getFailedCount())
+        .add("totalCount", getTotalCount())
+        .add("bytesTransferred", getBytesTransferred())
+        .add("totalBytes", getTotalBytes())
+        .toString();
+  }
+}
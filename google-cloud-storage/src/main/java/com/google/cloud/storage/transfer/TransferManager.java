@@ -0,0 +1,383 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.transfer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.cloud.Page;
+import com.google.cloud.PageImpl;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.Storage.BlobListOption;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads local directory trees to Google Cloud Storage and downloads blobs sharing a prefix to a
+ * local directory. Files are transferred concurrently by a bounded pool of worker threads. Files
+ * not larger than the {@link Builder#setResumableUploadThreshold(int) resumable upload threshold}
+ * are read in memory and uploaded with a single request; larger files are uploaded with a
+ * resumable upload. Resumable uploads and downloads are streamed through buffers of the
+ * {@link Builder#setBufferSize(int) buffer size}, which are reused across files.
+ *
+ * <p>Example of uploading a directory and waiting for the upload to complete.
+ * <pre> {@code
+ * try (TransferManager transferManager = TransferManager.newBuilder(storage).build()) {
+ *   Transfer upload = transferManager.uploadDirectory(Paths.get("/path/to/dir"), "bucket", "dir/");
+ *   for (TransferResult result : upload.getResults()) {
+ *     if (!result.isSuccessful()) {
+ *       // handle result.getError()
+ *     }
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>Example of downloading all blobs with a given prefix.
+ * <pre> {@code
+ * try (TransferManager transferManager = TransferManager.newBuilder(storage).build()) {
+ *   Transfer download = transferManager.downloadDirectory("bucket", "dir/", Paths.get("/tmp/dir"));
+ *   while (!download.isDone()) {
+ *     System.out.printf("%d/%d files, %.0f bytes/s%n", download.getCompletedCount(),
+ *         download.getTotalCount(), download.getThroughput());
+ *     Thread.sleep(1000);
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>This class is thread-safe. It must be closed to release its worker threads.
+ */
+public final class TransferManager implements AutoCloseable {
+
+  private static final int DEFAULT_PARALLELISM = 16;
+  private static final int DEFAULT_RESUMABLE_UPLOAD_THRESHOLD = 8 * 1024 * 1024;
+  private static final int DEFAULT_BUFFER_SIZE = 2 * 1024 * 1024;
+  private static final String SEPARATOR = "/";
+
+  private final Storage storage;
+  private final int resumableUploadThreshold;
+  private final int bufferSize;
+  private final ExecutorService executor;
+  private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Builder for {@code TransferManager} objects.
+   */
+  public static final class Builder {
+
+    private final Storage storage;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private int resumableUploadThreshold = DEFAULT_RESUMABLE_UPLOAD_THRESHOLD;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private Builder(Storage storage) {
+      this.storage = checkNotNull(storage);
+    }
+
+    /**
+     * Sets the maximum number of files transferred at the same time. Default value is 16.
+     *
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public Builder setParallelism(int parallelism) {
+      checkArgument(parallelism > 0, "Parallelism must be > 0");
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Sets the size, in bytes, above which files are uploaded with a resumable upload rather than
+     * a single request. Files up to this size are read in memory. Default value is 8 MB.
+     *
+     * @throws IllegalArgumentException if {@code resumableUploadThreshold} is negative
+     */
+    public Builder setResumableUploadThreshold(int resumableUploadThreshold) {
+      checkArgument(resumableUploadThreshold >= 0, "Resumable upload threshold must be >= 0");
+      this.resumableUploadThreshold = resumableUploadThreshold;
+      return this;
+    }
+
+    /**
+     * Sets the size, in bytes, of the buffer each worker uses to stream resumable uploads and
+     * downloads. Default value is 2 MB.
+     *
+     * @throws IllegalArgumentException if {@code bufferSize} is not positive
+     */
+    public Builder setBufferSize(int bufferSize) {
+      checkArgument(bufferSize > 0, "Buffer size must be > 0");
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    /**
+     * Creates a {@code TransferManager} object.
+     */
+    public TransferManager build() {
+      return new TransferManager(this);
+    }
+  }
+
+  private TransferManager(Builder builder) {
+    storage = builder.storage;
+    resumableUploadThreshold = builder.resumableUploadThreshold;
+    bufferSize = builder.bufferSize;
+    executor = Executors.newFixedThreadPool(builder.parallelism, new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("storage-transfer-%d")
+        .build());
+  }
+
+  /**
+   * Returns a builder for {@code TransferManager} objects using the given service.
+   */
+  public static Builder newBuilder(Storage storage) {
+    return new Builder(storage);
+  }
+
+  /**
+   * Uploads all regular files in {@code directory} and its subdirectories to {@code bucket}. The
+   * name of each blob is {@code prefix} followed by the path of the file relative to
+   * {@code directory}, using {@code /} as separator. This method returns once all files have been
+   * scheduled for upload.
+   *
+   * @throws IOException upon failure walking {@code directory}
+   */
+  public Transfer uploadDirectory(final Path directory, final String bucket, final String prefix)
+      throws IOException {
+    final Transfer transfer = new Transfer();
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (attrs.isRegularFile()) {
+          BlobInfo blobInfo = BlobInfo.newBuilder(bucket, blobName(prefix, directory, file))
+              .build();
+          schedule(transfer, new Upload(transfer, file, blobInfo, attrs.size()), attrs.size());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    transfer.scheduled();
+    return transfer;
+  }
+
+  /**
+   * Downloads all blobs in {@code bucket} whose name starts with {@code prefix} to
+   * {@code directory}. Each blob is written to the path obtained by removing {@code prefix} from
+   * its name and resolving the rest against {@code directory}, using {@code /} as separator.
+   * Missing directories are created; blobs whose name ends with {@code /} are skipped. This method
+   * returns once all blobs have been listed and scheduled for download.
+   */
+  public Transfer downloadDirectory(String bucket, String prefix, Path directory) {
+    Transfer transfer = new Transfer();
+    Page<Blob> page = storage.list(bucket, BlobListOption.prefix(prefix));
+    Iterator<Blob> blobs = PageImpl.iterateAllPrefetching(page);
+    while (blobs.hasNext()) {
+      Blob blob = blobs.next();
+      String relativeName = blob.getName().substring(prefix.length());
+      if (relativeName.isEmpty() || relativeName.endsWith(SEPARATOR)) {
+        continue;
+      }
+      Path file = directory.resolve(relativeName.replace(SEPARATOR,
+          directory.getFileSystem().getSeparator()));
+      long size = blob.getSize() != null ? blob.getSize() : 0L;
+      schedule(transfer, new Download(transfer, blob.getBlobId(), file, directory), size);
+    }
+    transfer.scheduled();
+    return transfer;
+  }
+
+  /**
+   * Stops accepting new transfers. Scheduled transfers that have not started yet are cancelled
+   * and transfers in progress are interrupted.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Waits for transfers in progress to complete after a {@link #close()}.
+   *
+   * @return {@code true} if all transfers completed, {@code false} if the timeout elapsed first
+   * @throws InterruptedException if the current thread was interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return executor.awaitTermination(timeout, unit);
+  }
+
+  private void schedule(Transfer transfer, Callable<TransferResult> task, long size) {
+    transfer.add(executor.submit(task), size);
+  }
+
+  private static String blobName(String prefix, Path directory, Path file) {
+    StringBuilder name = new StringBuilder(prefix);
+    String separator = "";
+    for (Path element : directory.relativize(file)) {
+      name.append(separator).append(element.toString());
+      separator = SEPARATOR;
+    }
+    return name.toString();
+  }
+
+  private byte[] acquireBuffer() {
+    byte[] buffer = buffers.poll();
+    return buffer != null ? buffer : new byte[bufferSize];
+  }
+
+  private void releaseBuffer(byte[] buffer) {
+    buffers.offer(buffer);
+  }
+
+  /**
+   * Base class for the transfer of a single file, which reports its outcome rather than throwing.
+   */
+  private abstract class FileTransfer implements Callable<TransferResult> {
+
+    final BlobId blobId;
+    final Path path;
+    private final Transfer transfer;
+    private long transferred;
+
+    FileTransfer(Transfer transfer, BlobId blobId, Path path) {
+      this.transfer = transfer;
+      this.blobId = blobId;
+      this.path = path;
+    }
+
+    @Override
+    public TransferResult call() {
+      Exception error = null;
+      try {
+        run();
+      } catch (Exception ex) {
+        error = ex;
+      }
+      TransferResult result = new TransferResult(blobId, path, transferred, error);
+      transfer.completed(result);
+      return result;
+    }
+
+    void transferred(long bytes) {
+      transferred += bytes;
+      transfer.addBytes(bytes);
+    }
+
+    abstract void run() throws IOException;
+  }
+
+  private final class Upload extends FileTransfer {
+
+    private final BlobInfo blobInfo;
+    private final long size;
+
+    Upload(Transfer transfer, Path path, BlobInfo blobInfo, long size) {
+      super(transfer, blobInfo.getBlobId(), path);
+      this.blobInfo = blobInfo;
+      this.size = size;
+    }
+
+    @Override
+    void run() throws IOException {
+      try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+        if (size <= resumableUploadThreshold) {
+          // The request takes the content as an array, read the file straight into one
+          ByteBuffer content = ByteBuffer.allocate((int) size);
+          while (content.hasRemaining()) {
+            if (file.read(content) < 0) {
+              throw new EOFException("Unexpected end of file " + path);
+            }
+          }
+          storage.create(blobInfo, content.array());
+          transferred(size);
+        } else {
+          byte[] buffer = acquireBuffer();
+          try (WriteChannel writer = storage.writer(blobInfo)) {
+            ByteBuffer content = ByteBuffer.wrap(buffer);
+            while (file.read(content) >= 0 || content.position() > 0) {
+              content.flip();
+              int written = writer.write(content);
+              content.compact();
+              transferred(written);
+            }
+          } finally {
+            releaseBuffer(buffer);
+          }
+        }
+      }
+    }
+  }
+
+  private final class Download extends FileTransfer {
+
+    private final Path directory;
+
+    Download(Transfer transfer, BlobId blobId, Path path, Path directory) {
+      super(transfer, blobId, path);
+      this.directory = directory;
+    }
+
+    @Override
+    void run() throws IOException {
+      if (!path.normalize().startsWith(directory.normalize())) {
+        throw new IOException("Blob " + blobId + " would be written outside of " + directory);
+      }
+      Path parent = path.getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      byte[] buffer = acquireBuffer();
+      try (ReadChannel reader = storage.reader(blobId);
+          FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE,
+              StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        reader.setChunkSize(buffer.length);
+        ByteBuffer content = ByteBuffer.wrap(buffer);
+        while (reader.read(content) >= 0) {
+          content.flip();
+          int written = 0;
+          while (content.hasRemaining()) {
+            written += file.write(content);
+          }
+          content.clear();
+          transferred(written);
+        }
+      } finally {
+        releaseBuffer(buffer);
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.transfer;
+
+import com.google.cloud.storage.BlobId;
+import com.google.common.base.MoreObjects;
+
+import java.nio.file.Path;
+
+/**
+ * The outcome of transferring a single file to or from a blob, as part of a {@link Transfer}.
+ */
+public final class TransferResult {
+
+  private final BlobId blobId;
+  private final Path path;
+  private final long size;
+  private final Exception error;
+
+  TransferResult(BlobId blobId, Path path, long size, Exception error) {
+    this.blobId = blobId;
+    this.path = path;
+    this.size = size;
+    this.error = error;
+  }
+
+  /**
+   * Returns the identity of the uploaded or downloaded blob.
+   */
+  public BlobId getBlobId() {
+    return blobId;
+  }
+
+  /**
+   * Returns the local file that was uploaded or downloaded.
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Returns the number of bytes transferred.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns {@code true} if the file was transferred, {@code false} otherwise.
+   */
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  /**
+   * Returns the error that made the transfer fail, or {@code null} if it was successful.
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("blobId", blobId)
+        .add("path", path)
+        .add("size", size)
+        .add("error", error)
+        .toString();
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Bulk transfers between local directories and Google Cloud Storage.
+ *
+ * <p>A simple usage example:
+ * <pre> {@code
+ * Storage storage = StorageOptions.getDefaultInstance().getService();
+ * try (TransferManager transferManager = TransferManager.newBuilder(storage).build()) {
+ *   Transfer upload = transferManager.uploadDirectory(Paths.get("/path/to/dir"), "bucket", "dir/");
+ *   List<TransferResult> results = upload.getResults();
+ * }
+ * } </pre>
+ */
+package com.google.cloud.storage.transfer;
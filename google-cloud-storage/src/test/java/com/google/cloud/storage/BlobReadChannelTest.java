@@ -18,26 +18,38 @@ package com.google.cloud.storage;
 
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.ReadChannel;
 import com.google.cloud.RestorableState;
 import com.google.cloud.RetryParams;
+import com.google.cloud.storage.spi.DirectStorageRpc;
 import com.google.cloud.storage.spi.StorageRpc;
 import com.google.cloud.storage.spi.StorageRpcFactory;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
 
+import org.easymock.IAnswer;
+import org.easymock.IExpectationSetters;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
@@ -50,6 +62,8 @@ public class BlobReadChannelTest {
   private static final String BLOB_NAME = "n";
   private static final BlobId BLOB_ID = BlobId.of(BUCKET_NAME, BLOB_NAME, -1L);
   private static final Map<StorageRpc.Option, ?> EMPTY_RPC_OPTIONS = ImmutableMap.of();
+  private static final Map<StorageRpc.Option, ?> READ_AHEAD_RPC_OPTIONS =
+      ImmutableMap.of(StorageRpc.Option.READ_AHEAD, 2);
   private static final int DEFAULT_CHUNK_SIZE = 2 * 1024 * 1024;
   private static final int CUSTOM_CHUNK_SIZE = 2 * 1024 * 1024;
   private static final Random RANDOM = new Random();
@@ -57,6 +71,7 @@ public class BlobReadChannelTest {
   private StorageOptions options;
   private StorageRpcFactory rpcFactoryMock;
   private StorageRpc storageRpcMock;
+  private DirectStorageRpc directRpcMock;
   private BlobReadChannel reader;
 
   @Before
@@ -147,6 +162,52 @@ public class BlobReadChannelTest {
     assertArrayEquals(result, readBuffer.array());
   }
 
+  @Test
+  public void testReadAhead() throws IOException {
+    reader = new BlobReadChannel(options, BLOB_ID, READ_AHEAD_RPC_OPTIONS);
+    reader.setChunkSize(42);
+    byte[] firstResult = randomByteArray(42);
+    byte[] secondResult = randomByteArray(21);
+    ByteBuffer readBuffer = ByteBuffer.allocate(63);
+    expect(storageRpcMock.read(BLOB_ID.toPb(), READ_AHEAD_RPC_OPTIONS, 0, 42))
+        .andReturn(StorageRpc.Tuple.of("etag", firstResult));
+    expect(storageRpcMock.read(BLOB_ID.toPb(), READ_AHEAD_RPC_OPTIONS, 42, 42))
+        .andReturn(StorageRpc.Tuple.of("etag", secondResult));
+    expect(storageRpcMock.read(BLOB_ID.toPb(), READ_AHEAD_RPC_OPTIONS, 84, 42))
+        .andReturn(StorageRpc.Tuple.of((String) null, new byte[0])).times(0, 1);
+    replay(storageRpcMock);
+    assertEquals(42, reader.read(readBuffer));
+    assertEquals(21, reader.read(readBuffer));
+    assertEquals(-1, reader.read(readBuffer));
+    assertArrayEquals(firstResult, Arrays.copyOf(readBuffer.array(), 42));
+    assertArrayEquals(secondResult, Arrays.copyOfRange(readBuffer.array(), 42, 63));
+    reader.close();
+  }
+
+  @Test
+  public void testReadAheadGenerationChanged() throws IOException {
+    reader = new BlobReadChannel(options, BLOB_ID, READ_AHEAD_RPC_OPTIONS);
+    reader.setChunkSize(42);
+    ByteBuffer readBuffer = ByteBuffer.allocate(84);
+    expect(storageRpcMock.read(BLOB_ID.toPb(), READ_AHEAD_RPC_OPTIONS, 0, 42))
+        .andReturn(StorageRpc.Tuple.of("etag1", randomByteArray(42)));
+    expect(storageRpcMock.read(BLOB_ID.toPb(), READ_AHEAD_RPC_OPTIONS, 42, 42))
+        .andReturn(StorageRpc.Tuple.of("etag2", randomByteArray(42)));
+    expect(storageRpcMock.read(BLOB_ID.toPb(), READ_AHEAD_RPC_OPTIONS, 84, 42))
+        .andReturn(StorageRpc.Tuple.of("etag2", randomByteArray(42))).times(0, 1);
+    replay(storageRpcMock);
+    reader.read(readBuffer);
+    try {
+      reader.read(readBuffer);
+      fail("Expected ReadChannel read to throw StorageException");
+    } catch (StorageException ex) {
+      StringBuilder messageBuilder = new StringBuilder();
+      messageBuilder.append("Blob ").append(BLOB_ID).append(" was updated while reading");
+      assertEquals(messageBuilder.toString(), ex.getMessage());
+    }
+    reader.close();
+  }
+
   @Test
   public void testClose() {
     replay(storageRpcMock);
@@ -195,6 +256,99 @@ public class BlobReadChannelTest {
     }
   }
 
+  @Test
+  public void testDirectReadIntoCallerBuffer() throws IOException {
+    useDirectRpc();
+    final byte[] result = randomByteArray(DEFAULT_CHUNK_SIZE);
+    final ByteBuffer readBuffer = ByteBuffer.allocate(DEFAULT_CHUNK_SIZE);
+    expect(directRpcMock.read(eq(BLOB_ID.toPb()), eq(EMPTY_RPC_OPTIONS), eq(0L),
+        anyObject(ByteBuffer.class))).andAnswer(new IAnswer<StorageObject>() {
+          @Override
+          public StorageObject answer() {
+            ByteBuffer buffer = (ByteBuffer) getCurrentArguments()[3];
+            assertSame(readBuffer, buffer);
+            buffer.put(result);
+            return new StorageObject().setEtag("etag");
+          }
+        });
+    replay(directRpcMock);
+    reader = new BlobReadChannel(options, BLOB_ID, EMPTY_RPC_OPTIONS);
+    assertEquals(DEFAULT_CHUNK_SIZE, reader.read(readBuffer));
+    assertArrayEquals(result, readBuffer.array());
+    verify(directRpcMock);
+  }
+
+  @Test
+  public void testDirectReadVerifiesCrc32c() throws IOException {
+    useDirectRpc();
+    byte[] result = randomByteArray(42);
+    String crc32c = crc32c(result, 0);
+    ByteBuffer readBuffer = ByteBuffer.allocate(21);
+    expectDirectRead(BLOB_ID, EMPTY_RPC_OPTIONS, 0, DEFAULT_CHUNK_SIZE, "etag", crc32c, result);
+    replay(directRpcMock);
+    reader = new BlobReadChannel(options, BLOB_ID, EMPTY_RPC_OPTIONS);
+    assertEquals(21, reader.read(readBuffer));
+    readBuffer.clear();
+    assertEquals(21, reader.read(readBuffer));
+    readBuffer.clear();
+    assertEquals(-1, reader.read(readBuffer));
+    verify(directRpcMock);
+  }
+
+  @Test
+  public void testDirectReadCrc32cMismatch() throws IOException {
+    useDirectRpc();
+    byte[] result = randomByteArray(42);
+    String crc32c = crc32c(result, 1);
+    ByteBuffer readBuffer = ByteBuffer.allocate(DEFAULT_CHUNK_SIZE);
+    expectDirectRead(BLOB_ID, EMPTY_RPC_OPTIONS, 0, DEFAULT_CHUNK_SIZE, "etag", crc32c, result);
+    replay(directRpcMock);
+    reader = new BlobReadChannel(options, BLOB_ID, EMPTY_RPC_OPTIONS);
+    assertEquals(42, reader.read(readBuffer));
+    try {
+      reader.read(readBuffer);
+      fail("Expected ReadChannel read to throw StorageException");
+    } catch (StorageException ex) {
+      assertTrue(ex.getMessage().contains("failed crc32c validation"));
+    }
+    verify(directRpcMock);
+  }
+
+  @Test
+  public void testDirectSeekSkipsCrc32c() throws IOException {
+    useDirectRpc();
+    byte[] result = randomByteArray(21);
+    ByteBuffer readBuffer = ByteBuffer.allocate(DEFAULT_CHUNK_SIZE);
+    expectDirectRead(BLOB_ID, EMPTY_RPC_OPTIONS, 21, DEFAULT_CHUNK_SIZE, "etag", "crc32c",
+        result);
+    replay(directRpcMock);
+    reader = new BlobReadChannel(options, BLOB_ID, EMPTY_RPC_OPTIONS);
+    reader.seek(21);
+    assertEquals(21, reader.read(readBuffer));
+    assertEquals(-1, reader.read(readBuffer));
+    verify(directRpcMock);
+  }
+
+  @Test
+  public void testReadAheadStopsAtBlobSize() throws IOException {
+    useDirectRpc();
+    byte[] firstResult = randomByteArray(42);
+    byte[] secondResult = randomByteArray(42);
+    ByteBuffer readBuffer = ByteBuffer.allocate(84);
+    expectDirectRead(BLOB_ID, READ_AHEAD_RPC_OPTIONS, 0, 42, "etag", null, 84L, firstResult);
+    expectDirectRead(BLOB_ID, READ_AHEAD_RPC_OPTIONS, 42, 42, "etag", null, 84L, secondResult);
+    replay(directRpcMock);
+    reader = new BlobReadChannel(options, BLOB_ID, READ_AHEAD_RPC_OPTIONS);
+    reader.setChunkSize(42);
+    assertEquals(42, reader.read(readBuffer));
+    assertEquals(42, reader.read(readBuffer));
+    assertEquals(-1, reader.read(readBuffer));
+    assertArrayEquals(firstResult, Arrays.copyOf(readBuffer.array(), 42));
+    assertArrayEquals(secondResult, Arrays.copyOfRange(readBuffer.array(), 42, 84));
+    reader.close();
+    verify(directRpcMock);
+  }
+
   @Test
   public void testSaveAndRestore() throws IOException {
     byte[] firstResult = randomByteArray(DEFAULT_CHUNK_SIZE);
@@ -229,9 +383,50 @@ public class BlobReadChannelTest {
     assertEquals(state.toString(), secondState.toString());
   }
 
+  /**
+   * Makes the service options use {@link #directRpcMock} rather than {@link #storageRpcMock}.
+   */
+  private void useDirectRpc() {
+    directRpcMock = createMock(DirectStorageRpc.class);
+    reset(rpcFactoryMock);
+    expect(rpcFactoryMock.create(anyObject(StorageOptions.class))).andReturn(directRpcMock);
+    replay(rpcFactoryMock, storageRpcMock);
+  }
+
+  private IExpectationSetters<StorageObject> expectDirectRead(BlobId blobId,
+      Map<StorageRpc.Option, ?> rpcOptions, long position, int length, String etag,
+      String crc32c, byte[] content) {
+    return expectDirectRead(blobId, rpcOptions, position, length, etag, crc32c, null, content);
+  }
+
+  private IExpectationSetters<StorageObject> expectDirectRead(BlobId blobId,
+      Map<StorageRpc.Option, ?> rpcOptions, long position, final int length, final String etag,
+      final String crc32c, final Long size, final byte[] content) {
+    return expect(directRpcMock.read(eq(blobId.toPb()), eq(rpcOptions), eq(position),
+        anyObject(ByteBuffer.class))).andAnswer(new IAnswer<StorageObject>() {
+          @Override
+          public StorageObject answer() {
+            ByteBuffer buffer = (ByteBuffer) getCurrentArguments()[3];
+            assertEquals(length, buffer.remaining());
+            buffer.put(content);
+            return new StorageObject().setEtag(etag).setCrc32c(crc32c)
+                .setSize(size != null ? BigInteger.valueOf(size) : null);
+          }
+        });
+  }
+
   private static byte[] randomByteArray(int size) {
     byte[] byteArray = new byte[size];
     RANDOM.nextBytes(byteArray);
     return byteArray;
   }
+
+  /**
+   * Returns the base64 CRC32C of {@code bytes}, computed independently of {@link Crc32c}, with
+   * its lowest bits flipped by {@code mask}.
+   */
+  private static String crc32c(byte[] bytes, int mask) {
+    int crc32c = Hashing.crc32c().hashBytes(bytes).asInt() ^ mask;
+    return BaseEncoding.base64().encode(Ints.toByteArray(crc32c));
+  }
 }
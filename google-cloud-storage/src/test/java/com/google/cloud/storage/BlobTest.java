@@ -48,6 +48,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.Key;
 import java.util.List;
 import java.util.Map;
@@ -320,6 +322,17 @@ public class BlobTest {
     assertSame(channel, blob.reader());
   }
 
+  @Test
+  public void testDownloadTo() throws Exception {
+    initializeExpectedBlob(2);
+    Path path = Paths.get("file");
+    expect(storage.getOptions()).andReturn(mockOptions);
+    expect(storage.downloadTo(BLOB_INFO.getBlobId(), path)).andReturn(expectedBlob);
+    replay(storage);
+    initializeBlob();
+    assertSame(expectedBlob, blob.downloadTo(path));
+  }
+
   @Test
   public void testReaderWithDecryptionKey() throws Exception {
     initializeExpectedBlob(2);
@@ -24,6 +24,7 @@ import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -32,9 +33,13 @@ import static org.junit.Assert.fail;
 
 import com.google.cloud.RestorableState;
 import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.spi.DirectStorageRpc;
 import com.google.cloud.storage.spi.StorageRpc;
 import com.google.cloud.storage.spi.StorageRpcFactory;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
 
 import org.easymock.Capture;
 import org.easymock.CaptureType;
@@ -69,6 +74,7 @@ public class BlobWriteChannelTest {
   private StorageOptions options;
   private StorageRpcFactory rpcFactoryMock;
   private StorageRpc storageRpcMock;
+  private DirectStorageRpc directRpcMock;
   private BlobWriteChannel writer;
 
   @Before
@@ -158,6 +164,28 @@ public class BlobWriteChannelTest {
     }
   }
 
+  @Test
+  public void testPipelinedWritesAndClose() throws IOException {
+    expect(storageRpcMock.open(BLOB_INFO.toPb(), EMPTY_RPC_OPTIONS)).andReturn(UPLOAD_ID);
+    Capture<byte[]> capturedBuffer = Capture.newInstance(CaptureType.ALL);
+    storageRpcMock.write(eq(UPLOAD_ID), capture(capturedBuffer), eq(0), eq(0L),
+        eq(DEFAULT_CHUNK_SIZE), eq(false));
+    storageRpcMock.write(eq(UPLOAD_ID), capture(capturedBuffer), eq(0),
+        eq((long) DEFAULT_CHUNK_SIZE), eq(MIN_CHUNK_SIZE), eq(true));
+    replay(storageRpcMock);
+    writer = new BlobWriteChannel(options, BLOB_INFO, EMPTY_RPC_OPTIONS);
+    writer.setPipelined(true);
+    ByteBuffer firstBuffer = randomBuffer(DEFAULT_CHUNK_SIZE);
+    ByteBuffer secondBuffer = randomBuffer(MIN_CHUNK_SIZE);
+    assertEquals(DEFAULT_CHUNK_SIZE, writer.write(firstBuffer));
+    assertEquals(MIN_CHUNK_SIZE, writer.write(secondBuffer));
+    writer.close();
+    assertArrayEquals(firstBuffer.array(), capturedBuffer.getValues().get(0));
+    assertArrayEquals(secondBuffer.array(),
+        Arrays.copyOf(capturedBuffer.getValues().get(1), MIN_CHUNK_SIZE));
+    assertTrue(!writer.isOpen());
+  }
+
   @Test
   public void testCloseWithoutFlush() throws IOException {
     expect(storageRpcMock.open(BLOB_INFO.toPb(), EMPTY_RPC_OPTIONS)).andReturn(UPLOAD_ID);
@@ -188,6 +216,74 @@ public class BlobWriteChannelTest {
     assertTrue(!writer.isOpen());
   }
 
+  @Test
+  public void testCloseWithDirectRpc() throws IOException {
+    useDirectRpc();
+    expect(directRpcMock.open(BLOB_INFO.toPb(), EMPTY_RPC_OPTIONS)).andReturn(UPLOAD_ID);
+    Capture<byte[]> capturedBuffer = Capture.newInstance();
+    ByteBuffer buffer = randomBuffer(MIN_CHUNK_SIZE);
+    expect(directRpcMock.writeWithResponse(eq(UPLOAD_ID), capture(capturedBuffer), eq(0),
+        eq(0L), eq(MIN_CHUNK_SIZE), eq(true))).andReturn(BLOB_INFO.toPb());
+    replay(directRpcMock);
+    writer = new BlobWriteChannel(options, BLOB_INFO, EMPTY_RPC_OPTIONS);
+    writer.write(buffer);
+    writer.close();
+    assertArrayEquals(buffer.array(), Arrays.copyOf(capturedBuffer.getValue(), MIN_CHUNK_SIZE));
+    assertTrue(!writer.isOpen());
+    verify(directRpcMock);
+  }
+
+  @Test
+  public void testCloseVerifiesCrc32c() throws IOException {
+    useDirectRpc();
+    expect(directRpcMock.open(BLOB_INFO.toPb(), EMPTY_RPC_OPTIONS)).andReturn(UPLOAD_ID);
+    ByteBuffer buffer = randomBuffer(MIN_CHUNK_SIZE);
+    String crc32c = crc32c(buffer.array(), 0);
+    expect(directRpcMock.writeWithResponse(eq(UPLOAD_ID), anyObject(byte[].class), eq(0),
+        eq(0L), eq(MIN_CHUNK_SIZE), eq(true)))
+        .andReturn(BLOB_INFO.toBuilder().setCrc32c(crc32c).build().toPb());
+    replay(directRpcMock);
+    writer = new BlobWriteChannel(options, BLOB_INFO, EMPTY_RPC_OPTIONS);
+    writer.write(buffer);
+    writer.close();
+    assertTrue(!writer.isOpen());
+    verify(directRpcMock);
+  }
+
+  @Test
+  public void testCloseWithoutStoredCrc32c() throws IOException {
+    useDirectRpc();
+    expect(directRpcMock.open(BLOB_INFO.toPb(), EMPTY_RPC_OPTIONS)).andReturn(UPLOAD_ID);
+    ByteBuffer buffer = randomBuffer(MIN_CHUNK_SIZE);
+    // a cleared crc32c is sent as an explicit null, which must not fail the upload
+    expect(directRpcMock.writeWithResponse(eq(UPLOAD_ID), anyObject(byte[].class), eq(0),
+        eq(0L), eq(MIN_CHUNK_SIZE), eq(true)))
+        .andReturn(BLOB_INFO.toBuilder().setCrc32c(null).build().toPb());
+    replay(directRpcMock);
+    writer = new BlobWriteChannel(options, BLOB_INFO, EMPTY_RPC_OPTIONS);
+    writer.write(buffer);
+    writer.close();
+    assertTrue(!writer.isOpen());
+    verify(directRpcMock);
+  }
+
+  @Test
+  public void testCloseCrc32cMismatch() throws IOException {
+    useDirectRpc();
+    expect(directRpcMock.open(BLOB_INFO.toPb(), EMPTY_RPC_OPTIONS)).andReturn(UPLOAD_ID);
+    ByteBuffer buffer = randomBuffer(MIN_CHUNK_SIZE);
+    String crc32c = crc32c(buffer.array(), 1);
+    expect(directRpcMock.writeWithResponse(eq(UPLOAD_ID), anyObject(byte[].class), eq(0),
+        eq(0L), eq(MIN_CHUNK_SIZE), eq(true)))
+        .andReturn(BLOB_INFO.toBuilder().setCrc32c(crc32c).build().toPb());
+    replay(directRpcMock);
+    writer = new BlobWriteChannel(options, BLOB_INFO, EMPTY_RPC_OPTIONS);
+    writer.write(buffer);
+    thrown.expect(StorageException.class);
+    thrown.expectMessage("failed crc32c validation");
+    writer.close();
+  }
+
   @Test
   public void testWriteClosed() throws IOException {
     expect(storageRpcMock.open(BLOB_INFO.toPb(), EMPTY_RPC_OPTIONS)).andReturn(UPLOAD_ID);
@@ -262,9 +358,28 @@ public class BlobWriteChannelTest {
     assertEquals(state.toString(), state2.toString());
   }
 
+  /**
+   * Makes the service options use {@link #directRpcMock} rather than {@link #storageRpcMock}.
+   */
+  private void useDirectRpc() {
+    directRpcMock = createMock(DirectStorageRpc.class);
+    reset(rpcFactoryMock);
+    expect(rpcFactoryMock.create(anyObject(StorageOptions.class))).andReturn(directRpcMock);
+    replay(rpcFactoryMock, storageRpcMock);
+  }
+
   private static ByteBuffer randomBuffer(int size) {
     byte[] byteArray = new byte[size];
     RANDOM.nextBytes(byteArray);
     return ByteBuffer.wrap(byteArray);
   }
+
+  /**
+   * Returns the base64 CRC32C of {@code bytes}, computed independently of {@link Crc32c}, with
+   * its lowest bits flipped by {@code mask}.
+   */
+  private static String crc32c(byte[] bytes, int mask) {
+    int crc32c = Hashing.crc32c().hashBytes(bytes).asInt() ^ mask;
+    return BaseEncoding.base64().encode(Ints.toByteArray(crc32c));
+  }
 }
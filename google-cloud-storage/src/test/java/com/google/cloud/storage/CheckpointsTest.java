@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.RestorableState;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.spi.StorageRpc;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.util.Map;
+
+public class CheckpointsTest {
+
+  private static final StorageOptions OPTIONS =
+      StorageOptions.newBuilder().setProjectId("p").build();
+  private static final BlobId BLOB_ID = BlobId.of("b", "n", 42L);
+  private static final BlobInfo BLOB_INFO =
+      BlobInfo.newBuilder(BLOB_ID).setContentType("text/plain").build();
+  private static final Map<StorageRpc.Option, ?> REQUEST_OPTIONS = ImmutableMap.of(
+      StorageRpc.Option.IF_GENERATION_MATCH, 42L,
+      StorageRpc.Option.CUSTOMER_SUPPLIED_KEY, "key",
+      StorageRpc.Option.READ_AHEAD, 2);
+  private static final byte[] BUFFER = {1, 2, 3};
+
+  @Test
+  public void testWriteChannelState() throws IOException {
+    RestorableState<WriteChannel> state =
+        BlobWriteChannel.StateImpl.builder(OPTIONS, BLOB_INFO, "upload-id")
+            .setCrc32c(7)
+            .setPosition(1024L)
+            .setBuffer(BUFFER)
+            .setIsOpen(true)
+            .setChunkSize(256 * 1024)
+            .build();
+    RestorableState<WriteChannel> restored =
+        Checkpoints.readWriteChannelState(OPTIONS, Channels.newChannel(checkpoint(state)));
+    // Only the identity of the blob is part of the checkpoint
+    RestorableState<WriteChannel> expected =
+        BlobWriteChannel.StateImpl.builder(OPTIONS, BlobInfo.newBuilder(BLOB_ID).build(),
+            "upload-id")
+            .setCrc32c(7)
+            .setPosition(1024L)
+            .setBuffer(BUFFER)
+            .setIsOpen(true)
+            .setChunkSize(256 * 1024)
+            .build();
+    assertEquals(expected, restored);
+  }
+
+  @Test
+  public void testReadChannelState() throws IOException {
+    RestorableState<ReadChannel> state =
+        BlobReadChannel.StateImpl.builder(OPTIONS, BLOB_ID, REQUEST_OPTIONS)
+            .setLastEtag("etag")
+            .setPosition(2048L)
+            .setIsOpen(true)
+            .setEndOfStream(false)
+            .setChunkSize(2 * 1024 * 1024)
+            .build();
+    assertEquals(state,
+        Checkpoints.readReadChannelState(OPTIONS, Channels.newChannel(checkpoint(state))));
+  }
+
+  @Test
+  public void testCopyWriterState() throws IOException {
+    RestorableState<CopyWriter> state = CopyWriter.StateImpl.newBuilder(OPTIONS, BLOB_ID,
+        REQUEST_OPTIONS, true, BLOB_INFO, ImmutableMap.<StorageRpc.Option, Object>of())
+        .setBlobSize(42L)
+        .setIsDone(false)
+        .setRewriteToken("token")
+        .setTotalBytesRewritten(21L)
+        .setMegabytesCopiedPerChunk(null)
+        .build();
+    assertEquals(state,
+        Checkpoints.readCopyWriterState(OPTIONS, Channels.newChannel(checkpoint(state))));
+  }
+
+  @Test
+  public void testCheckpointIsSmallerThanSerializedState() throws IOException {
+    RestorableState<WriteChannel> state =
+        BlobWriteChannel.StateImpl.builder(OPTIONS, BLOB_INFO, "upload-id")
+            .setBuffer(BUFFER)
+            .setIsOpen(true)
+            .setChunkSize(256 * 1024)
+            .build();
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(serialized)) {
+      output.writeObject(state);
+    }
+    assertTrue(checkpoint(state).available() < serialized.size());
+  }
+
+  @Test
+  public void testReadUnexpectedKind() throws IOException {
+    RestorableState<ReadChannel> state =
+        BlobReadChannel.StateImpl.builder(OPTIONS, BLOB_ID, REQUEST_OPTIONS).build();
+    try {
+      Checkpoints.readWriteChannelState(OPTIONS, Channels.newChannel(checkpoint(state)));
+      fail("Expected IOException");
+    } catch (IOException ex) {
+      assertEquals("Unexpected checkpoint kind 2, expected 1", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testReadUnsupportedVersion() {
+    try {
+      Checkpoints.readReadChannelState(OPTIONS,
+          Channels.newChannel(new ByteArrayInputStream(new byte[] {2, 2})));
+      fail("Expected IOException");
+    } catch (IOException ex) {
+      assertEquals("Unsupported checkpoint version 2", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testReadWithOtherProject() throws IOException {
+    RestorableState<ReadChannel> state =
+        BlobReadChannel.StateImpl.builder(OPTIONS, BLOB_ID, REQUEST_OPTIONS).build();
+    StorageOptions otherOptions = StorageOptions.newBuilder().setProjectId("other").build();
+    try {
+      Checkpoints.readReadChannelState(otherOptions, Channels.newChannel(checkpoint(state)));
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Checkpoint was taken for project p, not other", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testWriteUnknownState() throws IOException {
+    RestorableState<WriteChannel> state = new RestorableState<WriteChannel>() {
+      @Override
+      public WriteChannel restore() {
+        throw new UnsupportedOperationException();
+      }
+    };
+    try {
+      checkpoint(state);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException ex) {
+      // expected
+    }
+  }
+
+  private static ByteArrayInputStream checkpoint(RestorableState<?> state) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Checkpoints.write(state, Channels.newChannel(bytes));
+    return new ByteArrayInputStream(bytes.toByteArray());
+  }
+}
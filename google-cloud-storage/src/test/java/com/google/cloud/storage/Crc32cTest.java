@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class Crc32cTest {
+
+  private static final byte[] CHECK = "123456789".getBytes(UTF_8);
+  private static final byte[] DATA = new byte[1031];
+
+  static {
+    for (int i = 0; i < DATA.length; i++) {
+      DATA[i] = (byte) (i * 31 + 7);
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, Crc32c.update(0, new byte[0], 0, 0));
+    assertEquals(0xE3069283, Crc32c.update(0xE3069283, CHECK, 3, 0));
+  }
+
+  @Test
+  public void testCheckValue() {
+    assertEquals(0xE3069283, Crc32c.update(0, CHECK, 0, CHECK.length));
+  }
+
+  @Test
+  public void testKnownVectors() {
+    // From RFC 3720, section B.4
+    byte[] bytes = new byte[32];
+    assertEquals(0x8A9136AA, Crc32c.update(0, bytes, 0, bytes.length));
+    Arrays.fill(bytes, (byte) 0xFF);
+    assertEquals(0x62A8AB43, Crc32c.update(0, bytes, 0, bytes.length));
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+    assertEquals(0x46DD794E, Crc32c.update(0, bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void testUpdateInPieces() {
+    int expected = Crc32c.update(0, DATA, 0, DATA.length);
+    // Piece lengths that are not multiples of 8, so pieces start at every offset modulo 8
+    int[] lengths = {1, 3, 7, 13, 9, 5, 17, 2, 11, 250, 6, 15};
+    int crc = 0;
+    int offset = 0;
+    for (int i = 0; offset < DATA.length; i++) {
+      int length = Math.min(lengths[i % lengths.length], DATA.length - offset);
+      crc = Crc32c.update(crc, DATA, offset, length);
+      offset += length;
+    }
+    assertEquals(expected, crc);
+  }
+
+  @Test
+  public void testUpdateAtOffset() {
+    int expected = Crc32c.update(0, CHECK, 0, CHECK.length);
+    for (int offset = 1; offset < 8; offset++) {
+      byte[] shifted = new byte[offset + CHECK.length + 5];
+      Arrays.fill(shifted, (byte) 0x5A);
+      System.arraycopy(CHECK, 0, shifted, offset, CHECK.length);
+      assertEquals(expected, Crc32c.update(0, shifted, offset, CHECK.length));
+    }
+  }
+
+  @Test
+  public void testUpdateByteBuffer() {
+    int expected = Crc32c.update(0, DATA, 3, DATA.length - 3);
+    ByteBuffer heap = ByteBuffer.wrap(DATA);
+    heap.position(DATA.length);
+    assertEquals(expected, Crc32c.update(0, heap, 3));
+    assertEquals(DATA.length, heap.position());
+    ByteBuffer direct = ByteBuffer.allocateDirect(DATA.length);
+    direct.put(DATA);
+    assertEquals(expected, Crc32c.update(0, direct, 3));
+    assertEquals(DATA.length, direct.position());
+    ByteBuffer slice = ByteBuffer.wrap(DATA, 5, DATA.length - 5).slice();
+    slice.position(slice.limit());
+    assertEquals(Crc32c.update(0, DATA, 7, DATA.length - 7), Crc32c.update(0, slice, 2));
+  }
+
+  @Test
+  public void testToBase64() {
+    assertEquals("AAAAAA==", Crc32c.toBase64(0));
+    assertEquals("4waSgw==", Crc32c.toBase64(0xE3069283));
+  }
+}
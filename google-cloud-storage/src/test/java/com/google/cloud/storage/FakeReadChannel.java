@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.RestorableState;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A read channel over an array of bytes, for tests. The positions the channel seeks to are added
+ * to a list, which may be shared by several channels.
+ */
+public class FakeReadChannel implements ReadChannel {
+
+  private final byte[] content;
+  private final List<Long> seeks;
+  private long failingOffset = -1;
+  private RuntimeException readError;
+  private int position;
+  private boolean open = true;
+
+  public FakeReadChannel(byte[] content, List<Long> seeks) {
+    this.content = content;
+    this.seeks = seeks;
+  }
+
+  /**
+   * Makes reads from {@code offset} throw {@code error}.
+   */
+  public void setReadError(long offset, RuntimeException error) {
+    this.failingOffset = offset;
+    this.readError = error;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) {
+    if (readError != null && position == failingOffset) {
+      throw readError;
+    }
+    if (position >= content.length) {
+      return -1;
+    }
+    int length = Math.min(dst.remaining(), content.length - position);
+    dst.put(content, position, length);
+    position += length;
+    return length;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() {
+    open = false;
+  }
+
+  @Override
+  public void seek(long position) {
+    seeks.add(position);
+    this.position = (int) position;
+  }
+
+  @Override
+  @Deprecated
+  public void chunkSize(int chunkSize) {}
+
+  @Override
+  public void setChunkSize(int chunkSize) {}
+
+  @Override
+  public RestorableState<ReadChannel> capture() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import com.google.cloud.RestorableState;
+import com.google.cloud.WriteChannel;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * A write channel for tests, that puts the written bytes in a map, under the channel's name, when
+ * closed.
+ */
+public class FakeWriteChannel implements WriteChannel {
+
+  private final String name;
+  private final Map<String, byte[]> uploaded;
+  private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+  private RuntimeException closeError;
+  private boolean open = true;
+
+  public FakeWriteChannel(String name, Map<String, byte[]> uploaded) {
+    this.name = name;
+    this.uploaded = uploaded;
+  }
+
+  /**
+   * Makes {@link #close()} throw {@code error} instead of storing the written bytes.
+   */
+  public void setCloseError(RuntimeException error) {
+    this.closeError = error;
+  }
+
+  @Override
+  public int write(ByteBuffer src) {
+    int length = src.remaining();
+    byte[] bytes = new byte[length];
+    src.get(bytes);
+    content.write(bytes, 0, length);
+    return length;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() {
+    open = false;
+    if (closeError != null) {
+      throw closeError;
+    }
+    uploaded.put(name, content.toByteArray());
+  }
+
+  @Override
+  @Deprecated
+  public void chunkSize(int chunkSize) {}
+
+  @Override
+  public void setChunkSize(int chunkSize) {}
+
+  @Override
+  public RestorableState<WriteChannel> capture() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.aryEq;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Storage.BlobTargetOption;
+import com.google.cloud.storage.Storage.BlobWriteOption;
+import com.google.cloud.storage.Storage.ComposeRequest;
+import com.google.cloud.storage.Storage.ParallelUploadOption;
+import com.google.common.collect.ImmutableList;
+
+import org.easymock.Capture;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelCompositeUploadTest {
+
+  private static final String BUCKET_NAME = "b";
+  private static final String BLOB_NAME = "n";
+  private static final BlobInfo BLOB_INFO = BlobInfo.newBuilder(BUCKET_NAME, BLOB_NAME)
+      .setMd5("md5")
+      .setCrc32c("crc32c")
+      .build();
+  private static final BlobInfo TARGET_INFO = BlobInfo.newBuilder(BUCKET_NAME, BLOB_NAME)
+      .setMd5(null)
+      .setCrc32c(null)
+      .build();
+  private static final byte[] CONTENT = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+  private static final String KEY = "JVzfVl8NLD9FjedFuStegjRfES5ll5zc59CIXw572OA=";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Map<String, byte[]> uploaded = new ConcurrentHashMap<>();
+  private volatile boolean failUploads;
+  private Storage storageMock;
+  private Storage serviceMockReturnsOptions;
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    storageMock = createMock(Storage.class);
+    serviceMockReturnsOptions = createMock(Storage.class);
+    expect(serviceMockReturnsOptions.getOptions())
+        .andReturn(createMock(StorageOptions.class))
+        .anyTimes();
+    replay(serviceMockReturnsOptions);
+    expect(storageMock.writer(anyObject(BlobInfo.class))).andAnswer(uploadAnswer()).anyTimes();
+    path = folder.newFile().toPath();
+    Files.write(path, CONTENT);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    verify(storageMock);
+  }
+
+  private IAnswer<WriteChannel> uploadAnswer() {
+    return new IAnswer<WriteChannel>() {
+      @Override
+      public WriteChannel answer() throws Throwable {
+        FakeWriteChannel channel =
+            new FakeWriteChannel(((BlobInfo) getCurrentArguments()[0]).getName(), uploaded);
+        if (failUploads) {
+          channel.setCloseError(new StorageException(500, "Internal error"));
+        }
+        return channel;
+      }
+    };
+  }
+
+  @Test
+  public void testSmallFileUploadedDirectly() throws IOException {
+    Blob blob = new Blob(serviceMockReturnsOptions, new BlobInfo.BuilderImpl(BLOB_INFO));
+    expect(storageMock.create(eq(TARGET_INFO), aryEq(CONTENT),
+        eq(BlobTargetOption.doesNotExist()))).andReturn(blob);
+    replay(storageMock);
+    Blob result = new ParallelCompositeUpload(storageMock, BLOB_INFO, path,
+        ParallelUploadOption.partSize(CONTENT.length),
+        ParallelUploadOption.writeOptions(BlobWriteOption.doesNotExist())).run();
+    assertSame(blob, result);
+    assertTrue(uploaded.isEmpty());
+  }
+
+  @Test
+  public void testPartsComposedAndDeleted() throws IOException {
+    Capture<ComposeRequest> capturedRequest = Capture.newInstance();
+    Capture<Iterable<BlobId>> capturedDelete = Capture.newInstance();
+    Blob blob = new Blob(serviceMockReturnsOptions, new BlobInfo.BuilderImpl(BLOB_INFO));
+    expect(storageMock.compose(capture(capturedRequest))).andReturn(blob);
+    expect(storageMock.delete(capture(capturedDelete)))
+        .andReturn(ImmutableList.of(true, true, true));
+    replay(storageMock);
+    Blob result = new ParallelCompositeUpload(storageMock, BLOB_INFO, path,
+        ParallelUploadOption.partSize(4), ParallelUploadOption.parallelism(2)).run();
+    assertSame(blob, result);
+    ComposeRequest request = capturedRequest.getValue();
+    assertEquals(TARGET_INFO, request.getTarget());
+    assertTrue(request.getTargetOptions().isEmpty());
+    List<BlobId> deleted = ImmutableList.copyOf(capturedDelete.getValue());
+    assertEquals(3, request.getSourceBlobs().size());
+    assertEquals(3, deleted.size());
+    ByteArrayOutputStream composed = new ByteArrayOutputStream();
+    for (int i = 0; i < 3; i++) {
+      String partName = request.getSourceBlobs().get(i).getName();
+      assertTrue(partName.startsWith(BLOB_NAME + ".parallel-upload-"));
+      assertEquals(BlobId.of(BUCKET_NAME, partName), deleted.get(i));
+      composed.write(uploaded.get(partName));
+    }
+    assertArrayEquals(CONTENT, composed.toByteArray());
+  }
+
+  @Test
+  public void testComposeInRounds() throws IOException {
+    byte[] content = new byte[ParallelCompositeUpload.MAX_COMPOSE_SOURCES + 1];
+    Files.write(path, content);
+    final List<ComposeRequest> requests = new ArrayList<>();
+    final Blob blob = new Blob(serviceMockReturnsOptions, new BlobInfo.BuilderImpl(BLOB_INFO));
+    expect(storageMock.compose(anyObject(ComposeRequest.class)))
+        .andAnswer(new IAnswer<Blob>() {
+          @Override
+          public Blob answer() throws Throwable {
+            ComposeRequest request = (ComposeRequest) getCurrentArguments()[0];
+            synchronized (requests) {
+              requests.add(request);
+            }
+            return new Blob(serviceMockReturnsOptions,
+                new BlobInfo.BuilderImpl(request.getTarget()));
+          }
+        }).times(3);
+    expect(storageMock.delete(anyObject(Iterable.class))).andReturn(ImmutableList.<Boolean>of());
+    replay(storageMock);
+    Blob result = new ParallelCompositeUpload(storageMock, BLOB_INFO, path,
+        ParallelUploadOption.partSize(1)).run();
+    assertEquals(BLOB_INFO.getBlobId(), result.getBlobId());
+    assertEquals(content.length, uploaded.size());
+    assertEquals(3, requests.size());
+    ComposeRequest last = requests.get(2);
+    assertEquals(BLOB_NAME, last.getTarget().getName());
+    assertEquals(2, last.getSourceBlobs().size());
+  }
+
+  @Test
+  public void testFailedPartDeletesTemporaryBlobs() throws IOException {
+    Capture<Iterable<BlobId>> capturedDelete = Capture.newInstance();
+    expect(storageMock.delete(capture(capturedDelete)))
+        .andReturn(ImmutableList.of(true, true, true));
+    replay(storageMock);
+    failUploads = true;
+    try {
+      new ParallelCompositeUpload(storageMock, BLOB_INFO, path,
+          ParallelUploadOption.partSize(4)).run();
+      fail("Expected StorageException");
+    } catch (StorageException expected) {
+      assertEquals(500, expected.getCode());
+    }
+    assertEquals(3, ImmutableList.copyOf(capturedDelete.getValue()).size());
+  }
+
+  @Test
+  public void testFailedPartWaitsForRunningPartsBeforeDelete() throws IOException {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicBoolean deletedWhileRunning = new AtomicBoolean();
+    expect(storageMock.writer(anyObject(BlobInfo.class), eq(BlobWriteOption.encryptionKey(KEY))))
+        .andAnswer(new IAnswer<WriteChannel>() {
+          @Override
+          public WriteChannel answer() throws Throwable {
+            final String name = ((BlobInfo) getCurrentArguments()[0]).getName();
+            if (name.endsWith("part-0")) {
+              FakeWriteChannel channel = new FakeWriteChannel(name, uploaded);
+              channel.setCloseError(new StorageException(500, "Internal error"));
+              return channel;
+            }
+            running.incrementAndGet();
+            return new FakeWriteChannel(name, uploaded) {
+              @Override
+              public void close() {
+                try {
+                  Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                  throw new AssertionError("Running parts should not be interrupted");
+                }
+                super.close();
+                running.decrementAndGet();
+              }
+            };
+          }
+        }).times(3);
+    expect(storageMock.delete(anyObject(Iterable.class))).andAnswer(new IAnswer<List<Boolean>>() {
+      @Override
+      public List<Boolean> answer() throws Throwable {
+        deletedWhileRunning.set(running.get() > 0);
+        return ImmutableList.of(true, true, true);
+      }
+    });
+    replay(storageMock);
+    try {
+      new ParallelCompositeUpload(storageMock, BLOB_INFO, path,
+          ParallelUploadOption.partSize(4), ParallelUploadOption.parallelism(3),
+          ParallelUploadOption.writeOptions(BlobWriteOption.encryptionKey(KEY))).run();
+      fail("Expected StorageException");
+    } catch (StorageException expected) {
+      assertEquals(500, expected.getCode());
+    }
+    assertEquals(0, running.get());
+    assertFalse(deletedWhileRunning.get());
+  }
+
+  @Test
+  public void testWriteOptions() throws IOException {
+    byte[] content = new byte[ParallelCompositeUpload.MAX_COMPOSE_SOURCES + 1];
+    Files.write(path, content);
+    final List<ComposeRequest> requests = new ArrayList<>();
+    expect(storageMock.writer(anyObject(BlobInfo.class), eq(BlobWriteOption.encryptionKey(KEY))))
+        .andAnswer(uploadAnswer())
+        .times(content.length);
+    expect(storageMock.compose(anyObject(ComposeRequest.class)))
+        .andAnswer(new IAnswer<Blob>() {
+          @Override
+          public Blob answer() throws Throwable {
+            ComposeRequest request = (ComposeRequest) getCurrentArguments()[0];
+            synchronized (requests) {
+              requests.add(request);
+            }
+            return new Blob(serviceMockReturnsOptions,
+                new BlobInfo.BuilderImpl(request.getTarget()));
+          }
+        }).times(3);
+    expect(storageMock.delete(anyObject(Iterable.class))).andReturn(ImmutableList.<Boolean>of());
+    replay(storageMock);
+    new ParallelCompositeUpload(storageMock, BLOB_INFO, path,
+        ParallelUploadOption.partSize(1),
+        ParallelUploadOption.writeOptions(BlobWriteOption.encryptionKey(KEY),
+            BlobWriteOption.doesNotExist())).run();
+    assertEquals(content.length, uploaded.size());
+    for (ComposeRequest request : requests.subList(0, 2)) {
+      assertEquals(ImmutableList.of(BlobTargetOption.encryptionKey(KEY)),
+          request.getTargetOptions());
+    }
+    ComposeRequest last = requests.get(2);
+    assertEquals(BLOB_NAME, last.getTarget().getName());
+    assertEquals(
+        ImmutableList.of(BlobTargetOption.encryptionKey(KEY), BlobTargetOption.doesNotExist()),
+        last.getTargetOptions());
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Storage.BlobGetOption;
+import com.google.cloud.storage.Storage.BlobSourceOption;
+import com.google.cloud.storage.Storage.ParallelDownloadOption;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class ParallelDownloadTest {
+
+  private static final String BUCKET_NAME = "b";
+  private static final String BLOB_NAME = "n";
+  private static final BlobId BLOB_ID = BlobId.of(BUCKET_NAME, BLOB_NAME);
+  private static final byte[] CONTENT = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+  private static final String KEY = "JVzfVl8NLD9FjedFuStegjRfES5ll5zc59CIXw572OA=";
+  private static final ParallelDownloadOption[] OPTIONS =
+      {ParallelDownloadOption.rangeSize(3L), ParallelDownloadOption.parallelism(1)};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final List<Long> seeks = Collections.synchronizedList(new ArrayList<Long>());
+  private Storage storageMock;
+  private Storage serviceMockReturnsOptions;
+  private Path path;
+  private Path progressPath;
+
+  @Before
+  public void setUp() throws IOException {
+    storageMock = createMock(Storage.class);
+    serviceMockReturnsOptions = createMock(Storage.class);
+    expect(serviceMockReturnsOptions.getOptions())
+        .andReturn(createMock(StorageOptions.class))
+        .anyTimes();
+    replay(serviceMockReturnsOptions);
+    path = folder.getRoot().toPath().resolve("file");
+    progressPath = folder.getRoot().toPath().resolve("file" + ParallelDownload.PROGRESS_SUFFIX);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    verify(storageMock);
+  }
+
+  @Test
+  public void testDownload() throws IOException {
+    Blob blob = expectBlob(42L, CONTENT.length);
+    expectReads(42L, -1);
+    replay(storageMock);
+    Blob downloaded = new ParallelDownload(storageMock, BLOB_ID, path,
+        ParallelDownloadOption.rangeSize(3L), ParallelDownloadOption.parallelism(2)).run();
+    assertSame(blob, downloaded);
+    assertArrayEquals(CONTENT, Files.readAllBytes(path));
+    assertFalse(Files.exists(progressPath));
+    assertEquals(ImmutableSet.of(0L, 3L, 6L, 9L), new HashSet<>(seeks));
+  }
+
+  @Test
+  public void testDownloadEmptyBlob() throws IOException {
+    expectBlob(42L, 0);
+    replay(storageMock);
+    new ParallelDownload(storageMock, BLOB_ID, path, OPTIONS).run();
+    assertEquals(0, Files.size(path));
+    assertFalse(Files.exists(progressPath));
+  }
+
+  @Test
+  public void testDownloadBlobNotFound() throws IOException {
+    expect(storageMock.get(BLOB_ID, new BlobGetOption[0])).andReturn(null);
+    replay(storageMock);
+    try {
+      new ParallelDownload(storageMock, BLOB_ID, path, OPTIONS).run();
+      fail("Expected StorageException");
+    } catch (StorageException ex) {
+      assertEquals(404, ex.getCode());
+    }
+    assertFalse(Files.exists(path));
+  }
+
+  @Test
+  public void testResumeDownload() throws IOException {
+    failFirstDownload(42L);
+    reset(storageMock);
+    expectBlob(42L, CONTENT.length);
+    expectReads(42L, -1);
+    replay(storageMock);
+    new ParallelDownload(storageMock, BLOB_ID, path, OPTIONS).run();
+    assertArrayEquals(CONTENT, Files.readAllBytes(path));
+    assertFalse(Files.exists(progressPath));
+    // Ranges completed by the first download are not downloaded again
+    assertTrue(seeks.contains(6L));
+    assertFalse(seeks.contains(0L));
+    assertFalse(seeks.contains(3L));
+  }
+
+  @Test
+  public void testResumeDownloadNewGeneration() throws IOException {
+    failFirstDownload(42L);
+    reset(storageMock);
+    expectBlob(43L, CONTENT.length);
+    expectReads(43L, -1);
+    replay(storageMock);
+    new ParallelDownload(storageMock, BLOB_ID, path, OPTIONS).run();
+    assertArrayEquals(CONTENT, Files.readAllBytes(path));
+    assertEquals(ImmutableSet.of(0L, 3L, 6L, 9L), new HashSet<>(seeks));
+  }
+
+  @Test
+  public void testFailedRangeWaitsForRunningRanges() throws IOException {
+    expectBlob(42L, CONTENT.length);
+    expect(storageMock.reader(BlobId.of(BUCKET_NAME, BLOB_NAME, 42L)))
+        .andAnswer(new IAnswer<ReadChannel>() {
+          @Override
+          public ReadChannel answer() throws Throwable {
+            FakeReadChannel channel = new FakeReadChannel(CONTENT, seeks) {
+              private long offset;
+
+              @Override
+              public void seek(long position) {
+                offset = position;
+                super.seek(position);
+              }
+
+              @Override
+              public int read(ByteBuffer dst) {
+                if (offset > 0) {
+                  try {
+                    Thread.sleep(100);
+                  } catch (InterruptedException ex) {
+                    throw new AssertionError("Running ranges should not be interrupted");
+                  }
+                }
+                return super.read(dst);
+              }
+            };
+            channel.setReadError(0L, new StorageException(503, "Service unavailable"));
+            return channel;
+          }
+        }).anyTimes();
+    replay(storageMock);
+    try {
+      new ParallelDownload(storageMock, BLOB_ID, path, ParallelDownloadOption.rangeSize(5L),
+          ParallelDownloadOption.parallelism(2)).run();
+      fail("Expected StorageException");
+    } catch (StorageException ex) {
+      assertEquals(503, ex.getCode());
+    }
+    verify(storageMock);
+    seeks.clear();
+    reset(storageMock);
+    expectBlob(42L, CONTENT.length);
+    expectReads(42L, -1);
+    replay(storageMock);
+    new ParallelDownload(storageMock, BLOB_ID, path, ParallelDownloadOption.rangeSize(5L),
+        ParallelDownloadOption.parallelism(2)).run();
+    assertArrayEquals(CONTENT, Files.readAllBytes(path));
+    // The second range was recorded before the file was closed, so it is not downloaded again
+    assertEquals(ImmutableList.of(0L), seeks);
+  }
+
+  @Test
+  public void testSourceOptions() throws IOException {
+    BlobInfo info = BlobInfo.newBuilder(BlobId.of(BUCKET_NAME, BLOB_NAME, 42L))
+        .setSize((long) CONTENT.length)
+        .build();
+    Blob blob = new Blob(serviceMockReturnsOptions, new BlobInfo.BuilderImpl(info));
+    expect(storageMock.get(BLOB_ID, BlobGetOption.metagenerationMatch(7L))).andReturn(blob);
+    expect(storageMock.reader(BlobId.of(BUCKET_NAME, BLOB_NAME, 42L),
+        BlobSourceOption.decryptionKey(KEY), BlobSourceOption.metagenerationMatch(7L)))
+        .andAnswer(new IAnswer<ReadChannel>() {
+          @Override
+          public ReadChannel answer() throws Throwable {
+            return new FakeReadChannel(CONTENT, seeks);
+          }
+        }).times(4);
+    replay(storageMock);
+    Blob downloaded = new ParallelDownload(storageMock, BLOB_ID, path,
+        ParallelDownloadOption.rangeSize(3L),
+        ParallelDownloadOption.sourceOptions(BlobSourceOption.decryptionKey(KEY),
+            BlobSourceOption.metagenerationMatch(7L))).run();
+    assertSame(blob, downloaded);
+    assertArrayEquals(CONTENT, Files.readAllBytes(path));
+  }
+
+  private void failFirstDownload(long generation) throws IOException {
+    expectBlob(generation, CONTENT.length);
+    expectReads(generation, 6L);
+    replay(storageMock);
+    try {
+      new ParallelDownload(storageMock, BLOB_ID, path, OPTIONS).run();
+      fail("Expected StorageException");
+    } catch (StorageException ex) {
+      assertEquals(503, ex.getCode());
+    }
+    assertTrue(Files.exists(progressPath));
+    assertEquals(CONTENT.length, Files.size(path));
+    verify(storageMock);
+    seeks.clear();
+  }
+
+  private Blob expectBlob(long generation, long size) {
+    BlobInfo info = BlobInfo.newBuilder(BlobId.of(BUCKET_NAME, BLOB_NAME, generation))
+        .setSize(size)
+        .build();
+    Blob blob = new Blob(serviceMockReturnsOptions, new BlobInfo.BuilderImpl(info));
+    expect(storageMock.get(BLOB_ID, new BlobGetOption[0])).andReturn(blob);
+    return blob;
+  }
+
+  private void expectReads(long generation, final long failingOffset) {
+    expect(storageMock.reader(BlobId.of(BUCKET_NAME, BLOB_NAME, generation)))
+        .andAnswer(new IAnswer<ReadChannel>() {
+          @Override
+          public ReadChannel answer() throws Throwable {
+            FakeReadChannel channel = new FakeReadChannel(CONTENT, seeks);
+            if (failingOffset >= 0) {
+              channel.setReadError(failingOffset,
+                  new StorageException(503, "Service unavailable"));
+            }
+            return channel;
+          }
+        }).anyTimes();
+  }
+}
@@ -17,10 +17,16 @@
 package com.google.cloud.storage;
 
 import com.google.cloud.BaseSerializationTest;
+import com.google.cloud.CircuitBreaker;
+import com.google.cloud.ConcurrencyLimiter;
 import com.google.cloud.NoCredentials;
 import com.google.cloud.PageImpl;
 import com.google.cloud.ReadChannel;
+import com.google.cloud.RequestHedger;
+import com.google.cloud.ResponseCache;
 import com.google.cloud.Restorable;
+import com.google.cloud.RetryBudget;
+import com.google.cloud.RetryParams;
 import com.google.cloud.storage.Acl.Project.ProjectRole;
 import com.google.cloud.storage.spi.StorageRpc;
 import com.google.common.collect.ImmutableMap;
@@ -68,11 +74,24 @@ public class SerializationTest extends BaseSerializationTest {
         .setProjectId("p1")
         .setCredentials(NoCredentials.getInstance())
         .build();
-    StorageOptions otherOptions = options.toBuilder().setProjectId("p2").build();
+    StorageOptions otherOptions = options.toBuilder()
+        .setProjectId("p2")
+        .setBatchParallelism(8)
+        .build();
+    StorageOptions resilientOptions = options.toBuilder()
+        .setRetryParams(RetryParams.newBuilder()
+            .setRetryBudget(RetryBudget.create(0.1, 10))
+            .setCircuitBreaker(CircuitBreaker.create(5, 10_000, 30_000))
+            .setRequestHedger(RequestHedger.create(95))
+            .build())
+        .setConcurrencyLimiter(ConcurrencyLimiter.create(10, 100))
+        .setResponseCache(ResponseCache.create(100, 60_000, true))
+        .build();
     return new Serializable[]{ACL_DOMAIN, ACL_GROUP, ACL_PROJECT_, ACL_USER, ACL_RAW, ACL,
         BLOB_INFO, BLOB, BUCKET_INFO, BUCKET, ORIGIN, CORS, PAGE_RESULT, BLOB_LIST_OPTIONS,
         BLOB_SOURCE_OPTIONS, BLOB_TARGET_OPTIONS, BUCKET_LIST_OPTIONS, BUCKET_SOURCE_OPTIONS,
-        BUCKET_TARGET_OPTIONS, STORAGE_EXCEPTION, options, otherOptions};
+        BUCKET_TARGET_OPTIONS, STORAGE_EXCEPTION, options, otherOptions,
+        resilientOptions};
   }
 
   @Override
@@ -24,13 +24,16 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.api.client.googleapis.json.GoogleJsonError;
 import com.google.api.services.storage.model.StorageObject;
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.cloud.Clock;
+import com.google.cloud.GrpcServiceOptions.ExecutorFactory;
 import com.google.cloud.Page;
 import com.google.cloud.ReadChannel;
+import com.google.cloud.ResponseCache;
 import com.google.cloud.RetryParams;
 import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.Acl.Project;
@@ -54,6 +57,7 @@ import com.google.common.net.UrlEscapers;
 
 import org.easymock.Capture;
 import org.easymock.EasyMock;
+import org.easymock.IAnswer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -81,7 +85,13 @@ import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.crypto.spec.SecretKeySpec;
 
@@ -534,6 +544,166 @@ public class StorageImplTest {
     assertEquals(expectedBlob1, blob);
   }
 
+  @Test
+  public void testGetBlobCoalesced() throws Exception {
+    final CountDownLatch rpcStarted = new CountDownLatch(1);
+    final CountDownLatch rpcReleased = new CountDownLatch(1);
+    EasyMock.expect(
+        storageRpcMock.get(BlobId.of(BUCKET_NAME1, BLOB_NAME1).toPb(), EMPTY_RPC_OPTIONS))
+        .andAnswer(new IAnswer<StorageObject>() {
+          @Override
+          public StorageObject answer() throws Throwable {
+            rpcStarted.countDown();
+            rpcReleased.await();
+            return BLOB_INFO1.toPb();
+          }
+        });
+    EasyMock.replay(storageRpcMock);
+    options = options.toBuilder().setReadCoalescingEnabled(true).build();
+    initializeService();
+    final Blob[] blobs = new Blob[2];
+    Thread first = new Thread() {
+      @Override
+      public void run() {
+        blobs[0] = storage.get(BUCKET_NAME1, BLOB_NAME1);
+      }
+    };
+    Thread second = new Thread() {
+      @Override
+      public void run() {
+        blobs[1] = storage.get(BUCKET_NAME1, BLOB_NAME1);
+      }
+    };
+    first.start();
+    assertTrue(rpcStarted.await(10, TimeUnit.SECONDS));
+    second.start();
+    // the second get waits for the first one instead of sending its own request
+    while (second.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+    rpcReleased.countDown();
+    first.join();
+    second.join();
+    assertEquals(expectedBlob1, blobs[0]);
+    assertEquals(expectedBlob1, blobs[1]);
+  }
+
+  @Test
+  public void testGetBlobCached() {
+    final AtomicLong now = new AtomicLong();
+    Map<StorageRpc.Option, ?> revalidationOptions = ImmutableMap.of(
+        StorageRpc.Option.IF_GENERATION_MATCH, BLOB_INFO1.getGeneration(),
+        StorageRpc.Option.IF_METAGENERATION_NOT_MATCH, BLOB_INFO1.getMetageneration());
+    StorageObject storageObject = BlobId.of(BUCKET_NAME1, BLOB_NAME1).toPb();
+    EasyMock.expect(storageRpcMock.get(storageObject, EMPTY_RPC_OPTIONS))
+        .andReturn(BLOB_INFO1.toPb());
+    EasyMock.expect(storageRpcMock.get(storageObject, revalidationOptions))
+        .andThrow(new StorageException(304, "Not Modified"));
+    EasyMock.expect(storageRpcMock.delete(storageObject, EMPTY_RPC_OPTIONS)).andReturn(true);
+    EasyMock.expect(storageRpcMock.get(storageObject, EMPTY_RPC_OPTIONS)).andReturn(null);
+    EasyMock.replay(storageRpcMock);
+    options = options.toBuilder()
+        .setClock(new Clock() {
+          @Override
+          public long millis() {
+            return now.get();
+          }
+        })
+        .setResponseCache(ResponseCache.create(10, 1000, true))
+        .build();
+    initializeService();
+    assertEquals(expectedBlob1, storage.get(BUCKET_NAME1, BLOB_NAME1));
+    assertEquals(expectedBlob1, storage.get(BUCKET_NAME1, BLOB_NAME1));
+    // the expired response is revalidated, the server answers it is not modified
+    now.set(1000);
+    assertEquals(expectedBlob1, storage.get(BUCKET_NAME1, BLOB_NAME1));
+    assertEquals(expectedBlob1, storage.get(BUCKET_NAME1, BLOB_NAME1));
+    // deleting the blob drops its cached responses
+    assertTrue(storage.delete(BUCKET_NAME1, BLOB_NAME1));
+    assertNull(storage.get(BUCKET_NAME1, BLOB_NAME1));
+  }
+
+  @Test
+  public void testGetBlobAsync() throws Exception {
+    EasyMock.expect(
+        storageRpcMock.get(BlobId.of(BUCKET_NAME1, BLOB_NAME1).toPb(), EMPTY_RPC_OPTIONS))
+        .andReturn(BLOB_INFO1.toPb());
+    EasyMock.replay(storageRpcMock);
+    initializeService();
+    Blob blob =
+        ((AsyncStorage) storage).getAsync(BlobId.of(BUCKET_NAME1, BLOB_NAME1)).get();
+    assertEquals(expectedBlob1, blob);
+  }
+
+  @Test
+  public void testGetBlobAsyncReleasesExecutor() throws Exception {
+    final AtomicInteger acquired = new AtomicInteger();
+    final AtomicInteger released = new AtomicInteger();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    EasyMock.expect(
+        storageRpcMock.get(BlobId.of(BUCKET_NAME1, BLOB_NAME1).toPb(), EMPTY_RPC_OPTIONS))
+        .andReturn(BLOB_INFO1.toPb());
+    EasyMock.replay(storageRpcMock);
+    options = options.toBuilder()
+        .setAsyncExecutorFactory(new ExecutorFactory<ExecutorService>() {
+          @Override
+          public ExecutorService get() {
+            acquired.incrementAndGet();
+            return executor;
+          }
+
+          @Override
+          public void release(ExecutorService releasedExecutor) {
+            assertSame(executor, releasedExecutor);
+            released.incrementAndGet();
+          }
+        })
+        .build();
+    initializeService();
+    assertEquals(expectedBlob1,
+        ((AsyncStorage) storage).getAsync(BlobId.of(BUCKET_NAME1, BLOB_NAME1)).get());
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(1, acquired.get());
+    assertEquals(1, released.get());
+  }
+
+  @Test
+  public void testGetBlobAsyncCached() throws Exception {
+    final AtomicLong now = new AtomicLong();
+    Map<StorageRpc.Option, ?> revalidationOptions = ImmutableMap.of(
+        StorageRpc.Option.IF_GENERATION_MATCH, BLOB_INFO1.getGeneration(),
+        StorageRpc.Option.IF_METAGENERATION_NOT_MATCH, BLOB_INFO1.getMetageneration());
+    StorageObject storageObject = BlobId.of(BUCKET_NAME1, BLOB_NAME1).toPb();
+    EasyMock.expect(storageRpcMock.get(storageObject, EMPTY_RPC_OPTIONS))
+        .andReturn(BLOB_INFO1.toPb());
+    EasyMock.expect(storageRpcMock.get(storageObject, revalidationOptions))
+        .andThrow(new StorageException(412, "Precondition Failed"));
+    EasyMock.expect(storageRpcMock.get(storageObject, EMPTY_RPC_OPTIONS))
+        .andReturn(BLOB_INFO2.toPb());
+    EasyMock.replay(storageRpcMock);
+    options = options.toBuilder()
+        .setClock(new Clock() {
+          @Override
+          public long millis() {
+            return now.get();
+          }
+        })
+        .setResponseCache(ResponseCache.create(10, 1000, true))
+        .build();
+    initializeService();
+    AsyncStorage asyncStorage = (AsyncStorage) storage;
+    BlobId blobId = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
+    assertEquals(expectedBlob1, asyncStorage.getAsync(blobId).get());
+    // the response read asynchronously is served to both kinds of reads
+    assertEquals(expectedBlob1, asyncStorage.getAsync(blobId).get());
+    assertEquals(expectedBlob1, storage.get(blobId));
+    // the expired response is revalidated, the server answers the blob was overwritten
+    now.set(1000);
+    assertEquals(expectedBlob2, asyncStorage.getAsync(blobId).get());
+    assertEquals(expectedBlob2, storage.get(blobId));
+  }
+
   @Test
   public void testGetBlobWithOptions() {
     EasyMock.expect(
@@ -890,6 +1060,17 @@ public class StorageImplTest {
     assertTrue(storage.delete(BUCKET_NAME1, BLOB_NAME1));
   }
 
+  @Test
+  public void testDeleteBlobAsync() throws Exception {
+    EasyMock.expect(
+        storageRpcMock.delete(BlobId.of(BUCKET_NAME1, BLOB_NAME1).toPb(), EMPTY_RPC_OPTIONS))
+        .andReturn(true);
+    EasyMock.replay(storageRpcMock);
+    initializeService();
+    assertTrue(
+        ((AsyncStorage) storage).deleteAsync(BlobId.of(BUCKET_NAME1, BLOB_NAME1)).get());
+  }
+
   @Test
   public void testDeleteBlobWithOptions() {
     EasyMock.expect(
@@ -1061,6 +1242,18 @@ public class StorageImplTest {
     assertArrayEquals(BLOB_CONTENT, readBytes);
   }
 
+  @Test
+  public void testReadAllBytesAsync() throws Exception {
+    EasyMock.expect(
+        storageRpcMock.load(BlobId.of(BUCKET_NAME1, BLOB_NAME1).toPb(), EMPTY_RPC_OPTIONS))
+        .andReturn(BLOB_CONTENT);
+    EasyMock.replay(storageRpcMock);
+    initializeService();
+    byte[] readBytes =
+        ((AsyncStorage) storage).readAllBytesAsync(BlobId.of(BUCKET_NAME1, BLOB_NAME1)).get();
+    assertArrayEquals(BLOB_CONTENT, readBytes);
+  }
+
   @Test
   public void testReadAllBytesWithOptions() {
     EasyMock.expect(
@@ -1383,19 +1576,25 @@ public class StorageImplTest {
     BlobId blobId1 = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
     BlobId blobId2 = BlobId.of(BUCKET_NAME1, BLOB_NAME2);
     RpcBatch batchMock = EasyMock.createMock(RpcBatch.class);
-    Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
-    Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
     batchMock.addGet(EasyMock.eq(blobId1.toPb()), EasyMock.capture(callback1),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     batchMock.addGet(EasyMock.eq(blobId2.toPb()), EasyMock.capture(callback2),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     EasyMock.expect(storageRpcMock.createBatch()).andReturn(batchMock);
     batchMock.submit();
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+      @Override
+      public Void answer() {
+        callback1.getValue().onSuccess(BLOB_INFO1.toPb());
+        callback2.getValue().onFailure(new GoogleJsonError());
+        return null;
+      }
+    });
     EasyMock.replay(storageRpcMock, batchMock);
     initializeService();
     List<Blob> resultBlobs = storage.get(blobId1, blobId2);
-    callback1.getValue().onSuccess(BLOB_INFO1.toPb());
-    callback2.getValue().onFailure(new GoogleJsonError());
     assertEquals(2, resultBlobs.size());
     assertEquals(new Blob(storage, new BlobInfo.BuilderImpl(BLOB_INFO1)), resultBlobs.get(0));
     assertNull(resultBlobs.get(1));
@@ -1407,19 +1606,25 @@ public class StorageImplTest {
     BlobId blobId1 = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
     BlobId blobId2 = BlobId.of(BUCKET_NAME1, BLOB_NAME2);
     RpcBatch batchMock = EasyMock.createMock(RpcBatch.class);
-    Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
-    Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
     batchMock.addGet(EasyMock.eq(blobId1.toPb()), EasyMock.capture(callback1),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     batchMock.addGet(EasyMock.eq(blobId2.toPb()), EasyMock.capture(callback2),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     EasyMock.expect(storageRpcMock.createBatch()).andReturn(batchMock);
     batchMock.submit();
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+      @Override
+      public Void answer() {
+        callback1.getValue().onSuccess(BLOB_INFO1.toPb());
+        callback2.getValue().onFailure(new GoogleJsonError());
+        return null;
+      }
+    });
     EasyMock.replay(storageRpcMock, batchMock);
     initializeService();
     List<Blob> resultBlobs = storage.get(ImmutableList.of(blobId1, blobId2));
-    callback1.getValue().onSuccess(BLOB_INFO1.toPb());
-    callback2.getValue().onFailure(new GoogleJsonError());
     assertEquals(2, resultBlobs.size());
     assertEquals(new Blob(storage, new BlobInfo.BuilderImpl(BLOB_INFO1)), resultBlobs.get(0));
     assertNull(resultBlobs.get(1));
@@ -1431,19 +1636,25 @@ public class StorageImplTest {
     BlobId blobId1 = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
     BlobId blobId2 = BlobId.of(BUCKET_NAME1, BLOB_NAME2);
     RpcBatch batchMock = EasyMock.createMock(RpcBatch.class);
-    Capture<RpcBatch.Callback<Void>> callback1 = Capture.newInstance();
-    Capture<RpcBatch.Callback<Void>> callback2 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<Void>> callback1 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<Void>> callback2 = Capture.newInstance();
     batchMock.addDelete(EasyMock.eq(blobId1.toPb()), EasyMock.capture(callback1),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     batchMock.addDelete(EasyMock.eq(blobId2.toPb()), EasyMock.capture(callback2),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     EasyMock.expect(storageRpcMock.createBatch()).andReturn(batchMock);
     batchMock.submit();
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+      @Override
+      public Void answer() {
+        callback1.getValue().onSuccess(null);
+        callback2.getValue().onFailure(new GoogleJsonError());
+        return null;
+      }
+    });
     EasyMock.replay(storageRpcMock, batchMock);
     initializeService();
     List<Boolean> result = storage.delete(blobId1, blobId2);
-    callback1.getValue().onSuccess(null);
-    callback2.getValue().onFailure(new GoogleJsonError());
     assertEquals(2, result.size());
     assertTrue(result.get(0));
     assertFalse(result.get(1));
@@ -1455,19 +1666,25 @@ public class StorageImplTest {
     BlobId blobId1 = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
     BlobId blobId2 = BlobId.of(BUCKET_NAME1, BLOB_NAME2);
     RpcBatch batchMock = EasyMock.createMock(RpcBatch.class);
-    Capture<RpcBatch.Callback<Void>> callback1 = Capture.newInstance();
-    Capture<RpcBatch.Callback<Void>> callback2 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<Void>> callback1 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<Void>> callback2 = Capture.newInstance();
     batchMock.addDelete(EasyMock.eq(blobId1.toPb()), EasyMock.capture(callback1),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     batchMock.addDelete(EasyMock.eq(blobId2.toPb()), EasyMock.capture(callback2),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     EasyMock.expect(storageRpcMock.createBatch()).andReturn(batchMock);
     batchMock.submit();
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+      @Override
+      public Void answer() {
+        callback1.getValue().onSuccess(null);
+        callback2.getValue().onFailure(new GoogleJsonError());
+        return null;
+      }
+    });
     EasyMock.replay(storageRpcMock, batchMock);
     initializeService();
     List<Boolean> result = storage.delete(blobId1, blobId2);
-    callback1.getValue().onSuccess(null);
-    callback2.getValue().onFailure(new GoogleJsonError());
     assertEquals(2, result.size());
     assertTrue(result.get(0));
     assertFalse(result.get(1));
@@ -1477,19 +1694,25 @@ public class StorageImplTest {
   @Test
   public void testUpdateAllArray() {
     RpcBatch batchMock = EasyMock.createMock(RpcBatch.class);
-    Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
-    Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
     batchMock.addPatch(EasyMock.eq(BLOB_INFO1.toPb()), EasyMock.capture(callback1),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     batchMock.addPatch(EasyMock.eq(BLOB_INFO2.toPb()), EasyMock.capture(callback2),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     EasyMock.expect(storageRpcMock.createBatch()).andReturn(batchMock);
     batchMock.submit();
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+      @Override
+      public Void answer() {
+        callback1.getValue().onSuccess(BLOB_INFO1.toPb());
+        callback2.getValue().onFailure(new GoogleJsonError());
+        return null;
+      }
+    });
     EasyMock.replay(storageRpcMock, batchMock);
     initializeService();
     List<Blob> resultBlobs = storage.update(BLOB_INFO1, BLOB_INFO2);
-    callback1.getValue().onSuccess(BLOB_INFO1.toPb());
-    callback2.getValue().onFailure(new GoogleJsonError());
     assertEquals(2, resultBlobs.size());
     assertEquals(new Blob(storage, new BlobInfo.BuilderImpl(BLOB_INFO1)), resultBlobs.get(0));
     assertNull(resultBlobs.get(1));
@@ -1499,19 +1722,25 @@ public class StorageImplTest {
   @Test
   public void testUpdateAllIterable() {
     RpcBatch batchMock = EasyMock.createMock(RpcBatch.class);
-    Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
-    Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback1 = Capture.newInstance();
+    final Capture<RpcBatch.Callback<StorageObject>> callback2 = Capture.newInstance();
     batchMock.addPatch(EasyMock.eq(BLOB_INFO1.toPb()), EasyMock.capture(callback1),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     batchMock.addPatch(EasyMock.eq(BLOB_INFO2.toPb()), EasyMock.capture(callback2),
         EasyMock.eq(ImmutableMap.<StorageRpc.Option, Object>of()));
     EasyMock.expect(storageRpcMock.createBatch()).andReturn(batchMock);
     batchMock.submit();
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+      @Override
+      public Void answer() {
+        callback1.getValue().onSuccess(BLOB_INFO1.toPb());
+        callback2.getValue().onFailure(new GoogleJsonError());
+        return null;
+      }
+    });
     EasyMock.replay(storageRpcMock, batchMock);
     initializeService();
     List<Blob> resultBlobs = storage.update(ImmutableList.of(BLOB_INFO1, BLOB_INFO2));
-    callback1.getValue().onSuccess(BLOB_INFO1.toPb());
-    callback2.getValue().onFailure(new GoogleJsonError());
     assertEquals(2, resultBlobs.size());
     assertEquals(new Blob(storage, new BlobInfo.BuilderImpl(BLOB_INFO1)), resultBlobs.get(0));
     assertNull(resultBlobs.get(1));
@@ -1724,6 +1953,40 @@ public class StorageImplTest {
     assertEquals(expectedBlob1, readBlob);
   }
 
+  @Test
+  public void testRetryableExceptionAsync() throws Exception {
+    BlobId blob = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
+    EasyMock.expect(storageRpcMock.get(blob.toPb(), EMPTY_RPC_OPTIONS))
+        .andThrow(new StorageException(500, "internalError"))
+        .andReturn(BLOB_INFO1.toPb());
+    EasyMock.replay(storageRpcMock);
+    storage =
+        options.toBuilder().setRetryParams(RetryParams.getDefaultInstance()).build().getService();
+    initializeServiceDependentObjects();
+    Blob readBlob = ((AsyncStorage) storage).getAsync(blob).get();
+    assertEquals(expectedBlob1, readBlob);
+  }
+
+  @Test
+  public void testNonRetryableExceptionAsync() throws Exception {
+    BlobId blob = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
+    String exceptionMessage = "Not Implemented";
+    EasyMock.expect(storageRpcMock.get(blob.toPb(), EMPTY_RPC_OPTIONS))
+        .andThrow(new StorageException(501, exceptionMessage));
+    EasyMock.replay(storageRpcMock);
+    storage =
+        options.toBuilder().setRetryParams(RetryParams.getDefaultInstance()).build().getService();
+    initializeServiceDependentObjects();
+    try {
+      ((AsyncStorage) storage).getAsync(blob).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof StorageException);
+      assertEquals(501, ((StorageException) ex.getCause()).getCode());
+      assertEquals(exceptionMessage, ex.getCause().getMessage());
+    }
+  }
+
   @Test
   public void testNonRetryableException() {
     BlobId blob = BlobId.of(BUCKET_NAME1, BLOB_NAME1);
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.storage.transfer;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.PageImpl;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.FakeReadChannel;
+import com.google.cloud.storage.FakeWriteChannel;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.Storage.BlobListOption;
+import com.google.cloud.storage.StorageException;
+import com.google.common.collect.ImmutableList;
+
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class TransferManagerTest {
+
+  private static final String BUCKET_NAME = "b";
+  private static final byte[] SMALL_CONTENT = {0, 1, 2, 3};
+  private static final byte[] LARGE_CONTENT = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Map<String, byte[]> uploaded = new ConcurrentHashMap<>();
+  private Storage storageMock;
+  private TransferManager transferManager;
+
+  @Before
+  public void setUp() {
+    storageMock = createMock(Storage.class);
+    transferManager = TransferManager.newBuilder(storageMock)
+        .setParallelism(2)
+        .setResumableUploadThreshold(SMALL_CONTENT.length)
+        .setBufferSize(3)
+        .build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    transferManager.close();
+    assertTrue(transferManager.awaitTermination(1, TimeUnit.SECONDS));
+    verify(storageMock);
+  }
+
+  @Test
+  public void testUploadDirectory() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    Files.createDirectories(directory.resolve("a"));
+    Files.write(directory.resolve("a").resolve("small"), SMALL_CONTENT);
+    Files.write(directory.resolve("large"), LARGE_CONTENT);
+    expect(storageMock.create(eq(BlobInfo.newBuilder(BUCKET_NAME, "dir/a/small").build()),
+        anyObject(byte[].class)))
+        .andAnswer(new IAnswer<Blob>() {
+          @Override
+          public Blob answer() throws Throwable {
+            uploaded.put("dir/a/small", (byte[]) getCurrentArguments()[1]);
+            return null;
+          }
+        });
+    expect(storageMock.writer(BlobInfo.newBuilder(BUCKET_NAME, "dir/large").build()))
+        .andReturn(new FakeWriteChannel("dir/large", uploaded));
+    replay(storageMock);
+    Transfer transfer = transferManager.uploadDirectory(directory, BUCKET_NAME, "dir/");
+    List<TransferResult> results = transfer.getResults();
+    assertEquals(2, results.size());
+    for (TransferResult result : results) {
+      assertTrue(result.isSuccessful());
+    }
+    assertTrue(transfer.isDone());
+    assertEquals(2, transfer.getTotalCount());
+    assertEquals(2, transfer.getCompletedCount());
+    assertEquals(0, transfer.getFailedCount());
+    assertEquals(SMALL_CONTENT.length + LARGE_CONTENT.length, transfer.getTotalBytes());
+    assertEquals(SMALL_CONTENT.length + LARGE_CONTENT.length, transfer.getBytesTransferred());
+    assertArrayEquals(SMALL_CONTENT, uploaded.get("dir/a/small"));
+    assertArrayEquals(LARGE_CONTENT, uploaded.get("dir/large"));
+  }
+
+  @Test
+  public void testResumableUploadStreamsThroughBuffer() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    Files.write(directory.resolve("large"), LARGE_CONTENT);
+    final List<Integer> writes = new ArrayList<>();
+    expect(storageMock.writer(BlobInfo.newBuilder(BUCKET_NAME, "large").build()))
+        .andReturn(new FakeWriteChannel("large", uploaded) {
+          @Override
+          public int write(ByteBuffer src) {
+            writes.add(src.remaining());
+            return super.write(src);
+          }
+        });
+    replay(storageMock);
+    Transfer transfer = transferManager.uploadDirectory(directory, BUCKET_NAME, "");
+    assertTrue(transfer.getResults().get(0).isSuccessful());
+    assertArrayEquals(LARGE_CONTENT, uploaded.get("large"));
+    // The buffer size is honoured even though it is smaller than the resumable upload threshold
+    assertEquals(ImmutableList.of(3, 3, 3, 1), writes);
+  }
+
+  @Test
+  public void testUploadFailure() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    Files.write(directory.resolve("small"), SMALL_CONTENT);
+    expect(storageMock.create(eq(BlobInfo.newBuilder(BUCKET_NAME, "small").build()),
+        anyObject(byte[].class)))
+        .andThrow(new StorageException(500, "Internal error"));
+    replay(storageMock);
+    Transfer transfer = transferManager.uploadDirectory(directory, BUCKET_NAME, "");
+    List<TransferResult> results = transfer.getResults();
+    assertEquals(1, results.size());
+    assertFalse(results.get(0).isSuccessful());
+    assertEquals(500, ((StorageException) results.get(0).getError()).getCode());
+    assertEquals(1, transfer.getFailedCount());
+    assertTrue(transfer.isDone());
+  }
+
+  @Test
+  public void testDownloadDirectory() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    BlobId smallId = BlobId.of(BUCKET_NAME, "dir/a/small", 1L);
+    BlobId largeId = BlobId.of(BUCKET_NAME, "dir/large", 2L);
+    Blob placeholder = blobMock(BlobId.of(BUCKET_NAME, "dir/a/", 3L), 0L);
+    Blob small = blobMock(smallId, (long) SMALL_CONTENT.length);
+    Blob large = blobMock(largeId, (long) LARGE_CONTENT.length);
+    expect(storageMock.list(BUCKET_NAME, BlobListOption.prefix("dir/")))
+        .andReturn(new PageImpl<>(null, null, ImmutableList.of(placeholder, small, large)));
+    List<Long> seeks = new ArrayList<>();
+    expect(storageMock.reader(smallId)).andReturn(new FakeReadChannel(SMALL_CONTENT, seeks));
+    expect(storageMock.reader(largeId)).andReturn(new FakeReadChannel(LARGE_CONTENT, seeks));
+    replay(storageMock, placeholder, small, large);
+    Transfer transfer = transferManager.downloadDirectory(BUCKET_NAME, "dir/", directory);
+    List<TransferResult> results = transfer.getResults();
+    assertEquals(2, results.size());
+    assertTrue(results.get(0).isSuccessful());
+    assertTrue(results.get(1).isSuccessful());
+    assertEquals(SMALL_CONTENT.length + LARGE_CONTENT.length, transfer.getBytesTransferred());
+    assertArrayEquals(SMALL_CONTENT,
+        Files.readAllBytes(directory.resolve("a").resolve("small")));
+    assertArrayEquals(LARGE_CONTENT, Files.readAllBytes(directory.resolve("large")));
+  }
+
+  @Test
+  public void testDownloadOutsideDirectory() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    Blob blob = blobMock(BlobId.of(BUCKET_NAME, "dir/../../escaped", 1L), 0L);
+    expect(storageMock.list(BUCKET_NAME, BlobListOption.prefix("dir/")))
+        .andReturn(new PageImpl<>(null, null, ImmutableList.of(blob)));
+    replay(storageMock, blob);
+    Transfer transfer = transferManager.downloadDirectory(BUCKET_NAME, "dir/", directory);
+    List<TransferResult> results = transfer.getResults();
+    assertEquals(1, results.size());
+    assertTrue(results.get(0).getError() instanceof IOException);
+  }
+
+  private static Blob blobMock(BlobId blobId, Long size) {
+    Blob blob = createMock(Blob.class);
+    expect(blob.getName()).andReturn(blobId.getName()).anyTimes();
+    expect(blob.getBlobId()).andReturn(blobId).anyTimes();
+    expect(blob.getSize()).andReturn(size).anyTimes();
+    return blob;
+  }
+}
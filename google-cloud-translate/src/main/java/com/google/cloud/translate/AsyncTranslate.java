@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.translate;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+/**
+ * A {@link Translate} service that can also translate texts without blocking the caller. The
+ * service returned by {@link TranslateOptions#getService()} implements this interface.
+ */
+public interface AsyncTranslate extends Translate {
+
+  /**
+   * Sends a request translating the provided texts without blocking the caller. The request and
+   * its retries run on a shared executor.
+   *
+   * <p>Example of translating some texts asynchronously.
+   * <pre> {@code
+   * List<String> texts = new LinkedList<>();
+   * texts.add("Hello, World!");
+   * texts.add("World");
+   * ListenableFuture<List<Translation>> future = translate.translateAsync(texts);
+   * // do other work
+   * List<Translation> translations = future.get();
+   * }</pre>
+   *
+   * @param texts the texts to translate
+   * @return a future that yields the translations, in the order of the provided texts, and fails
+   *     with a {@link TranslateException} upon failure
+   */
+  ListenableFuture<List<Translation>> translateAsync(List<String> texts,
+      TranslateOption... options);
+}
@@ -17,6 +17,7 @@
 package com.google.cloud.translate;
 
 import static com.google.cloud.RetryHelper.runWithRetries;
+import static com.google.cloud.RetryHelper.runWithRetriesAsync;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -29,6 +30,8 @@ import com.google.cloud.translate.spi.TranslateRpc;
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,7 +40,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
-final class TranslateImpl extends BaseService<TranslateOptions> implements Translate {
+final class TranslateImpl extends BaseService<TranslateOptions> implements AsyncTranslate {
+
+  private static final Function<RetryHelperException, RuntimeException> EXCEPTION_TRANSLATOR =
+      new Function<RetryHelperException, RuntimeException>() {
+        @Override
+        public RuntimeException apply(RetryHelperException exception) {
+          return TranslateException.translateAndThrow(exception);
+        }
+      };
 
   private final TranslateRpc translateRpc;
 
@@ -119,6 +130,26 @@ final class TranslateImpl extends BaseService<TranslateOptions> implements Trans
     }
   }
 
+  @Override
+  public ListenableFuture<List<Translation>> translateAsync(final List<String> texts,
+      final TranslateOption... options) {
+    ListenableFuture<List<TranslationsResource>> future =
+        runWithRetriesAsync(new Callable<List<TranslationsResource>>() {
+          @Override
+          public List<TranslationsResource> call() {
+            return translateRpc.translate(texts, optionMap(options));
+          }
+        }, getOptions().getRetryParams(), EXCEPTION_HANDLER, getScheduler(), getAsyncExecutor(),
+            getOptions().getClock());
+    return Futures.transform(translateFailure(future, EXCEPTION_TRANSLATOR),
+        new Function<List<TranslationsResource>, List<Translation>>() {
+          @Override
+          public List<Translation> apply(List<TranslationsResource> translationsPb) {
+            return Lists.transform(translationsPb, Translation.FROM_PB_FUNCTION);
+          }
+        });
+  }
+
   @Override
   public Translation translate(String text, TranslateOption... options) {
     return translate(Collections.singletonList(text), options).get(0);
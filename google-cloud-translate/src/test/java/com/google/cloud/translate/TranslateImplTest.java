@@ -18,6 +18,8 @@ package com.google.cloud.translate;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.api.services.translate.model.DetectionsResourceItems;
 import com.google.api.services.translate.model.LanguagesResource;
@@ -39,6 +41,7 @@ import org.junit.rules.ExpectedException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class TranslateImplTest {
 
@@ -302,6 +305,36 @@ public class TranslateImplTest {
     assertEquals(ImmutableList.of(TRANSLATION1, TRANSLATION2), translate.translate(texts));
   }
 
+  @Test
+  public void testTranslateAsync() throws Exception {
+    String text1 = "¡Hola Mundo!";
+    String text2 = "Hallo Welt!";
+    List<String> texts = ImmutableList.of(text1, text2);
+    EasyMock.expect(translateRpcMock.translate(texts, EMPTY_RPC_OPTIONS))
+        .andReturn(ImmutableList.of(TRANSLATION1_PB, TRANSLATION2_PB));
+    EasyMock.replay(translateRpcMock);
+    initializeService();
+    assertEquals(ImmutableList.of(TRANSLATION1, TRANSLATION2),
+        ((AsyncTranslate) translate).translateAsync(texts).get());
+  }
+
+  @Test
+  public void testTranslateAsyncFailure() throws Exception {
+    List<String> texts = ImmutableList.of("Hallo Welt!");
+    EasyMock.expect(translateRpcMock.translate(texts, EMPTY_RPC_OPTIONS))
+        .andThrow(new TranslateException(501, "Not Implemented"));
+    EasyMock.replay(translateRpcMock);
+    translate =
+        options.toBuilder().setRetryParams(RetryParams.getDefaultInstance()).build().getService();
+    try {
+      ((AsyncTranslate) translate).translateAsync(texts).get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof TranslateException);
+      assertEquals(501, ((TranslateException) ex.getCause()).getCode());
+    }
+  }
+
   @Test
   public void testTranslateListWithOptions() {
     String text = "Hallo Welt!";